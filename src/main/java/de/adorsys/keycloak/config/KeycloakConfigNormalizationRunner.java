@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import de.adorsys.keycloak.config.properties.NormalizationConfigProperties;
 import de.adorsys.keycloak.config.properties.NormalizationKeycloakConfigProperties;
+import de.adorsys.keycloak.config.provider.BinaryFormat;
 import de.adorsys.keycloak.config.provider.KeycloakExportProvider;
 import de.adorsys.keycloak.config.service.normalize.RealmNormalizationService;
 import org.slf4j.Logger;
@@ -40,8 +41,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-
-import static de.adorsys.keycloak.config.properties.NormalizationConfigProperties.OutputFormat.YAML;
+import java.util.Locale;
 
 @Component
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "NORMALIZE")
@@ -85,19 +85,18 @@ public class KeycloakConfigNormalizationRunner implements CommandLineRunner, Exi
                 return;
             }
 
+            var outputFormat = normalizationConfigProperties.getOutputFormat();
+            var outputMapper = getOutputMapper(outputFormat);
+            var suffix = outputFormat.name().toLowerCase(Locale.ROOT);
+
             for (var exportLocations : exportProvider.readFromLocations().values()) {
                 for (var export : exportLocations.entrySet()) {
                     logger.info("Normalizing file '{}'", export.getKey());
                     for (var realm : export.getValue()) {
                         var normalizedRealm = normalizationService.normalizeRealm(realm);
-                        var suffix = normalizationConfigProperties.getOutputFormat() == YAML ? "yaml" : "json";
                         var outputFile = outputLocation.resolve(String.format("%s.%s", normalizedRealm.getRealm(), suffix));
                         try (var os = new FileOutputStream(outputFile.toFile())) {
-                            if (normalizationConfigProperties.getOutputFormat() == YAML) {
-                                yamlMapper.writeValue(os, normalizedRealm);
-                            } else {
-                                objectMapper.writeValue(os, normalizedRealm);
-                            }
+                            outputMapper.writeValue(os, normalizedRealm);
                         }
                     }
                 }
@@ -119,6 +118,16 @@ public class KeycloakConfigNormalizationRunner implements CommandLineRunner, Exi
         }
     }
 
+    private ObjectMapper getOutputMapper(NormalizationConfigProperties.OutputFormat outputFormat) {
+        return switch (outputFormat) {
+            case YAML -> yamlMapper;
+            case JSON -> objectMapper;
+            // binary output keeps the serialization settings of the JSON output
+            case SMILE -> objectMapper.copyWith(BinaryFormat.SMILE.getFactory().copy());
+            case CBOR -> objectMapper.copyWith(BinaryFormat.CBOR.getFactory().copy());
+        };
+    }
+
     @Override
     public int getExitCode() {
         return exitCode;
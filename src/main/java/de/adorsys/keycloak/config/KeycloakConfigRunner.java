@@ -24,8 +24,10 @@ import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.KeycloakConfigProperties;
+import de.adorsys.keycloak.config.provider.ChecksumGate;
 import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
 import de.adorsys.keycloak.config.service.RealmImportService;
+import de.adorsys.keycloak.config.service.checksum.ChecksumService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +58,7 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     private final KeycloakImportProvider keycloakImportProvider;
     private final RealmImportService realmImportService;
     private final ImportConfigProperties importConfigProperties;
+    private final ChecksumService checksumService;
 
     private int exitCode = 0;
 
@@ -63,10 +66,12 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     public KeycloakConfigRunner(
             KeycloakImportProvider keycloakImportProvider,
             RealmImportService realmImportService,
-            ImportConfigProperties importConfigProperties) {
+            ImportConfigProperties importConfigProperties,
+            ChecksumService checksumService) {
         this.keycloakImportProvider = keycloakImportProvider;
         this.realmImportService = realmImportService;
         this.importConfigProperties = importConfigProperties;
+        this.checksumService = checksumService;
     }
 
     @Override
@@ -76,9 +81,10 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
 
     @Override
     public void run(String... args) {
+        KeycloakImport keycloakImport = null;
         try {
             Collection<String> importLocations = importConfigProperties.getFiles().getLocations();
-            KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(importLocations);
+            keycloakImport = keycloakImportProvider.readFromLocations(importLocations, getChecksumGate());
 
             Map<String, Map<String, List<RealmImport>>> realmImports = keycloakImport.getRealmImports();
 
@@ -109,9 +115,33 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
                 throw e;
             }
         } finally {
+            if (keycloakImport != null) {
+                deleteSpooledUsers(keycloakImport);
+            }
+
             long totalTime = System.currentTimeMillis() - START_TIME;
             String formattedTime = new SimpleDateFormat("mm:ss.SSS").format(new Date(totalTime));
             logger.info("keycloak-config-cli ran in {}.", formattedTime);
         }
     }
+
+    private void deleteSpooledUsers(KeycloakImport keycloakImport) {
+        for (Map<String, List<RealmImport>> realmImportLocations : keycloakImport.getRealmImports().values()) {
+            for (List<RealmImport> realmImportParts : realmImportLocations.values()) {
+                for (RealmImport realmImportPart : realmImportParts) {
+                    if (realmImportPart.getSpooledUsers() != null) {
+                        realmImportPart.getSpooledUsers().delete();
+                    }
+                }
+            }
+        }
+    }
+
+    private ChecksumGate getChecksumGate() {
+        if (!importConfigProperties.getCache().isEnabled() || !importConfigProperties.getCache().isPreParseCheck()) {
+            return null;
+        }
+
+        return checksumService::isUnchanged;
+    }
 }
@@ -86,6 +86,8 @@ public class UsedAuthenticationFlowWorkaroundFactory {
         private String dockerAuthenticationFlow;
         private String registrationFlow;
         private String resetCredentialsFlow;
+        private boolean temporaryFlowExists;
+        private String temporaryClientFlowId;
 
         private UsedAuthenticationFlowWorkaround(RealmImport realmImport) {
             this.realmImport = realmImport;
@@ -94,14 +96,22 @@ public class UsedAuthenticationFlowWorkaroundFactory {
         public void disableTopLevelFlowIfNeeded(String topLevelFlowAlias) {
             RealmRepresentation existingRealm = realmRepository.get(realmImport.getRealm());
 
-            disableBrowserFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableDirectGrantFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableClientAuthenticationFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableDockerAuthenticationFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableRegistrationFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableResetCredentialsFlowIfNeeded(topLevelFlowAlias, existingRealm);
-            disableFirstBrokerLoginFlowsIfNeeded(topLevelFlowAlias, existingRealm);
-            disablePostBrokerLoginFlowsIfNeeded(topLevelFlowAlias, existingRealm);
+            boolean realmBindingsChanged = false;
+            realmBindingsChanged |= disableBrowserFlowIfNeeded(topLevelFlowAlias, existingRealm);
+            realmBindingsChanged |= disableDirectGrantFlowIfNeeded(topLevelFlowAlias, existingRealm);
+            realmBindingsChanged |= disableClientAuthenticationFlowIfNeeded(topLevelFlowAlias, existingRealm);
+            realmBindingsChanged |= disableDockerAuthenticationFlowIfNeeded(topLevelFlowAlias, existingRealm);
+            realmBindingsChanged |= disableRegistrationFlowIfNeeded(topLevelFlowAlias, existingRealm);
+            realmBindingsChanged |= disableResetCredentialsFlowIfNeeded(topLevelFlowAlias, existingRealm);
+
+            // all realm bindings are swapped with a single update
+            if (realmBindingsChanged) {
+                realmRepository.update(existingRealm);
+            }
+
+            List<IdentityProviderRepresentation> identityProviders = identityProviderRepository.getAll(realmImport.getRealm());
+            disableFirstBrokerLoginFlowsIfNeeded(topLevelFlowAlias, identityProviders);
+            disablePostBrokerLoginFlowsIfNeeded(topLevelFlowAlias, identityProviders);
         }
 
         /**
@@ -161,75 +171,91 @@ public class UsedAuthenticationFlowWorkaroundFactory {
                 clientRepository.update(realmImport.getRealm(), client);
             }
 
-            if (removeTemporaryFlow) {
-                searchForTemporaryCreatedClientFlow().ifPresent(flow -> {
-                    authenticationFlowRepository.delete(realmImport.getRealm(), flow.getId());
-                });
+            if (removeTemporaryFlow && temporaryClientFlowId != null) {
+                authenticationFlowRepository.delete(realmImport.getRealm(), temporaryClientFlowId);
+                temporaryClientFlowId = null;
             }
         }
 
-        private void disableBrowserFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableBrowserFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getBrowserFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable browser-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableBrowserFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableDirectGrantFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableDirectGrantFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getDirectGrantFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable direct-grant-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableDirectGrantFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableClientAuthenticationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableClientAuthenticationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getClientAuthenticationFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable client-authentication-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableClientAuthenticationFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableDockerAuthenticationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableDockerAuthenticationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getDockerAuthenticationFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable docker-authentication-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableDockerAuthenticationFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableRegistrationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableRegistrationFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getRegistrationFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable registration-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableRegistrationFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableResetCredentialsFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
+        private boolean disableResetCredentialsFlowIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
             if (Objects.equals(existingRealm.getResetCredentialsFlow(), topLevelFlowAlias)) {
                 logger.debug(
                         "Temporary disable reset-credentials-flow in realm '{}' which is '{}'",
                         realmImport.getRealm(), topLevelFlowAlias
                 );
                 disableResetCredentialsFlow(existingRealm);
+                return true;
             }
+
+            return false;
         }
 
-        private void disableFirstBrokerLoginFlowsIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
-            List<IdentityProviderRepresentation> identityProviders = identityProviderRepository.getAll(existingRealm.getRealm());
+        private void disableFirstBrokerLoginFlowsIfNeeded(String topLevelFlowAlias, List<IdentityProviderRepresentation> identityProviders) {
             if (identityProviders != null) {
                 for (IdentityProviderRepresentation identityProvider : identityProviders) {
                     if (Objects.equals(identityProvider.getFirstBrokerLoginFlowAlias(), topLevelFlowAlias)) {
@@ -239,14 +265,13 @@ public class UsedAuthenticationFlowWorkaroundFactory {
                                 identityProvider.getAlias(), realmImport.getRealm(), topLevelFlowAlias
                         );
 
-                        disableFirstBrokerLoginFlow(existingRealm.getRealm(), identityProvider);
+                        disableFirstBrokerLoginFlow(realmImport.getRealm(), identityProvider);
                     }
                 }
             }
         }
 
-        private void disablePostBrokerLoginFlowsIfNeeded(String topLevelFlowAlias, RealmRepresentation existingRealm) {
-            List<IdentityProviderRepresentation> identityProviders = identityProviderRepository.getAll(existingRealm.getRealm());
+        private void disablePostBrokerLoginFlowsIfNeeded(String topLevelFlowAlias, List<IdentityProviderRepresentation> identityProviders) {
             if (identityProviders != null) {
                 for (IdentityProviderRepresentation identityProvider : identityProviders) {
                     if (Objects.equals(identityProvider.getPostBrokerLoginFlowAlias(), topLevelFlowAlias)) {
@@ -256,7 +281,7 @@ public class UsedAuthenticationFlowWorkaroundFactory {
                                 identityProvider.getAlias(), realmImport.getRealm(), topLevelFlowAlias
                         );
 
-                        disablePostBrokerLoginFlow(existingRealm.getRealm(), identityProvider);
+                        disablePostBrokerLoginFlow(realmImport.getRealm(), identityProvider);
                     }
                 }
             }
@@ -268,7 +293,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             browserFlow = existingRealm.getBrowserFlow();
 
             existingRealm.setBrowserFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableDirectGrantFlow(RealmRepresentation existingRealm) {
@@ -277,7 +301,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             directGrantFlow = existingRealm.getDirectGrantFlow();
 
             existingRealm.setDirectGrantFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableClientAuthenticationFlow(RealmRepresentation existingRealm) {
@@ -286,7 +309,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             clientAuthenticationFlow = existingRealm.getClientAuthenticationFlow();
 
             existingRealm.setClientAuthenticationFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableDockerAuthenticationFlow(RealmRepresentation existingRealm) {
@@ -295,7 +317,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             dockerAuthenticationFlow = existingRealm.getDockerAuthenticationFlow();
 
             existingRealm.setDockerAuthenticationFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableRegistrationFlow(RealmRepresentation existingRealm) {
@@ -304,7 +325,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             registrationFlow = existingRealm.getRegistrationFlow();
 
             existingRealm.setRegistrationFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableResetCredentialsFlow(RealmRepresentation existingRealm) {
@@ -313,7 +333,6 @@ public class UsedAuthenticationFlowWorkaroundFactory {
             resetCredentialsFlow = existingRealm.getResetCredentialsFlow();
 
             existingRealm.setResetCredentialsFlow(otherFlowAlias);
-            realmRepository.update(existingRealm);
         }
 
         private void disableFirstBrokerLoginFlow(String realmName, IdentityProviderRepresentation identityProvider) {
@@ -333,25 +352,18 @@ public class UsedAuthenticationFlowWorkaroundFactory {
         }
 
         private String searchTemporaryCreatedTopLevelFlowForReplacement() {
-            AuthenticationFlowRepresentation otherFlow;
-
-            Optional<AuthenticationFlowRepresentation> maybeTemporaryCreatedFlow = searchForTemporaryCreatedFlow();
-
-            if (maybeTemporaryCreatedFlow.isPresent()) {
-                otherFlow = maybeTemporaryCreatedFlow.get();
-            } else {
+            if (!temporaryFlowExists && searchForTemporaryCreatedFlow().isEmpty()) {
                 logger.debug(
                         "Create top-level-flow '{}' in realm '{}' to be used temporarily",
                         realmImport.getRealm(), TEMPORARY_CREATED_AUTH_FLOW
                 );
 
-                AuthenticationFlowRepresentation temporaryCreatedFlow = setupTemporaryCreatedFlow();
-                authenticationFlowRepository.createTopLevel(realmImport.getRealm(), temporaryCreatedFlow);
-
-                otherFlow = temporaryCreatedFlow;
+                authenticationFlowRepository.createTopLevel(realmImport.getRealm(), setupTemporaryCreatedFlow());
             }
 
-            return otherFlow.getAlias();
+            temporaryFlowExists = true;
+
+            return TEMPORARY_CREATED_AUTH_FLOW;
         }
 
         private Optional<AuthenticationFlowRepresentation> searchForTemporaryCreatedFlow() {
@@ -554,15 +566,15 @@ public class UsedAuthenticationFlowWorkaroundFactory {
         }
 
         private String createTemporaryClientFlow(AuthenticationFlowRepresentation patchedAuthenticationFlow) {
-            Optional<AuthenticationFlowRepresentation> authenticationFlowRepresentation = searchForTemporaryCreatedClientFlow();
-            if (authenticationFlowRepresentation.isPresent()) {
-                return authenticationFlowRepresentation.get().getId();
+            if (temporaryClientFlowId == null) {
+                temporaryClientFlowId = searchForTemporaryCreatedClientFlow()
+                        .map(AuthenticationFlowRepresentation::getId)
+                        .orElseGet(() -> authenticationFlowRepository.createTopLevel(
+                                realmImport.getRealm(), setupTemporaryClientFlow(patchedAuthenticationFlow)
+                        ));
             }
 
-            authenticationFlowRepository.createTopLevel(realmImport.getRealm(), setupTemporaryClientFlow(patchedAuthenticationFlow));
-
-            return searchForTemporaryCreatedClientFlow().orElseThrow(
-                () -> new RuntimeException("Unable to create temporary client authorization flow")).getId();
+            return temporaryClientFlowId;
         }
     }
 }
@@ -23,11 +23,26 @@ package de.adorsys.keycloak.config.model;
 import org.apache.commons.lang3.tuple.MutablePair;
 
 public class ImportResource extends MutablePair<String, String> {
+    private final byte[] binaryValue;
+
     public ImportResource(String key, String value) {
         super(key, value);
+        this.binaryValue = null;
+    }
+
+    /**
+     * A resource in a binary format, the text value is empty.
+     */
+    public ImportResource(String key, byte[] binaryValue) {
+        super(key, "");
+        this.binaryValue = binaryValue;
     }
 
     public String getFilename() {
         return getKey();
     }
+
+    public byte[] getBinaryValue() {
+        return binaryValue;
+    }
 }
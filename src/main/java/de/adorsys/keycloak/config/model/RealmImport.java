@@ -21,10 +21,12 @@
 package de.adorsys.keycloak.config.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
 import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
@@ -53,6 +55,8 @@ public class RealmImport extends RealmRepresentation {
 
     private List<Map<String, Object>> organizationsRaw;
 
+    private SpooledList<UserRepresentation> spooledUsers;
+
     @Override
     @SuppressWarnings("java:S1168")
     public List<AuthenticationFlowRepresentation> getAuthenticationFlows() {
@@ -126,6 +130,27 @@ public class RealmImport extends RealmRepresentation {
         return organizationsRaw;
     }
 
+    // write only, cloning the realm settings must not read spooled users
+    @Override
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    public List<UserRepresentation> getUsers() {
+        if (spooledUsers != null) {
+            return spooledUsers.readAll();
+        }
+
+        return super.getUsers();
+    }
+
+    @JsonIgnore
+    public SpooledList<UserRepresentation> getSpooledUsers() {
+        return spooledUsers;
+    }
+
+    @JsonIgnore
+    public void setSpooledUsers(SpooledList<UserRepresentation> spooledUsers) {
+        this.spooledUsers = spooledUsers;
+    }
+
     public List<WorkflowRepresentation> getWorkflows() {
         return workflows;
     }
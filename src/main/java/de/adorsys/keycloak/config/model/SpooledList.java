@@ -0,0 +1,174 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.model;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import de.adorsys.keycloak.config.exception.InvalidImportException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A large section of an import file which is kept in a temporary file instead of the heap. The items are validated
+ * when they are spooled and deserialized chunk by chunk when they are consumed.
+ */
+public class SpooledList<T> {
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final String description;
+    private final Path file;
+    private final int size;
+
+    private SpooledList(ObjectMapper objectMapper, Class<T> type, String description, Path file, int size) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.description = description;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * Writes the items to a temporary file. Each item is bound to the type before it is written, so invalid items
+     * are reported while spooling instead of when they are consumed.
+     */
+    public static <T> SpooledList<T> spool(ObjectMapper objectMapper, Class<T> type, String description, List<?> items) {
+        Path file;
+        try {
+            file = Files.createTempFile("keycloak-config-cli-", ".json");
+            file.toFile().deleteOnExit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spool " + description + ": " + e.getMessage(), e);
+        }
+
+        SpooledList<T> spooledList = new SpooledList<>(objectMapper, type, description, file, items.size());
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(file.toFile())) {
+            for (Object item : items) {
+                objectMapper.convertValue(item, type);
+                writer.write(item);
+            }
+        } catch (IOException e) {
+            spooledList.delete();
+            throw new UncheckedIOException("Unable to spool " + description + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            spooledList.delete();
+            throw e;
+        }
+
+        return spooledList;
+    }
+
+    /**
+     * Deletes the temporary file, the items can not be consumed afterward.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // the file is deleted on exit anyway
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Iterator<List<T>> chunks(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+
+        return new ChunkIterator(chunkSize);
+    }
+
+    public List<T> readAll() {
+        List<T> items = new ArrayList<>(size);
+        chunks(Math.max(size, 1)).forEachRemaining(items::addAll);
+        return items;
+    }
+
+    private class ChunkIterator implements Iterator<List<T>> {
+        private final int chunkSize;
+        private MappingIterator<T> items;
+
+        private ChunkIterator(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = items().hasNext();
+
+            if (!hasNext) {
+                close();
+            }
+
+            return hasNext;
+        }
+
+        @Override
+        public List<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            List<T> chunk = new ArrayList<>(chunkSize);
+            try {
+                while (chunk.size() < chunkSize && items.hasNextValue()) {
+                    chunk.add(items.nextValue());
+                }
+            } catch (IOException e) {
+                close();
+                throw new InvalidImportException("Unable to parse " + description + ": " + e.getMessage(), e);
+            }
+
+            return chunk;
+        }
+
+        private MappingIterator<T> items() {
+            if (items == null) {
+                try {
+                    // the elements of the spooled root array are read one after another
+                    items = objectMapper.readerFor(type).readValues(file.toFile());
+                } catch (IOException e) {
+                    throw new InvalidImportException("Unable to parse " + description + ": " + e.getMessage(), e);
+                }
+            }
+
+            return items;
+        }
+
+        private void close() {
+            try {
+                items.close();
+            } catch (IOException ignored) {
+                // the spooled file is only read
+            }
+        }
+    }
+}
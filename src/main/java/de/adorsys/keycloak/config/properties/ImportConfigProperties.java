@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 
@@ -67,6 +68,9 @@ public class ImportConfigProperties {
     @Valid
     private final ImportUsersProperties users;
 
+    @Valid
+    private final ImportOrganizationsProperties organizations;
+
     public ImportConfigProperties(@DefaultValue("true") boolean validate,
                                   @DefaultValue("false") boolean parallel,
                                   @DefaultValue ImportFilesProperties files,
@@ -75,7 +79,8 @@ public class ImportConfigProperties {
                                   @DefaultValue ImportCacheProperties cache,
                                   @DefaultValue ImportManagedProperties managed,
                                   @DefaultValue ImportRemoteStateProperties remoteState,
-                                  @DefaultValue ImportUsersProperties users
+                                  @DefaultValue ImportUsersProperties users,
+                                  @DefaultValue ImportOrganizationsProperties organizations
     ) {
         this.validate = validate;
         this.parallel = parallel;
@@ -86,6 +91,7 @@ public class ImportConfigProperties {
         this.managed = managed;
         this.remoteState = remoteState;
         this.users = users;
+        this.organizations = organizations;
     }
 
     public boolean isValidate() {
@@ -124,6 +130,10 @@ public class ImportConfigProperties {
         return users;
     }
 
+    public ImportOrganizationsProperties getOrganizations() {
+        return organizations;
+    }
+
     @SuppressWarnings("unused")
     public static class ImportUsersProperties {
         @NotNull
@@ -132,12 +142,17 @@ public class ImportConfigProperties {
         @NotNull
         private final boolean mergeGroups;
 
+        @Min(1)
+        private final int chunkSize;
+
         public ImportUsersProperties(
                 @DefaultValue("false") boolean mergeRoles,
-                @DefaultValue("false") boolean mergeGroups
+                @DefaultValue("false") boolean mergeGroups,
+                @DefaultValue("1000") int chunkSize
         ) {
             this.mergeRoles = mergeRoles;
             this.mergeGroups = mergeGroups;
+            this.chunkSize = chunkSize;
         }
 
         public boolean isMergeRoles() {
@@ -147,6 +162,24 @@ public class ImportConfigProperties {
         public boolean isMergeGroups() {
             return mergeGroups;
         }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class ImportOrganizationsProperties {
+        @Min(1)
+        private final int pageSize;
+
+        public ImportOrganizationsProperties(@DefaultValue("100") int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -343,14 +376,23 @@ public class ImportConfigProperties {
         @NotNull
         private final int codePointLimit;
 
+        @Min(1)
+        private final int readThreads;
+
+        private final String parseCacheDirectory;
+
         public ImportFilesProperties(Collection<String> locations,
                                      @DefaultValue Collection<String> excludes,
                                      @DefaultValue("false") boolean includeHiddenFiles,
-                                     @DefaultValue("104857600") int codePointLimit) {
+                                     @DefaultValue("104857600") int codePointLimit,
+                                     @DefaultValue("4") int readThreads,
+                                     String parseCacheDirectory) {
             this.locations = locations;
             this.excludes = excludes;
             this.includeHiddenFiles = includeHiddenFiles;
             this.codePointLimit = codePointLimit;
+            this.readThreads = readThreads;
+            this.parseCacheDirectory = parseCacheDirectory;
         }
 
         public Collection<String> getLocations() {
@@ -368,6 +410,14 @@ public class ImportConfigProperties {
         public int getCodePointLimit() {
             return codePointLimit;
         }
+
+        public int getReadThreads() {
+            return readThreads;
+        }
+
+        public String getParseCacheDirectory() {
+            return parseCacheDirectory;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -378,6 +428,9 @@ public class ImportConfigProperties {
         @NotNull
         private final boolean scriptEvaluationEnabled;
 
+        @NotNull
+        private final boolean scriptMemoizationEnabled;
+
         @NotNull
         private final boolean nested;
 
@@ -392,12 +445,14 @@ public class ImportConfigProperties {
 
         public ImportVarSubstitutionProperties(@DefaultValue("false") boolean enabled,
                                                @DefaultValue("false") boolean scriptEvaluationEnabled,
+                                               @DefaultValue("false") boolean scriptMemoizationEnabled,
                                                @DefaultValue("true") boolean nested,
                                                @DefaultValue("true") boolean undefinedIsError,
                                                @DefaultValue("$(") String prefix,
                                                @DefaultValue(")") String suffix) {
             this.enabled = enabled;
             this.scriptEvaluationEnabled = scriptEvaluationEnabled;
+            this.scriptMemoizationEnabled = scriptMemoizationEnabled;
             this.nested = nested;
             this.undefinedIsError = undefinedIsError;
             this.prefix = prefix;
@@ -412,6 +467,10 @@ public class ImportConfigProperties {
             return scriptEvaluationEnabled;
         }
 
+        public boolean isScriptMemoizationEnabled() {
+            return scriptMemoizationEnabled;
+        }
+
         public boolean isNested() {
             return nested;
         }
@@ -449,14 +508,19 @@ public class ImportConfigProperties {
         @NotNull
         private final Collection<String> userUpdateIgnoredProperties;
 
+        @NotNull
+        private final boolean clientAuthorizationBulkImport;
+
         public ImportBehaviorsProperties(boolean syncUserFederation, boolean removeDefaultRoleFromUser, boolean skipAttributesForFederatedUser,
                                          boolean checksumWithCacheKey, ChecksumChangedOption checksumChanged,
-                                         @DefaultValue("attributes") Collection<String> userUpdateIgnoredProperties) {
+                                         @DefaultValue("attributes") Collection<String> userUpdateIgnoredProperties,
+                                         boolean clientAuthorizationBulkImport) {
             this.syncUserFederation = syncUserFederation;
             this.removeDefaultRoleFromUser = removeDefaultRoleFromUser;
             this.skipAttributesForFederatedUser = skipAttributesForFederatedUser;
             this.checksumWithCacheKey = checksumWithCacheKey;
             this.checksumChanged = checksumChanged;
+            this.clientAuthorizationBulkImport = clientAuthorizationBulkImport;
             this.userUpdateIgnoredProperties = normalizeStringCollection(
                     userUpdateIgnoredProperties == null ? List.of("attributes") : userUpdateIgnoredProperties
             );
@@ -494,6 +558,10 @@ public class ImportConfigProperties {
             return userUpdateIgnoredProperties;
         }
 
+        public boolean isClientAuthorizationBulkImport() {
+            return clientAuthorizationBulkImport;
+        }
+
         public enum ChecksumChangedOption {
             CONTINUE, FAIL
         }
@@ -507,10 +575,15 @@ public class ImportConfigProperties {
         @NotNull
         private final String key;
 
+        @NotNull
+        private final boolean preParseCheck;
+
         public ImportCacheProperties(@DefaultValue("true") boolean enabled,
-                                     @DefaultValue("default") String key) {
+                                     @DefaultValue("default") String key,
+                                     @DefaultValue("false") boolean preParseCheck) {
             this.enabled = enabled;
             this.key = key;
+            this.preParseCheck = preParseCheck;
         }
 
         public boolean isEnabled() {
@@ -520,6 +593,10 @@ public class ImportConfigProperties {
         public String getKey() {
             return key;
         }
+
+        public boolean isPreParseCheck() {
+            return preParseCheck;
+        }
     }
 
     @SuppressWarnings("unused")
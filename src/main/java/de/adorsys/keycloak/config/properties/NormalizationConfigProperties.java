@@ -111,6 +111,6 @@ public class NormalizationConfigProperties {
     }
 
     public enum OutputFormat {
-        JSON, YAML
+        JSON, YAML, SMILE, CBOR
     }
 }
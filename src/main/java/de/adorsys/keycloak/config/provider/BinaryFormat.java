@@ -0,0 +1,110 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Binary formats of import files. A file is binary if its name has one of the extensions of a format or if it starts
+ * with the header of a format. A binary file holds one document or a sequence of documents, like a YAML file
+ * separated by {@code ---}.
+ */
+public enum BinaryFormat {
+    SMILE(new SmileFactory(), new String[]{".smile", ".sml"}) {
+        @Override
+        boolean matches(byte[] header, int length) {
+            // ":)\n"
+            return length >= 3 && header[0] == 0x3A && header[1] == 0x29 && header[2] == 0x0A;
+        }
+    },
+    CBOR(new CBORFactory(), new String[]{".cbor"}) {
+        @Override
+        boolean matches(byte[] header, int length) {
+            // self-describe tag 55799 or a map, neither is a valid first byte of UTF-8 text
+            int first = length > 0 ? header[0] & 0xFF : -1;
+            return length >= 3 && first == 0xD9 && (header[1] & 0xFF) == 0xD9 && (header[2] & 0xFF) == 0xF7
+                    || first >= 0xA0 && first <= 0xBF;
+        }
+    };
+
+    /**
+     * Number of bytes needed to detect a format from the header of a file.
+     */
+    public static final int HEADER_LENGTH = 3;
+
+    private final ObjectMapper objectMapper;
+    private final String[] extensions;
+
+    BinaryFormat(JsonFactory factory, String[] extensions) {
+        // the content is closed by its owner, the rest of it may still be read for the checksum
+        this.objectMapper = new ObjectMapper(factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE));
+        this.extensions = extensions;
+    }
+
+    abstract boolean matches(byte[] header, int length);
+
+    /**
+     * Returns the shared factory of the format, it must not be reconfigured.
+     */
+    public JsonFactory getFactory() {
+        return objectMapper.getFactory();
+    }
+
+    /**
+     * Reads the documents of a binary file as maps, lists and scalars, like SnakeYAML does for text files.
+     */
+    public MappingIterator<Object> readDocuments(InputStream content) throws IOException {
+        return objectMapper.readerFor(Object.class).readValues(content);
+    }
+
+    /**
+     * Returns the format of a file by its name or its first {@link #HEADER_LENGTH} bytes, or null for text files.
+     */
+    public static BinaryFormat detect(String filename, byte[] header, int length) {
+        if (filename != null) {
+            String name = filename.toLowerCase(Locale.ROOT);
+            for (BinaryFormat format : values()) {
+                for (String extension : format.extensions) {
+                    if (name.endsWith(extension)) {
+                        return format;
+                    }
+                }
+            }
+        }
+
+        for (BinaryFormat format : values()) {
+            if (format.matches(header, length)) {
+                return format;
+            }
+        }
+
+        return null;
+    }
+}
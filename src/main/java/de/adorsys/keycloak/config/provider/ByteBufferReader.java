@@ -0,0 +1,82 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes UTF-8 content directly from a (memory-mapped) buffer without copying the bytes into a stream buffer
+ * first. Malformed input is replaced like {@link java.io.InputStreamReader} does.
+ */
+final class ByteBufferReader extends Reader {
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(8192).flip();
+
+    private boolean flushed = false;
+
+    ByteBufferReader(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        int count = Math.min(len, chars.remaining());
+        chars.get(cbuf, off, count);
+        return count;
+    }
+
+    @Override
+    public void close() {
+        // the buffer is released by the garbage collector
+    }
+
+    private boolean fill() {
+        if (flushed) {
+            return false;
+        }
+
+        chars.clear();
+
+        // the whole content is available, so every decode call sees the end of the input
+        if (decoder.decode(bytes, chars, true).isUnderflow()) {
+            flushed = decoder.flush(chars).isUnderflow();
+        }
+
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
@@ -18,18 +18,13 @@
  * ---license-end
  */
 
-package de.adorsys.keycloak.config;
+package de.adorsys.keycloak.config.provider;
 
-import org.springframework.stereotype.Component;
-
-@Component
-public class ThreadHelper {
-
-    public void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
+/**
+ * Decides before parsing whether an import file can be skipped, because the checksum stored for a realm of the
+ * file equals the checksum of the file.
+ */
+@FunctionalInterface
+public interface ChecksumGate {
+    boolean isUnchanged(String source, String realmName, String checksum);
 }
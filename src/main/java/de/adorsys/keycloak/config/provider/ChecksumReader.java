@@ -0,0 +1,119 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Computes the SHA-256 checksum of the UTF-8 encoded content while it is read. The result matches
+ * {@code DigestUtils.sha256Hex(content + salt)} of the fully read content.
+ */
+final class ChecksumReader extends FilterReader {
+    private final MessageDigest digest = DigestUtils.getSha256Digest();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+
+    private CharBuffer pending = CharBuffer.allocate(0);
+
+    ChecksumReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        char[] single = new char[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0];
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int count = super.read(cbuf, off, len);
+
+        if (count > 0) {
+            update(cbuf, off, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads the remaining content and returns the hex encoded checksum of the content followed by the salt.
+     */
+    String checksum(String salt) throws IOException {
+        char[] remaining = new char[8192];
+        while (read(remaining, 0, remaining.length) >= 0) {
+            // drain content which was not consumed by the parser
+        }
+
+        encode(pending, true);
+        while (encoder.flush(bytes).isOverflow()) {
+            drain();
+        }
+        drain();
+
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private void update(char[] cbuf, int off, int len) {
+        CharBuffer chars;
+
+        if (pending.hasRemaining()) {
+            chars = CharBuffer.allocate(pending.remaining() + len);
+            chars.put(pending).put(cbuf, off, len).flip();
+        } else {
+            chars = CharBuffer.wrap(cbuf, off, len);
+        }
+
+        encode(chars, false);
+
+        // a high surrogate at the end of the chunk is encoded together with the next chunk
+        pending = CharBuffer.allocate(chars.remaining()).put(chars).flip();
+    }
+
+    private void encode(CharBuffer chars, boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            drain();
+        } while (result.isOverflow());
+    }
+
+    private void drain() {
+        bytes.flip();
+        digest.update(bytes);
+        bytes.clear();
+    }
+}
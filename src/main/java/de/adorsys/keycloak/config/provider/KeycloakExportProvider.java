@@ -21,6 +21,7 @@
 package de.adorsys.keycloak.config.provider;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.ImportResource;
@@ -40,6 +41,7 @@ import org.springframework.util.PathMatcher;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -106,6 +108,17 @@ public class KeycloakExportProvider {
 
     protected Pair<String, List<RealmRepresentation>> readRealms(ImportResource resource) {
         String location = resource.getFilename();
+
+        if (resource.getBinaryValue() != null) {
+            List<RealmRepresentation> realms;
+            try {
+                realms = readBinaryContent(location, resource.getBinaryValue());
+            } catch (Exception e) {
+                throw new InvalidImportException("Unable to parse file '" + location + "': " + e.getMessage(), e);
+            }
+            return new ImmutablePair<>(location, realms);
+        }
+
         String content = resource.getValue();
 
         if (logger.isTraceEnabled()) {
@@ -136,6 +149,18 @@ public class KeycloakExportProvider {
         return realms;
     }
 
+    protected List<RealmRepresentation> readBinaryContent(String location, byte[] content) throws IOException {
+        List<RealmRepresentation> realms = new ArrayList<>();
+
+        BinaryFormat format = BinaryFormat.detect(location, content, Math.min(content.length, BinaryFormat.HEADER_LENGTH));
+        try (MappingIterator<Object> documents = format.readDocuments(new ByteArrayInputStream(content))) {
+            while (documents.hasNext()) {
+                realms.add(OBJECT_MAPPER.convertValue(documents.next(), RealmRepresentation.class));
+            }
+        }
+        return realms;
+    }
+
     protected String prepareResourceLocation(String location) {
         String importLocation = location;
 
@@ -192,7 +217,13 @@ public class KeycloakExportProvider {
         try {
             resource = setupAuthentication(resource);
             try (InputStream inputStream = resource.getInputStream()) {
-                return new ImportResource(resource.getURI().toString(), new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+                String location = resource.getURI().toString();
+                byte[] content = inputStream.readAllBytes();
+
+                if (BinaryFormat.detect(resource.getFilename(), content, Math.min(content.length, BinaryFormat.HEADER_LENGTH)) != null) {
+                    return new ImportResource(location, content);
+                }
+                return new ImportResource(location, new String(content, StandardCharsets.UTF_8));
             }
         } catch (IOException e) {
             throw new InvalidImportException("Unable to proceed resource '" + resource + "': " + e.getMessage(), e);
@@ -229,6 +260,9 @@ public class KeycloakExportProvider {
     }
 
     protected boolean filterEmptyResources(ImportResource resource) {
+        if (resource.getBinaryValue() != null) {
+            return resource.getBinaryValue().length > 0;
+        }
         return !resource.getValue().isEmpty();
     }
 
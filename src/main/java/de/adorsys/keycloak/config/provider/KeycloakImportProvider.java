@@ -20,21 +20,29 @@
 
 package de.adorsys.keycloak.config.provider;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
-import de.adorsys.keycloak.config.model.ImportResource;
 import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.SpooledList;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.service.script.JavaScriptEvaluator;
 import de.adorsys.keycloak.config.service.script.ScriptEvaluator;
+import de.adorsys.keycloak.config.util.ParallelUtil;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.text.StringSubstitutor;
 import org.apache.commons.text.lookup.StringLookup;
 import org.apache.commons.text.lookup.StringLookupFactory;
+import org.keycloak.representations.idm.UserRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,28 +59,53 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.Authenticator;
 import java.net.PasswordAuthentication;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Component
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
-public class KeycloakImportProvider {
+public class KeycloakImportProvider implements AutoCloseable {
     private final PathMatchingResourcePatternResolver patternResolver;
     private final ImportConfigProperties importConfigProperties;
     private final Environment environment;
 
+    private final YAMLFactory yamlFactory;
+
+    private final ParseCache parseCache;
+
     private StringSubstitutor interpolator = null;
     private ScriptEvaluator scriptEvaluator = null;
+    private Map<String, Object> scriptContext = Map.of();
+    private ScriptResultCache scriptResults = null;
 
-    private static final Pattern JS_PATTERN = Pattern.compile("\\$\\$\\{javascript:(.*?)\\}", Pattern.DOTALL);
+    private static final String JS_PREFIX = "$${javascript:";
+    private static final String JS_SUFFIX = "}";
 
     private static final Logger logger = LoggerFactory.getLogger(KeycloakImportProvider.class);
 
+    private static final Object AUTHENTICATOR_LOCK = new Object();
+
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
@@ -86,12 +119,26 @@ public class KeycloakImportProvider {
         this.patternResolver = patternResolver;
         this.importConfigProperties = importConfigProperties;
 
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(importConfigProperties.getFiles().getCodePointLimit());
+        this.yamlFactory = YAMLFactory.builder().loaderOptions(loaderOptions).build();
+
+        this.parseCache = createParseCache(importConfigProperties);
+
         if (importConfigProperties.getVarSubstitution().isEnabled()) {
             setupVariableSubstitution(environment);
         }
 
         if (importConfigProperties.getVarSubstitution().isScriptEvaluationEnabled()) {
             this.scriptEvaluator = new JavaScriptEvaluator();
+            this.scriptContext = Map.of("env", new ScriptEnvironment());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scriptEvaluator instanceof JavaScriptEvaluator javaScriptEvaluator) {
+            javaScriptEvaluator.close();
         }
     }
 
@@ -113,39 +160,90 @@ public class KeycloakImportProvider {
     }
 
     public KeycloakImport readFromLocations(Collection<String> locations) {
+        return readFromLocations(locations, null);
+    }
+
+    /**
+     * Reads the import files of the locations. Files for which the checksum gate reports an unchanged checksum for
+     * all of their realms are skipped without being parsed.
+     */
+    public KeycloakImport readFromLocations(Collection<String> locations, ChecksumGate checksumGate) {
         Map<String, Map<String, List<RealmImport>>> realmImports = new LinkedHashMap<>();
 
-        for (String location : locations) {
-            logger.debug("Loading file location '{}'", location);
-            String resourceLocation = prepareResourceLocation(location);
+        if (scriptEvaluator != null && importConfigProperties.getVarSubstitution().isScriptMemoizationEnabled()) {
+            scriptResults = new ScriptResultCache();
+        }
 
-            Resource[] resources;
-            try {
-                resources = this.patternResolver.getResources(resourceLocation);
-            } catch (IOException e) {
-                throw new InvalidImportException("Unable to proceed location '" + location + "': " + e.getMessage(), e);
+        ExecutorService executor = Executors.newFixedThreadPool(importConfigProperties.getFiles().getReadThreads());
+        try {
+            for (String location : locations) {
+                realmImports.put(location, readFromLocation(location, executor, checksumGate));
             }
+        } finally {
+            executor.shutdownNow();
 
-            resources = Arrays.stream(resources).filter(this::filterExcludedResources).toArray(Resource[]::new);
-
-            if (resources.length == 0) {
-                throw new InvalidImportException("No files matching '" + location + "'!");
+            if (scriptResults != null) {
+                logger.debug("Memoized script expressions: {} hit(s), {} miss(es)",
+                        scriptResults.getHits(), scriptResults.getMisses());
+                scriptResults = null;
             }
+        }
+
+        return new KeycloakImport(realmImports);
+    }
+
+    private Map<String, List<RealmImport>> readFromLocation(String location, ExecutorService executor,
+                                                            ChecksumGate checksumGate) {
+        logger.debug("Loading file location '{}'", location);
+        String resourceLocation = prepareResourceLocation(location);
+
+        Resource[] resources;
+        try {
+            resources = this.patternResolver.getResources(resourceLocation);
+        } catch (IOException e) {
+            throw new InvalidImportException("Unable to proceed location '" + location + "': " + e.getMessage(), e);
+        }
 
-            // Import Pipe
-            Map<String, List<RealmImport>> realmImport = Arrays.stream(resources)
-                    .map(this::readResource)
-                    .filter(this::filterEmptyResources)
-                    .sorted(Map.Entry.comparingByKey())
-                    .map(this::substituteImportResource)
-                    .map(this::readRealmImportFromImportResource)
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                            (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+        resources = Arrays.stream(resources).filter(this::filterExcludedResources).toArray(Resource[]::new);
 
-            realmImports.put(location, realmImport);
+        if (resources.length == 0) {
+            throw new InvalidImportException("No files matching '" + location + "'!");
         }
 
-        return new KeycloakImport(realmImports);
+        // Import Pipe
+        return readResources(resources, executor, checksumGate).stream()
+                .filter(Objects::nonNull)
+                .sorted(Map.Entry.comparingByKey())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+    }
+
+    private List<Pair<String, List<RealmImport>>> readResources(Resource[] resources, ExecutorService executor,
+                                                                ChecksumGate checksumGate) {
+        if (resources.length == 1 || importConfigProperties.getFiles().getReadThreads() == 1) {
+            return Arrays.stream(resources).map(resource -> readResource(resource, checksumGate)).toList();
+        }
+
+        List<CompletableFuture<Pair<String, List<RealmImport>>>> futures = Arrays.stream(resources)
+                .map(resource -> ParallelUtil.supplyAsync(() -> readResource(resource, checksumGate), executor))
+                .toList();
+
+        // join in resource order, so the reported error does not depend on the thread scheduling
+        List<Pair<String, List<RealmImport>>> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<Pair<String, List<RealmImport>>> future : futures) {
+            try {
+                result.add(future.join());
+            } catch (CompletionException e) {
+                futures.forEach(pending -> pending.cancel(true));
+
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        return result;
     }
 
     private boolean filterExcludedResources(Resource resource) {
@@ -185,88 +283,301 @@ public class KeycloakImportProvider {
                 });
     }
 
-    private ImportResource readResource(Resource resource) {
+    private Pair<String, List<RealmImport>> readResource(Resource resource, ChecksumGate checksumGate) {
         logger.debug("Loading file '{}'", resource.getFilename());
 
+        if (getUserInfo(resource) == null) {
+            return readResourceContent(resource, checksumGate);
+        }
+
+        // the authenticator is global to the JVM, resources with credentials are read one after another
+        synchronized (AUTHENTICATOR_LOCK) {
+            try {
+                return readResourceContent(setupAuthentication(resource), checksumGate);
+            } catch (IOException e) {
+                throw new InvalidImportException("Unable to proceed resource '" + resource + "': " + e.getMessage(), e);
+            } finally {
+                Authenticator.setDefault(null);
+            }
+        }
+    }
+
+    private static ParseCache createParseCache(ImportConfigProperties importConfigProperties) {
+        String parseCacheDirectory = importConfigProperties.getFiles().getParseCacheDirectory();
+        if (parseCacheDirectory == null || parseCacheDirectory.isBlank()) {
+            return null;
+        }
+
+        // substituted documents may contain secrets, which must not be written to a directory kept across runs
+        ImportConfigProperties.ImportVarSubstitutionProperties varSubstitution = importConfigProperties.getVarSubstitution();
+        if (varSubstitution.isEnabled() || varSubstitution.isScriptEvaluationEnabled()) {
+            logger.warn("Parse cache directory '{}' is ignored, it is not supported with variable substitution or script evaluation",
+                    parseCacheDirectory);
+            return null;
+        }
+
+        return new ParseCache(Path.of(parseCacheDirectory));
+    }
+
+    private Pair<String, List<RealmImport>> readResourceContent(Resource resource, ChecksumGate checksumGate) {
         try {
-            resource = setupAuthentication(resource);
-            try (InputStream inputStream = resource.getInputStream()) {
-                return new ImportResource(resource.getURI().toString(), new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            String location = resource.getURI().toString();
+
+            if (checksumGate != null
+                    && Boolean.TRUE.equals(readResourceContent(resource, content -> isUnchanged(location, content, checksumGate)))) {
+                logger.info("Skipping file '{}', import checksum unchanged", location);
+                return null;
+            }
+
+            Pair<String, List<RealmImport>> realmImports = parseCache != null
+                    ? readCachedRealmImports(resource, location)
+                    : readResourceContent(resource, content -> readRealmImports(location, content, null));
+            if (realmImports == null) {
+                logger.debug("Skipping empty file '{}'", location);
             }
+
+            return realmImports;
         } catch (IOException e) {
             throw new InvalidImportException("Unable to proceed resource '" + resource + "': " + e.getMessage(), e);
-        } finally {
-            Authenticator.setDefault(null);
         }
     }
 
-    private boolean filterEmptyResources(ImportResource resource) {
-        return !resource.getValue().isEmpty();
+    /**
+     * Opens the content of a resource, local files are read from a memory-mapped buffer. Returns null for an empty
+     * resource.
+     */
+    private <T> T readResourceContent(Resource resource, ContentReader<T> contentReader) throws IOException {
+        if (!resource.isFile()) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                return readStream(resource.getFilename(), inputStream, contentReader);
+            }
+        }
+
+        MappedByteBuffer content;
+
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                try (InputStream inputStream = Channels.newInputStream(channel)) {
+                    return readStream(resource.getFilename(), inputStream, contentReader);
+                }
+            }
+
+            // the mapping stays valid after the channel is closed
+            content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (!content.hasRemaining()) {
+            return null;
+        }
+
+        byte[] header = new byte[BinaryFormat.HEADER_LENGTH];
+        int length = Math.min(header.length, content.remaining());
+        content.get(content.position(), header, 0, length);
+
+        BinaryFormat format = BinaryFormat.detect(resource.getFilename(), header, length);
+        return contentReader.read(new ResourceContent(content, null, format));
     }
 
-    private ImportResource substituteImportResource(ImportResource importResource) {
-        if (importConfigProperties.getVarSubstitution().isEnabled()) {
-            importResource.setValue(interpolator.replace(importResource.getValue()));
+    private <T> T readStream(String filename, InputStream inputStream, ContentReader<T> contentReader) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(inputStream, BinaryFormat.HEADER_LENGTH);
+        byte[] header = stream.readNBytes(BinaryFormat.HEADER_LENGTH);
+        if (header.length == 0) {
+            return null;
         }
+        stream.unread(header);
+
+        BinaryFormat format = BinaryFormat.detect(filename, header, header.length);
+        return contentReader.read(new ResourceContent(null, stream, format));
+    }
+
+    private boolean isUnchanged(String location, ResourceContent content, ChecksumGate checksumGate) throws IOException {
+        ChecksumReader textContent = null;
+        DigestInputStream binaryContent = null;
 
-        if (JS_PATTERN.matcher(importResource.getValue()).find()) {
-            if (!importConfigProperties.getVarSubstitution().isScriptEvaluationEnabled()) {
-                throw new IllegalStateException("Script evaluation used but --import.var-substitution.script-evaluation-enabled not set");
+        List<String> realmNames;
+        try {
+            if (content.format() != null) {
+                binaryContent = new DigestInputStream(content.stream(), DigestUtils.getSha256Digest());
+                realmNames = scanRealmNames(content.format().getFactory().createParser(binaryContent));
+            } else {
+                textContent = new ChecksumReader(substitute(content.reader()));
+                realmNames = scanRealmNames(yamlFactory.createParser(textContent));
             }
-            importResource.setValue(evaluateScripts(importResource.getValue()));
+        } catch (RuntimeException | IOException e) {
+            // the file is parsed anyway, errors are reported from there
+            logger.debug("Unable to scan realm names of file '{}': {}", location, e.getMessage());
+            return false;
         }
 
-        return importResource;
-    }
+        if (realmNames.isEmpty()) {
+            return false;
+        }
 
-    private String evaluateScripts(String content) {
-        Map<String, Object> context = new HashMap<>();
-        Map<String, String> env = new HashMap<>();
-        System.getenv().forEach(env::put);
+        String contentChecksum = textContent != null
+                ? textContent.checksum(getImportBehaviorChecksumSalt())
+                : checksum(binaryContent);
+        return realmNames.stream().allMatch(realmName -> checksumGate.isUnchanged(location, realmName, contentChecksum));
+    }
 
-        // Add system properties to env context for testing/flexibility
-        System.getProperties().forEach((k, v) -> env.put(k.toString(), v.toString()));
+    /**
+     * Returns the top level realm name of each document, without building the documents. Returns an empty list if a
+     * document has no realm name.
+     */
+    private List<String> scanRealmNames(JsonParser documents) throws IOException {
+        List<String> realmNames = new ArrayList<>();
+
+        try (JsonParser parser = documents) {
+            while (parser.nextToken() != null) {
+                if (!parser.isExpectedStartObjectToken()) {
+                    return List.of();
+                }
 
-        context.put("env", env);
+                String realmName = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.currentName();
+                    JsonToken value = parser.nextToken();
 
-        Matcher matcher = JS_PATTERN.matcher(content);
-        StringBuilder sb = new StringBuilder();
+                    if ("realm".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                        realmName = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
 
-        while (matcher.find()) {
-            String expression = matcher.group(1);
-            Object result = scriptEvaluator.evaluate(expression, context);
-            String replacement;
-            try {
-                if (result instanceof String) {
-                    replacement = (String) result;
-                } else {
-                    replacement = OBJECT_MAPPER.writeValueAsString(result);
+                if (realmName == null) {
+                    return List.of();
                 }
-            } catch (Exception e) {
-                throw new InvalidImportException("Failed to serialize script result: " + e.getMessage(), e);
+                realmNames.add(realmName);
             }
-            logger.debug("Replaced script expression '{}' with '{}'", expression, replacement);
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
         }
-        matcher.appendTail(sb);
-        return sb.toString();
-    }
 
-    private Pair<String, List<RealmImport>> readRealmImportFromImportResource(ImportResource resource) {
-        String location = resource.getFilename();
-        String content = resource.getValue();
-        String contentChecksum = DigestUtils.sha256Hex(content + getImportBehaviorChecksumSalt());
+        return realmNames;
+    }
 
-        if (logger.isTraceEnabled()) {
-            logger.trace(content);
+    private Pair<String, List<RealmImport>> readRealmImports(String location, ResourceContent resourceContent,
+                                                             ParseCache.Writer cacheWriter) throws IOException {
+        if (resourceContent.format() != null) {
+            return readBinaryRealmImports(location, resourceContent, cacheWriter);
         }
 
+        // substitution, checksum and parsing are applied while reading, the content is never held as a whole
+        ChecksumReader content;
         List<RealmImport> realmImports;
         try {
-            realmImports = readContent(content);
+            content = new ChecksumReader(traceContent(substitute(resourceContent.reader())));
+            realmImports = readContent(location, content, cacheWriter);
+        } catch (PlaceholderReader.ReplacementException e) {
+            throw e.getCause();
         } catch (Exception e) {
             throw new InvalidImportException("Unable to parse file '" + location + "': " + e.getMessage(), e);
         }
+
+        String contentChecksum = content.checksum(getImportBehaviorChecksumSalt());
+        logger.trace("Read {} document(s) from file '{}' with checksum '{}'", realmImports.size(), location, contentChecksum);
+
+        if (cacheWriter != null) {
+            cacheWriter.commit(contentChecksum);
+        }
+
+        return toRealmImports(location, realmImports, contentChecksum);
+    }
+
+    /**
+     * Logs the substituted content at trace level. Only then the content is read as a whole.
+     */
+    private Reader traceContent(Reader content) throws IOException {
+        if (!logger.isTraceEnabled()) {
+            return content;
+        }
+
+        StringWriter text = new StringWriter();
+        content.transferTo(text);
+        logger.trace(text.toString());
+        return new StringReader(text.toString());
+    }
+
+    /**
+     * Binds the documents of a binary file like the documents of a text file. Variables and scripts are not
+     * substituted, the checksum is computed over the raw bytes.
+     */
+    private Pair<String, List<RealmImport>> readBinaryRealmImports(String location, ResourceContent resourceContent,
+                                                                   ParseCache.Writer cacheWriter) throws IOException {
+        DigestInputStream content = new DigestInputStream(resourceContent.stream(), DigestUtils.getSha256Digest());
+
+        List<RealmImport> realmImports;
+        try (MappingIterator<Object> documents = resourceContent.format().readDocuments(content)) {
+            realmImports = bindDocuments(location, documents, cacheWriter);
+        } catch (Exception e) {
+            throw new InvalidImportException("Unable to parse file '" + location + "': " + e.getMessage(), e);
+        }
+
+        String contentChecksum = checksum(content);
+        logger.trace("Read {} {} document(s) from file '{}' with checksum '{}'",
+                realmImports.size(), resourceContent.format(), location, contentChecksum);
+
+        if (cacheWriter != null) {
+            cacheWriter.commit(contentChecksum);
+        }
+
+        return toRealmImports(location, realmImports, contentChecksum);
+    }
+
+    /**
+     * Reads the rest of the content and returns the checksum of the raw bytes and the salt.
+     */
+    private String checksum(DigestInputStream content) throws IOException {
+        content.transferTo(OutputStream.nullOutputStream());
+
+        MessageDigest digest = content.getMessageDigest();
+        digest.update(getImportBehaviorChecksumSalt().getBytes(StandardCharsets.UTF_8));
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Reads the checksum of the content first. Files with an entry in the parse cache are bound from the
+     * entry, all other files are parsed and added to the cache.
+     */
+    private Pair<String, List<RealmImport>> readCachedRealmImports(Resource resource, String location) throws IOException {
+        String contentChecksum = readResourceContent(resource, this::readChecksum);
+        if (contentChecksum == null) {
+            return null;
+        }
+
+        List<RealmImport> realmImports = readFromParseCache(location, contentChecksum);
+        if (realmImports != null) {
+            logger.debug("Read {} document(s) of file '{}' from parse cache", realmImports.size(), location);
+            return toRealmImports(location, realmImports, contentChecksum);
+        }
+
+        try (ParseCache.Writer cacheWriter = parseCache.writer(location)) {
+            return readResourceContent(resource, content -> readRealmImports(location, content, cacheWriter));
+        }
+    }
+
+    private String readChecksum(ResourceContent content) throws IOException {
+        if (content.format() != null) {
+            return checksum(new DigestInputStream(content.stream(), DigestUtils.getSha256Digest()));
+        }
+
+        try {
+            return new ChecksumReader(substitute(content.reader())).checksum(getImportBehaviorChecksumSalt());
+        } catch (PlaceholderReader.ReplacementException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<RealmImport> readFromParseCache(String location, String contentChecksum) {
+        try (MappingIterator<Object> documents = parseCache.read(location, contentChecksum)) {
+            return documents != null ? bindDocuments(location, documents, null) : null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to read parse cache entry of file '{}', parsing it again: {}", location, e.getMessage());
+            parseCache.remove(location, contentChecksum);
+            return null;
+        }
+    }
+
+    private Pair<String, List<RealmImport>> toRealmImports(String location, List<RealmImport> realmImports,
+                                                           String contentChecksum) {
         realmImports.forEach(realmImport -> {
             realmImport.setChecksum(contentChecksum);
             realmImport.setSource(location);
@@ -275,6 +586,64 @@ public class KeycloakImportProvider {
         return new ImmutablePair<>(location, realmImports);
     }
 
+    private Reader substitute(Reader reader) {
+        PlaceholderReader.Placeholder scripts = new PlaceholderReader.Placeholder(JS_PREFIX, JS_SUFFIX,
+                PlaceholderReader.NO_ESCAPE, false, placeholder -> evaluateScript(substituteVariables(placeholder)));
+
+        if (!importConfigProperties.getVarSubstitution().isEnabled()) {
+            return new PlaceholderReader(reader, List.of(scripts));
+        }
+
+        // variables and scripts are found in one pass, scripts within variable values are evaluated as well
+        PlaceholderReader.Placeholder variables = new PlaceholderReader.Placeholder(
+                importConfigProperties.getVarSubstitution().getPrefix(),
+                importConfigProperties.getVarSubstitution().getSuffix(),
+                interpolator.getEscapeChar(),
+                importConfigProperties.getVarSubstitution().isNested(),
+                placeholder -> PlaceholderReader.replace(interpolator.replace(placeholder), List.of(scripts)));
+
+        return new PlaceholderReader(reader, List.of(variables, scripts));
+    }
+
+    private String substituteVariables(String content) {
+        if (!importConfigProperties.getVarSubstitution().isEnabled()) {
+            return content;
+        }
+
+        return interpolator.replace(content);
+    }
+
+    private String evaluateScript(String placeholder) {
+        if (!importConfigProperties.getVarSubstitution().isScriptEvaluationEnabled()) {
+            throw new IllegalStateException("Script evaluation used but --import.var-substitution.script-evaluation-enabled not set");
+        }
+
+        String expression = placeholder.substring(JS_PREFIX.length(), placeholder.length() - JS_SUFFIX.length());
+
+        ScriptResultCache results = scriptResults;
+        if (results != null) {
+            return results.get(expression, this::evaluateExpression);
+        }
+
+        return evaluateExpression(expression);
+    }
+
+    private String evaluateExpression(String expression) {
+        Object result = scriptEvaluator.evaluate(expression, scriptContext);
+        String replacement;
+        try {
+            if (result instanceof String) {
+                replacement = (String) result;
+            } else {
+                replacement = OBJECT_MAPPER.writeValueAsString(result);
+            }
+        } catch (Exception e) {
+            throw new InvalidImportException("Failed to serialize script result: " + e.getMessage(), e);
+        }
+        logger.debug("Replaced script expression '{}' with '{}'", expression, replacement);
+        return replacement;
+    }
+
     private String getImportBehaviorChecksumSalt() {
         if (environment == null
                 || !environment.containsProperty("import.behaviors.user-update-ignored-properties")
@@ -304,22 +673,84 @@ public class KeycloakImportProvider {
                 .collect(Collectors.joining(","));
     }
 
-    private List<RealmImport> readContent(String content) {
-        List<RealmImport> realmImports = new ArrayList<>();
+    @FunctionalInterface
+    private interface ContentReader<T> {
+        T read(ResourceContent content) throws IOException;
+    }
+
+    /**
+     * Content of a resource, either a memory-mapped buffer or a stream. Binary content is read as bytes, text content
+     * is decoded as UTF-8.
+     */
+    private static final class ResourceContent {
+        private final ByteBuffer buffer;
+        private final InputStream stream;
+        private final BinaryFormat format;
+
+        private ResourceContent(ByteBuffer buffer, InputStream stream, BinaryFormat format) {
+            this.buffer = buffer;
+            this.stream = stream;
+            this.format = format;
+        }
+
+        private BinaryFormat format() {
+            return format;
+        }
+
+        private Reader reader() {
+            return buffer != null ? new ByteBufferReader(buffer) : new InputStreamReader(stream, StandardCharsets.UTF_8);
+        }
+
+        private InputStream stream() {
+            return buffer != null ? new ByteBufferBackedInputStream(buffer) : stream;
+        }
+    }
 
+    private List<RealmImport> readContent(String location, Reader content, ParseCache.Writer cacheWriter) {
         LoaderOptions loaderOptions = new LoaderOptions();
         loaderOptions.setCodePointLimit(importConfigProperties.getFiles().getCodePointLimit());
 
         Yaml yaml = new Yaml(loaderOptions);
-        Iterable<Object> yamlDocuments = yaml.loadAll(content);
+        return bindDocuments(location, yaml.loadAll(content).iterator(), cacheWriter);
+    }
 
-        for (Object yamlDocument : yamlDocuments) {
-            realmImports.add(OBJECT_MAPPER.convertValue(yamlDocument, RealmImport.class));
+    private List<RealmImport> bindDocuments(String location, Iterator<Object> documents, ParseCache.Writer cacheWriter) {
+        List<RealmImport> realmImports = new ArrayList<>();
+
+        while (documents.hasNext()) {
+            Object yamlDocument = documents.next();
+            if (cacheWriter != null) {
+                cacheWriter.write(yamlDocument);
+            }
+
+            List<?> usersToSpool = removeUsersToSpool(yamlDocument);
+            RealmImport realmImport = OBJECT_MAPPER.convertValue(yamlDocument, RealmImport.class);
+
+            if (usersToSpool != null) {
+                logger.debug("Spooling {} users of file '{}'", usersToSpool.size(), location);
+                realmImport.setSpooledUsers(SpooledList.spool(OBJECT_MAPPER, UserRepresentation.class,
+                        "users of file '" + location + "'", usersToSpool));
+            }
+
+            realmImports.add(realmImport);
         }
 
         return realmImports;
     }
 
+    private List<?> removeUsersToSpool(Object yamlDocument) {
+        ImportConfigProperties.ImportUsersProperties usersProperties = importConfigProperties.getUsers();
+
+        if (usersProperties == null || !(yamlDocument instanceof Map<?, ?> document)
+                || !(document.get("users") instanceof List<?> users) || users.size() <= usersProperties.getChunkSize()) {
+            return null;
+        }
+
+        // users are kept outside the heap until they are imported, see UserImportService
+        document.remove("users");
+        return users;
+    }
+
     private String prepareResourceLocation(String location) {
         String importLocation = location;
 
@@ -332,14 +763,16 @@ public class KeycloakImportProvider {
         return importLocation;
     }
 
-    private Resource setupAuthentication(Resource resource) throws IOException {
-        String userInfo;
-
+    private String getUserInfo(Resource resource) {
         try {
-            userInfo = resource.getURL().getUserInfo();
+            return resource.getURL().getUserInfo();
         } catch (IOException e) {
-            return resource;
+            return null;
         }
+    }
+
+    private Resource setupAuthentication(Resource resource) throws IOException {
+        String userInfo = getUserInfo(resource);
 
         if (userInfo == null) return resource;
 
@@ -358,4 +791,31 @@ public class KeycloakImportProvider {
         String location = resource.getURI().toString().replace(userInfo + "@", "***@");
         return new UrlResource(location);
     }
+
+    /**
+     * Environment variables overlaid with system properties, looked up on every access.
+     */
+    private static final class ScriptEnvironment extends AbstractMap<String, String> {
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String name)) {
+                return null;
+            }
+
+            String value = System.getProperty(name);
+            return value != null ? value : System.getenv(name);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            Map<String, String> env = new HashMap<>(System.getenv());
+            System.getProperties().forEach((k, v) -> env.put(k.toString(), v.toString()));
+            return env.entrySet();
+        }
+    }
 }
@@ -0,0 +1,181 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Parsed documents of import files in Smile format, keyed by the location and the checksum of the content. A file
+ * with a cached entry is bound from the entry instead of being parsed again. Only the latest entry of a location is
+ * kept, older entries are removed when a new entry is written. Failures to write an entry are logged and never fail
+ * the import.
+ */
+final class ParseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ParseCache.class);
+
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+    private static final String EXTENSION = ".smile";
+
+    private final Path directory;
+
+    ParseCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cached documents of the location and checksum, or null if there is no entry.
+     */
+    MappingIterator<Object> read(String location, String checksum) throws IOException {
+        Path entry = entry(location, checksum);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        return SMILE_MAPPER.readerFor(Object.class).readValues(entry.toFile());
+    }
+
+    void remove(String location, String checksum) {
+        try {
+            Files.deleteIfExists(entry(location, checksum));
+        } catch (IOException e) {
+            logger.debug("Unable to remove parse cache entry '{}': {}", checksum, e.getMessage());
+        }
+    }
+
+    Writer writer(String location) {
+        return new Writer(location);
+    }
+
+    private Path entry(String location, String checksum) {
+        return directory.resolve(prefix(location) + checksum + EXTENSION);
+    }
+
+    private static String prefix(String location) {
+        return DigestUtils.sha256Hex(location) + "-";
+    }
+
+    private void removeStaleEntries(String location, Path entry) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix(location) + "*" + EXTENSION)) {
+            for (Path staleEntry : entries) {
+                if (!staleEntry.equals(entry)) {
+                    Files.deleteIfExists(staleEntry);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Unable to remove stale parse cache entries of '{}': {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the documents of one file to a temporary file, which becomes the entry of the checksum on commit.
+     */
+    final class Writer implements Closeable {
+        private final String location;
+        private Path file;
+        private SequenceWriter documents;
+
+        private Writer(String location) {
+            this.location = location;
+
+            try {
+                Files.createDirectories(directory);
+                file = Files.createTempFile(directory, "parse-", ".tmp");
+                documents = SMILE_MAPPER.writer().writeValues(file.toFile());
+            } catch (IOException e) {
+                discard(e);
+            }
+        }
+
+        void write(Object document) {
+            if (documents == null) {
+                return;
+            }
+
+            try {
+                documents.write(document);
+            } catch (IOException e) {
+                discard(e);
+            }
+        }
+
+        void commit(String checksum) {
+            if (documents == null) {
+                return;
+            }
+
+            try {
+                documents.close();
+                documents = null;
+
+                Path entry = entry(location, checksum);
+                try {
+                    Files.move(file, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(file, entry, StandardCopyOption.REPLACE_EXISTING);
+                }
+                file = null;
+
+                removeStaleEntries(location, entry);
+            } catch (IOException e) {
+                discard(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            discard(null);
+        }
+
+        private void discard(IOException cause) {
+            if (cause != null) {
+                logger.warn("Unable to write parse cache entry in '{}': {}", directory, cause.getMessage());
+            }
+
+            try {
+                if (documents != null) {
+                    documents.close();
+                }
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                logger.debug("Unable to remove parse cache file '{}': {}", file, e.getMessage());
+            } finally {
+                documents = null;
+                file = null;
+            }
+        }
+    }
+}
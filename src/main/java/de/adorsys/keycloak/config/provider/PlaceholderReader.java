@@ -0,0 +1,248 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Replaces placeholders like {@code $(env:VALUE)} and {@code $${javascript:...}} while the content is read, so an
+ * import file never has to be held as a whole string. All placeholder types are found in one pass over the
+ * content. Each complete placeholder (prefix, name and suffix) is handed to the replacer of its type and replaced
+ * in place, text between placeholders is passed through unchanged. An escape character directly in front of the
+ * prefix keeps the prefix as literal text, an unterminated placeholder is kept as it is.
+ */
+final class PlaceholderReader extends Reader {
+    static final char NO_ESCAPE = 0;
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Reader in;
+    private final List<Placeholder> placeholders;
+    private final int maxPrefixLength;
+
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private final StringBuilder buffer = new StringBuilder();
+    // the characters between head and ready are final and can be handed out
+    private int head = 0;
+    private int ready = 0;
+    private boolean eof = false;
+
+    PlaceholderReader(Reader in, List<Placeholder> placeholders) {
+        this.in = in;
+        // on the same position the longer prefix wins
+        this.placeholders = placeholders.stream()
+                .sorted(Comparator.comparingInt((Placeholder placeholder) -> placeholder.prefix.length()).reversed())
+                .toList();
+        this.maxPrefixLength = this.placeholders.isEmpty() ? 0 : this.placeholders.get(0).prefix.length();
+    }
+
+    PlaceholderReader(Reader in, String prefix, String suffix, char escape, boolean nested,
+                      UnaryOperator<String> replacer) {
+        this(in, List.of(new Placeholder(prefix, suffix, escape, nested, replacer)));
+    }
+
+    /**
+     * Replaces the placeholders of a short value, like the result of another placeholder.
+     */
+    static String replace(String value, List<Placeholder> placeholders) {
+        StringBuilder result = new StringBuilder(value.length());
+        char[] chars = new char[Math.max(value.length(), 16)];
+
+        try (Reader reader = new PlaceholderReader(new StringReader(value), placeholders)) {
+            int count;
+            while ((count = reader.read(chars, 0, chars.length)) >= 0) {
+                result.append(chars, 0, count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.toString();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (head == ready) {
+            // only the pending tail of the buffer is moved
+            buffer.delete(0, head);
+            ready = 0;
+            head = 0;
+
+            if (eof && buffer.isEmpty()) {
+                return -1;
+            }
+
+            fill();
+        }
+
+        int count = Math.min(len, ready - head);
+        buffer.getChars(head, head + count, cbuf, off);
+        head += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void fill() throws IOException {
+        int count = in.read(chunk);
+        if (count < 0) {
+            eof = true;
+        } else {
+            buffer.append(chunk, 0, count);
+        }
+
+        process();
+    }
+
+    private void process() {
+        while (true) {
+            Placeholder placeholder = null;
+            int start = -1;
+
+            for (Placeholder candidate : placeholders) {
+                int index = buffer.indexOf(candidate.prefix, ready);
+                if (index >= 0 && (start < 0 || index < start)) {
+                    placeholder = candidate;
+                    start = index;
+                }
+            }
+
+            if (placeholder == null) {
+                // keep a possibly incomplete prefix and the character in front of it for the next chunk
+                ready = eof ? buffer.length() : Math.max(ready, buffer.length() - maxPrefixLength);
+                return;
+            }
+
+            if (placeholder.escape != NO_ESCAPE && start > ready && buffer.charAt(start - 1) == placeholder.escape) {
+                buffer.deleteCharAt(start - 1);
+                ready = start - 1 + placeholder.prefix.length();
+                continue;
+            }
+
+            int end = indexOfSuffix(placeholder, start + placeholder.prefix.length());
+
+            if (end < 0) {
+                ready = eof ? buffer.length() : start;
+                return;
+            }
+
+            int placeholderEnd = end + placeholder.suffix.length();
+            String replacement = placeholder.replace(buffer.substring(start, placeholderEnd));
+            buffer.replace(start, placeholderEnd, replacement);
+            ready = start + replacement.length();
+        }
+    }
+
+    private int indexOfSuffix(Placeholder placeholder, int from) {
+        int depth = 0;
+        int position = from;
+
+        while (position < buffer.length()) {
+            if (placeholder.nested && matches(placeholder.prefix, position)) {
+                depth++;
+                position += placeholder.prefix.length();
+            } else if (matches(placeholder.suffix, position)) {
+                if (depth == 0) {
+                    return position;
+                }
+                depth--;
+                position += placeholder.suffix.length();
+            } else {
+                position++;
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean matches(String value, int position) {
+        if (position + value.length() > buffer.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.charAt(position + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A type of placeholder, defined by its prefix and suffix.
+     */
+    static final class Placeholder {
+        private final String prefix;
+        private final String suffix;
+        private final char escape;
+        private final boolean nested;
+        private final UnaryOperator<String> replacer;
+
+        Placeholder(String prefix, String suffix, char escape, boolean nested, UnaryOperator<String> replacer) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.escape = escape;
+            this.nested = nested;
+            this.replacer = replacer;
+        }
+
+        private String replace(String placeholder) {
+            try {
+                return replacer.apply(placeholder);
+            } catch (ReplacementException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new ReplacementException(e);
+            }
+        }
+    }
+
+    /**
+     * Carries a failed replacement through the parser which consumes this reader, so that the caller can rethrow the
+     * original exception.
+     */
+    static final class ReplacementException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ReplacementException(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Results of script expressions of one run. The bindings of the scripts do not change during a run, so the results
+ * are keyed by the expression only. A new cache is created for every run.
+ */
+final class ScriptResultCache {
+    private final Map<String, String> results = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    String get(String expression, UnaryOperator<String> evaluator) {
+        String result = results.get(expression);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+
+        // evaluated outside the map, concurrent misses of the same expression may evaluate it twice
+        misses.increment();
+        result = evaluator.apply(expression);
+        results.putIfAbsent(expression, result);
+        return result;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+}
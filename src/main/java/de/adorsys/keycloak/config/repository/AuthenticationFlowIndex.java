@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot of all authentication flows of a realm, including non-top-level flows and their executions.
+ * <p>
+ * The snapshot reflects the flows at the time they were exported and is not updated by later changes.
+ */
+public class AuthenticationFlowIndex {
+    private final Map<String, AuthenticationFlowRepresentation> flowsByAlias;
+
+    public AuthenticationFlowIndex(List<AuthenticationFlowRepresentation> flows) {
+        this.flowsByAlias = flows.stream()
+                .collect(Collectors.toMap(AuthenticationFlowRepresentation::getAlias, Function.identity(), (a, b) -> a));
+    }
+
+    public Optional<AuthenticationFlowRepresentation> searchByAlias(String alias) {
+        return Optional.ofNullable(flowsByAlias.get(alias));
+    }
+
+    /**
+     * Returns the aliases of all non-top-level flows which are reachable from the given flow by execution-flows.
+     */
+    public Set<String> getSubFlowAliases(String flowAlias) {
+        Set<String> subFlowAliases = new HashSet<>();
+        Deque<String> flowsToVisit = new ArrayDeque<>(List.of(flowAlias));
+
+        while (!flowsToVisit.isEmpty()) {
+            AuthenticationFlowRepresentation flow = flowsByAlias.get(flowsToVisit.pop());
+            if (flow == null || flow.getAuthenticationExecutions() == null) continue;
+
+            for (AuthenticationExecutionExportRepresentation execution : flow.getAuthenticationExecutions()) {
+                // only execution-flows reference another flow by alias
+                String subFlowAlias = execution.getFlowAlias();
+
+                if (subFlowAlias != null && subFlowAliases.add(subFlowAlias)) {
+                    flowsToVisit.push(subFlowAlias);
+                }
+            }
+        }
+
+        return subFlowAliases;
+    }
+}
@@ -72,6 +72,13 @@ public class AuthenticationFlowRepository {
                 .findFirst();
     }
 
+    /**
+     * Exports all flows of the realm at once, including non-top-level flows and their executions.
+     */
+    public AuthenticationFlowIndex getFlowIndex(String realmName) {
+        return new AuthenticationFlowIndex(getAll(realmName));
+    }
+
     public AuthenticationFlowRepresentation getByAlias(String realmName, String alias) {
         Optional<AuthenticationFlowRepresentation> flow = searchByAlias(realmName, alias);
 
@@ -84,13 +91,15 @@ public class AuthenticationFlowRepository {
 
     /**
      * creates only the top-level flow WITHOUT its executions or execution-flows
+     *
+     * @return the id of the created flow
      */
-    public void createTopLevel(String realmName, AuthenticationFlowRepresentation flow) {
+    public String createTopLevel(String realmName, AuthenticationFlowRepresentation flow) {
         logger.trace("Create top-level-flow '{}' in realm '{}'", flow.getAlias(), realmName);
 
         AuthenticationManagementResource flowsResource = getFlowResources(realmName);
         try (Response response = flowsResource.createFlow(flow)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         } catch (WebApplicationException error) {
             String errorMessage = String.format(
                     "Cannot create top-level-flow '%s' in realm '%s': %s",
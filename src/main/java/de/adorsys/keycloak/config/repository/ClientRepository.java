@@ -31,7 +31,6 @@ import org.keycloak.representations.idm.ClientRepresentation;
 import org.keycloak.representations.idm.ClientScopeRepresentation;
 import org.keycloak.representations.idm.ManagementPermissionRepresentation;
 import org.keycloak.representations.idm.ProtocolMapperRepresentation;
-import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.authorization.PolicyRepresentation;
 import org.keycloak.representations.idm.authorization.ResourceRepresentation;
 import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
@@ -58,6 +57,7 @@ import jakarta.ws.rs.core.Response;
 public class ClientRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ClientRepository.class);
+    private static final int HTTP_BAD_REQUEST = 400;
     private static final int HTTP_NOT_FOUND = 404;
     private static final int HTTP_NOT_IMPLEMENTED = 501;
 
@@ -132,17 +132,20 @@ public class ClientRepository {
         clientResource.remove();
     }
 
-    public List<ProtocolMapperRepresentation> getProtocolMappers(String realmName, String clientId) {
-        return getResourceByClientId(realmName, clientId)
-                .getProtocolMappers()
-                .getMappers();
-    }
-
-    public void addProtocolMappers(String realmName, String clientId, List<ProtocolMapperRepresentation> protocolMappers) {
+    public void addProtocolMappers(String realmName, ClientRepresentation client, List<ProtocolMapperRepresentation> protocolMappers) {
         if (protocolMappers == null || protocolMappers.isEmpty()) {
             return;
         }
-        ProtocolMappersResource protocolMappersResource = getResourceByClientId(realmName, clientId).getProtocolMappers();
+        ProtocolMappersResource protocolMappersResource = getResourceById(realmName, client.getId()).getProtocolMappers();
+
+        try {
+            protocolMappersResource.createMapper(protocolMappers);
+            return;
+        } catch (WebApplicationException e) {
+            // add-models is transactional, retry one by one to add all valid mappers
+            logger.debug("Failed to add protocol mappers for client '{}' in realm '{}' in bulk: {}",
+                    client.getClientId(), realmName, ResponseUtil.getErrorMessage(e));
+        }
 
         for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
             try (Response response = protocolMappersResource.createMapper(protocolMapper)) {
@@ -151,34 +154,27 @@ public class ClientRepository {
                 String mapperName = protocolMapper.getName() != null ? protocolMapper.getName() : protocolMapper.getProtocolMapper();
                 String errorMessage = ResponseUtil.getErrorMessage(e);
                 logger.warn("Failed to add protocol mapper '{}' for client '{}' in realm '{}': {}",
-                        mapperName, clientId, realmName, errorMessage);
+                        mapperName, client.getClientId(), realmName, errorMessage);
             }
         }
     }
 
-    public void removeProtocolMappers(String realmName, String clientId, List<ProtocolMapperRepresentation> protocolMappers) {
+    public void removeProtocolMappers(String realmName, ClientRepresentation client, List<ProtocolMapperRepresentation> protocolMappers) {
         if (protocolMappers == null || protocolMappers.isEmpty()) {
             return;
         }
-        ProtocolMappersResource protocolMappersResource = getResourceByClientId(realmName, clientId).getProtocolMappers();
+        ProtocolMappersResource protocolMappersResource = getResourceById(realmName, client.getId()).getProtocolMappers();
 
-        List<ProtocolMapperRepresentation> existingProtocolMappers = protocolMappersResource.getMappers();
-        List<ProtocolMapperRepresentation> protocolMapperToRemove = existingProtocolMappers.stream()
-                .filter(existingMapper -> protocolMappers.stream()
-                        .anyMatch(mapper -> Objects.equals(mapper.getName(), existingMapper.getName()))
-                )
-                .toList();
-
-        for (ProtocolMapperRepresentation protocolMapper : protocolMapperToRemove) {
+        for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
             protocolMappersResource.delete(protocolMapper.getId());
         }
     }
 
-    public void updateProtocolMappers(String realmName, String clientId, List<ProtocolMapperRepresentation> protocolMappers) {
+    public void updateProtocolMappers(String realmName, ClientRepresentation client, List<ProtocolMapperRepresentation> protocolMappers) {
         if (protocolMappers == null || protocolMappers.isEmpty()) {
             return;
         }
-        ProtocolMappersResource protocolMappersResource = getResourceByClientId(realmName, clientId).getProtocolMappers();
+        ProtocolMappersResource protocolMappersResource = getResourceById(realmName, client.getId()).getProtocolMappers();
 
         for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
             try {
@@ -188,7 +184,7 @@ public class ClientRepository {
                 throw new ImportProcessingException(
                         String.format(
                                 "Cannot update protocolMapper '%s' for client '%s' in realm '%s': %s",
-                                protocolMapper.getName(), clientId, realmName, errorMessage
+                                protocolMapper.getName(), client.getClientId(), realmName, errorMessage
                         ),
                         error
                 );
@@ -232,13 +228,23 @@ public class ClientRepository {
         clientResource.authorization().update(authorizationSettings);
     }
 
-    public void createAuthorizationResource(String realmName, String id, ResourceRepresentation resource) {
+    public void importAuthorizationSettings(String realmName, String id, ResourceServerRepresentation authorizationSettings) {
+        ClientResource clientResource = getResourceById(realmName, id);
+
+        try {
+            clientResource.authorization().importSettings(authorizationSettings);
+        } catch (WebApplicationException e) {
+            throw toAuthorizationApiException(e, clientResource, realmName);
+        }
+    }
+
+    public String createAuthorizationResource(String realmName, String id, ResourceRepresentation resource) {
         ClientResource clientResource = getResourceById(realmName, id);
 
         try (Response response = clientResource.authorization().resources().create(resource)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         } catch (WebApplicationException e) {
-            handleAuthorizationApiException(e, clientResource, realmName);
+            throw toAuthorizationApiException(e, clientResource, realmName);
         }
     }
 
@@ -272,13 +278,13 @@ public class ClientRepository {
                     .orElse(null));
     }
 
-    public void addAuthorizationScope(String realmName, String id, ScopeRepresentation scope) {
+    public String addAuthorizationScope(String realmName, String id, ScopeRepresentation scope) {
         ClientResource clientResource = getResourceById(realmName, id);
 
         try (Response response = clientResource.authorization().scopes().create(scope)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         } catch (WebApplicationException e) {
-            handleAuthorizationApiException(e, clientResource, realmName);
+            throw toAuthorizationApiException(e, clientResource, realmName);
         }
     }
 
@@ -304,13 +310,13 @@ public class ClientRepository {
         return null;
     }
 
-    public void createAuthorizationPolicy(String realmName, String id, PolicyRepresentation policy) {
+    public String createAuthorizationPolicy(String realmName, String id, PolicyRepresentation policy) {
         ClientResource clientResource = getResourceById(realmName, id);
 
         try (Response response = clientResource.authorization().policies().create(policy)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         } catch (WebApplicationException e) {
-            handleAuthorizationApiException(e, clientResource, realmName);
+            throw toAuthorizationApiException(e, clientResource, realmName);
         }
     }
 
@@ -336,24 +342,6 @@ public class ClientRepository {
         return null;
     }
 
-    public void addScopeMapping(String realmName, String clientId,
-                                String clientLevelId, List<RoleRepresentation> roles) {
-        ClientResource clientResource = getResourceByClientId(realmName, clientId);
-        clientResource
-                .getScopeMappings()
-                .clientLevel(clientLevelId)
-                .add(roles);
-    }
-
-    public void removeScopeMapping(String realmName, String clientId,
-                                   String clientLevelId, List<RoleRepresentation> roles) {
-        ClientResource clientResource = getResourceByClientId(realmName, clientId);
-        clientResource
-                .getScopeMappings()
-                .clientLevel(clientLevelId)
-                .remove(roles);
-    }
-
     public void addDefaultClientScopes(String realmName, String clientId,
                                        List<ClientScopeRepresentation> defaultClientScopes) {
         ClientResource clientResource = getResourceByClientId(realmName, clientId);
@@ -402,14 +390,20 @@ public class ClientRepository {
         return clientResource.getPermissions().isEnabled();
     }
 
-    private void handleAuthorizationApiException(WebApplicationException e, ClientResource clientResource, String realmName) {
+    private RuntimeException toAuthorizationApiException(WebApplicationException e, ClientResource clientResource, String realmName) {
         int status = e.getResponse().getStatus();
-        if (status == HTTP_NOT_FOUND || status == HTTP_NOT_IMPLEMENTED || status == 400) {
-            throw new KeycloakRepositoryException(
+        if (status == HTTP_NOT_FOUND || status == HTTP_NOT_IMPLEMENTED) {
+            return new KeycloakRepositoryException(
                     String.format("Authorization API not supported for client '%s' in realm '%s' (FGAP V2 active)",
                             clientResource.toRepresentation().getClientId(), realmName), e);
         }
-        throw e;
+        if (status == HTTP_BAD_REQUEST) {
+            // a rejected object is not a missing API, keep the server message so the object can be found
+            return new KeycloakRepositoryException(
+                    String.format("Authorization request rejected for client '%s' in realm '%s': %s",
+                            clientResource.toRepresentation().getClientId(), realmName, ResponseUtil.getErrorMessage(e)), e);
+        }
+        return e;
     }
 
     private List<ClientRepresentation> findAll(String realmName, int pageSize) {
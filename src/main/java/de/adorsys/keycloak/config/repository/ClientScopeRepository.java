@@ -110,36 +110,29 @@ public class ClientScopeRepository {
         ClientScopeResource clientScopeResource = getResourceById(realmName, clientScopeId);
         ProtocolMappersResource protocolMappersResource = clientScopeResource.getProtocolMappers();
 
-        List<ProtocolMapperRepresentation> existingProtocolMappers = clientScopeResource.getProtocolMappers().getMappers();
-        List<ProtocolMapperRepresentation> protocolMapperToRemove = existingProtocolMappers.stream()
-                .filter(em -> protocolMappers.stream()
-                        .anyMatch(m -> Objects.equals(m.getName(), em.getName()))
-                )
-                .toList();
-
-        for (ProtocolMapperRepresentation protocolMapper : protocolMapperToRemove) {
+        for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
             protocolMappersResource.delete(protocolMapper.getId());
         }
     }
 
-    public void updateProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
-        ClientScopeResource clientScopeResource = getResourceById(realmName, clientScopeId);
-        ProtocolMappersResource protocolMappersResource = clientScopeResource.getProtocolMappers();
-
-        for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
-            try {
-                protocolMappersResource.update(protocolMapper.getId(), protocolMapper);
-            } catch (WebApplicationException error) {
-                String errorMessage = ResponseUtil.getErrorMessage(error);
-                throw new ImportProcessingException(
-                        String.format(
-                                "Cannot update protocolMapper '%s' for clientScope '%s' in realm '%s': %s",
-                                protocolMapper.getName(), clientScopeResource.toRepresentation().getName(),
-                                realmName, errorMessage
-                        ),
-                        error
-                );
-            }
+    public void updateProtocolMapper(
+            String realmName,
+            ClientScopeRepresentation clientScope,
+            ProtocolMapperRepresentation protocolMapper
+    ) {
+        ProtocolMappersResource protocolMappersResource = getResourceById(realmName, clientScope.getId()).getProtocolMappers();
+
+        try {
+            protocolMappersResource.update(protocolMapper.getId(), protocolMapper);
+        } catch (WebApplicationException error) {
+            String errorMessage = ResponseUtil.getErrorMessage(error);
+            throw new ImportProcessingException(
+                    String.format(
+                            "Cannot update protocolMapper '%s' for clientScope '%s' in realm '%s': %s",
+                            protocolMapper.getName(), clientScope.getName(), realmName, errorMessage
+                    ),
+                    error
+            );
         }
     }
 
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.keycloak.representations.idm.ComponentRepresentation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Components of a realm grouped by their parent. Top-level components have the realm id as parent.
+ * <p>
+ * The index reflects the components at the time they were fetched. Children of components created afterward
+ * have to be registered by {@link #putChildren(String, List)}.
+ */
+public class ComponentIndex {
+    private final String realmId;
+    private final Map<String, List<ComponentRepresentation>> childrenByParentId;
+
+    public ComponentIndex(String realmId, List<ComponentRepresentation> components) {
+        this.realmId = realmId;
+        this.childrenByParentId = components.stream()
+                .filter(component -> component.getParentId() != null)
+                .collect(Collectors.groupingBy(
+                        ComponentRepresentation::getParentId,
+                        ConcurrentHashMap::new,
+                        Collectors.toList()
+                ));
+    }
+
+    /**
+     * Finds a component like {@link ComponentRepository#search(String, String, String, String, String)}.
+     * Without parent id, the top-level components of the realm are searched.
+     */
+    public Optional<ComponentRepresentation> search(String type, String subType, String name, @Nullable String parentId) {
+        return getChildren(parentId).stream()
+                .filter(item -> Objects.equals(type, item.getProviderType()))
+                .filter(item -> Objects.equals(name, item.getName()))
+                .filter(item -> Objects.equals(subType, item.getSubType()))
+                .findFirst();
+    }
+
+    public List<ComponentRepresentation> getChildren(@Nullable String parentId) {
+        return childrenByParentId.getOrDefault(parentId == null ? realmId : parentId, List.of());
+    }
+
+    public void putChildren(String parentId, List<ComponentRepresentation> children) {
+        childrenByParentId.put(parentId, List.copyOf(children));
+    }
+}
@@ -103,6 +103,20 @@ public class ComponentRepository {
         return subComponents;
     }
 
+    /**
+     * Fetches all components of the realm with a single query.
+     */
+    public ComponentIndex getComponentIndex(String realmName) {
+        RealmResource realmResource = realmRepository.getResource(realmName);
+
+        List<ComponentRepresentation> components = realmResource.components().query();
+
+        return new ComponentIndex(
+                realmResource.toRepresentation().getId(),
+                components == null ? Collections.emptyList() : components
+        );
+    }
+
     public Optional<ComponentRepresentation> search(String realmName, String type, String subType, String name) {
         return search(realmName, type, subType, name, null);
     }
@@ -48,18 +48,15 @@ import jakarta.ws.rs.core.Response;
 public class GroupRepository {
 
     private final RealmRepository realmRepository;
-    private final RoleRepository roleRepository;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
 
     @Autowired
     public GroupRepository(
             RealmRepository realmRepository,
-            RoleRepository roleRepository,
             ClientRepository clientRepository,
             UserRepository userRepository) {
         this.realmRepository = realmRepository;
-        this.roleRepository = roleRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
     }
@@ -98,17 +95,17 @@ public class GroupRepository {
                 .findFirst();
     }
 
-    public void createGroup(String realmName, GroupRepresentation group) {
+    public String createGroup(String realmName, GroupRepresentation group) {
         GroupsResource groupsResource = realmRepository.getResource(realmName).groups();
         try (Response response = groupsResource.add(group)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         }
     }
 
-    public void addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
+    public String addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
         GroupResource groupResource = getResourceById(realmName, parentGroupId);
         try (Response response = groupResource.subGroup(subGroup)) {
-            CreatedResponseUtil.getCreatedId(response);
+            return CreatedResponseUtil.getCreatedId(response);
         }
     }
 
@@ -125,26 +122,22 @@ public class GroupRepository {
         return groupResource.getSubGroups(0, Integer.MAX_VALUE, false);
     }
 
-    public void addRealmRoles(String realmName, String groupId, List<String> roleNames) {
+    public void addRealmRoles(String realmName, RoleIndex roleIndex, String groupId, List<String> roleNames) {
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource groupRoles = groupResource.roles();
         RoleScopeResource groupRealmRoles = groupRoles.realmLevel();
 
-        List<RoleRepresentation> existingRealmRoles = roleNames.stream()
-                .map(realmRole -> roleRepository.getRealmRole(realmName, realmRole))
-                .toList();
+        List<RoleRepresentation> existingRealmRoles = roleIndex.getRealmRoles(roleNames);
 
         groupRealmRoles.add(existingRealmRoles);
     }
 
-    public void removeRealmRoles(String realmName, String groupId, List<String> roleNames) {
+    public void removeRealmRoles(String realmName, RoleIndex roleIndex, String groupId, List<String> roleNames) {
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource groupRoles = groupResource.roles();
         RoleScopeResource groupRealmRoles = groupRoles.realmLevel();
 
-        List<RoleRepresentation> existingRealmRoles = roleNames.stream()
-                .map(realmRole -> roleRepository.getRealmRole(realmName, realmRole))
-                .toList();
+        List<RoleRepresentation> existingRealmRoles = roleIndex.getRealmRoles(roleNames);
 
         groupRealmRoles.remove(existingRealmRoles);
     }
@@ -169,7 +162,7 @@ public class GroupRepository {
     }
 
 
-    public void addClientRoles(String realmName, String groupId, String clientId, List<String> roleNames) {
+    public void addClientRoles(String realmName, RoleIndex roleIndex, String groupId, String clientId, List<String> roleNames) {
         if (CollectionUtils.isEmpty(roleNames)) {
             return;
         }
@@ -179,11 +172,11 @@ public class GroupRepository {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
         RoleScopeResource groupClientRolesResource = rolesResource.clientLevel(client.getId());
 
-        List<RoleRepresentation> clientRoles = roleRepository.getClientRolesByName(realmName, clientId, roleNames);
+        List<RoleRepresentation> clientRoles = roleIndex.getClientRoles(clientId, roleNames);
         groupClientRolesResource.add(clientRoles);
     }
 
-    public void removeClientRoles(String realmName, String groupId, String clientId, List<String> roleNames) {
+    public void removeClientRoles(String realmName, RoleIndex roleIndex, String groupId, String clientId, List<String> roleNames) {
         if (CollectionUtils.isEmpty(roleNames)) {
             return;
         }
@@ -193,7 +186,7 @@ public class GroupRepository {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
         RoleScopeResource groupClientRolesResource = rolesResource.clientLevel(client.getId());
 
-        List<RoleRepresentation> clientRoles = roleRepository.getClientRolesByName(realmName, clientId, roleNames);
+        List<RoleRepresentation> clientRoles = roleIndex.getClientRoles(clientId, roleNames);
         groupClientRolesResource.remove(clientRoles);
     }
 
@@ -24,12 +24,10 @@ import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.IdentityProviderResource;
 import org.keycloak.admin.client.resource.IdentityProvidersResource;
 import org.keycloak.representations.idm.IdentityProviderMapperRepresentation;
-import org.keycloak.representations.idm.IdentityProviderRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -41,12 +39,10 @@ import jakarta.ws.rs.core.Response;
 public class IdentityProviderMapperRepository {
 
     private final RealmRepository realmRepository;
-    private final IdentityProviderRepository identityProviderRepository;
 
     @Autowired
-    public IdentityProviderMapperRepository(RealmRepository realmRepository, IdentityProviderRepository identityProviderRepository) {
+    public IdentityProviderMapperRepository(RealmRepository realmRepository) {
         this.realmRepository = realmRepository;
-        this.identityProviderRepository = identityProviderRepository;
     }
 
     public Optional<IdentityProviderMapperRepresentation> search(String realmName, String identityProviderAlias, String name) {
@@ -68,17 +64,15 @@ public class IdentityProviderMapperRepository {
         return maybeIdentityProviderMapper.orElse(null);
     }
 
+    /**
+     * Fetches the mappers of all identity providers with one partial export instead of one request per identity provider.
+     */
     public List<IdentityProviderMapperRepresentation> getAll(String realmName) {
-        List<IdentityProviderMapperRepresentation> mappers = new ArrayList<>();
-        IdentityProvidersResource identityProvidersResource = realmRepository
-                .getResource(realmName).identityProviders();
+        List<IdentityProviderMapperRepresentation> mappers = realmRepository
+                .partialExport(realmName, false, false)
+                .getIdentityProviderMappers();
 
-        List<IdentityProviderRepresentation> identityProviders = identityProviderRepository.getAll(realmName);
-
-        for (IdentityProviderRepresentation identityProvider : identityProviders) {
-            mappers.addAll(identityProvidersResource.get(identityProvider.getAlias()).getMappers());
-        }
-        return mappers;
+        return mappers != null ? mappers : List.of();
     }
 
     public void create(String realmName, IdentityProviderMapperRepresentation identityProviderMapper) {
@@ -21,6 +21,7 @@
 package de.adorsys.keycloak.config.repository;
 
 import de.adorsys.keycloak.config.condition.ConditionalOnKeycloakVersion26OrNewer;
+import de.adorsys.keycloak.config.util.PageIterator;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.OrganizationIdentityProviderResource;
 import org.keycloak.admin.client.resource.OrganizationMemberResource;
@@ -35,6 +36,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -49,6 +51,8 @@ public class OrganizationRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(OrganizationRepository.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final RealmRepository realmRepository;
 
     public OrganizationRepository(RealmRepository realmRepository) {
@@ -56,7 +60,14 @@ public class OrganizationRepository {
     }
 
     public List<OrganizationRepresentation> getAll(String realmName) {
-        return findAll(realmName, 100);
+        return collect(getPages(realmName, DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Lazily fetches the full representations of all organizations, one page per call of {@link Iterator#next()}.
+     */
+    public Iterator<List<OrganizationRepresentation>> getPages(String realmName, int pageSize) {
+        return new PageIterator<>(pageSize, (first, max) -> getOrganizationsResource(realmName).search(null, false, first, max, false));
     }
 
     public Optional<OrganizationRepresentation> search(String realmName, String alias) {
@@ -72,11 +83,12 @@ public class OrganizationRepository {
         return getResourceById(realmName, org.getId()).toRepresentation();
     }
 
-    public void create(String realmName, OrganizationRepresentation organization) {
+    public String create(String realmName, OrganizationRepresentation organization) {
         OrganizationsResource organizationsResource = getOrganizationsResource(realmName);
         try (Response response = organizationsResource.create(organization)) {
             String createdId = CreatedResponseUtil.getCreatedId(response);
             logger.debug("Created organization '{}' with id '{}'", organization.getAlias(), createdId);
+            return createdId;
         }
     }
 
@@ -116,9 +128,14 @@ public class OrganizationRepository {
     }
 
     public List<MemberRepresentation> getMembers(String realmName, String organizationId) {
-        return getResourceById(realmName, organizationId)
-                .members()
-                .getAll();
+        return collect(getMemberPages(realmName, organizationId, DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Lazily fetches the members of an organization, one page per call of {@link Iterator#next()}.
+     */
+    public Iterator<List<MemberRepresentation>> getMemberPages(String realmName, String organizationId, int pageSize) {
+        return new PageIterator<>(pageSize, (first, max) -> getResourceById(realmName, organizationId).members().list(first, max));
     }
 
     public void addMember(String realmName, String organizationId, String userId) {
@@ -136,19 +153,10 @@ public class OrganizationRepository {
         }
     }
 
-    private List<OrganizationRepresentation> findAll(String realmName, int pageSize) {
-        List<OrganizationRepresentation> allOrganizations = new ArrayList<>(pageSize);
-
-        int loop = 0;
-        var onePage = getOrganizationsResource(realmName).list(0, pageSize);
-        while (onePage.size() == pageSize) {
-            loop++;
-            allOrganizations.addAll(onePage);
-            onePage = getOrganizationsResource(realmName).list(pageSize * loop, pageSize);
-        }
-        allOrganizations.addAll(onePage);
-
-        return allOrganizations;
+    private static <T> List<T> collect(Iterator<List<T>> pages) {
+        List<T> all = new ArrayList<>();
+        pages.forEachRemaining(all::addAll);
+        return all;
     }
 
     private OrganizationsResource getOrganizationsResource(String realmName) {
@@ -20,7 +20,6 @@
 
 package de.adorsys.keycloak.config.repository;
 
-import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import org.keycloak.admin.client.resource.RoleResource;
 import org.keycloak.common.util.MultivaluedHashMap;
 import org.keycloak.representations.idm.ClientRepresentation;
@@ -29,7 +28,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -125,226 +127,38 @@ public class RoleCompositeRepository {
                 );
     }
 
-    public void addRealmRoleRealmComposites(
+    public void addRealmRoleComposites(
             String realmName,
             String roleName,
-            Set<String> realmComposites
+            List<RoleRepresentation> composites
     ) {
-        addRealmComposites(
-                realmName,
-                realmComposites,
-                () -> loadRealmRole(realmName, roleName)
-        );
-    }
-
-    public void addClientRoleRealmComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
-            Set<String> realmComposites
-    ) {
-        addRealmComposites(
-                realmName,
-                realmComposites,
-                () -> loadClientRole(realmName, roleClientId, roleName)
-        );
-    }
-
-    public void addRealmRoleClientComposites(
-            String realmName,
-            String roleName,
-            String compositeClientId,
-            Collection<String> clientRoles
-    ) {
-        try {
-            addClientComposites(
-                    realmName,
-                    compositeClientId,
-                    clientRoles,
-                    () -> loadRealmRole(realmName, roleName)
-            );
-        } catch (KeycloakRepositoryException e) {
-            throw new KeycloakRepositoryException(
-                    String.format("Error adding composite roles to realm role '%s': %s", roleName, e.getMessage()), e
-            );
-        }
-    }
-
-    public void addClientRoleClientComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
-            String compositeClientId,
-            Collection<String> clientComposites
-    ) {
-        try {
-            addClientComposites(
-                    realmName,
-                    compositeClientId,
-                    clientComposites,
-                    () -> loadClientRole(realmName, roleClientId, roleName)
-            );
-        } catch (KeycloakRepositoryException e) {
-            throw new KeycloakRepositoryException(
-                    String.format("Error adding composite roles to client role '%s': %s", roleName, e.getMessage()), e
-            );
-        }
-    }
-
-    public void removeRealmRoleRealmComposites(
-            String realmName,
-            String roleName,
-            Set<String> realmComposites
-    ) {
-        removeRealmComposites(
-                realmName,
-                realmComposites,
-                () -> loadRealmRole(realmName, roleName)
-        );
+        loadRealmRole(realmName, roleName).addComposites(composites);
     }
 
-    public void removeClientRoleRealmComposites(
+    public void addClientRoleComposites(
             String realmName,
             String roleClientId,
             String roleName,
-            Set<String> realmComposites
-    ) {
-        removeRealmComposites(
-                realmName,
-                realmComposites,
-                () -> loadClientRole(realmName, roleClientId, roleName)
-        );
-    }
-
-    public void removeRealmRoleClientComposites(
-            String realmName,
-            String roleName,
-            Map<String, List<String>> clientCompositesToRemove
+            List<RoleRepresentation> composites
     ) {
-        removeClientComposites(
-                realmName,
-                clientCompositesToRemove,
-                () -> loadRealmRole(realmName, roleName)
-        );
+        loadClientRole(realmName, roleClientId, roleName).addComposites(composites);
     }
 
-    public void removeRealmRoleClientComposites(
+    public void removeRealmRoleComposites(
             String realmName,
             String roleName,
-            String compositeClientId,
-            Collection<String> clientRoleNames
+            List<RoleRepresentation> composites
     ) {
-        removeClientComposites(
-                realmName,
-                compositeClientId,
-                clientRoleNames,
-                () -> loadRealmRole(realmName, roleName)
-        );
+        loadRealmRole(realmName, roleName).deleteComposites(composites);
     }
 
-    public void removeClientRoleClientComposites(
+    public void removeClientRoleComposites(
             String realmName,
             String roleClientId,
             String roleName,
-            Map<String, List<String>> clientCompositesToRemove
+            List<RoleRepresentation> composites
     ) {
-        removeClientComposites(
-                realmName,
-                clientCompositesToRemove,
-                () -> loadClientRole(realmName, roleClientId, roleName)
-        );
-    }
-
-    public void removeClientRoleClientComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
-            String compositeClientId,
-            Collection<String> clientRoleNames
-    ) {
-        removeClientComposites(
-                realmName,
-                compositeClientId,
-                clientRoleNames,
-                () -> loadClientRole(realmName, roleClientId, roleName)
-        );
-    }
-
-    private void addRealmComposites(
-            String realmName,
-            Set<String> realmComposites,
-            Supplier<RoleResource> roleSupplier
-    ) {
-        RoleResource roleResource = roleSupplier.get();
-
-        List<RoleRepresentation> realmRoles = realmComposites.stream()
-                .map(realmRoleName -> roleRepository.getRealmRole(realmName, realmRoleName))
-                .toList();
-
-        roleResource.addComposites(realmRoles);
-    }
-
-    private void addClientComposites(
-            String realmName,
-            String compositeClientId,
-            Collection<String> clientRoles,
-            Supplier<RoleResource> roleSupplier
-    ) throws KeycloakRepositoryException {
-        RoleResource roleResource = roleSupplier.get();
-
-        List<RoleRepresentation> realmRoles = clientRoles.stream()
-                .map(clientRoleName -> {
-                    RoleRepresentation clientRole = roleRepository.getClientRole(realmName, compositeClientId, clientRoleName);
-                    if (clientRole == null) {
-                        throw new KeycloakRepositoryException(
-                                "Cannot find client role '%s' within realm '%s'", clientRoleName, realmName
-                        );
-                    }
-                    return clientRole;
-                })
-                .toList();
-
-        roleResource.addComposites(realmRoles);
-    }
-
-    private void removeRealmComposites(
-            String realmName,
-            Set<String> realmComposites,
-            Supplier<RoleResource> roleSupplier
-    ) {
-        RoleResource roleResource = roleSupplier.get();
-
-        List<RoleRepresentation> realmRoles = realmComposites.stream()
-                .map(realmRoleName -> roleRepository.getRealmRole(realmName, realmRoleName))
-                .toList();
-
-        roleResource.deleteComposites(realmRoles);
-    }
-
-    private void removeClientComposites(
-            String realmName,
-            Map<String, List<String>> clientCompositesToRemove,
-            Supplier<RoleResource> roleSupplier
-    ) {
-        RoleResource roleResource = roleSupplier.get();
-        List<RoleRepresentation> clientRolesToRemove = findAllClientRoles(realmName, clientCompositesToRemove);
-
-        roleResource.deleteComposites(clientRolesToRemove);
-    }
-
-    private void removeClientComposites(
-            String realmName,
-            String compositeClientId,
-            Collection<String> clientRoleNames,
-            Supplier<RoleResource> roleSupplier
-    ) {
-        RoleResource roleResource = roleSupplier.get();
-
-        List<RoleRepresentation> clientRoles = clientRoleNames.stream()
-                .map(clientRoleName -> roleRepository.getClientRole(realmName, compositeClientId, clientRoleName))
-                .toList();
-
-        roleResource.deleteComposites(clientRoles);
+        loadClientRole(realmName, roleClientId, roleName).deleteComposites(composites);
     }
 
     private MultivaluedHashMap<String, RoleRepresentation> findClientComposites(
@@ -377,23 +191,6 @@ public class RoleCompositeRepository {
         return roleResource.getClientRoleComposites(client.getId());
     }
 
-    private List<RoleRepresentation> findAllClientRoles(
-            String realmName,
-            Map<String, List<String>> clientCompositesToRemove
-    ) {
-        List<RoleRepresentation> clientRolesToRemove = new ArrayList<>();
-
-        for (Map.Entry<String, List<String>> clientCompositeToRemove : clientCompositesToRemove.entrySet()) {
-            String clientId = clientCompositeToRemove.getKey();
-
-            for (String role : clientCompositeToRemove.getValue()) {
-                clientRolesToRemove.add(roleRepository.getClientRole(realmName, clientId, role));
-            }
-        }
-
-        return clientRolesToRemove;
-    }
-
     private RoleResource loadRealmRole(String realmName, String roleName) {
         return roleRepository.loadRealmRole(realmName, roleName);
     }
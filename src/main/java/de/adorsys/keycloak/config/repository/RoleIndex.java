@@ -0,0 +1,95 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves roles by name without a request per role. Realm-level roles are fetched with a single call,
+ * client-level roles with a single call per client on first access.
+ * <p>
+ * An index reflects the roles at the time they were fetched. Create a new index by
+ * {@link RoleRepository#getRoleIndex(String)} after roles have been created or deleted.
+ */
+public class RoleIndex {
+    private final String realmName;
+    private final Map<String, RoleRepresentation> realmRoles;
+    private final Function<String, List<RoleRepresentation>> clientRolesLoader;
+    private final Map<String, Map<String, RoleRepresentation>> clientRoles = new ConcurrentHashMap<>();
+
+    public RoleIndex(
+            String realmName,
+            List<RoleRepresentation> realmRoles,
+            Function<String, List<RoleRepresentation>> clientRolesLoader
+    ) {
+        this.realmName = realmName;
+        this.realmRoles = toMap(realmRoles);
+        this.clientRolesLoader = clientRolesLoader;
+    }
+
+    public Optional<RoleRepresentation> searchRealmRole(String roleName) {
+        return Optional.ofNullable(realmRoles.get(roleName));
+    }
+
+    public RoleRepresentation getRealmRole(String roleName) {
+        return searchRealmRole(roleName)
+                .orElseThrow(() -> new KeycloakRepositoryException(
+                        "Cannot find realm role '%s' within realm '%s'", roleName, realmName
+                ));
+    }
+
+    public List<RoleRepresentation> getRealmRoles(Collection<String> roleNames) {
+        return roleNames.stream()
+                .map(this::getRealmRole)
+                .toList();
+    }
+
+    public Optional<RoleRepresentation> searchClientRole(String clientId, String roleName) {
+        return Optional.ofNullable(getClientRoles(clientId).get(roleName));
+    }
+
+    public List<RoleRepresentation> getClientRoles(String clientId, Collection<String> roleNames) {
+        Map<String, RoleRepresentation> roles = getClientRoles(clientId);
+
+        return roleNames.stream()
+                .map(roleName -> Optional.ofNullable(roles.get(roleName))
+                        .orElseThrow(() -> new KeycloakRepositoryException(
+                                "Cannot find client role '%s' for client '%s' within realm '%s'",
+                                roleName, clientId, realmName
+                        )))
+                .toList();
+    }
+
+    private Map<String, RoleRepresentation> getClientRoles(String clientId) {
+        return clientRoles.computeIfAbsent(clientId, id -> toMap(clientRolesLoader.apply(id)));
+    }
+
+    private static Map<String, RoleRepresentation> toMap(List<RoleRepresentation> roles) {
+        return roles.stream()
+                .collect(Collectors.toMap(RoleRepresentation::getName, role -> role, (a, b) -> a));
+    }
+}
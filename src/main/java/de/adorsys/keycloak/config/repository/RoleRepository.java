@@ -109,10 +109,15 @@ public class RoleRepository {
                 .roles().list();
     }
 
-    public List<RoleRepresentation> getRealmRolesByName(String realmName, Collection<String> roles) {
-        return roles.stream()
-                .map(role -> getRealmRole(realmName, role))
-                .toList();
+    /**
+     * Fetches all realm-level roles at once, client-level roles are fetched once per client on demand.
+     */
+    public RoleIndex getRoleIndex(String realmName) {
+        return new RoleIndex(
+                realmName,
+                getRealmRoles(realmName),
+                clientId -> clientRepository.getResourceByClientId(realmName, clientId).roles().list()
+        );
     }
 
     public final RoleRepresentation getClientRole(String realmName, String clientId, String roleName) {
@@ -139,25 +144,6 @@ public class RoleRepository {
                 ));
     }
 
-    public List<RoleRepresentation> getClientRolesByName(String realmName, String clientId, List<String> roleNames) {
-        ClientResource clientResource = clientRepository.getResourceByClientId(realmName, clientId);
-
-        List<RoleRepresentation> roles = new ArrayList<>();
-
-        for (String roleName : roleNames) {
-            try {
-                roles.add(clientResource.roles().get(roleName).toRepresentation());
-            } catch (NotFoundException e) {
-                throw new KeycloakRepositoryException(
-                        "Cannot find client role '%s' for client '%s' within realm '%s'",
-                        roleName, clientId, realmName
-                );
-            }
-        }
-
-        return roles;
-    }
-
     public void createClientRole(String realmName, String clientId, RoleRepresentation role) {
         RolesResource rolesResource = clientRepository.getResourceByClientId(realmName, clientId).roles();
         rolesResource.create(role);
@@ -182,22 +168,20 @@ public class RoleRepository {
     }
 
     public List<RoleRepresentation> searchRealmRoles(String realmName, List<String> roleNames) {
-        List<RoleRepresentation> roles = new ArrayList<>();
-        RealmResource realmResource = realmRepository.getResource(realmName);
-
-        for (String roleName : roleNames) {
-            try {
-                RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
-
-                roles.add(role);
-            } catch (NotFoundException e) {
-                throw new ImportProcessingException(
-                        String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
-                );
-            }
+        if (roleNames.isEmpty()) {
+            return List.of();
         }
 
-        return roles;
+        return searchRealmRoles(getRoleIndex(realmName), realmName, roleNames);
+    }
+
+    public List<RoleRepresentation> searchRealmRoles(RoleIndex roleIndex, String realmName, List<String> roleNames) {
+        return roleNames.stream()
+                .map(roleName -> roleIndex.searchRealmRole(roleName)
+                        .orElseThrow(() -> new ImportProcessingException(
+                                String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
+                        )))
+                .toList();
     }
 
     public List<String> getUserRealmLevelRoles(String realmName, String username) {
@@ -0,0 +1,91 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.ClientScopeRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.ScopeMappingRepresentation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Scope mappings and client scope mappings of a realm, taken from one partial export together with the ids
+ * of all clients and client scopes. Roles are resolved by the {@link RoleIndex} of the realm.
+ */
+public class ScopeMappingIndex {
+    private final List<ScopeMappingRepresentation> scopeMappings;
+    private final Map<String, List<ScopeMappingRepresentation>> clientScopeMappings;
+    private final Map<String, String> clientIds = new HashMap<>();
+    private final Map<String, String> clientScopeIds = new HashMap<>();
+    private final RoleIndex roleIndex;
+
+    public ScopeMappingIndex(RealmRepresentation existingRealm, RoleIndex roleIndex) {
+        this.scopeMappings = existingRealm.getScopeMappings() != null ? existingRealm.getScopeMappings() : List.of();
+        this.clientScopeMappings = existingRealm.getClientScopeMappings() != null ? existingRealm.getClientScopeMappings() : Map.of();
+        this.roleIndex = roleIndex;
+
+        if (existingRealm.getClients() != null) {
+            for (ClientRepresentation client : existingRealm.getClients()) {
+                clientIds.put(client.getClientId(), client.getId());
+            }
+        }
+
+        if (existingRealm.getClientScopes() != null) {
+            for (ClientScopeRepresentation clientScope : existingRealm.getClientScopes()) {
+                clientScopeIds.put(clientScope.getName(), clientScope.getId());
+            }
+        }
+    }
+
+    public List<ScopeMappingRepresentation> getScopeMappings() {
+        return scopeMappings;
+    }
+
+    public Map<String, List<ScopeMappingRepresentation>> getClientScopeMappings() {
+        return clientScopeMappings;
+    }
+
+    public Optional<String> searchClientId(String clientId) {
+        return Optional.ofNullable(clientIds.get(clientId));
+    }
+
+    public String getClientId(String clientId) {
+        return searchClientId(clientId)
+                .orElseThrow(() -> new KeycloakRepositoryException("Cannot find client by clientId '%s'", clientId));
+    }
+
+    public String getClientScopeId(String clientScopeName) {
+        String clientScopeId = clientScopeIds.get(clientScopeName);
+        if (clientScopeId == null) {
+            throw new KeycloakRepositoryException("Cannot find client-scope by name '%s'", clientScopeName);
+        }
+        return clientScopeId;
+    }
+
+    public RoleIndex getRoleIndex() {
+        return roleIndex;
+    }
+}
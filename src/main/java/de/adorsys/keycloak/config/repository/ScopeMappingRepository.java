@@ -20,125 +20,68 @@
 
 package de.adorsys.keycloak.config.repository;
 
-import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
-import org.keycloak.admin.client.resource.*;
-import org.keycloak.representations.idm.ClientScopeRepresentation;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleMappingResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.ScopeMappingRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class ScopeMappingRepository {
 
     private final RealmRepository realmRepository;
-    private final ClientRepository clientRepository;
     private final RoleRepository roleRepository;
 
     @Autowired
     public ScopeMappingRepository(
             RealmRepository realmRepository,
-            ClientRepository clientRepository,
             RoleRepository roleRepository
     ) {
         this.realmRepository = realmRepository;
-        this.clientRepository = clientRepository;
         this.roleRepository = roleRepository;
     }
 
-    public void addScopeMappingRolesForClient(String realmName, String clientId, Collection<String> roles) {
-        ClientResource clientResource = clientRepository.getResourceByClientId(realmName, clientId);
-        RoleMappingResource scopeMappingsResource = clientResource.getScopeMappings();
-        RoleScopeResource roleScopeResource = scopeMappingsResource.realmLevel();
-
-        List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
-        roleScopeResource.add(realmRoles);
-    }
-
-    public void addScopeMappingRolesForClientScope(String realmName, String clientScopeName, Collection<String> roles) {
-        RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName);
-
-        List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
-        roleScopeResource.add(realmRoles);
-    }
-
-    public void addScopeMappingClientRolesForClientScope(String realmName, String clientScopeName, String clientUuid,
-                                                         List<RoleRepresentation> roles) {
-        final RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName, clientUuid);
-
-        roleScopeResource.add(roles);
-    }
-
-    public void removeScopeMappingRolesForClient(String realmName, String clientId, Collection<String> roles) {
-        RoleMappingResource scopeMappingsResource = clientRepository.getResourceByClientId(realmName, clientId).getScopeMappings();
-
-        List<RoleRepresentation> realmRoles = roles.stream()
-                .map(role -> roleRepository.getRealmRole(realmName, role))
-                .toList();
-
-        scopeMappingsResource.realmLevel().remove(realmRoles);
-    }
-
-    public void removeScopeMappingRolesForClientScope(String realmName, String clientScopeName, Collection<String> roles) {
-        RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName);
-
-        List<RoleRepresentation> realmRoles = roleRepository.getRealmRolesByName(realmName, roles);
-        roleScopeResource.remove(realmRoles);
-    }
-
-    public void removeScopeMappingClientRolesForClientScope(String realmName, String clientScopeName, String clientUuid,
-                                                            List<RoleRepresentation> roles) {
-        final RoleScopeResource roleScopeResource = loadClientScope(realmName, clientScopeName, clientUuid);
-
-        roleScopeResource.remove(roles);
-    }
-
-
-    public void addScopeMapping(String realmName, ScopeMappingRepresentation scopeMapping) {
-        String client = scopeMapping.getClient();
-        String clientScope = scopeMapping.getClientScope();
-
-        if (client != null) {
-            addScopeMappingRolesForClient(realmName, client, scopeMapping.getRoles());
-        } else if (clientScope != null) {
-            addScopeMappingRolesForClientScope(realmName, clientScope, scopeMapping.getRoles());
-        }
+    /**
+     * Fetches scope mappings, client scope mappings, clients and client scopes with one partial export.
+     */
+    public ScopeMappingIndex getScopeMappingIndex(String realmName) {
+        return new ScopeMappingIndex(
+                realmRepository.partialExport(realmName, false, true),
+                roleRepository.getRoleIndex(realmName)
+        );
     }
 
-    private RoleScopeResource loadClientScope(String realmName, String clientScopeName, String clientUuid) {
-        return getRoleMappingResource(realmName, clientScopeName)
-                .clientLevel(clientUuid);
+    /**
+     * Adds roles to the scope mapping of the client or client scope of the given scope mapping.
+     * Without role container, the roles are realm roles, otherwise client roles of that client.
+     */
+    public void addScopeMappingRoles(String realmName, ScopeMappingIndex index, ScopeMappingRepresentation scopeMapping,
+                                     @Nullable String roleContainerClientId, List<RoleRepresentation> roles) {
+        getRoleScopeResource(realmName, index, scopeMapping, roleContainerClientId).add(roles);
     }
 
-    private RoleScopeResource loadClientScope(final String realmName, final String clientScopeName) {
-        return getRoleMappingResource(realmName, clientScopeName)
-                .realmLevel();
+    public void removeScopeMappingRoles(String realmName, ScopeMappingIndex index, ScopeMappingRepresentation scopeMapping,
+                                        @Nullable String roleContainerClientId, List<RoleRepresentation> roles) {
+        getRoleScopeResource(realmName, index, scopeMapping, roleContainerClientId).remove(roles);
     }
 
-    private RoleMappingResource getRoleMappingResource(final String realmName, final String clientScopeName) {
+    private RoleScopeResource getRoleScopeResource(String realmName, ScopeMappingIndex index, ScopeMappingRepresentation scopeMapping,
+                                                   @Nullable String roleContainerClientId) {
         RealmResource realmResource = realmRepository.getResource(realmName);
-        ClientScopesResource clientScopesResource = realmResource.clientScopes();
-        ClientScopeRepresentation clientScope = findClientScope(realmName, clientScopeName);
-        ClientScopeResource clientScopeResource = clientScopesResource.get(clientScope.getId());
 
-        return clientScopeResource.getScopeMappings();
-    }
-
-    private ClientScopeRepresentation findClientScope(String realmName, String clientScopeName) {
-        RealmResource realmResource = realmRepository.getResource(realmName);
-        ClientScopesResource clientScopesResource = realmResource.clientScopes();
+        RoleMappingResource scopeMappingsResource = scopeMapping.getClient() != null
+                ? realmResource.clients().get(index.getClientId(scopeMapping.getClient())).getScopeMappings()
+                : realmResource.clientScopes().get(index.getClientScopeId(scopeMapping.getClientScope())).getScopeMappings();
 
-        return clientScopesResource.findAll().stream()
-                .filter(c -> Objects.equals(c.getName(), clientScopeName))
-                .findFirst()
-                .orElseThrow(() -> new KeycloakRepositoryException(
-                        "Cannot find client-scope by name '%s'", clientScopeName
-                ));
+        return roleContainerClientId == null
+                ? scopeMappingsResource.realmLevel()
+                : scopeMappingsResource.clientLevel(index.getClientId(roleContainerClientId));
     }
 }
@@ -68,6 +68,16 @@ public class UserRepository {
         return user;
     }
 
+    /**
+     * Looks up the id of a user by exact username with a brief representation, without fetching the user afterwards.
+     */
+    public Optional<String> searchIdByUsername(String realmName, String username) {
+        UsersResource usersResource = realmRepository.getResource(realmName).users();
+        List<UserRepresentation> foundUsers = usersResource.search(username, null, null, null, 0, 1, null, true, true);
+
+        return foundUsers.stream().findFirst().map(UserRepresentation::getId);
+    }
+
     public Optional<UserRepresentation> searchByAttributes(String realmName, String email, String firstname, String lastname) {
         UsersResource usersResource = realmRepository.getResource(realmName).users();
         List<UserRepresentation> foundUsers = usersResource.search("", firstname, lastname, email,
@@ -25,13 +25,14 @@ import de.adorsys.keycloak.config.factory.UsedAuthenticationFlowWorkaroundFactor
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
+import de.adorsys.keycloak.config.repository.AuthenticationFlowIndex;
 import de.adorsys.keycloak.config.repository.AuthenticationFlowRepository;
 import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
 import de.adorsys.keycloak.config.util.AuthenticationFlowUtil;
 import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
-import org.keycloak.representations.idm.AuthenticationExecutionInfoRepresentation;
 import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -106,8 +107,10 @@ public class AuthenticationFlowsImportService {
         }
 
         List<AuthenticationFlowRepresentation> topLevelFlowsToImport = AuthenticationFlowUtil.getTopLevelFlows(realmImport);
-        createOrUpdateTopLevelFlows(realmImport, topLevelFlowsToImport);
-        updateBuiltInFlows(realmImport, authenticationFlows);
+        AuthenticationFlowIndex flowIndex = authenticationFlowRepository.getFlowIndex(realmImport.getRealm());
+
+        createOrUpdateTopLevelFlows(realmImport, flowIndex, topLevelFlowsToImport);
+        updateBuiltInFlows(realmImport, flowIndex, authenticationFlows);
         setupFlowsInRealm(realmImport);
 
         if (importConfigProperties.getManaged().getAuthenticationFlow() == ImportManagedPropertiesValues.FULL) {
@@ -169,51 +172,60 @@ public class AuthenticationFlowsImportService {
     /**
      * creates or updates only the top-level flows and its executions or
      * execution-flows
+     * <p>
+     * Existing flows are recreated one after another, because the recreation temporarily changes realm and client bindings.
+     * New flows are not bound yet and are created in parallel if {@code import.parallel} is enabled.
      */
-    private void createOrUpdateTopLevelFlows(RealmImport realmImport, List<AuthenticationFlowRepresentation> topLevelFlowsToImport) {
-        for (AuthenticationFlowRepresentation topLevelFlowToImport : topLevelFlowsToImport) {
-            if (!topLevelFlowToImport.isBuiltIn()) {
-                createOrUpdateTopLevelFlow(realmImport, topLevelFlowToImport);
-            }
-        }
-    }
-
-    /**
-     * creates or updates only the top-level flow and its executions or execution-flows
-     */
-    private void createOrUpdateTopLevelFlow(
+    private void createOrUpdateTopLevelFlows(
             RealmImport realmImport,
-            AuthenticationFlowRepresentation topLevelFlowToImport
+            AuthenticationFlowIndex flowIndex,
+            List<AuthenticationFlowRepresentation> topLevelFlowsToImport
     ) {
-        String alias = topLevelFlowToImport.getAlias();
+        List<AuthenticationFlowRepresentation> topLevelFlowsToCreate = new ArrayList<>();
+
+        for (AuthenticationFlowRepresentation topLevelFlowToImport : topLevelFlowsToImport) {
+            if (topLevelFlowToImport.isBuiltIn()) continue;
 
-        Optional<AuthenticationFlowRepresentation> maybeTopLevelFlow = authenticationFlowRepository.searchByAlias(realmImport.getRealm(), alias);
+            Optional<AuthenticationFlowRepresentation> maybeTopLevelFlow = flowIndex.searchByAlias(topLevelFlowToImport.getAlias());
 
-        if (maybeTopLevelFlow.isPresent()) {
-            AuthenticationFlowRepresentation existingTopLevelFlow = maybeTopLevelFlow.get();
-            updateTopLevelFlowIfNeeded(realmImport, topLevelFlowToImport, existingTopLevelFlow);
-        } else {
-            createTopLevelFlow(realmImport, topLevelFlowToImport);
+            if (maybeTopLevelFlow.isPresent()) {
+                updateTopLevelFlowIfNeeded(realmImport, flowIndex, topLevelFlowToImport, maybeTopLevelFlow.get());
+            } else {
+                topLevelFlowsToCreate.add(topLevelFlowToImport);
+            }
         }
+
+        ParallelUtil.forEach(
+                topLevelFlowsToCreate,
+                topLevelFlowToImport -> createTopLevelFlow(realmImport, topLevelFlowToImport),
+                importConfigProperties.isParallel()
+        );
     }
 
     private void createTopLevelFlow(RealmImport realmImport, AuthenticationFlowRepresentation topLevelFlowToImport) {
         logger.debug("Creating top-level flow: {}", topLevelFlowToImport.getAlias());
-        authenticationFlowRepository.createTopLevel(realmImport.getRealm(), topLevelFlowToImport);
+        String flowId = authenticationFlowRepository.createTopLevel(realmImport.getRealm(), topLevelFlowToImport);
 
-        AuthenticationFlowRepresentation createdTopLevelFlow = authenticationFlowRepository.getByAlias(
-                realmImport.getRealm(), topLevelFlowToImport.getAlias()
+        executionFlowsImportService.createExecutionsAndExecutionFlows(
+                realmImport, topLevelFlowToImport, createdFlow(topLevelFlowToImport, flowId)
         );
-        executionFlowsImportService.createExecutionsAndExecutionFlows(realmImport, topLevelFlowToImport, createdTopLevelFlow);
+    }
+
+    private AuthenticationFlowRepresentation createdFlow(AuthenticationFlowRepresentation flow, String flowId) {
+        AuthenticationFlowRepresentation createdFlow = CloneUtil.deepClone(flow);
+        createdFlow.setId(flowId);
+
+        return createdFlow;
     }
 
     private void updateTopLevelFlowIfNeeded(
             RealmImport realmName,
+            AuthenticationFlowIndex flowIndex,
             AuthenticationFlowRepresentation topLevelFlowToImport,
             AuthenticationFlowRepresentation existingAuthenticationFlow
     ) {
         boolean hasToBeUpdated = hasAuthenticationFlowToBeUpdated(topLevelFlowToImport, existingAuthenticationFlow)
-                || hasAnySubFlowToBeUpdated(realmName, topLevelFlowToImport);
+                || hasAnySubFlowToBeUpdated(realmName, flowIndex, topLevelFlowToImport);
 
         if (hasToBeUpdated) {
             logger.debug("Recreate top-level flow: {}", topLevelFlowToImport.getAlias());
@@ -225,12 +237,14 @@ public class AuthenticationFlowsImportService {
 
     private boolean hasAnySubFlowToBeUpdated(
             RealmImport realmImport,
+            AuthenticationFlowIndex flowIndex,
             AuthenticationFlowRepresentation topLevelFlowToImport
     ) {
         List<AuthenticationFlowRepresentation> subFlows = getAllSubFlows(realmImport, topLevelFlowToImport);
+        Set<String> existingSubFlowAliases = flowIndex.getSubFlowAliases(topLevelFlowToImport.getAlias());
 
         for (AuthenticationFlowRepresentation subFlowToImport : subFlows) {
-            if (isSubFlowNotExistingOrHasToBeUpdated(realmImport, topLevelFlowToImport, subFlowToImport)) {
+            if (isSubFlowNotExistingOrHasToBeUpdated(flowIndex, existingSubFlowAliases, subFlowToImport)) {
                 return true;
             }
         }
@@ -253,33 +267,19 @@ public class AuthenticationFlowsImportService {
     }
 
     private boolean isSubFlowNotExistingOrHasToBeUpdated(
-            RealmImport realmImport,
-            AuthenticationFlowRepresentation topLevelFlowToImport,
+            AuthenticationFlowIndex flowIndex,
+            Set<String> existingSubFlowAliases,
             AuthenticationFlowRepresentation subFlowToImport
     ) {
-        Optional<AuthenticationExecutionInfoRepresentation> maybeSubFlow = authenticationFlowRepository.searchSubFlow(
-                realmImport.getRealm(), topLevelFlowToImport.getAlias(), subFlowToImport.getAlias()
-        );
+        if (!existingSubFlowAliases.contains(subFlowToImport.getAlias())) {
+            return true;
+        }
 
-        return maybeSubFlow
-                .map(authenticationExecutionInfoRepresentation -> hasExistingSubFlowToBeUpdated(
-                        realmImport, subFlowToImport, authenticationExecutionInfoRepresentation
-                ))
+        return flowIndex.searchByAlias(subFlowToImport.getAlias())
+                .map(existingSubFlow -> hasAuthenticationFlowToBeUpdated(subFlowToImport, existingSubFlow))
                 .orElse(true);
     }
 
-    private boolean hasExistingSubFlowToBeUpdated(
-            RealmImport realmImport,
-            AuthenticationFlowRepresentation subFlowToImport,
-            AuthenticationExecutionInfoRepresentation existingSubExecutionFlow
-    ) {
-        AuthenticationFlowRepresentation existingSubFlow = authenticationFlowRepository.getFlowById(
-                realmImport.getRealm(), existingSubExecutionFlow.getFlowId()
-        );
-
-        return hasAuthenticationFlowToBeUpdated(subFlowToImport, existingSubFlow);
-    }
-
     /**
      * Checks if the authentication flow to import and the existing representation differs in any property except "id" and:
      *
@@ -338,14 +338,13 @@ public class AuthenticationFlowsImportService {
 
     private void updateBuiltInFlows(
             RealmImport realmImport,
+            AuthenticationFlowIndex flowIndex,
             List<AuthenticationFlowRepresentation> flowsToImport
     ) {
         for (AuthenticationFlowRepresentation flowToImport : flowsToImport) {
             if (!flowToImport.isBuiltIn()) continue;
 
-            String flowAlias = flowToImport.getAlias();
-            Optional<AuthenticationFlowRepresentation> maybeFlow = authenticationFlowRepository
-                    .searchByAlias(realmImport.getRealm(), flowAlias);
+            Optional<AuthenticationFlowRepresentation> maybeFlow = flowIndex.searchByAlias(flowToImport.getAlias());
 
             if (maybeFlow.isEmpty()) {
                 throw new InvalidImportException(String.format(
@@ -409,12 +408,11 @@ public class AuthenticationFlowsImportService {
         try {
             authenticatorConfigImportService.deleteAuthenticationConfigs(realmImport, patchedAuthenticationFlow);
             authenticationFlowRepository.delete(realmImport.getRealm(), patchedAuthenticationFlow.getId());
-            authenticationFlowRepository.createTopLevel(realmImport.getRealm(), patchedAuthenticationFlow);
+            String flowId = authenticationFlowRepository.createTopLevel(realmImport.getRealm(), patchedAuthenticationFlow);
 
-            AuthenticationFlowRepresentation createdTopLevelFlow = authenticationFlowRepository.getByAlias(
-                    realmImport.getRealm(), topLevelFlowToImport.getAlias()
+            executionFlowsImportService.createExecutionsAndExecutionFlows(
+                    realmImport, topLevelFlowToImport, createdFlow(patchedAuthenticationFlow, flowId)
             );
-            executionFlowsImportService.createExecutionsAndExecutionFlows(realmImport, topLevelFlowToImport, createdTopLevelFlow);
         } finally {
             try {
                 workaround.restoreClientOverrides(overrides);
@@ -445,13 +443,12 @@ public class AuthenticationFlowsImportService {
      * Returns true if the flow is referenced by an identity provider in the given realm,
      * either as first broker login flow or as post broker login flow.
      *
-     * @param realmName the keycloak realm name
+     * @param idps the identity providers of the realm
      * @param flowAlias the alias of the flow to check
      * @return true if the flow is referenced, false if not
      */
 
-    private boolean isFlowReferencedByIdP(String realmName, String flowAlias) {
-        List<IdentityProviderRepresentation> idps = identityProviderRepository.getAll(realmName);
+    private boolean isFlowReferencedByIdP(List<IdentityProviderRepresentation> idps, String flowAlias) {
         Optional<IdentityProviderRepresentation> match = idps.stream()
                 .filter(idp ->
                         flowAlias.equals(idp.getFirstBrokerLoginFlowAlias())
@@ -460,8 +457,7 @@ public class AuthenticationFlowsImportService {
         return match.isPresent();
     }
 
-    private boolean isFlowReferencedByRealmBindings(String realmName, String flowAlias) {
-        RealmRepresentation realm = realmRepository.get(realmName);
+    private boolean isFlowReferencedByRealmBindings(RealmRepresentation realm, String flowAlias) {
         return flowAlias.equals(realm.getBrowserFlow())
                 || flowAlias.equals(realm.getDirectGrantFlow())
                 || flowAlias.equals(realm.getClientAuthenticationFlow())
@@ -499,6 +495,9 @@ public class AuthenticationFlowsImportService {
                 .map(AuthenticationFlowRepresentation::getAlias)
                 .collect(Collectors.toSet());
 
+        RealmRepresentation realm = realmRepository.get(realmName);
+        List<IdentityProviderRepresentation> identityProviders = identityProviderRepository.getAll(realmName);
+
         for (AuthenticationFlowRepresentation existingTopLevelFlow : existingTopLevelFlows) {
             if (topLevelFlowsToImportAliases.contains(existingTopLevelFlow.getAlias())) {
                 continue;
@@ -508,7 +507,7 @@ public class AuthenticationFlowsImportService {
                 continue;
             }
 
-            if (isFlowReferencedByRealmBindings(realmName, existingTopLevelFlow.getAlias())) {
+            if (isFlowReferencedByRealmBindings(realm, existingTopLevelFlow.getAlias())) {
                 logger.warn(
                         "Cannot delete authentication flow '{}' in realm '{}' as it is referenced by realm flow bindings",
                         existingTopLevelFlow.getAlias(),
@@ -517,7 +516,7 @@ public class AuthenticationFlowsImportService {
                 continue;
             }
 
-            if (!isFlowReferencedByIdP(realmName, existingTopLevelFlow.getAlias())) {
+            if (!isFlowReferencedByIdP(identityProviders, existingTopLevelFlow.getAlias())) {
                 logger.debug("Delete authentication flow: {}", existingTopLevelFlow.getAlias());
                 try {
                     authenticationFlowRepository.delete(realmName, existingTopLevelFlow.getId());
@@ -32,6 +32,7 @@ import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.service.clientauthorization.ClientPermissionResolver;
 import de.adorsys.keycloak.config.service.clientauthorization.GroupPermissionResolver;
 import de.adorsys.keycloak.config.service.clientauthorization.IdpPermissionResolver;
+import de.adorsys.keycloak.config.service.clientauthorization.MemoizingPermissionResolver;
 import de.adorsys.keycloak.config.service.clientauthorization.PermissionResolver;
 import de.adorsys.keycloak.config.service.clientauthorization.PermissionTypeAndId;
 import de.adorsys.keycloak.config.service.clientauthorization.RolePermissionResolver;
@@ -39,6 +40,7 @@ import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.JsonUtil;
 import de.adorsys.keycloak.config.util.KeycloakUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.representations.idm.ClientRepresentation;
 import org.keycloak.representations.idm.authorization.PolicyRepresentation;
 import org.keycloak.representations.idm.authorization.ResourceRepresentation;
@@ -49,10 +51,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import jakarta.ws.rs.BadRequestException;
@@ -70,11 +75,13 @@ public class ClientAuthorizationImportService {
 
     public static final String REALM_MANAGEMENT_CLIENT_ID = "realm-management";
     public static final String ADMIN_PERMISSIONS_CLIENT_ID = "admin-permissions";
+    private static final int HTTP_BAD_REQUEST = 400;
     private static final int HTTP_NOT_FOUND = 404;
     private static final int HTTP_NOT_IMPLEMENTED = 501;
     private static final String FGAP_V2_RESOURCE_WARNING = "Cannot {} authorization resource '{}' for client '{}' - {}";
     private static final String FGAP_V2_SCOPE_WARNING = "Cannot {} authorization scope '{}' for client '{}' - {}";
     private static final String FGAP_V2_POLICY_WARNING = "Cannot {} authorization policy '{}' for client '{}' - {}";
+    private static final String[] AUTHORIZATION_SETTINGS_IGNORED_PROPERTIES = {"clientId", "policies", "resources", "permissions", "scopes"};
 
     /**
      * Maps FGAP V2 resource types to V1 permission types.
@@ -181,23 +188,30 @@ public class ClientAuthorizationImportService {
             logger.debug("Unable to determine FGAP V2 status in updateClientAuthorizationSettings: {}", e.getMessage());
         }
 
-        for (ClientRepresentation client : clientsWithAuthorization) {
-            if (fgapV2Active && ADMIN_PERMISSIONS_CLIENT_ID.equals(client.getClientId())) {
+        RealmManagementPermissionsResolver realmManagementPermissionsResolver = new RealmManagementPermissionsResolver(realmName);
+        realmManagementPermissionsResolver.resolveObjectIds(clientsWithAuthorization.stream()
+                .map(ClientRepresentation::getAuthorizationSettings)
+                .toList());
+
+        boolean skipAdminPermissions = fgapV2Active;
+        ParallelUtil.forEach(clientsWithAuthorization, client -> {
+            if (skipAdminPermissions && ADMIN_PERMISSIONS_CLIENT_ID.equals(client.getClientId())) {
                 logger.info("Skipping authorization settings for 'admin-permissions' client in realm '{}' - "
                         + "FGAP V2 manages this client internally and blocks API access (see https://github.com/keycloak/keycloak/issues/43977). "
                         + "Remove this client from your import configuration and use realm-level adminPermissionsEnabled flag instead.", realmName);
-                continue;
+                return;
             }
 
             ClientRepresentation existingClient = getExistingClient(realmName, client);
-            updateAuthorization(realmName, existingClient, client.getAuthorizationSettings());
-        }
+            updateAuthorization(realmName, existingClient, client.getAuthorizationSettings(), realmManagementPermissionsResolver);
+        }, importConfigProperties.isParallel());
     }
 
     private void updateAuthorization(
             String realmName,
             ClientRepresentation client,
-            ResourceServerRepresentation authorizationSettingsToImport
+            ResourceServerRepresentation authorizationSettingsToImport,
+            RealmManagementPermissionsResolver realmManagementPermissionsResolver
     ) {
         // FGAP V2: admin-permissions client authorization handled via error handling
         // Cannot detect authorizationSchema (only in KC client lib 26.2+) - rely on runtime errors
@@ -209,54 +223,132 @@ public class ClientAuthorizationImportService {
             );
         }
 
-        RealmManagementPermissionsResolver realmManagementPermissionsResolver = new RealmManagementPermissionsResolver(realmName);
         if (REALM_MANAGEMENT_CLIENT_ID.equals(client.getClientId())) {
             realmManagementPermissionsResolver.createFineGrantedPermissions(authorizationSettingsToImport);
         }
 
         ResourceServerRepresentation existingAuthorization = getExistingAuthorization(realmName, client);
 
-        handleAuthorizationSettings(realmName, client, existingAuthorization, authorizationSettingsToImport);
+        boolean bulkImport = importConfigProperties.getBehaviors().isClientAuthorizationBulkImport();
+        if (!bulkImport) {
+            handleAuthorizationSettings(realmName, client, existingAuthorization, authorizationSettingsToImport);
+        }
 
         final List<ResourceRepresentation> sanitizedAuthorizationResources =
                 sanitizeAuthorizationResources(authorizationSettingsToImport, realmManagementPermissionsResolver);
         final List<PolicyRepresentation> sanitizedAuthorizationPolicies = sanitizeAuthorizationPolicies(authorizationSettingsToImport,
                 realmManagementPermissionsResolver);
 
-        // Scopes must be created before resources so resources can bind to them
-        createOrUpdateAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationSettingsToImport.getScopes());
-        createOrUpdateAuthorizationResources(realmName, client, existingAuthorization.getResources(), sanitizedAuthorizationResources);
+        // The maps below are kept in sync with every create and remove, so the settings are fetched only once per client
+        Map<String, ScopeRepresentation> existingScopes = existingAuthorization.getScopes().stream()
+                .collect(Collectors.toMap(ScopeRepresentation::getName, scope -> scope));
+        Map<String, ResourceRepresentation> existingResources = existingAuthorization.getResources().stream()
+                .collect(Collectors.toMap(ResourceRepresentation::getName, resource -> resource));
+        Map<String, PolicyRepresentation> existingPolicies = existingAuthorization.getPolicies().stream()
+                .collect(Collectors.toMap(PolicyRepresentation::getName, policy -> policy));
+
+        if (!bulkImport) {
+            // Scopes must be created before resources so resources can bind to them
+            createOrUpdateAuthorizationScopes(realmName, client, existingScopes, authorizationSettingsToImport.getScopes());
+            createOrUpdateAuthorizationResources(realmName, client, existingResources, sanitizedAuthorizationResources);
+        }
 
         if (importConfigProperties.getManaged().getClientAuthorizationResources() == FULL) {
-            removeAuthorizationResources(realmName, client, existingAuthorization.getResources(), sanitizedAuthorizationResources);
+            removeAuthorizationResources(realmName, client, existingResources, existingPolicies, sanitizedAuthorizationResources);
         }
 
         if (importConfigProperties.getManaged().getClientAuthorizationPolicies() == FULL) {
-            removeAuthorizationPolicies(realmName, client, existingAuthorization.getPolicies(), sanitizedAuthorizationPolicies);
+            removeAuthorizationPolicies(realmName, client, existingPolicies, sanitizedAuthorizationPolicies);
         }
 
         if (importConfigProperties.getManaged().getClientAuthorizationScopes() == FULL) {
-            removeAuthorizationScopes(realmName, client, existingAuthorization.getScopes(), authorizationSettingsToImport.getScopes());
+            removeAuthorizationScopes(realmName, client, existingScopes, existingPolicies, authorizationSettingsToImport.getScopes());
         }
 
-        // refresh existingAuthorization
-        try {
-            existingAuthorization = clientRepository.getAuthorizationConfigById(
-                    realmName, client.getId()
+        if (bulkImport) {
+            importAuthorizationSettings(
+                    realmName, client, existingAuthorization, authorizationSettingsToImport,
+                    existingScopes, existingResources, existingPolicies,
+                    sanitizedAuthorizationResources, sanitizedAuthorizationPolicies
             );
-        } catch (NotFoundException | BadRequestException | ServerErrorException e) {
-            int statusCode = e.getResponse().getStatus();
-            if (statusCode == HTTP_NOT_FOUND || statusCode == HTTP_NOT_IMPLEMENTED || statusCode == 400) {
-                logger.debug("Cannot refresh authorization config for client '{}' in realm '{}' (HTTP {}) - {} "
-                        + "Using existing authorization settings.",
-                        getClientIdentifier(client), realmName, statusCode, getFgapV2Message());
-                // Use the existing authorization settings we already have
-            } else {
-                throw e;
+        } else {
+            createOrUpdateAuthorizationPolicies(realmName, client, existingPolicies, sanitizedAuthorizationPolicies);
+        }
+    }
+
+    /**
+     * Merges all new and changed scopes, resources and policies into one representation and pushes it through
+     * the import endpoint of the resource server. Keycloak creates or updates every object by name there,
+     * objects which are already up-to-date are left out.
+     */
+    @SuppressWarnings("java:S107")
+    private void importAuthorizationSettings(
+            String realmName,
+            ClientRepresentation client,
+            ResourceServerRepresentation existingAuthorization,
+            ResourceServerRepresentation authorizationSettingsToImport,
+            Map<String, ScopeRepresentation> existingClientAuthorizationScopesMap,
+            Map<String, ResourceRepresentation> existingClientAuthorizationResourcesMap,
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
+            List<ResourceRepresentation> authorizationResourcesToImport,
+            List<PolicyRepresentation> authorizationPoliciesToImport
+    ) {
+        List<ScopeRepresentation> scopes = new ArrayList<>();
+        for (ScopeRepresentation scope : authorizationSettingsToImport.getScopes()) {
+            ScopeRepresentation existingScope = existingClientAuthorizationScopesMap.get(scope.getName());
+            if (existingScope == null || !CloneUtil.deepEquals(scope, existingScope, "id")) {
+                ScopeRepresentation scopeToImport = CloneUtil.deepClone(scope);
+                scopeToImport.setId(existingScope != null ? existingScope.getId() : null);
+                scopes.add(scopeToImport);
             }
         }
 
-        createOrUpdateAuthorizationPolicies(realmName, client, existingAuthorization.getPolicies(), sanitizedAuthorizationPolicies);
+        List<ResourceRepresentation> resources = new ArrayList<>();
+        for (ResourceRepresentation resource : authorizationResourcesToImport) {
+            ResourceRepresentation existingResource = existingClientAuthorizationResourcesMap.get(resource.getName());
+            if (existingResource == null || !isAuthorizationResourceUpToDate(existingResource, resource)) {
+                ResourceRepresentation resourceToImport = CloneUtil.deepClone(resource);
+                setAuthorizationResourceOwner(resourceToImport);
+                resourceToImport.setId(existingResource != null ? existingResource.getId() : null);
+                resources.add(resourceToImport);
+            }
+        }
+
+        List<PolicyRepresentation> policies = new ArrayList<>();
+        for (PolicyRepresentation policy : authorizationPoliciesToImport) {
+            PolicyRepresentation existingPolicy = existingClientAuthorizationPoliciesMap.get(policy.getName());
+            if (existingPolicy == null || !CloneUtil.deepEquals(policy, existingPolicy, "id")) {
+                PolicyRepresentation policyToImport = CloneUtil.deepClone(policy);
+                policyToImport.setId(existingPolicy != null ? existingPolicy.getId() : null);
+                policies.add(policyToImport);
+            }
+        }
+
+        boolean isSettingsEquals = CloneUtil.deepEquals(
+                authorizationSettingsToImport, existingAuthorization, AUTHORIZATION_SETTINGS_IGNORED_PROPERTIES
+        );
+
+        if (isSettingsEquals && scopes.isEmpty() && resources.isEmpty() && policies.isEmpty()) return;
+
+        ResourceServerRepresentation mergedAuthorizationSettings = CloneUtil.patch(
+                existingAuthorization, authorizationSettingsToImport, AUTHORIZATION_SETTINGS_IGNORED_PROPERTIES
+        );
+        mergedAuthorizationSettings.setScopes(scopes);
+        mergedAuthorizationSettings.setResources(resources);
+        mergedAuthorizationSettings.setPolicies(policies);
+
+        logger.debug("Import {} authorization scopes, {} resources and {} policies for client '{}' in realm '{}'",
+                scopes.size(), resources.size(), policies.size(), getClientIdentifier(client), realmName);
+
+        try {
+            clientRepository.importAuthorizationSettings(realmName, client.getId(), mergedAuthorizationSettings);
+        } catch (KeycloakRepositoryException e) {
+            if (isAuthorizationApiUnsupported(e)) {
+                logger.warn("Cannot import authorization settings for client '{}' - {}", getClientIdentifier(client), getFgapV2Message());
+                return;
+            }
+            throw e;
+        }
     }
 
     private List<ResourceRepresentation> sanitizeAuthorizationResources(ResourceServerRepresentation authorizationSettings,
@@ -346,9 +438,9 @@ public class ClientAuthorizationImportService {
             ResourceServerRepresentation existingClientAuthorizationResources,
             ResourceServerRepresentation authorizationResourcesToImport
     ) {
-        String[] ignoredProperties = new String[]{"clientId", "policies", "resources", "permissions", "scopes"};
-
-        boolean isEquals = CloneUtil.deepEquals(authorizationResourcesToImport, existingClientAuthorizationResources, ignoredProperties);
+        boolean isEquals = CloneUtil.deepEquals(
+                authorizationResourcesToImport, existingClientAuthorizationResources, AUTHORIZATION_SETTINGS_IGNORED_PROPERTIES
+        );
 
         if (isEquals) return;
 
@@ -385,14 +477,9 @@ public class ClientAuthorizationImportService {
     private void createOrUpdateAuthorizationResources(
             String realmName,
             ClientRepresentation client,
-            List<ResourceRepresentation> existingClientAuthorizationResources,
+            Map<String, ResourceRepresentation> existingClientAuthorizationResourcesMap,
             List<ResourceRepresentation> authorizationResourcesToImport
     ) {
-        Map<String, ResourceRepresentation> existingClientAuthorizationResourcesMap =
-                existingClientAuthorizationResources
-                        .stream()
-                        .collect(Collectors.toMap(ResourceRepresentation::getName, resource -> resource));
-
         for (ResourceRepresentation authorizationResourceToImport : authorizationResourcesToImport) {
             createOrUpdateAuthorizationResource(realmName, client, existingClientAuthorizationResourcesMap, authorizationResourceToImport);
         }
@@ -405,13 +492,18 @@ public class ClientAuthorizationImportService {
             ResourceRepresentation authorizationResourceToImport
     ) {
         if (!existingClientAuthorizationResourcesMap.containsKey(authorizationResourceToImport.getName())) {
-            createAuthorizationResource(realmName, client, authorizationResourceToImport);
+            String id = createAuthorizationResource(realmName, client, authorizationResourceToImport);
+            if (id != null) {
+                ResourceRepresentation createdResource = CloneUtil.deepClone(authorizationResourceToImport);
+                createdResource.setId(id);
+                existingClientAuthorizationResourcesMap.put(createdResource.getName(), createdResource);
+            }
         } else {
             updateAuthorizationResource(realmName, client, existingClientAuthorizationResourcesMap, authorizationResourceToImport);
         }
     }
 
-    private void createAuthorizationResource(
+    private String createAuthorizationResource(
             String realmName,
             ClientRepresentation client,
             ResourceRepresentation authorizationResourceToImport
@@ -423,9 +515,9 @@ public class ClientAuthorizationImportService {
                 authorizationResourceToImport.getName(), getClientIdentifier(client), realmName);
 
         try {
-            clientRepository.createAuthorizationResource(realmName, client.getId(), authorizationResourceToImport);
+            return clientRepository.createAuthorizationResource(realmName, client.getId(), authorizationResourceToImport);
         } catch (KeycloakRepositoryException e) {
-            if (e.getMessage().contains("Authorization API not supported")) {
+            if (isAuthorizationApiUnsupported(e)) {
                 // V2 resource type definitions (Groups, Users, Clients, Roles) are auto-created by Keycloak
                 boolean isV2ResourceType = authorizationResourceToImport.getName().matches("^(Groups|Users|Clients|Roles)$");
                 if (ADMIN_PERMISSIONS_CLIENT_ID.equals(client.getClientId()) && isV2ResourceType) {
@@ -435,7 +527,7 @@ public class ClientAuthorizationImportService {
                     logger.warn("Cannot create authorization resource '{}' for client '{}' - {}",
                             authorizationResourceToImport.getName(), getClientIdentifier(client), getFgapV2Message());
                 }
-                return;
+                return null;
             }
             throw e;
         } catch (NotFoundException | ServerErrorException e) {
@@ -448,14 +540,14 @@ public class ClientAuthorizationImportService {
                     logger.warn("Cannot create authorization resource '{}' for client '{}' - Client does not support FGAP V1 authorization. {}",
                             authorizationResourceToImport.getName(), getClientIdentifier(client), getFgapV2Message());
                 }
-                return;
+                return null;
             }
             throw e;
         } catch (WebApplicationException e) {
             if (e.getResponse().getStatus() == HTTP_NOT_FOUND) {
                 logger.warn("Cannot create authorization resource '{}' for client '{}' - {}",
                         authorizationResourceToImport.getName(), getClientIdentifier(client), getFgapV2Message());
-                return;
+                return null;
             }
             throw e;
         }
@@ -470,24 +562,7 @@ public class ClientAuthorizationImportService {
         ResourceRepresentation existingClientAuthorizationResource = existingClientAuthorizationResourcesMap
                 .get(authorizationResourceToImport.getName());
 
-        if (existingClientAuthorizationResource.getOwner() != null
-                && existingClientAuthorizationResource.getOwner().getId() == null
-                && Objects.equals(existingClientAuthorizationResource.getOwner().getName(), authorizationResourceToImport.getOwner().getId())) {
-            existingClientAuthorizationResource.getOwner().setId(authorizationResourceToImport.getOwner().getId());
-            existingClientAuthorizationResource.getOwner().setName(null);
-        }
-
-        if (existingClientAuthorizationResource.getAttributes() != null
-                && existingClientAuthorizationResource.getAttributes().isEmpty()
-                && authorizationResourceToImport.getAttributes() == null) {
-            existingClientAuthorizationResource.setAttributes(null);
-        }
-
-        boolean isEquals = CloneUtil.deepEquals(
-                authorizationResourceToImport, existingClientAuthorizationResource, "id", "_id"
-        );
-
-        if (isEquals) return;
+        if (isAuthorizationResourceUpToDate(existingClientAuthorizationResource, authorizationResourceToImport)) return;
 
         setAuthorizationResourceOwner(authorizationResourceToImport);
 
@@ -507,24 +582,53 @@ public class ClientAuthorizationImportService {
         }
     }
 
+    private boolean isAuthorizationResourceUpToDate(
+            ResourceRepresentation existingClientAuthorizationResource,
+            ResourceRepresentation authorizationResourceToImport
+    ) {
+        if (existingClientAuthorizationResource.getOwner() != null
+                && existingClientAuthorizationResource.getOwner().getId() == null
+                && Objects.equals(existingClientAuthorizationResource.getOwner().getName(), authorizationResourceToImport.getOwner().getId())) {
+            existingClientAuthorizationResource.getOwner().setId(authorizationResourceToImport.getOwner().getId());
+            existingClientAuthorizationResource.getOwner().setName(null);
+        }
+
+        if (existingClientAuthorizationResource.getAttributes() != null
+                && existingClientAuthorizationResource.getAttributes().isEmpty()
+                && authorizationResourceToImport.getAttributes() == null) {
+            existingClientAuthorizationResource.setAttributes(null);
+        }
+
+        return CloneUtil.deepEquals(
+                authorizationResourceToImport, existingClientAuthorizationResource, "id", "_id"
+        );
+    }
+
     private void removeAuthorizationResources(
             String realmName,
             ClientRepresentation client,
-            List<ResourceRepresentation> existingClientAuthorizationResources,
+            Map<String, ResourceRepresentation> existingClientAuthorizationResourcesMap,
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
             List<ResourceRepresentation> authorizationResourcesToImport
     ) {
-        List<String> authorizationResourceNamesToImport = authorizationResourcesToImport
+        Set<String> authorizationResourceNamesToImport = authorizationResourcesToImport
                 .stream().map(ResourceRepresentation::getName)
-                .toList();
+                .collect(Collectors.toSet());
 
-        List<ResourceRepresentation> managedClientAuthorizationResources = getManagedClientResources(client, existingClientAuthorizationResources);
+        List<ResourceRepresentation> managedClientAuthorizationResources = getManagedClientResources(
+                client, List.copyOf(existingClientAuthorizationResourcesMap.values())
+        );
 
         managedClientAuthorizationResources.stream()
                 .filter(resource -> !authorizationResourceNamesToImport.contains(resource.getName()))
-                .forEach(resource -> removeAuthorizationResource(realmName, client, resource));
+                .filter(resource -> removeAuthorizationResource(realmName, client, resource))
+                .forEach(resource -> {
+                    existingClientAuthorizationResourcesMap.remove(resource.getName());
+                    removeCascadedPolicies(existingClientAuthorizationPoliciesMap, "resources", resource.getName());
+                });
     }
 
-    private void removeAuthorizationResource(
+    private boolean removeAuthorizationResource(
             String realmName,
             ClientRepresentation client,
             ResourceRepresentation existingClientAuthorizationResource
@@ -536,11 +640,12 @@ public class ClientAuthorizationImportService {
             clientRepository.removeAuthorizationResource(
                     realmName, client.getId(), existingClientAuthorizationResource.getName()
             );
+            return true;
         } catch (NotFoundException | ServerErrorException e) {
             if (isFgapV2Error(e.getResponse().getStatus())) {
                 logger.warn(FGAP_V2_RESOURCE_WARNING,
                         "remove", existingClientAuthorizationResource.getName(), getClientIdentifier(client), getFgapV2Message());
-                return;
+                return false;
             }
             throw e;
         }
@@ -549,13 +654,9 @@ public class ClientAuthorizationImportService {
     private void createOrUpdateAuthorizationScopes(
             String realmName,
             ClientRepresentation client,
-            List<ScopeRepresentation> existingClientAuthorizationScopes,
+            Map<String, ScopeRepresentation> existingClientAuthorizationScopesMap,
             List<ScopeRepresentation> authorizationScopesToImport
     ) {
-        Map<String, ScopeRepresentation> existingClientAuthorizationScopesMap = existingClientAuthorizationScopes
-                .stream()
-                .collect(Collectors.toMap(ScopeRepresentation::getName, scope -> scope));
-
         for (ScopeRepresentation authorizationScopeToImport : authorizationScopesToImport) {
             createOrUpdateAuthorizationScope(
                     realmName, client, existingClientAuthorizationScopesMap, authorizationScopeToImport
@@ -574,11 +675,14 @@ public class ClientAuthorizationImportService {
                     authorizationScopeToImport.getName(), getClientIdentifier(client), realmName
             );
             try {
-                clientRepository.addAuthorizationScope(
+                String id = clientRepository.addAuthorizationScope(
                         realmName, client.getId(), authorizationScopeToImport
                 );
+                ScopeRepresentation createdScope = CloneUtil.deepClone(authorizationScopeToImport);
+                createdScope.setId(id);
+                existingClientAuthorizationScopesMap.put(createdScope.getName(), createdScope);
             } catch (KeycloakRepositoryException e) {
-                if (e.getMessage().contains("Authorization API not supported")) {
+                if (isAuthorizationApiUnsupported(e)) {
                     logger.warn(FGAP_V2_SCOPE_WARNING,
                             "add", authorizationScopeToImport.getName(), getClientIdentifier(client), getFgapV2Message());
                     return; // Continue gracefully
@@ -630,21 +734,24 @@ public class ClientAuthorizationImportService {
     private void removeAuthorizationScopes(
             String realmName,
             ClientRepresentation client,
-            List<ScopeRepresentation> existingClientAuthorizationScopes,
+            Map<String, ScopeRepresentation> existingClientAuthorizationScopesMap,
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
             List<ScopeRepresentation> authorizationScopesToImport
     ) {
-        List<String> authorizationScopeNamesToImport = authorizationScopesToImport
+        Set<String> authorizationScopeNamesToImport = authorizationScopesToImport
                 .stream().map(ScopeRepresentation::getName)
-                .toList();
+                .collect(Collectors.toSet());
 
-        for (ScopeRepresentation existingClientAuthorizationScope : existingClientAuthorizationScopes) {
-            if (!authorizationScopeNamesToImport.contains(existingClientAuthorizationScope.getName())) {
-                removeAuthorizationScope(realmName, client, existingClientAuthorizationScope);
+        for (ScopeRepresentation existingClientAuthorizationScope : List.copyOf(existingClientAuthorizationScopesMap.values())) {
+            if (!authorizationScopeNamesToImport.contains(existingClientAuthorizationScope.getName())
+                    && removeAuthorizationScope(realmName, client, existingClientAuthorizationScope)) {
+                existingClientAuthorizationScopesMap.remove(existingClientAuthorizationScope.getName());
+                removeCascadedPolicies(existingClientAuthorizationPoliciesMap, "scopes", existingClientAuthorizationScope.getName());
             }
         }
     }
 
-    private void removeAuthorizationScope(
+    private boolean removeAuthorizationScope(
             String realmName,
             ClientRepresentation client,
             ScopeRepresentation existingClientAuthorizationScope
@@ -654,11 +761,12 @@ public class ClientAuthorizationImportService {
 
         try {
             clientRepository.removeAuthorizationScope(realmName, client.getId(), existingClientAuthorizationScope.getName());
+            return true;
         } catch (NotFoundException | ServerErrorException e) {
             if (isFgapV2Error(e.getResponse().getStatus())) {
                 logger.warn(FGAP_V2_SCOPE_WARNING,
                         "remove", existingClientAuthorizationScope.getName(), getClientIdentifier(client), getFgapV2Message());
-                return;
+                return false;
             }
             throw e;
         }
@@ -667,13 +775,9 @@ public class ClientAuthorizationImportService {
     private void createOrUpdateAuthorizationPolicies(
             String realmName,
             ClientRepresentation client,
-            List<PolicyRepresentation> existingClientAuthorizationPolicies,
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
             List<PolicyRepresentation> authorizationPoliciesToImport
     ) {
-        Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap = existingClientAuthorizationPolicies
-                .stream()
-                .collect(Collectors.toMap(PolicyRepresentation::getName, resource -> resource));
-
         for (PolicyRepresentation authorizationPolicyToImport : authorizationPoliciesToImport) {
             createOrUpdateAuthorizationPolicy(
                     realmName, client, existingClientAuthorizationPoliciesMap, authorizationPolicyToImport
@@ -696,7 +800,7 @@ public class ClientAuthorizationImportService {
                         realmName, client.getId(), authorizationPolicyToImport
                 );
             } catch (KeycloakRepositoryException e) {
-                if (e.getMessage().contains("Authorization API not supported")) {
+                if (isAuthorizationApiUnsupported(e)) {
                     logger.warn(FGAP_V2_POLICY_WARNING,
                             "create", authorizationPolicyToImport.getName(), getClientIdentifier(client), getFgapV2Message());
                     return; // Continue gracefully
@@ -750,21 +854,57 @@ public class ClientAuthorizationImportService {
     private void removeAuthorizationPolicies(
             String realmName,
             ClientRepresentation client,
-            List<PolicyRepresentation> existingClientAuthorizationPolicies,
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
             List<PolicyRepresentation> authorizationPoliciesToImport
     ) {
-        List<String> authorizationPolicyNamesToImport = authorizationPoliciesToImport
+        Set<String> authorizationPolicyNamesToImport = authorizationPoliciesToImport
                 .stream().map(PolicyRepresentation::getName)
-                .toList();
+                .collect(Collectors.toSet());
+
+        for (PolicyRepresentation existingClientAuthorizationPolicy : List.copyOf(existingClientAuthorizationPoliciesMap.values())) {
+            // a previous removal may already have cascaded to this policy
+            if (!existingClientAuthorizationPoliciesMap.containsKey(existingClientAuthorizationPolicy.getName())) continue;
+
+            if (!authorizationPolicyNamesToImport.contains(existingClientAuthorizationPolicy.getName())
+                    && removeAuthorizationPolicy(realmName, client, existingClientAuthorizationPolicy)) {
+                existingClientAuthorizationPoliciesMap.remove(existingClientAuthorizationPolicy.getName());
+                removeCascadedPolicies(existingClientAuthorizationPoliciesMap, "applyPolicies", existingClientAuthorizationPolicy.getName());
+            }
+        }
+    }
 
-        for (PolicyRepresentation existingClientAuthorizationPolicy : existingClientAuthorizationPolicies) {
-            if (!authorizationPolicyNamesToImport.contains(existingClientAuthorizationPolicy.getName())) {
-                removeAuthorizationPolicy(realmName, client, existingClientAuthorizationPolicy);
+    /**
+     * Mirrors the cascade keycloak applies when a resource, scope or policy is removed: policies which only
+     * referenced the removed object are deleted as well, all other policies just lose the reference.
+     */
+    private void removeCascadedPolicies(
+            Map<String, PolicyRepresentation> existingClientAuthorizationPoliciesMap,
+            String configKey,
+            String removedName
+    ) {
+        List<String> removedPolicyNames = new ArrayList<>();
+
+        for (PolicyRepresentation policy : List.copyOf(existingClientAuthorizationPoliciesMap.values())) {
+            String references = policy.getConfig() != null ? policy.getConfig().get(configKey) : null;
+            if (references == null) continue;
+
+            List<String> referencedNames = JsonUtil.fromJson(references);
+            if (!referencedNames.contains(removedName)) continue;
+
+            if (referencedNames.size() == 1) {
+                existingClientAuthorizationPoliciesMap.remove(policy.getName());
+                removedPolicyNames.add(policy.getName());
+            } else {
+                policy.getConfig().put(configKey, JsonUtil.toJson(referencedNames.stream()
+                        .filter(name -> !name.equals(removedName))
+                        .toList()));
             }
         }
+
+        removedPolicyNames.forEach(name -> removeCascadedPolicies(existingClientAuthorizationPoliciesMap, "applyPolicies", name));
     }
 
-    private void removeAuthorizationPolicy(
+    private boolean removeAuthorizationPolicy(
             String realmName,
             ClientRepresentation client,
             PolicyRepresentation existingClientAuthorizationPolicy
@@ -784,10 +924,11 @@ public class ClientAuthorizationImportService {
             if (isFgapV2Error(e.getResponse().getStatus())) {
                 logger.warn(FGAP_V2_POLICY_WARNING,
                         "remove", existingClientAuthorizationPolicy.getName(), getClientIdentifier(client), getFgapV2Message());
-                return;
+                return false;
             }
             throw e;
         }
+        return true;
     }
 
     private String getClientIdentifier(ClientRepresentation client) {
@@ -827,6 +968,27 @@ public class ClientAuthorizationImportService {
         return statusCode == HTTP_NOT_FOUND || statusCode == HTTP_NOT_IMPLEMENTED;
     }
 
+    /**
+     * A 400 is only taken as a missing authorization API if FGAP V2 is confirmed to be active,
+     * otherwise the server rejected the imported objects and the error must not be swallowed.
+     */
+    private boolean isAuthorizationApiUnsupported(KeycloakRepositoryException e) {
+        if (e.getMessage().contains("Authorization API not supported")) return true;
+
+        return e.getCause() instanceof WebApplicationException cause
+                && cause.getResponse().getStatus() == HTTP_BAD_REQUEST
+                && isFgapV2Active();
+    }
+
+    private boolean isFgapV2Active() {
+        try {
+            return keycloakProvider != null && keycloakProvider.isFgapV2Active();
+        } catch (Exception e) {
+            logger.debug("Unable to determine FGAP V2 status", e);
+            return false;
+        }
+    }
+
     // https://github.com/adorsys/keycloak-config-cli/issues/589
     private void setAuthorizationResourceOwner(ResourceRepresentation representation) {
         if (representation.getOwner() != null && representation.getOwner().getId() == null && representation.getOwner().getName() != null) {
@@ -860,10 +1022,56 @@ public class ClientAuthorizationImportService {
             this.realmName = realmName;
             this.resolvers = new HashMap<>();
 
-            resolvers.put("client", new ClientPermissionResolver(realmName, clientRepository));
-            resolvers.put("idp", new IdpPermissionResolver(realmName, identityProviderRepository));
-            resolvers.put("role", new RolePermissionResolver(realmName, roleRepository));
-            resolvers.put("group", new GroupPermissionResolver(realmName, groupRepository));
+            resolvers.put("client", new MemoizingPermissionResolver(new ClientPermissionResolver(realmName, clientRepository)));
+            resolvers.put("idp", new MemoizingPermissionResolver(new IdpPermissionResolver(realmName, identityProviderRepository)));
+            resolvers.put("role", new MemoizingPermissionResolver(new RolePermissionResolver(realmName, roleRepository)));
+            resolvers.put("group", new MemoizingPermissionResolver(new GroupPermissionResolver(realmName, groupRepository)));
+        }
+
+        /**
+         * Resolves every placeholder referenced by the given authorization settings with one bulk lookup per type,
+         * before any resource or policy name gets sanitized.
+         */
+        public void resolveObjectIds(List<ResourceServerRepresentation> authorizationSettings) {
+            Map<String, Set<String>> placeholdersByType = new HashMap<>();
+
+            for (ResourceServerRepresentation settings : authorizationSettings) {
+                for (ResourceRepresentation resource : settings.getResources()) {
+                    addPlaceholder(placeholdersByType, PermissionTypeAndId.fromResourceName(resource.getName()));
+                }
+
+                for (PolicyRepresentation policy : settings.getPolicies()) {
+                    addPlaceholder(placeholdersByType, PermissionTypeAndId.fromPolicyName(policy.getName()));
+                    addPolicyResourcePlaceholders(placeholdersByType, policy);
+                }
+            }
+
+            placeholdersByType.forEach((type, placeholders) -> {
+                PermissionResolver resolver = resolvers.get(type);
+                if (resolver != null) {
+                    resolver.resolveObjectIds(placeholders);
+                }
+            });
+        }
+
+        private void addPolicyResourcePlaceholders(Map<String, Set<String>> placeholdersByType, PolicyRepresentation policy) {
+            String resources = policy.getConfig() != null ? policy.getConfig().get("resources") : null;
+            if (resources == null || !resources.contains("$")) return;
+
+            String permissionType = mapResourceTypeToPermissionType(policy.getConfig().get("defaultResourceType"));
+            for (String resource : JsonUtil.fromJson(resources)) {
+                if (resource.contains(".resource.")) {
+                    addPlaceholder(placeholdersByType, PermissionTypeAndId.fromResourceName(resource));
+                } else if (resource.startsWith("$") && permissionType != null) {
+                    addPlaceholder(placeholdersByType, PermissionTypeAndId.fromResourceName(permissionType + ".resource." + resource));
+                }
+            }
+        }
+
+        private void addPlaceholder(Map<String, Set<String>> placeholdersByType, PermissionTypeAndId typeAndId) {
+            if (typeAndId != null && typeAndId.isPlaceholder()) {
+                placeholdersByType.computeIfAbsent(typeAndId.type, type -> new HashSet<>()).add(typeAndId.getPlaceholder());
+            }
         }
 
         public void createFineGrantedPermissions(ResourceServerRepresentation authorizationSettingsToImport) {
@@ -234,7 +234,8 @@ public class ClientImportService {
 
         if (!isClientEqual(realmName, existingClient, mergedClient)) {
             logger.debug("Update client '{}' in realm '{}'", clientIdentifier, realmName);
-            updateClient(realmName, mergedClient);
+            // protocol mappers are reconciled afterward against the mappers of the fetched client
+            updateClient(realmName, CloneUtil.deepClone(mergedClient, ClientRepresentation.class, "protocolMappers"));
             updateClientProtocolMappers(realmName, mergedClient, existingClient);
             updateClientDefaultOptionalClientScopes(realmName, mergedClient, existingClient);
         } else {
@@ -502,19 +503,13 @@ public class ClientImportService {
             return;
         }
 
-        List<ProtocolMapperRepresentation> existingProtocolMappers = clientRepository
-                .getProtocolMappers(realmName, existingClient.getClientId());
+        ProtocolMapperUtil.ProtocolMapperDiff diff = ProtocolMapperUtil
+                .diffProtocolMappers(protocolMappers, existingClient.getProtocolMappers());
 
-        List<ProtocolMapperRepresentation> protocolMappersToAdd = ProtocolMapperUtil
-                .estimateProtocolMappersToAdd(protocolMappers, existingProtocolMappers);
-        List<ProtocolMapperRepresentation> protocolMappersToRemove = ProtocolMapperUtil
-                .estimateProtocolMappersToRemove(protocolMappers, existingProtocolMappers);
-        List<ProtocolMapperRepresentation> protocolMappersToUpdate = ProtocolMapperUtil
-                .estimateProtocolMappersToUpdate(protocolMappers, existingProtocolMappers);
-
-        clientRepository.addProtocolMappers(realmName, client.getClientId(), protocolMappersToAdd);
-        clientRepository.removeProtocolMappers(realmName, client.getClientId(), protocolMappersToRemove);
-        clientRepository.updateProtocolMappers(realmName, client.getClientId(), protocolMappersToUpdate);
+        // remove first, a mapper which changed its type is recreated with the same name
+        clientRepository.removeProtocolMappers(realmName, existingClient, diff.getToRemove());
+        clientRepository.addProtocolMappers(realmName, existingClient, diff.getToAdd());
+        clientRepository.updateProtocolMappers(realmName, existingClient, diff.getToUpdate());
     }
 
     private String getClientIdentifier(ClientRepresentation client) {
@@ -37,9 +37,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
@@ -65,7 +66,13 @@ public class ClientScopeImportService {
 
         if (clientScopes == null) return;
 
-        createOrUpdateClientScopes(realmName, clientScopes);
+        createOrUpdateClientScopes(realmName, clientScopes, getClientScopesByName(realmName));
+    }
+
+    private Map<String, ClientScopeRepresentation> getClientScopesByName(String realmName) {
+        return clientScopeRepository.getAll(realmName)
+                .stream()
+                .collect(Collectors.toMap(ClientScopeRepresentation::getName, Function.identity(), (a, b) -> a));
     }
 
     public void updateDefaultClientScopes(RealmImport realmImport, RealmRepresentation existingRealm) {
@@ -79,23 +86,29 @@ public class ClientScopeImportService {
                 .stream().map(ClientScopeRepresentation::getName)
                 .toList();
 
-        removeDefaultDefaultClientScopes(realmImport, existingDefaultDefaultClientScopes);
-        removeDefaultOptionalClientScopes(realmImport, existingDefaultOptionalClientScopes);
+        Map<String, ClientScopeRepresentation> clientScopes = getClientScopesByName(realmImport.getRealm());
 
-        addDefaultDefaultClientScopes(realmImport, existingDefaultDefaultClientScopes);
-        addDefaultOptionalClientScopes(realmImport, existingDefaultOptionalClientScopes);
+        removeDefaultDefaultClientScopes(realmImport, existingDefaultDefaultClientScopes, clientScopes);
+        removeDefaultOptionalClientScopes(realmImport, existingDefaultOptionalClientScopes, clientScopes);
+
+        addDefaultDefaultClientScopes(realmImport, existingDefaultDefaultClientScopes, clientScopes);
+        addDefaultOptionalClientScopes(realmImport, existingDefaultOptionalClientScopes, clientScopes);
 
         existingRealm.setDefaultDefaultClientScopes(realmImport.getDefaultDefaultClientScopes());
         existingRealm.setDefaultOptionalClientScopes(realmImport.getDefaultOptionalClientScopes());
     }
 
-    private void addDefaultDefaultClientScopes(RealmImport realmImport, List<String> existingDefaultClientScopes) {
+    private void addDefaultDefaultClientScopes(
+            RealmImport realmImport,
+            List<String> existingDefaultClientScopes,
+            Map<String, ClientScopeRepresentation> clientScopes
+    ) {
         if (realmImport.getDefaultDefaultClientScopes() == null) return;
 
         for (String scope : realmImport.getDefaultDefaultClientScopes()) {
             if (existingDefaultClientScopes != null && existingDefaultClientScopes.contains(scope)) continue;
 
-            ClientScopeRepresentation scopeResource = clientScopeRepository.getByName(realmImport.getRealm(), scope);
+            ClientScopeRepresentation scopeResource = clientScopes.get(scope);
 
             if (scopeResource == null) {
                 throw new ImportProcessingException(
@@ -107,13 +120,17 @@ public class ClientScopeImportService {
         }
     }
 
-    private void addDefaultOptionalClientScopes(RealmImport realmImport, List<String> existingDefaultClientScopes) {
+    private void addDefaultOptionalClientScopes(
+            RealmImport realmImport,
+            List<String> existingDefaultClientScopes,
+            Map<String, ClientScopeRepresentation> clientScopes
+    ) {
         if (realmImport.getDefaultOptionalClientScopes() == null) return;
 
         for (String scope : realmImport.getDefaultOptionalClientScopes()) {
             if (existingDefaultClientScopes != null && existingDefaultClientScopes.contains(scope)) continue;
 
-            ClientScopeRepresentation scopeResource = clientScopeRepository.getByName(realmImport.getRealm(), scope);
+            ClientScopeRepresentation scopeResource = clientScopes.get(scope);
 
             if (scopeResource == null) {
                 throw new ImportProcessingException(
@@ -125,24 +142,32 @@ public class ClientScopeImportService {
         }
     }
 
-    private void removeDefaultDefaultClientScopes(RealmImport realmImport, List<String> existingDefaultClientScopes) {
+    private void removeDefaultDefaultClientScopes(
+            RealmImport realmImport,
+            List<String> existingDefaultClientScopes,
+            Map<String, ClientScopeRepresentation> clientScopes
+    ) {
         if (realmImport.getDefaultDefaultClientScopes() == null || existingDefaultClientScopes == null) return;
 
         for (String scope : existingDefaultClientScopes) {
             if (realmImport.getDefaultDefaultClientScopes().contains(scope)) continue;
 
-            ClientScopeRepresentation scopeResource = clientScopeRepository.getByName(realmImport.getRealm(), scope);
+            ClientScopeRepresentation scopeResource = clientScopes.get(scope);
             realmRepository.removeDefaultDefaultClientScope(realmImport.getRealm(), scopeResource.getId());
         }
     }
 
-    private void removeDefaultOptionalClientScopes(RealmImport realmImport, List<String> existingDefaultClientScopes) {
+    private void removeDefaultOptionalClientScopes(
+            RealmImport realmImport,
+            List<String> existingDefaultClientScopes,
+            Map<String, ClientScopeRepresentation> clientScopes
+    ) {
         if (realmImport.getDefaultOptionalClientScopes() == null || existingDefaultClientScopes == null) return;
 
         for (String scope : existingDefaultClientScopes) {
             if (realmImport.getDefaultOptionalClientScopes().contains(scope)) continue;
 
-            ClientScopeRepresentation scopeResource = clientScopeRepository.getByName(realmImport.getRealm(), scope);
+            ClientScopeRepresentation scopeResource = clientScopes.get(scope);
             realmRepository.removeDefaultOptionalClientScope(realmImport.getRealm(), scopeResource.getId());
         }
     }
@@ -169,14 +194,14 @@ public class ClientScopeImportService {
 
     private void createOrUpdateClientScopes(
             String realmName,
-            List<ClientScopeRepresentation> clientScopes
+            List<ClientScopeRepresentation> clientScopes,
+            Map<String, ClientScopeRepresentation> existingClientScopes
     ) {
-        Consumer<ClientScopeRepresentation> loop = clientScope -> createOrUpdateClientScope(realmName, clientScope);
-        if (importConfigProperties.isParallel()) {
-            ParallelUtil.forEach(clientScopes, loop);
-        } else {
-            clientScopes.forEach(loop);
-        }
+        ParallelUtil.forEach(
+                clientScopes,
+                clientScope -> createOrUpdateClientScope(realmName, clientScope, existingClientScopes.get(clientScope.getName())),
+                importConfigProperties.isParallel()
+        );
     }
 
     private void deleteClientScopesMissingInImport(
@@ -214,15 +239,13 @@ public class ClientScopeImportService {
 
     private void createOrUpdateClientScope(
             String realmName,
-            ClientScopeRepresentation clientScope
+            ClientScopeRepresentation clientScope,
+            ClientScopeRepresentation existingClientScope
     ) {
         String clientScopeName = clientScope.getName();
 
-        Optional<ClientScopeRepresentation> maybeClientScope = clientScopeRepository
-                .searchByName(realmName, clientScopeName);
-
-        if (maybeClientScope.isPresent()) {
-            updateClientScopeIfNecessary(realmName, clientScope);
+        if (existingClientScope != null) {
+            updateClientScopeIfNecessary(realmName, clientScope, existingClientScope);
         } else {
             logger.debug("Create clientScope '{}' in realm '{}'", clientScopeName, realmName);
             createClientScope(realmName, clientScope);
@@ -238,11 +261,9 @@ public class ClientScopeImportService {
 
     private void updateClientScopeIfNecessary(
             String realmName,
-            ClientScopeRepresentation clientScope
+            ClientScopeRepresentation clientScope,
+            ClientScopeRepresentation existingClientScope
     ) {
-        ClientScopeRepresentation existingClientScope = clientScopeRepository.getByName(
-                realmName, clientScope.getName()
-        );
         ClientScopeRepresentation patchedClientScope = CloneUtil.patch(
                 existingClientScope, clientScope, "id"
         );
@@ -253,7 +274,7 @@ public class ClientScopeImportService {
             logger.debug("No need to update clientScope '{}' in realm '{}'", clientScopeName, realmName);
         } else {
             logger.debug("Update clientScope '{}' in realm '{}'", clientScopeName, realmName);
-            updateClientScope(realmName, patchedClientScope);
+            updateClientScope(realmName, patchedClientScope, existingClientScope.getProtocolMappers());
         }
     }
 
@@ -268,34 +289,40 @@ public class ClientScopeImportService {
         );
     }
 
-    private void updateClientScope(String realmName, ClientScopeRepresentation patchedClientScope) {
+    private void updateClientScope(
+            String realmName,
+            ClientScopeRepresentation patchedClientScope,
+            List<ProtocolMapperRepresentation> existingProtocolMappers
+    ) {
         clientScopeRepository.update(realmName, patchedClientScope);
 
         List<ProtocolMapperRepresentation> protocolMappers = patchedClientScope.getProtocolMappers();
         if (protocolMappers != null) {
-            String clientScopeId = patchedClientScope.getId();
-            updateProtocolMappers(realmName, clientScopeId, protocolMappers);
+            updateProtocolMappers(realmName, patchedClientScope, protocolMappers, existingProtocolMappers);
         }
     }
 
     private void updateProtocolMappers(
             String realmName,
-            String clientScopeId,
-            List<ProtocolMapperRepresentation> protocolMappers
+            ClientScopeRepresentation clientScope,
+            List<ProtocolMapperRepresentation> protocolMappers,
+            List<ProtocolMapperRepresentation> existingProtocolMappers
     ) {
-        ClientScopeRepresentation existingClientScope = clientScopeRepository.getById(realmName, clientScopeId);
-
-        List<ProtocolMapperRepresentation> existingProtocolMappers = existingClientScope.getProtocolMappers();
+        ProtocolMapperUtil.ProtocolMapperDiff diff = ProtocolMapperUtil
+                .diffProtocolMappers(protocolMappers, existingProtocolMappers);
 
-        List<ProtocolMapperRepresentation> protocolMappersToAdd = ProtocolMapperUtil
-                .estimateProtocolMappersToAdd(protocolMappers, existingProtocolMappers);
-        List<ProtocolMapperRepresentation> protocolMappersToRemove = ProtocolMapperUtil
-                .estimateProtocolMappersToRemove(protocolMappers, existingProtocolMappers);
-        List<ProtocolMapperRepresentation> protocolMappersToUpdate = ProtocolMapperUtil
-                .estimateProtocolMappersToUpdate(protocolMappers, existingProtocolMappers);
+        // remove first, a mapper which changed its type is recreated with the same name
+        if (!diff.getToRemove().isEmpty()) {
+            clientScopeRepository.removeProtocolMappers(realmName, clientScope.getId(), diff.getToRemove());
+        }
+        if (!diff.getToAdd().isEmpty()) {
+            clientScopeRepository.addProtocolMappers(realmName, clientScope.getId(), diff.getToAdd());
+        }
 
-        clientScopeRepository.addProtocolMappers(realmName, clientScopeId, protocolMappersToAdd);
-        clientScopeRepository.removeProtocolMappers(realmName, clientScopeId, protocolMappersToRemove);
-        clientScopeRepository.updateProtocolMappers(realmName, clientScopeId, protocolMappersToUpdate);
+        ParallelUtil.forEach(
+                diff.getToUpdate(),
+                protocolMapper -> clientScopeRepository.updateProtocolMapper(realmName, clientScope, protocolMapper),
+                importConfigProperties.isParallel()
+        );
     }
 }
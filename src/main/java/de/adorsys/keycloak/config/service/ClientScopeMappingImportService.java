@@ -22,11 +22,8 @@ package de.adorsys.keycloak.config.service;
 
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
-import de.adorsys.keycloak.config.repository.ClientRepository;
-import de.adorsys.keycloak.config.repository.RealmRepository;
-import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.repository.ScopeMappingIndex;
 import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
-import org.keycloak.representations.idm.RealmRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.ScopeMappingRepresentation;
 import org.slf4j.Logger;
@@ -35,198 +32,128 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.function.Predicate;
+
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.getRolesNotIn;
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.getScopeKey;
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.groupByScope;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class ClientScopeMappingImportService {
     private static final Logger logger = LoggerFactory.getLogger(ClientScopeMappingImportService.class);
 
-    private final RealmRepository realmRepository;
-    private final ClientRepository clientRepository;
-    private final RoleRepository roleRepository;
     private final ScopeMappingRepository scopeMappingRepository;
     private final ImportConfigProperties importConfigProperties;
 
     @Autowired
     public ClientScopeMappingImportService(
-            RealmRepository realmRepository,
-            ClientRepository clientRepository,
-            RoleRepository roleRepository,
             ScopeMappingRepository scopeMappingRepository,
             ImportConfigProperties importConfigProperties
     ) {
-        this.realmRepository = realmRepository;
-        this.clientRepository = clientRepository;
-        this.roleRepository = roleRepository;
         this.scopeMappingRepository = scopeMappingRepository;
         this.importConfigProperties = importConfigProperties;
     }
 
     public void doImport(RealmImport realmImport) {
+        if (realmImport.getClientScopeMappings() == null) return;
+
+        doImport(realmImport, scopeMappingRepository.getScopeMappingIndex(realmImport.getRealm()));
+    }
+
+    /**
+     * Reconciles the client scope mappings against the given snapshot. All client roles of one client added to
+     * or removed from the scope mapping of one client or client scope are sent with one call each.
+     */
+    public void doImport(RealmImport realmImport, ScopeMappingIndex scopeMappingIndex) {
         Map<String, List<ScopeMappingRepresentation>> clientScopeMappingsToImport = realmImport.getClientScopeMappings();
         if (clientScopeMappingsToImport == null) return;
 
         String realmName = realmImport.getRealm();
-        RealmRepresentation existingRealm = realmRepository.partialExport(realmName, false, true);
-        Map<String, List<ScopeMappingRepresentation>> existingClientScopeMappings = existingRealm.getClientScopeMappings();
+        Map<String, List<ScopeMappingRepresentation>> existingClientScopeMappings = scopeMappingIndex.getClientScopeMappings();
+
+        for (Map.Entry<String, List<ScopeMappingRepresentation>> clientScopeMappingToImport : clientScopeMappingsToImport.entrySet()) {
+            String clientId = clientScopeMappingToImport.getKey();
 
-        for (Map.Entry<String, List<ScopeMappingRepresentation>> scopeMappingToImport : clientScopeMappingsToImport.entrySet()) {
-            updateClientScopeMapping(realmName, scopeMappingToImport.getKey(), scopeMappingToImport.getValue(), existingClientScopeMappings);
+            addRoles(realmName, scopeMappingIndex, clientId,
+                    groupByScope(clientScopeMappingToImport.getValue()),
+                    groupByScope(existingClientScopeMappings.get(clientId)));
         }
 
-        if (existingClientScopeMappings != null && importConfigProperties.getManaged().getClientScopeMapping()
+        if (importConfigProperties.getManaged().getClientScopeMapping()
                 == ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL) {
             for (Map.Entry<String, List<ScopeMappingRepresentation>> existingClientScopeMapping : existingClientScopeMappings.entrySet()) {
-                removeClientScopeMapping(
-                        realmName, existingClientScopeMapping.getKey(), existingClientScopeMapping.getValue(), clientScopeMappingsToImport
-                );
+                String clientId = existingClientScopeMapping.getKey();
+
+                removeRoles(realmName, scopeMappingIndex, clientId,
+                        groupByScope(clientScopeMappingsToImport.get(clientId)),
+                        groupByScope(existingClientScopeMapping.getValue()));
             }
         }
     }
 
-    private void updateClientScopeMapping(String realmName, String clientId, List<ScopeMappingRepresentation> clientScopeMappingsToImport,
-                                          Map<String, List<ScopeMappingRepresentation>> existingClientScopeMappings) {
-        String clientLevelUuid = clientRepository.getByClientId(realmName, clientId).getId();
-
-        List<ScopeMappingRepresentation> existingClientScopeMapping = existingClientScopeMappings != null
-                ? existingClientScopeMappings.getOrDefault(clientId, null)
-                : null;
-
-        addRoles(realmName, clientId, clientScopeMappingsToImport, existingClientScopeMapping, clientLevelUuid);
-    }
-
-    private void removeClientScopeMapping(String realmName, String clientId, List<ScopeMappingRepresentation> existingClientScopeMapping,
-                                          Map<String, List<ScopeMappingRepresentation>> clientScopeMappingsToImport) {
-        String clientLevelUuid = clientRepository.getByClientId(realmName, clientId).getId();
-
-        List<ScopeMappingRepresentation> clientScopeMappingToImport = clientScopeMappingsToImport != null
-                ? clientScopeMappingsToImport.getOrDefault(clientId, null)
-                : null;
-
-        removeRoles(realmName, clientId, existingClientScopeMapping, clientScopeMappingToImport, clientLevelUuid);
-    }
-
     private void addRoles(String realmName,
+                          ScopeMappingIndex scopeMappingIndex,
                           String clientId,
-                          List<ScopeMappingRepresentation> clientScopeMappingsToImport,
-                          List<ScopeMappingRepresentation> existingClientScopes,
-                          String clientLevelUuid
+                          Map<String, ScopeMappingRepresentation> clientScopeMappingsToImport,
+                          Map<String, ScopeMappingRepresentation> existingClientScopeMappings
     ) {
-        for (ScopeMappingRepresentation clientScopeMappingToImport : clientScopeMappingsToImport) {
-            List<String> rolesToBeAdded = getRolesToBeAdded(clientScopeMappingToImport, existingClientScopes);
+        // fails early if the client of the roles does not exist
+        scopeMappingIndex.getClientId(clientId);
+
+        for (ScopeMappingRepresentation clientScopeMappingToImport : clientScopeMappingsToImport.values()) {
+            List<String> rolesToBeAdded = getRolesNotIn(
+                    clientScopeMappingToImport.getRoles(),
+                    existingClientScopeMappings.get(getScopeKey(clientScopeMappingToImport))
+            );
             if (rolesToBeAdded.isEmpty()) continue;
 
-            if (clientScopeMappingToImport.getClient() != null) {
-
-                logger.debug("Adding client-scope-mapping with roles '{}' from client level '{}' for client '{}' in realm '{}'",
-                        clientId,
-                        rolesToBeAdded,
-                        clientScopeMappingToImport.getClient(),
-                        realmName
-                );
-
-                List<RoleRepresentation> roles = roleRepository.getClientRolesByName(realmName, clientId, rolesToBeAdded);
-
-                clientRepository.addScopeMapping(realmName, clientScopeMappingToImport.getClient(), clientLevelUuid, roles);
-            } else if (clientScopeMappingToImport.getClientScope() != null) {
-                logger.debug("Adding client-scope-mapping with roles '{}' from client level '{}' for clientScope '{}' in realm '{}'",
-                        clientId,
-                        rolesToBeAdded,
-                        clientScopeMappingToImport.getClientScope(),
-                        realmName
-                );
-
-                List<RoleRepresentation> roles = roleRepository.getClientRolesByName(realmName, clientId, rolesToBeAdded);
-
-                scopeMappingRepository.addScopeMappingClientRolesForClientScope(realmName,
-                        clientScopeMappingToImport.getClientScope(), clientLevelUuid, roles);
-            }
+            logger.debug("Adding client-scope-mapping with roles '{}' from client level '{}' for {} '{}' in realm '{}'",
+                    rolesToBeAdded,
+                    clientId,
+                    clientScopeMappingToImport.getClient() != null ? "client" : "clientScope",
+                    clientScopeMappingToImport.getClient() != null
+                            ? clientScopeMappingToImport.getClient()
+                            : clientScopeMappingToImport.getClientScope(),
+                    realmName
+            );
+
+            List<RoleRepresentation> roles = scopeMappingIndex.getRoleIndex().getClientRoles(clientId, rolesToBeAdded);
+            scopeMappingRepository.addScopeMappingRoles(realmName, scopeMappingIndex, clientScopeMappingToImport, clientId, roles);
         }
     }
 
     private void removeRoles(String realmName,
+                             ScopeMappingIndex scopeMappingIndex,
                              String clientId,
-                             List<ScopeMappingRepresentation> existingClientScopes,
-                             List<ScopeMappingRepresentation> clientScopeMappingsToImport,
-                             String clientLevelUuid
+                             Map<String, ScopeMappingRepresentation> clientScopeMappingsToImport,
+                             Map<String, ScopeMappingRepresentation> existingClientScopeMappings
     ) {
-        if (clientRepository.searchByClientId(realmName, clientId).isEmpty()) return;
-
-        for (ScopeMappingRepresentation existingClientScope : existingClientScopes) {
+        if (scopeMappingIndex.searchClientId(clientId).isEmpty()) return;
 
-            List<String> rolesToBeRemoved = getRolesToBeRemoved(clientScopeMappingsToImport, existingClientScope);
+        for (ScopeMappingRepresentation existingClientScopeMapping : existingClientScopeMappings.values()) {
+            List<String> rolesToBeRemoved = getRolesNotIn(
+                    existingClientScopeMapping.getRoles(),
+                    clientScopeMappingsToImport.get(getScopeKey(existingClientScopeMapping))
+            );
             if (rolesToBeRemoved.isEmpty()) continue;
 
-            if (existingClientScope.getClient() != null) {
-                if (clientRepository.searchByClientId(realmName, existingClientScope.getClient()).isEmpty()) return;
-
-                logger.debug("Remove client-scope-mapping with roles '{}' from client level '{}' for client '{}' in realm '{}'",
-                        clientId,
-                        rolesToBeRemoved,
-                        existingClientScope.getClient(),
-                        realmName
-                );
-
-                final List<RoleRepresentation> roles = roleRepository.getClientRolesByName(realmName, clientId, rolesToBeRemoved);
-                clientRepository.removeScopeMapping(realmName, existingClientScope.getClient(), clientLevelUuid, roles);
-            } else if (existingClientScope.getClientScope() != null) {
-                logger.debug("Remove client-scope-mapping with roles '{}' from client level '{}' for clientScope '{}' in realm '{}'",
-                        clientId,
-                        rolesToBeRemoved,
-                        existingClientScope.getClientScope(),
-                        realmName
-                );
-
-                final List<RoleRepresentation> roles = roleRepository.getClientRolesByName(realmName, clientId, rolesToBeRemoved);
-                scopeMappingRepository.removeScopeMappingClientRolesForClientScope(realmName,
-                        existingClientScope.getClientScope(), clientLevelUuid, roles);
-
-            }
-        }
-    }
-
-    private List<String> getRolesToBeAdded(ScopeMappingRepresentation clientScopeMappingToImport,
-                                           List<ScopeMappingRepresentation> existingClientScopes) {
-        if (existingClientScopes == null) {
-            return new ArrayList<>(clientScopeMappingToImport.getRoles());
-        }
-
-        return findNotMatchingRolesInScopeMapping(existingClientScopes, clientScopeMappingToImport);
-    }
-
-    @SuppressWarnings("SuspiciousMethodCalls")
-    private List<String> findNotMatchingRolesInScopeMapping(List<ScopeMappingRepresentation> referenceScopes,
-                                                            ScopeMappingRepresentation sampleScope) {
-        Predicate<Object> newRolePredicate = referenceScopes.stream()
-                .filter(clientScope -> clientScope.getClient() != null && Objects.equals(sampleScope.getClient(), clientScope.getClient())
-                        || clientScope.getClientScope() != null && Objects.equals(sampleScope.getClientScope(), clientScope.getClientScope())
-                )
-                .findFirst()
-                .map(ScopeMappingRepresentation::getRoles)
-                .map(roles -> predicate(roles::contains).negate())
-                .orElseGet(() -> s -> true);
-
-        return sampleScope.getRoles().stream()
-                .filter(newRolePredicate)
-                .toList();
-    }
-
-    private <T> Predicate<T> predicate(Predicate<T> predicate) {
-        return predicate;
-    }
-
-    private List<String> getRolesToBeRemoved(List<ScopeMappingRepresentation> clientScopeMappingsToImport,
-                                             ScopeMappingRepresentation existingClientScope) {
-        if (clientScopeMappingsToImport == null) {
-            return new ArrayList<>(existingClientScope.getRoles());
+            if (existingClientScopeMapping.getClient() != null
+                    && scopeMappingIndex.searchClientId(existingClientScopeMapping.getClient()).isEmpty()) continue;
+
+            logger.debug("Remove client-scope-mapping with roles '{}' from client level '{}' for {} '{}' in realm '{}'",
+                    rolesToBeRemoved,
+                    clientId,
+                    existingClientScopeMapping.getClient() != null ? "client" : "clientScope",
+                    existingClientScopeMapping.getClient() != null
+                            ? existingClientScopeMapping.getClient()
+                            : existingClientScopeMapping.getClientScope(),
+                    realmName
+            );
+
+            List<RoleRepresentation> roles = scopeMappingIndex.getRoleIndex().getClientRoles(clientId, rolesToBeRemoved);
+            scopeMappingRepository.removeScopeMappingRoles(realmName, scopeMappingIndex, existingClientScopeMapping, clientId, roles);
         }
-
-        return findNotMatchingRolesInScopeMapping(clientScopeMappingsToImport, existingClientScope);
     }
-
 }
@@ -23,10 +23,12 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
+import de.adorsys.keycloak.config.repository.ComponentIndex;
 import de.adorsys.keycloak.config.repository.ComponentRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.common.util.MultivaluedHashMap;
 import org.keycloak.representations.idm.ComponentExportRepresentation;
@@ -69,45 +71,72 @@ public class ComponentImportService {
         }
 
         String realmName = realmImport.getRealm();
-        importComponents(realmName, components);
+        ComponentIndex componentIndex = componentRepository.getComponentIndex(realmName);
+
+        importComponents(realmName, componentIndex, components);
 
         if (importConfigProperties.getManaged().getComponent() == ImportManagedPropertiesValues.FULL) {
-            deleteComponentsMissingInImport(realmName, components, null);
+            deleteComponentsMissingInImport(realmName, componentIndex, components, null);
         }
 
         syncUserFederationIfNecessary(realmImport);
     }
 
-    private void importComponents(String realmName, Map<String, List<ComponentExportRepresentation>> componentsToImport) {
-        for (Map.Entry<String, List<ComponentExportRepresentation>> entry : componentsToImport.entrySet()) {
-            createOrUpdateComponents(realmName, entry.getKey(), entry.getValue());
-        }
+    private void importComponents(
+            String realmName,
+            ComponentIndex componentIndex,
+            Map<String, List<ComponentExportRepresentation>> componentsToImport
+    ) {
+        createOrUpdateComponents(realmName, componentIndex, componentsToImport, null);
     }
 
-    private void createOrUpdateComponents(String realmName, String providerType, List<ComponentExportRepresentation> componentsToImport) {
-        for (ComponentExportRepresentation componentToImport : componentsToImport) {
-            createOrUpdateComponent(realmName, providerType, componentToImport);
-        }
+    /**
+     * Reconciles the components of one parent. Provider types and the components of a provider type are
+     * independent of each other and are processed in parallel if {@code import.parallel} is enabled.
+     */
+    private void createOrUpdateComponents(
+            String realmName,
+            ComponentIndex componentIndex,
+            Map<String, List<ComponentExportRepresentation>> componentsToImport,
+            String parentId
+    ) {
+        List<Map.Entry<String, ComponentExportRepresentation>> components = componentsToImport.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(component -> Map.entry(entry.getKey(), component)))
+                .toList();
+
+        ParallelUtil.forEach(
+                components,
+                entry -> createOrUpdateComponent(realmName, componentIndex, entry.getKey(), entry.getValue(), parentId),
+                importConfigProperties.isParallel()
+        );
     }
 
-    private void createOrUpdateComponent(String realmName, String providerType, ComponentExportRepresentation componentToImport) {
-        Optional<ComponentRepresentation> existingComponent = componentRepository.search(
-                realmName, providerType, componentToImport.getSubType(), componentToImport.getName()
+    private void createOrUpdateComponent(
+            String realmName,
+            ComponentIndex componentIndex,
+            String providerType,
+            ComponentExportRepresentation componentToImport,
+            String parentId
+    ) {
+        Optional<ComponentRepresentation> existingComponent = componentIndex.search(
+                providerType, componentToImport.getSubType(), componentToImport.getName(), parentId
         );
 
         if (existingComponent.isPresent()) {
-            updateComponentIfNeeded(realmName, providerType, componentToImport, existingComponent.get());
+            updateComponentIfNeeded(realmName, componentIndex, providerType, componentToImport, existingComponent.get());
         } else {
             logger.debug("Creating component: {}/{}", providerType, componentToImport.getName());
-            createComponent(realmName, providerType, componentToImport);
+            createComponent(realmName, componentIndex, providerType, componentToImport, parentId);
         }
     }
 
-    private void createComponent(String realmName, String providerType, ComponentExportRepresentation component) {
-        createComponent(realmName, providerType, component, null);
-    }
-
-    private void createComponent(String realmName, String providerType, ComponentExportRepresentation component, String parentId) {
+    private void createComponent(
+            String realmName,
+            ComponentIndex componentIndex,
+            String providerType,
+            ComponentExportRepresentation component,
+            String parentId
+    ) {
         ComponentRepresentation componentToCreate = CloneUtil.deepClone(component, ComponentRepresentation.class);
 
         if (componentToCreate.getProviderType() == null) {
@@ -119,21 +148,30 @@ public class ComponentImportService {
         }
 
         String componentId = componentRepository.create(realmName, componentToCreate);
+        componentToCreate.setId(componentId);
 
         MultivaluedHashMap<String, ComponentExportRepresentation> subComponents = component.getSubComponents();
-        ComponentRepresentation exitingComponent = componentRepository.getById(realmName, componentId);
+        boolean deleteMissingSubComponents = importConfigProperties.getManaged().getComponent() == ImportManagedPropertiesValues.FULL;
+
+        if (subComponents.isEmpty() && !deleteMissingSubComponents) {
+            return;
+        }
+
+        // keycloak may create default sub components, e.g. the mappers of a LDAP user storage provider
+        componentIndex.putChildren(componentId, componentRepository.getAll(realmName, componentId));
 
         if (!subComponents.isEmpty()) {
-            createOrUpdateSubComponents(realmName, subComponents, exitingComponent.getId());
+            createOrUpdateComponents(realmName, componentIndex, subComponents, componentId);
         }
 
-        if (importConfigProperties.getManaged().getComponent() == ImportManagedPropertiesValues.FULL) {
-            deleteComponentsMissingInImport(realmName, subComponents, exitingComponent);
+        if (deleteMissingSubComponents) {
+            deleteComponentsMissingInImport(realmName, componentIndex, subComponents, componentToCreate);
         }
     }
 
     private void updateComponentIfNeeded(
             String realmName,
+            ComponentIndex componentIndex,
             String providerType,
             ComponentExportRepresentation componentToImport,
             ComponentRepresentation existingComponent
@@ -141,14 +179,18 @@ public class ComponentImportService {
         boolean hasSubComponents = !componentToImport.getSubComponents().isEmpty();
 
         ComponentRepresentation patchedComponent = CloneUtil.patch(existingComponent, componentToImport, "id");
-        if (hasSubComponents || !isComponentEqual(realmName, existingComponent, patchedComponent)) {
-            updateComponent(realmName, providerType, componentToImport, patchedComponent);
+        if (hasSubComponents || !isComponentEqual(componentIndex, existingComponent, patchedComponent)) {
+            updateComponent(realmName, componentIndex, providerType, componentToImport, patchedComponent);
         } else {
             logger.debug("No need to update component: {}/{}", existingComponent.getProviderType(), componentToImport.getName());
         }
     }
 
-    private boolean isComponentEqual(String realmName, ComponentRepresentation existingComponent, ComponentRepresentation patchedComponent) {
+    private boolean isComponentEqual(
+            ComponentIndex componentIndex,
+            ComponentRepresentation existingComponent,
+            ComponentRepresentation patchedComponent
+    ) {
         // compare component config
         MultivaluedHashMap<String, String> existingComponentConfig = existingComponent.getConfig();
         MultivaluedHashMap<String, String> patchedComponentConfig = patchedComponent.getConfig();
@@ -176,12 +218,12 @@ public class ComponentImportService {
             }
         }
 
-        List<ComponentRepresentation> existingSubComponents = componentRepository.getAll(realmName, patchedComponent.getId());
-        return existingSubComponents.isEmpty();
+        return componentIndex.getChildren(patchedComponent.getId()).isEmpty();
     }
 
     private void updateComponent(
             String realmName,
+            ComponentIndex componentIndex,
             String providerType,
             ComponentExportRepresentation componentToImport,
             ComponentRepresentation patchedComponent
@@ -197,57 +239,21 @@ public class ComponentImportService {
         MultivaluedHashMap<String, ComponentExportRepresentation> subComponents = componentToImport.getSubComponents();
 
         if (!subComponents.isEmpty()) {
-            createOrUpdateSubComponents(realmName, subComponents, patchedComponent.getId());
+            createOrUpdateComponents(realmName, componentIndex, subComponents, patchedComponent.getId());
         }
 
         if (importConfigProperties.getManaged().getSubComponent() == ImportManagedPropertiesValues.FULL) {
-            deleteComponentsMissingInImport(realmName, subComponents, patchedComponent);
-        }
-    }
-
-    private void createOrUpdateSubComponents(
-            String realmName,
-            Map<String, List<ComponentExportRepresentation>> subComponents,
-            String parentId
-    ) {
-        for (Map.Entry<String, List<ComponentExportRepresentation>> entry : subComponents.entrySet()) {
-            createOrUpdateSubComponents(realmName, entry.getKey(), entry.getValue(), parentId);
-        }
-    }
-
-    private void createOrUpdateSubComponents(
-            String realmName,
-            String providerType,
-            List<ComponentExportRepresentation> subComponents, String parentId
-    ) {
-        for (ComponentExportRepresentation subComponent : subComponents) {
-            createOrUpdateSubComponent(realmName, parentId, providerType, subComponent);
-        }
-    }
-
-    private void createOrUpdateSubComponent(
-            String realmName,
-            String parentId,
-            String providerType,
-            ComponentExportRepresentation subComponent
-    ) {
-        Optional<ComponentRepresentation> maybeComponent = componentRepository.search(
-                realmName, providerType, subComponent.getSubType(), subComponent.getName(), parentId
-        );
-
-        if (maybeComponent.isPresent()) {
-            updateComponentIfNeeded(realmName, providerType, subComponent, maybeComponent.get());
-        } else {
-            createComponent(realmName, providerType, subComponent, parentId);
+            deleteComponentsMissingInImport(realmName, componentIndex, subComponents, patchedComponent);
         }
     }
 
     private void deleteComponentsMissingInImport(
             String realmName,
+            ComponentIndex componentIndex,
             MultivaluedHashMap<String, ComponentExportRepresentation> componentsToImport,
             ComponentRepresentation parentComponent
     ) {
-        List<ComponentRepresentation> existingComponents = getAllComponentsFromState(realmName, parentComponent);
+        List<ComponentRepresentation> existingComponents = getAllComponentsFromState(componentIndex, parentComponent);
 
         for (ComponentRepresentation existingComponent : existingComponents) {
             if (checkIfComponentMissingImport(existingComponent, componentsToImport)) {
@@ -257,10 +263,10 @@ public class ComponentImportService {
         }
     }
 
-    private List<ComponentRepresentation> getAllComponentsFromState(String realmName, ComponentRepresentation parentComponent) {
+    private List<ComponentRepresentation> getAllComponentsFromState(ComponentIndex componentIndex, ComponentRepresentation parentComponent) {
         String parentId = parentComponent != null ? parentComponent.getId() : null;
 
-        List<ComponentRepresentation> existingComponents = componentRepository.getAll(realmName, parentId);
+        List<ComponentRepresentation> existingComponents = componentIndex.getChildren(parentId);
         if (!importConfigProperties.getRemoteState().isEnabled()) {
             return existingComponents;
         }
@@ -20,12 +20,12 @@
 
 package de.adorsys.keycloak.config.service;
 
-import de.adorsys.keycloak.config.ThreadHelper;
-import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.repository.RoleIndex;
+import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ParallelUtil;
@@ -45,23 +45,22 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class GroupImportService {
     private static final Logger logger = LoggerFactory.getLogger(GroupImportService.class);
-    private static final int LOAD_CREATED_GROUP_MAX_RETRIES = 5;
 
     private final GroupRepository groupRepository;
+    private final RoleRepository roleRepository;
     private final ImportConfigProperties importConfigProperties;
-    private final ThreadHelper threadHelper;
     private final StateService stateService;
 
     @Autowired
     public GroupImportService(
             GroupRepository groupRepository,
+            RoleRepository roleRepository,
             ImportConfigProperties importConfigProperties,
-            ThreadHelper threadHelper,
             StateService stateService
     ) {
         this.groupRepository = groupRepository;
+        this.roleRepository = roleRepository;
         this.importConfigProperties = importConfigProperties;
-        this.threadHelper = threadHelper;
         this.stateService = stateService;
     }
 
@@ -75,20 +74,20 @@ public class GroupImportService {
 
         List<GroupRepresentation> existingGroups = groupRepository.getAll(realmName);
 
-        createOrUpdateGroups(groups, realmName);
+        // groups do not create roles, so one role index serves all role mappings of the import
+        createOrUpdateGroups(groups, realmName, roleRepository.getRoleIndex(realmName));
 
         if (importConfigProperties.getManaged().getGroup() == ImportManagedPropertiesValues.FULL) {
             deleteGroupsMissingInImport(realmName, groups, existingGroups);
         }
     }
 
-    public void createOrUpdateGroups(List<GroupRepresentation> groups, String realmName) {
-        Consumer<GroupRepresentation> loop = group -> createOrUpdateRealmGroup(realmName, group);
-        if (importConfigProperties.isParallel()) {
-            ParallelUtil.forEach(groups, loop);
-        } else {
-            groups.forEach(loop);
-        }
+    public void createOrUpdateGroups(List<GroupRepresentation> groups, String realmName, RoleIndex roleIndex) {
+        forEach(groups, group -> createOrUpdateRealmGroup(realmName, roleIndex, group));
+    }
+
+    private <T> void forEach(List<T> items, Consumer<T> loop) {
+        ParallelUtil.forEach(items, loop, importConfigProperties.isParallel());
     }
 
     private void deleteGroupsMissingInImport(
@@ -147,95 +146,89 @@ public class GroupImportService {
         }
     }
 
-    private void createOrUpdateRealmGroup(String realmName, GroupRepresentation group) {
+    private void createOrUpdateRealmGroup(String realmName, RoleIndex roleIndex, GroupRepresentation group) {
         String groupName = group.getName();
 
         GroupRepresentation existingGroup = groupRepository.getGroupByName(realmName, group.getName());
 
         if (existingGroup != null) {
-            updateGroupIfNecessary(realmName, group, existingGroup);
+            updateGroupIfNecessary(realmName, roleIndex, group, existingGroup);
         } else {
             logger.debug("Create group '{}' in realm '{}'", groupName, realmName);
-            createGroup(realmName, group);
+            createGroup(realmName, roleIndex, group);
         }
     }
 
-    private void createGroup(String realmName, GroupRepresentation group) {
-        groupRepository.createGroup(realmName, group);
+    private void createGroup(String realmName, RoleIndex roleIndex, GroupRepresentation group) {
+        String groupId = groupRepository.createGroup(realmName, group);
 
-        GroupRepresentation existingGroup = loadCreatedGroupUsingRamp(realmName, group.getName(), 0);
-        GroupRepresentation patchedGroup = CloneUtil.patch(existingGroup, group);
-
-        addRealmRoles(realmName, patchedGroup);
-        addClientRoles(realmName, patchedGroup);
-        addSubGroups(realmName, patchedGroup);
+        addRealmRoles(realmName, roleIndex, groupId, group);
+        addClientRoles(realmName, roleIndex, groupId, group);
+        addSubGroups(realmName, roleIndex, groupId, group.getSubGroups());
     }
 
-    /**
-     * This method retries the GET call to the created group as it fails in parallel mode pretty often.
-     * It uses a ramp from 0 milliseconds increasing to a square of the retryCount times a fixed number (500 milliseconds) as delay.
-     */
-    private GroupRepresentation loadCreatedGroupUsingRamp(String realmName, String groupName, int retryCount) {
-        if (retryCount >= LOAD_CREATED_GROUP_MAX_RETRIES) {
-            throw new ImportProcessingException("Cannot find created group '%s' in realm '%s'", groupName, realmName);
-        }
-
-        GroupRepresentation existingGroup = groupRepository.getGroupByName(realmName, groupName);
-
-        if (existingGroup != null) {
-            return existingGroup;
-        }
-
-        threadHelper.sleep(500L * retryCount * retryCount);
-
-        return loadCreatedGroupUsingRamp(realmName, groupName, retryCount + 1);
-    }
-
-    private void addRealmRoles(String realmName, GroupRepresentation existingGroup) {
-        List<String> realmRoles = existingGroup.getRealmRoles();
+    private void addRealmRoles(String realmName, RoleIndex roleIndex, String groupId, GroupRepresentation group) {
+        List<String> realmRoles = group.getRealmRoles();
 
         if (realmRoles != null && !realmRoles.isEmpty()) {
-            groupRepository.addRealmRoles(realmName, existingGroup.getId(), realmRoles);
+            groupRepository.addRealmRoles(realmName, roleIndex, groupId, realmRoles);
         }
     }
 
-    private void addClientRoles(String realmName, GroupRepresentation existingGroup) {
-        Map<String, List<String>> existingClientRoles = existingGroup.getClientRoles();
-        String groupId = existingGroup.getId();
+    private void addClientRoles(String realmName, RoleIndex roleIndex, String groupId, GroupRepresentation group) {
+        Map<String, List<String>> clientRoles = group.getClientRoles();
 
-        if (existingClientRoles != null && !existingClientRoles.isEmpty()) {
-            for (Map.Entry<String, List<String>> existingClientRolesEntry : existingClientRoles.entrySet()) {
-                String clientId = existingClientRolesEntry.getKey();
-                List<String> clientRoleNames = existingClientRolesEntry.getValue();
+        if (clientRoles != null && !clientRoles.isEmpty()) {
+            for (Map.Entry<String, List<String>> clientRolesEntry : clientRoles.entrySet()) {
+                String clientId = clientRolesEntry.getKey();
+                List<String> clientRoleNames = clientRolesEntry.getValue();
 
-                groupRepository.addClientRoles(realmName, groupId, clientId, clientRoleNames);
+                groupRepository.addClientRoles(realmName, roleIndex, groupId, clientId, clientRoleNames);
             }
         }
     }
 
-    private void addSubGroups(String realmName, GroupRepresentation existingGroup) {
-        List<GroupRepresentation> subGroups = existingGroup.getSubGroups();
-        String groupId = existingGroup.getId();
+    public void addSubGroup(String realmName, RoleIndex roleIndex, String parentGroupId, GroupRepresentation subGroup) {
+        addSubGroups(realmName, roleIndex, parentGroupId, List.of(subGroup));
+    }
 
-        if (subGroups != null && !subGroups.isEmpty()) {
-            for (GroupRepresentation subGroup : subGroups) {
-                addSubGroup(realmName, groupId, subGroup);
-            }
+    /**
+     * Creates the sub-group trees level by level. The id of a created group is taken from the create response,
+     * so the groups of a level can be created in parallel as soon as their parents exist.
+     */
+    private void addSubGroups(String realmName, RoleIndex roleIndex, String parentGroupId, List<GroupRepresentation> subGroups) {
+        if (subGroups == null || subGroups.isEmpty()) {
+            return;
         }
-    }
 
-    public void addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
-        groupRepository.addSubGroup(realmName, parentGroupId, subGroup);
+        List<Map.Entry<String, GroupRepresentation>> level = subGroups.stream()
+                .map(subGroup -> Map.entry(parentGroupId, subGroup))
+                .toList();
+
+        while (!level.isEmpty()) {
+            List<Map.Entry<String, GroupRepresentation>> nextLevel = Collections.synchronizedList(new ArrayList<>());
+
+            forEach(level, entry -> {
+                GroupRepresentation subGroup = entry.getValue();
 
-        GroupRepresentation existingSubGroup = groupRepository.getSubGroupByName(realmName, parentGroupId, subGroup.getName());
-        GroupRepresentation patchedGroup = CloneUtil.patch(existingSubGroup, subGroup);
+                logger.debug("Create subGroup '{}' in group with id '{}' in realm '{}'", subGroup.getName(), entry.getKey(), realmName);
+                String subGroupId = groupRepository.addSubGroup(realmName, entry.getKey(), subGroup);
 
-        addRealmRoles(realmName, patchedGroup);
-        addClientRoles(realmName, patchedGroup);
-        addSubGroups(realmName, patchedGroup);
+                addRealmRoles(realmName, roleIndex, subGroupId, subGroup);
+                addClientRoles(realmName, roleIndex, subGroupId, subGroup);
+
+                if (subGroup.getSubGroups() != null) {
+                    for (GroupRepresentation child : subGroup.getSubGroups()) {
+                        nextLevel.add(Map.entry(subGroupId, child));
+                    }
+                }
+            });
+
+            level = nextLevel;
+        }
     }
 
-    private void updateGroupIfNecessary(String realmName, GroupRepresentation group, GroupRepresentation existingGroup) {
+    private void updateGroupIfNecessary(String realmName, RoleIndex roleIndex, GroupRepresentation group, GroupRepresentation existingGroup) {
         GroupRepresentation patchedGroup = CloneUtil.patch(existingGroup, group);
         String groupName = existingGroup.getName();
 
@@ -243,7 +236,7 @@ public class GroupImportService {
             logger.debug("No need to update group '{}' in realm '{}'", groupName, realmName);
         } else {
             logger.debug("Update group '{}' in realm '{}'", groupName, realmName);
-            updateGroup(realmName, group, patchedGroup);
+            updateGroup(realmName, roleIndex, group, patchedGroup);
         }
     }
 
@@ -286,28 +279,28 @@ public class GroupImportService {
         return true;
     }
 
-    private void updateGroup(String realmName, GroupRepresentation group, GroupRepresentation patchedGroup) {
+    private void updateGroup(String realmName, RoleIndex roleIndex, GroupRepresentation group, GroupRepresentation patchedGroup) {
         groupRepository.update(realmName, patchedGroup);
 
         String groupId = patchedGroup.getId();
 
         List<String> realmRoles = group.getRealmRoles();
         if (realmRoles != null) {
-            updateGroupRealmRoles(realmName, groupId, realmRoles);
+            updateGroupRealmRoles(realmName, roleIndex, groupId, realmRoles);
         }
 
         Map<String, List<String>> clientRoles = group.getClientRoles();
         if (clientRoles != null) {
-            updateGroupClientRoles(realmName, groupId, clientRoles);
+            updateGroupClientRoles(realmName, roleIndex, groupId, clientRoles);
         }
 
         List<GroupRepresentation> subGroups = group.getSubGroups();
         if (subGroups != null) {
-            updateSubGroups(realmName, patchedGroup.getId(), subGroups);
+            updateSubGroups(realmName, roleIndex, patchedGroup.getId(), subGroups);
         }
     }
 
-    private void updateGroupRealmRoles(String realmName, String groupId, List<String> realmRoles) {
+    private void updateGroupRealmRoles(String realmName, RoleIndex roleIndex, String groupId, List<String> realmRoles) {
         GroupRepresentation existingGroup = groupRepository.getGroupById(realmName, groupId);
 
         List<String> existingRealmRolesNames = existingGroup.getRealmRoles();
@@ -315,8 +308,8 @@ public class GroupImportService {
         List<String> realmRoleNamesToAdd = estimateRealmRolesToAdd(realmRoles, existingRealmRolesNames);
         List<String> realmRoleNamesToRemove = estimateRealmRolesToRemove(realmRoles, existingRealmRolesNames);
 
-        groupRepository.addRealmRoles(realmName, groupId, realmRoleNamesToAdd);
-        groupRepository.removeRealmRoles(realmName, groupId, realmRoleNamesToRemove);
+        groupRepository.addRealmRoles(realmName, roleIndex, groupId, realmRoleNamesToAdd);
+        groupRepository.removeRealmRoles(realmName, roleIndex, groupId, realmRoleNamesToRemove);
     }
 
     private List<String> estimateRealmRolesToRemove(List<String> realmRoles, List<String> existingRealmRolesNames) {
@@ -351,17 +344,18 @@ public class GroupImportService {
         return realmRoleNamesToAdd;
     }
 
-    private void updateGroupClientRoles(String realmName, String groupId, Map<String, List<String>> groupClientRoles) {
+    private void updateGroupClientRoles(String realmName, RoleIndex roleIndex, String groupId, Map<String, List<String>> groupClientRoles) {
         GroupRepresentation existingGroup = groupRepository.getGroupById(realmName, groupId);
 
         Map<String, List<String>> existingClientRoleNames = existingGroup.getClientRoles();
 
-        deleteClientRolesMissingInImport(realmName, groupId, existingClientRoleNames, groupClientRoles);
-        updateClientRoles(realmName, groupId, existingClientRoleNames, groupClientRoles);
+        deleteClientRolesMissingInImport(realmName, roleIndex, groupId, existingClientRoleNames, groupClientRoles);
+        updateClientRoles(realmName, roleIndex, groupId, existingClientRoleNames, groupClientRoles);
     }
 
     private void updateClientRoles(
             String realmName,
+            RoleIndex roleIndex,
             String groupId,
             Map<String, List<String>> existingClientRoleNames,
             Map<String, List<String>> groupClientRoles
@@ -376,13 +370,14 @@ public class GroupImportService {
             List<String> clientRoleNamesToAdd = estimateClientRolesToAdd(existingClientRoleNamesForClient, clientRoleNames);
             List<String> clientRoleNamesToRemove = estimateClientRolesToRemove(existingClientRoleNamesForClient, clientRoleNames);
 
-            groupRepository.addClientRoles(realmName, groupId, clientId, clientRoleNamesToAdd);
-            groupRepository.removeClientRoles(realmName, groupId, clientId, clientRoleNamesToRemove);
+            groupRepository.addClientRoles(realmName, roleIndex, groupId, clientId, clientRoleNamesToAdd);
+            groupRepository.removeClientRoles(realmName, roleIndex, groupId, clientId, clientRoleNamesToRemove);
         }
     }
 
     private void deleteClientRolesMissingInImport(
             String realmName,
+            RoleIndex roleIndex,
             String groupId,
             Map<String, List<String>> existingClientRoleNames,
             Map<String, List<String>> groupClientRoles
@@ -396,7 +391,7 @@ public class GroupImportService {
             List<String> clientRoleNames = existingClientRoleNamesEntry.getValue();
 
             if (!clientRoleNames.isEmpty() && !groupClientRoles.containsKey(clientId)) {
-                groupRepository.removeClientRoles(realmName, groupId, clientId, clientRoleNames);
+                groupRepository.removeClientRoles(realmName, roleIndex, groupId, clientId, clientRoleNames);
             }
         }
     }
@@ -433,7 +428,7 @@ public class GroupImportService {
         return clientRoleNamesToAdd;
     }
 
-    private void updateSubGroups(String realmName, String parentGroupId, List<GroupRepresentation> subGroups) {
+    private void updateSubGroups(String realmName, RoleIndex roleIndex, String parentGroupId, List<GroupRepresentation> subGroups) {
         List<GroupRepresentation> existingSubGroups = groupRepository.getSubGroups(realmName, parentGroupId);
 
 
@@ -447,9 +442,9 @@ public class GroupImportService {
 
         for (GroupRepresentation subGroup : subGroups) {
             if (existingSubGroupNames.contains(subGroup.getName())) {
-                updateSubGroupIfNecessary(realmName, parentGroupId, subGroup);
+                updateSubGroupIfNecessary(realmName, roleIndex, parentGroupId, subGroup);
             } else {
-                addSubGroup(realmName, parentGroupId, subGroup);
+                addSubGroup(realmName, roleIndex, parentGroupId, subGroup);
             }
         }
     }
@@ -470,7 +465,7 @@ public class GroupImportService {
         }
     }
 
-    public void updateSubGroupIfNecessary(String realmName, String parentGroupId, GroupRepresentation subGroup) {
+    public void updateSubGroupIfNecessary(String realmName, RoleIndex roleIndex, String parentGroupId, GroupRepresentation subGroup) {
         String subGroupName = subGroup.getName();
         GroupRepresentation existingSubGroup = groupRepository.getSubGroupByName(realmName, parentGroupId, subGroupName);
 
@@ -481,7 +476,7 @@ public class GroupImportService {
         } else {
             logger.debug("Update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
 
-            updateGroup(realmName, subGroup, patchedSubGroup);
+            updateGroup(realmName, roleIndex, subGroup, patchedSubGroup);
         }
     }
 }
@@ -25,6 +25,7 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.IdentityProviderMapperRepository;
 import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
 import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.representations.idm.IdentityProviderMapperRepresentation;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
 import org.slf4j.Logger;
@@ -33,9 +34,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 
@@ -67,17 +72,25 @@ public class IdentityProviderImportService {
     private void createOrUpdateOrDeleteIdentityProviders(RealmImport realmImport) {
         String realmName = realmImport.getRealm();
         List<IdentityProviderRepresentation> identityProviders = realmImport.getIdentityProviders();
-        List<IdentityProviderRepresentation> existingIdentityProviders = identityProviderRepository.getAll(realmName);
 
         if (identityProviders == null) return;
 
+        List<IdentityProviderRepresentation> existingIdentityProviders = identityProviderRepository.getAll(realmName);
+
         if (importConfigProperties.getManaged().getIdentityProvider() == ImportManagedPropertiesValues.FULL) {
             deleteIdentityProvidersMissingInImport(realmName, identityProviders, existingIdentityProviders);
         }
 
-        for (IdentityProviderRepresentation identityProvider : identityProviders) {
-            createOrUpdateIdentityProvider(realmImport, identityProvider);
-        }
+        Map<String, IdentityProviderRepresentation> existingIdentityProvidersByAlias = existingIdentityProviders.stream()
+                .collect(Collectors.toMap(IdentityProviderRepresentation::getAlias, Function.identity(), (a, b) -> a));
+
+        ParallelUtil.forEach(
+                identityProviders,
+                identityProvider -> createOrUpdateIdentityProvider(
+                        realmName, identityProvider, existingIdentityProvidersByAlias.get(identityProvider.getAlias())
+                ),
+                importConfigProperties.isParallel()
+        );
     }
 
     private void deleteIdentityProvidersMissingInImport(
@@ -85,58 +98,46 @@ public class IdentityProviderImportService {
             List<IdentityProviderRepresentation> identityProviders,
             List<IdentityProviderRepresentation> existingIdentityProviders
     ) {
-        for (IdentityProviderRepresentation identityProvider : existingIdentityProviders) {
-            if (!hasIdentityProviderWithAlias(identityProviders, identityProvider.getAlias())) {
-                logger.debug("Delete identityProvider '{}' in realm '{}'", identityProvider.getAlias(), realmName);
-                identityProviderRepository.delete(realmName, identityProvider);
-            }
-        }
+        Set<String> identityProviderAliases = identityProviders.stream()
+                .map(IdentityProviderRepresentation::getAlias)
+                .collect(Collectors.toSet());
+
+        List<IdentityProviderRepresentation> identityProvidersToDelete = existingIdentityProviders.stream()
+                .filter(identityProvider -> !identityProviderAliases.contains(identityProvider.getAlias()))
+                .toList();
+
+        ParallelUtil.forEach(identityProvidersToDelete, identityProvider -> {
+            logger.debug("Delete identityProvider '{}' in realm '{}'", identityProvider.getAlias(), realmName);
+            identityProviderRepository.delete(realmName, identityProvider);
+        }, importConfigProperties.isParallel());
     }
 
-    private void createOrUpdateIdentityProvider(RealmImport realmImport, IdentityProviderRepresentation identityProvider) {
+    private void createOrUpdateIdentityProvider(
+            String realmName,
+            IdentityProviderRepresentation identityProvider,
+            IdentityProviderRepresentation existingIdentityProvider
+    ) {
         String identityProviderName = identityProvider.getAlias();
-        String realmName = realmImport.getRealm();
 
-        Optional<IdentityProviderRepresentation> maybeIdentityProvider = identityProviderRepository.search(realmName, identityProviderName);
-
-        if (maybeIdentityProvider.isPresent()) {
-            updateIdentityProviderFlowAliases(realmName, identityProvider);
-            updateIdentityProviderIfNecessary(realmName, identityProvider);
+        if (existingIdentityProvider != null) {
+            updateIdentityProviderIfNecessary(realmName, identityProvider, existingIdentityProvider);
         } else {
             logger.debug("Create identityProvider '{}' in realm '{}'", identityProviderName, realmName);
             identityProviderRepository.create(realmName, identityProvider);
         }
     }
 
-    public void updateIdentityProviderFlowAliases(String realmName, IdentityProviderRepresentation identityProvider) {
-        IdentityProviderRepresentation existingIdp = identityProviderRepository.getByAlias(realmName, identityProvider.getAlias());
-        if (existingIdp != null) {
-            boolean updated = false;
-            if (hasFirstBrokerLoginFlowAliasChanged(existingIdp, identityProvider)) {
-                existingIdp.setFirstBrokerLoginFlowAlias(identityProvider.getFirstBrokerLoginFlowAlias());
-                updated = true;
-            }
-            if (hasPostBrokerLoginFlowAliasChanged(existingIdp, identityProvider)) {
-                existingIdp.setPostBrokerLoginFlowAlias(identityProvider.getPostBrokerLoginFlowAlias());
-                updated = true;
-            }
-            if (updated) {
-                identityProviderRepository.update(realmName, existingIdp);
-            }
-        }
-    }
-
-    private boolean hasFirstBrokerLoginFlowAliasChanged(IdentityProviderRepresentation existingIdp, IdentityProviderRepresentation identityProvider) {
-        return !Objects.equals(existingIdp.getFirstBrokerLoginFlowAlias(), identityProvider.getFirstBrokerLoginFlowAlias());
-    }
-
-    private boolean hasPostBrokerLoginFlowAliasChanged(IdentityProviderRepresentation existingIdp, IdentityProviderRepresentation identityProvider) {
-        return !Objects.equals(existingIdp.getPostBrokerLoginFlowAlias(), identityProvider.getPostBrokerLoginFlowAlias());
-    }
+    private void updateIdentityProviderIfNecessary(
+            String realmName,
+            IdentityProviderRepresentation identityProvider,
+            IdentityProviderRepresentation existingIdentityProvider
+    ) {
+        // flow aliases are taken over even if unset in import, to be able to unbind a flow
+        IdentityProviderRepresentation existingIdentityProviderWithFlowAliases = CloneUtil.deepClone(existingIdentityProvider);
+        existingIdentityProviderWithFlowAliases.setFirstBrokerLoginFlowAlias(identityProvider.getFirstBrokerLoginFlowAlias());
+        existingIdentityProviderWithFlowAliases.setPostBrokerLoginFlowAlias(identityProvider.getPostBrokerLoginFlowAlias());
 
-    private void updateIdentityProviderIfNecessary(String realmName, IdentityProviderRepresentation identityProvider) {
-        IdentityProviderRepresentation existingIdentityProvider = identityProviderRepository.getByAlias(realmName, identityProvider.getAlias());
-        IdentityProviderRepresentation patchedIdentityProvider = CloneUtil.patch(existingIdentityProvider, identityProvider);
+        IdentityProviderRepresentation patchedIdentityProvider = CloneUtil.patch(existingIdentityProviderWithFlowAliases, identityProvider);
         String identityProviderAlias = existingIdentityProvider.getAlias();
 
         if (isIdentityProviderEqual(existingIdentityProvider, patchedIdentityProvider)) {
@@ -154,46 +155,56 @@ public class IdentityProviderImportService {
         return CloneUtil.deepEquals(existingIdentityProvider, patchedIdentityProvider);
     }
 
-    private boolean hasIdentityProviderWithAlias(List<IdentityProviderRepresentation> identityProviders, String identityProviderAlias) {
-        return identityProviders.stream().anyMatch(idp -> Objects.equals(idp.getAlias(), identityProviderAlias));
-    }
-
     private void createOrUpdateOrDeleteIdentityProviderMappers(RealmImport realmImport) {
         String realmName = realmImport.getRealm();
         List<IdentityProviderMapperRepresentation> identityProviderMappers = realmImport.getIdentityProviderMappers();
-        List<IdentityProviderMapperRepresentation> existingIdentityProviderMappers = identityProviderMapperRepository.getAll(realmName);
 
         if (identityProviderMappers == null) return;
 
+        List<IdentityProviderMapperRepresentation> existingIdentityProviderMappers = identityProviderMapperRepository.getAll(realmName);
+
         if (importConfigProperties.getManaged().getIdentityProviderMapper() == ImportManagedPropertiesValues.FULL) {
             deleteIdentityProviderMappersMissingInImport(realmName, identityProviderMappers, existingIdentityProviderMappers);
         }
 
-        for (IdentityProviderMapperRepresentation identityProviderMapper : identityProviderMappers) {
-            createOrUpdateIdentityProviderMapper(realmImport, identityProviderMapper);
-        }
+        Map<String, IdentityProviderMapperRepresentation> existingIdentityProviderMappersByKey = existingIdentityProviderMappers.stream()
+                .collect(Collectors.toMap(IdentityProviderImportService::getMapperKey, Function.identity(), (a, b) -> a));
+
+        // mappers of one identity provider are applied in order, identity providers are processed concurrently
+        Map<String, List<IdentityProviderMapperRepresentation>> identityProviderMappersByAlias = identityProviderMappers.stream()
+                .collect(Collectors.groupingBy(
+                        mapper -> Objects.toString(mapper.getIdentityProviderAlias(), ""), LinkedHashMap::new, Collectors.toList()
+                ));
+
+        ParallelUtil.forEach(
+                List.copyOf(identityProviderMappersByAlias.values()),
+                mappers -> mappers.forEach(identityProviderMapper -> createOrUpdateIdentityProviderMapper(
+                        realmName, identityProviderMapper, existingIdentityProviderMappersByKey.get(getMapperKey(identityProviderMapper))
+                )),
+                importConfigProperties.isParallel()
+        );
     }
 
-    private void createOrUpdateIdentityProviderMapper(RealmImport realmImport, IdentityProviderMapperRepresentation identityProviderMapper) {
+    private void createOrUpdateIdentityProviderMapper(
+            String realmName,
+            IdentityProviderMapperRepresentation identityProviderMapper,
+            IdentityProviderMapperRepresentation existingIdentityProviderMapper
+    ) {
         String identityProviderMapperName = identityProviderMapper.getName();
-        String realmName = realmImport.getRealm();
 
-        Optional<IdentityProviderMapperRepresentation> maybeIdentityProviderMapper = identityProviderMapperRepository.search(
-                realmName, identityProviderMapper.getIdentityProviderAlias(), identityProviderMapperName
-        );
-
-        if (maybeIdentityProviderMapper.isPresent()) {
-            updateIdentityProviderMapperIfNecessary(realmName, identityProviderMapper);
+        if (existingIdentityProviderMapper != null) {
+            updateIdentityProviderMapperIfNecessary(realmName, identityProviderMapper, existingIdentityProviderMapper);
         } else {
             logger.debug("Create identityProviderMapper '{}' in realm '{}'", identityProviderMapperName, realmName);
             identityProviderMapperRepository.create(realmName, identityProviderMapper);
         }
     }
 
-    private void updateIdentityProviderMapperIfNecessary(String realmName, IdentityProviderMapperRepresentation identityProviderMapper) {
-        IdentityProviderMapperRepresentation existingIdentityProviderMapper = identityProviderMapperRepository.get(
-                realmName, identityProviderMapper.getIdentityProviderAlias(), identityProviderMapper.getName()
-        );
+    private void updateIdentityProviderMapperIfNecessary(
+            String realmName,
+            IdentityProviderMapperRepresentation identityProviderMapper,
+            IdentityProviderMapperRepresentation existingIdentityProviderMapper
+    ) {
         IdentityProviderMapperRepresentation patchedIdentityProviderMapper = CloneUtil.patch(
                 existingIdentityProviderMapper, identityProviderMapper, "id"
         );
@@ -220,29 +231,26 @@ public class IdentityProviderImportService {
         return CloneUtil.deepEquals(existingIdentityProviderMapper, patchedIdentityProviderMapper);
     }
 
-
     private void deleteIdentityProviderMappersMissingInImport(
             String realmName,
             List<IdentityProviderMapperRepresentation> identityProviderMappers,
             List<IdentityProviderMapperRepresentation> existingIdentityProviderMappers
     ) {
-        for (IdentityProviderMapperRepresentation identityProviderMapper : existingIdentityProviderMappers) {
-            if (!hasIdentityProviderMapperWithNameForAlias(identityProviderMappers, identityProviderMapper)) {
-                logger.debug("Delete identityProviderMapper '{}' in realm '{}'", identityProviderMapper.getName(), realmName);
-                identityProviderMapperRepository.delete(realmName, identityProviderMapper);
-            }
-        }
+        Set<String> identityProviderMapperKeys = identityProviderMappers.stream()
+                .map(IdentityProviderImportService::getMapperKey)
+                .collect(Collectors.toSet());
+
+        List<IdentityProviderMapperRepresentation> identityProviderMappersToDelete = existingIdentityProviderMappers.stream()
+                .filter(identityProviderMapper -> !identityProviderMapperKeys.contains(getMapperKey(identityProviderMapper)))
+                .toList();
+
+        ParallelUtil.forEach(identityProviderMappersToDelete, identityProviderMapper -> {
+            logger.debug("Delete identityProviderMapper '{}' in realm '{}'", identityProviderMapper.getName(), realmName);
+            identityProviderMapperRepository.delete(realmName, identityProviderMapper);
+        }, importConfigProperties.isParallel());
     }
 
-    private boolean hasIdentityProviderMapperWithNameForAlias(
-            List<IdentityProviderMapperRepresentation> identityProviderMappers,
-            IdentityProviderMapperRepresentation identityProviderMapper
-    ) {
-        return identityProviderMappers.stream()
-                .anyMatch(mapper ->
-                        Objects.equals(mapper.getName(), identityProviderMapper.getName())
-                                && Objects.equals(mapper.getIdentityProviderAlias(), identityProviderMapper.getIdentityProviderAlias())
-                );
+    private static String getMapperKey(IdentityProviderMapperRepresentation identityProviderMapper) {
+        return identityProviderMapper.getIdentityProviderAlias() + "/" + identityProviderMapper.getName();
     }
-
 }
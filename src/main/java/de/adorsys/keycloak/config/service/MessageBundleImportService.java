@@ -25,6 +25,7 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.RealmRepository;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.LocalizationUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.admin.client.resource.RealmLocalizationResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +33,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -62,34 +65,58 @@ public class MessageBundleImportService {
 
         String realmName = realmImport.getRealm();
         RealmLocalizationResource localizationResource = realmRepository.getResource(realmName).localization();
-        Set<Map.Entry<String, Map<String, String>>> locales = messageBundles.entrySet();
+        boolean isManagedFull = importConfigProperties.getManaged().getMessageBundles() == ImportConfigProperties
+                .ImportManagedProperties.ImportManagedPropertiesValues.FULL;
 
-        if (importConfigProperties.getManaged().getMessageBundles() == ImportConfigProperties
-                .ImportManagedProperties.ImportManagedPropertiesValues.FULL) {
+        if (isManagedFull) {
             deleteMessageBundlesMissingOnImport(realmName, realmImport.getMessageBundles());
         }
 
-        for (Map.Entry<String, Map<String, String>> localeEntry : locales) {
-            String locale = localeEntry.getKey();
-            Map<String, String> newMessageBundles = localeEntry.getValue();
-            Map<String, String> oldMessageBundles = LocalizationUtil
-                    .getRealmLocalizationTexts(localizationResource, locale);
-
-            localizationResource.createOrUpdateRealmLocalizationTexts(locale, newMessageBundles);
-
-            // clean up
-            if (oldMessageBundles != null
-                    && importConfigProperties.getManaged().getMessageBundles() == ImportConfigProperties
-                            .ImportManagedProperties.ImportManagedPropertiesValues.FULL) {
-                for (String oldMessageBundleKey : oldMessageBundles.keySet()) {
-                    if (!newMessageBundles.containsKey(oldMessageBundleKey)) {
-                        localizationResource.deleteRealmLocalizationText(locale, oldMessageBundleKey);
-                        logger.debug("Delete message bundle localization text with key '{}' for locale '{}' in realm '{}'",
-                                oldMessageBundleKey, locale, realmName);
-                    }
-                }
+        ParallelUtil.forEach(
+                List.copyOf(messageBundles.entrySet()),
+                localeEntry -> importMessageBundle(
+                        realmName, localizationResource, localeEntry.getKey(), localeEntry.getValue(), isManagedFull
+                ),
+                importConfigProperties.isParallel()
+        );
+    }
+
+    private void importMessageBundle(
+            String realmName,
+            RealmLocalizationResource localizationResource,
+            String locale,
+            Map<String, String> newMessageBundle,
+            boolean removeStaleKeys
+    ) {
+        Map<String, String> oldMessageBundle = LocalizationUtil.getRealmLocalizationTexts(localizationResource, locale);
+        if (oldMessageBundle == null) oldMessageBundle = Map.of();
+
+        Map<String, String> changedTexts = new HashMap<>();
+        for (Map.Entry<String, String> text : newMessageBundle.entrySet()) {
+            if (!Objects.equals(text.getValue(), oldMessageBundle.get(text.getKey()))) {
+                changedTexts.put(text.getKey(), text.getValue());
             }
         }
+
+        List<String> staleKeys = removeStaleKeys
+                ? oldMessageBundle.keySet().stream().filter(key -> !newMessageBundle.containsKey(key)).toList()
+                : List.of();
+
+        if (changedTexts.isEmpty() && staleKeys.isEmpty()) {
+            logger.debug("Message bundle for locale '{}' in realm '{}' is up-to-date", locale, realmName);
+            return;
+        }
+
+        if (!changedTexts.isEmpty()) {
+            logger.debug("Update {} localization texts for locale '{}' in realm '{}'", changedTexts.size(), locale, realmName);
+            localizationResource.createOrUpdateRealmLocalizationTexts(locale, changedTexts);
+        }
+
+        for (String staleKey : staleKeys) {
+            localizationResource.deleteRealmLocalizationText(locale, staleKey);
+            logger.debug("Delete message bundle localization text with key '{}' for locale '{}' in realm '{}'",
+                    staleKey, locale, realmName);
+        }
     }
 
     private void deleteMessageBundlesMissingOnImport(
@@ -26,20 +26,28 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.OrganizationRepository;
 import de.adorsys.keycloak.config.repository.UserRepository;
 import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
 import org.keycloak.representations.idm.MemberRepresentation;
 import org.keycloak.representations.idm.OrganizationRepresentation;
-import org.keycloak.representations.idm.UserRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.ws.rs.BadRequestException;
@@ -95,50 +103,82 @@ public class OrganizationImportService {
     }
 
     private void createOrUpdateOrDeleteOrganizations(String realmName, List<OrganizationRepresentation> organizations) {
-        List<OrganizationRepresentation> existingOrganizations = organizationRepository.getAll(realmName);
-
-        if (importConfigProperties.getManaged().getOrganization() == ImportManagedPropertiesValues.FULL) {
-            deleteOrganizationsMissingInImport(realmName, organizations, existingOrganizations);
+        Map<String, OrganizationRepresentation> organizationsByAlias = organizations.stream()
+                .collect(Collectors.toMap(OrganizationRepresentation::getAlias, Function.identity(), (a, b) -> b, LinkedHashMap::new));
+
+        boolean deleteMissing = importConfigProperties.getManaged().getOrganization() == ImportManagedPropertiesValues.FULL;
+
+        Map<String, OrganizationRepresentation> existingOrganizationsByAlias = new HashMap<>();
+        List<OrganizationRepresentation> organizationsToDelete = new ArrayList<>();
+        Set<String> existingAliases = new HashSet<>();
+
+        // list all pages before anything is changed, an update may rename an organization and shift the offsets of
+        // the following pages. The next page is fetched while the current page is indexed.
+        Iterator<List<OrganizationRepresentation>> pages = organizationRepository.getPages(
+                realmName, importConfigProperties.getOrganizations().getPageSize()
+        );
+        CompletableFuture<List<OrganizationRepresentation>> nextPage = fetchNextPage(pages);
+        while (nextPage != null) {
+            List<OrganizationRepresentation> page = nextPage.join();
+            nextPage = fetchNextPage(pages);
+
+            for (OrganizationRepresentation existingOrganization : page) {
+                if (!existingAliases.add(existingOrganization.getAlias())) continue;
+
+                if (organizationsByAlias.containsKey(existingOrganization.getAlias())) {
+                    existingOrganizationsByAlias.put(existingOrganization.getAlias(), existingOrganization);
+                } else if (deleteMissing) {
+                    organizationsToDelete.add(existingOrganization);
+                }
+            }
         }
 
-        for (OrganizationRepresentation organization : organizations) {
-            createOrUpdateOrganization(realmName, organization);
+        for (OrganizationRepresentation organization : organizationsByAlias.values()) {
+            OrganizationRepresentation existingOrganization = existingOrganizationsByAlias.get(organization.getAlias());
+            if (existingOrganization != null) {
+                updateOrganization(realmName, organization, existingOrganization);
+            }
         }
-    }
 
-    private void deleteOrganizationsMissingInImport(
-            String realmName,
-            List<OrganizationRepresentation> organizations,
-            List<OrganizationRepresentation> existingOrganizations
-    ) {
-        for (OrganizationRepresentation existingOrganization : existingOrganizations) {
-            if (!hasOrganizationWithAlias(organizations, existingOrganization.getAlias())) {
-                logger.debug("Delete organization '{}' in realm '{}'", existingOrganization.getAlias(), realmName);
-                organizationRepository.delete(realmName, existingOrganization);
+        deleteOrganizations(realmName, organizationsToDelete);
+
+        for (OrganizationRepresentation organization : organizationsByAlias.values()) {
+            if (!existingOrganizationsByAlias.containsKey(organization.getAlias())) {
+                createOrganization(realmName, organization);
             }
         }
     }
 
-    private void createOrUpdateOrganization(String realmName, OrganizationRepresentation organization) {
-        String organizationAlias = organization.getAlias();
+    private CompletableFuture<List<OrganizationRepresentation>> fetchNextPage(Iterator<List<OrganizationRepresentation>> pages) {
+        if (!pages.hasNext()) return null;
 
-        Optional<OrganizationRepresentation> maybeOrganization = organizationRepository.search(realmName, organizationAlias);
+        return ParallelUtil.supplyAsync(pages::next);
+    }
 
-        if (maybeOrganization.isPresent()) {
-            OrganizationRepresentation existingOrganization = maybeOrganization.get();
-            updateOrganizationIfNecessary(realmName, organization, existingOrganization);
+    private void deleteOrganizations(String realmName, List<OrganizationRepresentation> organizationsToDelete) {
+        for (OrganizationRepresentation existingOrganization : organizationsToDelete) {
+            logger.debug("Delete organization '{}' in realm '{}'", existingOrganization.getAlias(), realmName);
+            organizationRepository.delete(realmName, existingOrganization);
+        }
+    }
 
-            OrganizationRepresentation resolved = organizationRepository.getByAlias(realmName, organizationAlias);
-            manageIdentityProviderAssociations(realmName, resolved.getId(), organization);
-            manageMemberships(realmName, resolved.getId(), organization);
-        } else {
-            logger.debug("Create organization '{}' in realm '{}'", organizationAlias, realmName);
-            organizationRepository.create(realmName, organization);
+    private void updateOrganization(
+            String realmName,
+            OrganizationRepresentation organization,
+            OrganizationRepresentation existingOrganization
+    ) {
+        updateOrganizationIfNecessary(realmName, organization, existingOrganization);
 
-            OrganizationRepresentation created = organizationRepository.getByAlias(realmName, organizationAlias);
-            manageIdentityProviderAssociations(realmName, created.getId(), organization);
-            manageMemberships(realmName, created.getId(), organization);
-        }
+        manageIdentityProviderAssociations(realmName, existingOrganization.getId(), organization);
+        manageMemberships(realmName, existingOrganization.getId(), organization);
+    }
+
+    private void createOrganization(String realmName, OrganizationRepresentation organization) {
+        logger.debug("Create organization '{}' in realm '{}'", organization.getAlias(), realmName);
+        String organizationId = organizationRepository.create(realmName, organization);
+
+        manageIdentityProviderAssociations(realmName, organizationId, organization);
+        manageMemberships(realmName, organizationId, organization);
     }
 
     private void updateOrganizationIfNecessary(
@@ -157,10 +197,6 @@ public class OrganizationImportService {
         }
     }
 
-    private boolean hasOrganizationWithAlias(List<OrganizationRepresentation> organizations, String alias) {
-        return organizations.stream().anyMatch(org -> Objects.equals(org.getAlias(), alias));
-    }
-
     private void manageIdentityProviderAssociations(
             String realmName,
             String orgId,
@@ -222,75 +258,68 @@ public class OrganizationImportService {
             String orgId,
             OrganizationRepresentation organization
     ) {
-        List<MemberRepresentation> membersToAdd = organization.getMembers();
-        List<MemberRepresentation> existingMembers = organizationRepository.getMembers(realmName, orgId);
-        Set<String> existingUsernames = existingMembers.stream()
-                .map(MemberRepresentation::getUsername)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        List<MemberRepresentation> configuredMembers = Optional.ofNullable(organization.getMembers()).orElse(List.of());
 
-        if (membersToAdd == null || membersToAdd.isEmpty()) {
-            if (importConfigProperties.getManaged().getOrganization() == ImportManagedPropertiesValues.FULL) {
-                for (MemberRepresentation existing : existingMembers) {
-                    if (existing == null || existing.getUsername() == null) continue;
+        // only keep username and id of existing members, organizations may have a lot of members
+        Map<String, String> existingMemberIds = new HashMap<>();
+        organizationRepository.getMemberPages(realmName, orgId, importConfigProperties.getOrganizations().getPageSize())
+                .forEachRemaining(page -> page.stream()
+                        .filter(member -> member != null && member.getUsername() != null)
+                        .forEach(member -> existingMemberIds.put(member.getUsername(), member.getId())));
 
-                    try {
-                        Optional<UserRepresentation> maybeUser = userRepository.search(realmName, existing.getUsername());
-                        if (maybeUser.isPresent() && maybeUser.get().getId() != null) {
-                            organizationRepository.removeMember(realmName, orgId, maybeUser.get().getId());
-                        }
-                    } catch (NotFoundException | BadRequestException e) {
-                        logger.warn("Failed to remove user '{}' from organization '{}': {}",
-                                existing.getUsername(), organization.getAlias(), e.getMessage());
-                    }
-                }
-            }
-            return;
-        }
-
-        for (MemberRepresentation member : membersToAdd) {
-            if (member == null || member.getUsername() == null) continue;
+        Set<String> configuredUsernames = configuredMembers.stream()
+                .filter(Objects::nonNull)
+                .map(MemberRepresentation::getUsername)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-            String username = member.getUsername();
+        // only users which are not yet a member need to be resolved
+        List<String> usernamesToAdd = configuredUsernames.stream()
+                .filter(username -> !existingMemberIds.containsKey(username))
+                .toList();
 
-            try {
-                Optional<UserRepresentation> maybeUser = userRepository.search(realmName, username);
-                if (maybeUser.isEmpty()) {
-                    logger.warn("Cannot add user '{}' to organization '{}': user not found in realm '{}'",
-                            username, organization.getAlias(), realmName);
-                    continue;
-                }
+        ParallelUtil.forEach(
+                usernamesToAdd,
+                username -> addMember(realmName, orgId, organization, username),
+                importConfigProperties.isParallel()
+        );
 
-                if (!existingUsernames.contains(username)) {
-                    organizationRepository.addMember(realmName, orgId, maybeUser.get().getId());
-                }
-            } catch (NotFoundException | BadRequestException e) {
-                logger.warn("Failed to add user '{}' to organization '{}': {}",
-                        username, organization.getAlias(), e.getMessage());
-            }
+        if (importConfigProperties.getManaged().getOrganization() == ImportManagedPropertiesValues.FULL) {
+            List<String> usernamesToRemove = existingMemberIds.entrySet().stream()
+                    .filter(existing -> existing.getValue() != null && !configuredUsernames.contains(existing.getKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+
+            ParallelUtil.forEach(
+                    usernamesToRemove,
+                    username -> removeMember(realmName, orgId, organization, username, existingMemberIds.get(username)),
+                    importConfigProperties.isParallel()
+            );
         }
+    }
 
-        if (importConfigProperties.getManaged().getOrganization() == ImportManagedPropertiesValues.FULL) {
-            Set<String> configuredUsernames = membersToAdd.stream()
-                    .map(MemberRepresentation::getUsername)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
+    private void addMember(String realmName, String orgId, OrganizationRepresentation organization, String username) {
+        try {
+            Optional<String> maybeUserId = userRepository.searchIdByUsername(realmName, username);
+            if (maybeUserId.isEmpty()) {
+                logger.warn("Cannot add user '{}' to organization '{}': user not found in realm '{}'",
+                        username, organization.getAlias(), realmName);
+                return;
+            }
 
-            for (MemberRepresentation existing : existingMembers) {
-                if (existing == null || existing.getUsername() == null) continue;
+            organizationRepository.addMember(realmName, orgId, maybeUserId.get());
+        } catch (NotFoundException | BadRequestException e) {
+            logger.warn("Failed to add user '{}' to organization '{}': {}",
+                    username, organization.getAlias(), e.getMessage());
+        }
+    }
 
-                if (!configuredUsernames.contains(existing.getUsername())) {
-                    try {
-                        Optional<UserRepresentation> maybeUser = userRepository.search(realmName, existing.getUsername());
-                        if (maybeUser.isPresent() && maybeUser.get().getId() != null) {
-                            organizationRepository.removeMember(realmName, orgId, maybeUser.get().getId());
-                        }
-                    } catch (NotFoundException | BadRequestException e) {
-                        logger.warn("Failed to remove user '{}' from organization '{}': {}",
-                                existing.getUsername(), organization.getAlias(), e.getMessage());
-                    }
-                }
-            }
+    private void removeMember(String realmName, String orgId, OrganizationRepresentation organization, String username, String userId) {
+        try {
+            organizationRepository.removeMember(realmName, orgId, userId);
+        } catch (NotFoundException | BadRequestException e) {
+            logger.warn("Failed to remove user '{}' from organization '{}': {}",
+                    username, organization.getAlias(), e.getMessage());
         }
     }
 }
@@ -24,7 +24,12 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.ScopeMappingIndex;
+import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
 import de.adorsys.keycloak.config.service.checksum.ChecksumService;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.ImportPlanExecutor;
+import de.adorsys.keycloak.config.service.plan.ImportPlanStage;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -72,6 +77,7 @@ public class RealmImportService {
     private static final Logger logger = LoggerFactory.getLogger(RealmImportService.class);
     private final KeycloakProvider keycloakProvider;
     private final RealmRepository realmRepository;
+    private final ScopeMappingRepository scopeMappingRepository;
     private final OtpPolicyImportService otpPolicyImportService;
 
     private final UserImportService userImportService;
@@ -94,6 +100,7 @@ public class RealmImportService {
     private final IdentityProviderImportService identityProviderImportService;
     private final MessageBundleImportService messageBundleImportService;
     private final WorkflowImportService workflowImportService;
+    private final ImportPlanExecutor importPlanExecutor;
 
     private final ImportConfigProperties importProperties;
 
@@ -107,6 +114,7 @@ public class RealmImportService {
             ImportConfigProperties importProperties,
             KeycloakProvider keycloakProvider,
             RealmRepository realmRepository,
+            ScopeMappingRepository scopeMappingRepository,
             UserImportService userImportService,
             UserProfileImportService userProfileImportService,
             ClientPoliciesImportService clientPoliciesImportService,
@@ -126,12 +134,14 @@ public class RealmImportService {
             ApplicationContext applicationContext,
             MessageBundleImportService messageBundleImportService,
             WorkflowImportService workflowImportService,
+            ImportPlanExecutor importPlanExecutor,
             OtpPolicyImportService otpPolicyImportService,
             ChecksumService checksumService,
             StateService stateService) {
         this.importProperties = importProperties;
         this.keycloakProvider = keycloakProvider;
         this.realmRepository = realmRepository;
+        this.scopeMappingRepository = scopeMappingRepository;
         this.userImportService = userImportService;
         this.userProfileImportService = userProfileImportService;
         this.clientPoliciesImportService = clientPoliciesImportService;
@@ -151,6 +161,7 @@ public class RealmImportService {
         this.applicationContext = applicationContext;
         this.messageBundleImportService = messageBundleImportService;
         this.workflowImportService = workflowImportService;
+        this.importPlanExecutor = importPlanExecutor;
         this.otpPolicyImportService = otpPolicyImportService;
         this.checksumService = checksumService;
         this.stateService = stateService;
@@ -232,18 +243,36 @@ public class RealmImportService {
         }
     }
 
+    private void importRolesGroupsAndUsers(RealmImport realmImport) {
+        ImportPlan plan = new ImportPlan(realmImport.getRealm());
+
+        // roles are planned against the existing roles, later stages read their existing state when the stage is executed
+        roleImportService.doImport(realmImport, plan);
+        plan.add(ImportPlanStage.GROUPS, () -> groupImportService.importGroups(realmImport));
+        plan.add(ImportPlanStage.DEFAULT_GROUPS, () -> defaultGroupsImportService.doImport(realmImport));
+        plan.add(ImportPlanStage.COMPONENTS, () -> componentImportService.doImport(realmImport));
+        plan.add(ImportPlanStage.USER_PROFILE, () -> userProfileImportService.doImport(realmImport));
+        plan.add(ImportPlanStage.USERS, () -> userImportService.doImport(realmImport));
+
+        importPlanExecutor.execute(plan);
+    }
+
+    private void importScopeMappings(RealmImport realmImport) {
+        if (realmImport.getScopeMappings() == null && realmImport.getClientScopeMappings() == null) return;
+
+        // scope mappings and client scope mappings are reconciled against one shared snapshot
+        ScopeMappingIndex scopeMappingIndex = scopeMappingRepository.getScopeMappingIndex(realmImport.getRealm());
+        scopeMappingImportService.doImport(realmImport, scopeMappingIndex);
+        clientScopeMappingImportService.doImport(realmImport, scopeMappingIndex);
+    }
+
     private void configureRealm(RealmImport realmImport, RealmRepresentation existingRealm) {
         importOtpPolicy(realmImport);
         clientScopeImportService.doImport(realmImport);
         clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm);
         clientPoliciesImportService.doImport(realmImport);
         clientImportService.doImport(realmImport);
-        roleImportService.doImport(realmImport);
-        groupImportService.importGroups(realmImport);
-        defaultGroupsImportService.doImport(realmImport);
-        componentImportService.doImport(realmImport);
-        userProfileImportService.doImport(realmImport);
-        userImportService.doImport(realmImport);
+        importRolesGroupsAndUsers(realmImport);
         requiredActionsImportService.doImport(realmImport);
         authenticationFlowsImportService.doImport(realmImport);
         authenticatorConfigImportService.doImport(realmImport);
@@ -252,8 +281,7 @@ public class RealmImportService {
         identityProviderImportService.doImport(realmImport);
         invokeOrganizationImportIfAvailable(realmImport);
         clientAuthorizationImportService.doImport(realmImport);
-        scopeMappingImportService.doImport(realmImport);
-        clientScopeMappingImportService.doImport(realmImport);
+        importScopeMappings(realmImport);
         clientScopeImportService.doRemoveOrphan(realmImport);
         messageBundleImportService.doImport(realmImport);
         workflowImportService.doImport(realmImport);
@@ -24,12 +24,14 @@ import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.ImportPlanStage;
+import de.adorsys.keycloak.config.service.plan.RoleReference;
 import de.adorsys.keycloak.config.service.rolecomposites.client.ClientRoleCompositeImportService;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmRoleCompositeImportService;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.KeycloakUtil;
-import de.adorsys.keycloak.config.util.ParallelUtil;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.RolesRepresentation;
 import org.slf4j.Logger;
@@ -42,7 +44,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -73,7 +74,10 @@ public class RoleImportService {
         this.stateService = stateService;
     }
 
-    public void doImport(RealmImport realmImport) {
+    /**
+     * Adds the role deletions, roles and role composites of the import to the given plan, nothing is changed until the plan is executed.
+     */
+    public void doImport(RealmImport realmImport, ImportPlan plan) {
         RolesRepresentation roles = realmImport.getRoles();
         if (roles == null) return;
 
@@ -94,45 +98,42 @@ public class RoleImportService {
 
         if (importConfigProperties.getManaged().getRole() == ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL) {
             if (realmRoleInImport) {
-                deleteRealmRolesMissingInImport(realmName, roles.getRealm(), existingRealmRoles);
+                deleteRealmRolesMissingInImport(plan, roles.getRealm(), existingRealmRoles);
             }
             if (clientRoleInImport) {
-                deleteClientRolesMissingInImport(realmName, roles.getClient(), existingClientRoles);
+                deleteClientRolesMissingInImport(plan, roles.getClient(), existingClientRoles);
             }
         }
 
 
         if (realmRoleInImport) {
-            createOrUpdateRealmRoles(realmName, roles.getRealm(), existingRealmRoles);
+            createOrUpdateRealmRoles(plan, roles.getRealm(), existingRealmRoles);
         }
         if (clientRoleInImport) {
-            createOrUpdateClientRoles(realmName, roles.getClient(), existingClientRoles);
+            createOrUpdateClientRoles(plan, roles.getClient(), existingClientRoles);
         }
 
 
         if (realmRoleInImport) {
-            realmRoleCompositeImport.update(realmName, roles.getRealm());
+            realmRoleCompositeImport.update(plan, roles.getRealm());
         }
         if (clientRoleInImport) {
-            clientRoleCompositeImport.update(realmName, roles.getClient());
+            clientRoleCompositeImport.update(plan, roles.getClient());
         }
     }
 
     private void createOrUpdateRealmRoles(
-            String realmName,
+            ImportPlan plan,
             List<RoleRepresentation> rolesToImport,
             List<RoleRepresentation> existingRealmRoles
     ) {
-        Consumer<RoleRepresentation> loop = role -> createOrUpdateRealmRole(realmName, role, existingRealmRoles);
-        if (importConfigProperties.isParallel()) {
-            ParallelUtil.forEach(rolesToImport, loop);
-        } else {
-            rolesToImport.forEach(loop);
+        for (RoleRepresentation role : rolesToImport) {
+            createOrUpdateRealmRole(plan, role, existingRealmRoles);
         }
     }
 
     private void createOrUpdateRealmRole(
-            String realmName,
+            ImportPlan plan,
             RoleRepresentation roleToImport,
             List<RoleRepresentation> existingRoles
     ) {
@@ -143,23 +144,27 @@ public class RoleImportService {
                 .findFirst().orElse(null);
 
         if (existingRole != null) {
-            updateRoleIfNeeded(realmName, existingRole, roleToImport);
+            updateRoleIfNeeded(plan, existingRole, roleToImport);
         } else {
-            createRole(realmName, roleToImport, roleName);
+            createRole(plan, roleToImport, roleName);
         }
     }
 
-    private void createRole(String realmName, RoleRepresentation roleToImport, String roleName) {
-        logger.debug("Create realm-level role '{}' in realm '{}'", roleName, realmName);
+    private void createRole(ImportPlan plan, RoleRepresentation roleToImport, String roleName) {
+        String realmName = plan.getRealmName();
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
 
-        roleRepository.createRealmRole(realmName, roleToImportWithoutDependencies);
+        plan.addCreatedRole(RoleReference.realmRole(roleName));
+        plan.add(ImportPlanStage.ROLES, () -> {
+            logger.debug("Create realm-level role '{}' in realm '{}'", roleName, realmName);
+            roleRepository.createRealmRole(realmName, roleToImportWithoutDependencies);
+        });
     }
 
     private void createOrUpdateClientRoles(
-            String realmName,
+            ImportPlan plan,
             Map<String, List<RoleRepresentation>> rolesToImport,
             Map<String, List<RoleRepresentation>> existingRoles
     ) {
@@ -168,13 +173,13 @@ public class RoleImportService {
             List<RoleRepresentation> clientRoles = client.getValue();
 
             for (RoleRepresentation role : clientRoles) {
-                createOrUpdateClientRole(realmName, clientId, role, existingRoles);
+                createOrUpdateClientRole(plan, clientId, role, existingRoles);
             }
         }
     }
 
     private void createOrUpdateClientRole(
-            String realmName,
+            ImportPlan plan,
             String clientId,
             RoleRepresentation roleToImport,
             Map<String, List<RoleRepresentation>> existingRoles
@@ -184,7 +189,7 @@ public class RoleImportService {
         if (!existingRoles.containsKey(clientId)) {
             throw new ImportProcessingException(String.format(
                     "Can't create role '%s' for non existing client '%s' in realm '%s'!",
-                    roleName, clientId, realmName
+                    roleName, clientId, plan.getRealmName()
             ));
         }
 
@@ -193,25 +198,31 @@ public class RoleImportService {
                 .findFirst().orElse(null);
 
         if (existingClientRole != null) {
-            updateClientRoleIfNecessary(realmName, clientId, existingClientRole, roleToImport);
+            updateClientRoleIfNecessary(plan, clientId, existingClientRole, roleToImport);
         } else {
-            createClientRole(realmName, clientId, roleToImport, roleName);
+            createClientRole(plan, clientId, roleToImport, roleName);
         }
     }
 
-    private void createClientRole(String realmName, String clientId, RoleRepresentation roleToImport, String roleName) {
-        logger.debug("Create client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+    private void createClientRole(ImportPlan plan, String clientId, RoleRepresentation roleToImport, String roleName) {
+        String realmName = plan.getRealmName();
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
-        roleRepository.createClientRole(realmName, clientId, roleToImportWithoutDependencies);
+
+        plan.addCreatedRole(RoleReference.clientRole(clientId, roleName));
+        plan.add(ImportPlanStage.ROLES, () -> {
+            logger.debug("Create client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+            roleRepository.createClientRole(realmName, clientId, roleToImportWithoutDependencies);
+        });
     }
 
     private void updateRoleIfNeeded(
-            String realmName,
+            ImportPlan plan,
             RoleRepresentation existingRole,
             RoleRepresentation roleToImport
     ) {
+        String realmName = plan.getRealmName();
         String roleName = roleToImport.getName();
         RoleRepresentation patchedRole = CloneUtil.patch(existingRole, roleToImport, propertiesWithDependencies);
         if (roleToImport.getAttributes() != null) {
@@ -219,32 +230,37 @@ public class RoleImportService {
         }
 
         if (!CloneUtil.deepEquals(existingRole, patchedRole)) {
-            logger.debug("Update realm-level role '{}' in realm '{}'", roleName, realmName);
-            roleRepository.updateRealmRole(realmName, patchedRole);
+            plan.add(ImportPlanStage.ROLES, () -> {
+                logger.debug("Update realm-level role '{}' in realm '{}'", roleName, realmName);
+                roleRepository.updateRealmRole(realmName, patchedRole);
+            });
         } else {
             logger.debug("No need to update realm-level '{}' in realm '{}'", roleName, realmName);
         }
     }
 
     private void updateClientRoleIfNecessary(
-            String realmName,
+            ImportPlan plan,
             String clientId,
             RoleRepresentation existingRole,
             RoleRepresentation roleToImport
     ) {
+        String realmName = plan.getRealmName();
         RoleRepresentation patchedRole = CloneUtil.patch(existingRole, roleToImport, propertiesWithDependencies);
         String roleName = existingRole.getName();
 
         if (CloneUtil.deepEquals(existingRole, patchedRole)) {
             logger.debug("No need to update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
         } else {
-            logger.debug("Update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
-            roleRepository.updateClientRole(realmName, clientId, patchedRole);
+            plan.add(ImportPlanStage.ROLES, () -> {
+                logger.debug("Update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+                roleRepository.updateClientRole(realmName, clientId, patchedRole);
+            });
         }
     }
 
     private void deleteRealmRolesMissingInImport(
-            String realmName,
+            ImportPlan plan,
             List<RoleRepresentation> importedRoles,
             List<RoleRepresentation> existingRoles
     ) {
@@ -266,13 +282,16 @@ public class RoleImportService {
                 continue;
             }
 
-            logger.debug("Delete realm-level role '{}' in realm '{}'", existingRole.getName(), realmName);
-            roleRepository.deleteRealmRole(realmName, existingRole);
+            plan.addDeletedRole(RoleReference.realmRole(existingRole.getName()));
+            plan.add(ImportPlanStage.ROLE_DELETIONS, () -> {
+                logger.debug("Delete realm-level role '{}' in realm '{}'", existingRole.getName(), plan.getRealmName());
+                roleRepository.deleteRealmRole(plan.getRealmName(), existingRole);
+            });
         }
     }
 
     private void deleteClientRolesMissingInImport(
-            String realmName,
+            ImportPlan plan,
             Map<String, List<RoleRepresentation>> importedClientsRoles,
             Map<String, List<RoleRepresentation>> existingRoles
     ) {
@@ -289,9 +308,13 @@ public class RoleImportService {
                 boolean neededToDelete = (importedClientRoles == null || !importedClientRoles.contains(role.getName()))
                         && !KeycloakUtil.isDefaultRole(role);
                 if (neededToDelete) {
-                    logger.debug("Delete client-level role '{}' for client '{}' in realm '{}'",
-                            role.getName(), client.getKey(), realmName);
-                    roleRepository.deleteClientRole(realmName, client.getKey(), role);
+                    String clientId = client.getKey();
+                    plan.addDeletedRole(RoleReference.clientRole(clientId, role.getName()));
+                    plan.add(ImportPlanStage.ROLE_DELETIONS, () -> {
+                        logger.debug("Delete client-level role '{}' for client '{}' in realm '{}'",
+                                role.getName(), clientId, plan.getRealmName());
+                        roleRepository.deleteClientRole(plan.getRealmName(), clientId, role);
+                    });
                 }
             }
         }
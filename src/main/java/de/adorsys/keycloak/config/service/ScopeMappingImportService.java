@@ -23,9 +23,9 @@ package de.adorsys.keycloak.config.service;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
-import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.ScopeMappingIndex;
 import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
-import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.ScopeMappingRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,208 +33,106 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.getRolesNotIn;
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.getScopeKey;
+import static de.adorsys.keycloak.config.util.ScopeMappingUtil.groupByScope;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class ScopeMappingImportService {
     private static final Logger logger = LoggerFactory.getLogger(ScopeMappingImportService.class);
 
-    private final RealmRepository realmRepository;
     private final ScopeMappingRepository scopeMappingRepository;
     private final ImportConfigProperties importConfigProperties;
 
     @Autowired
     public ScopeMappingImportService(
-            RealmRepository realmRepository,
             ScopeMappingRepository scopeMappingRepository,
             ImportConfigProperties importConfigProperties
     ) {
-        this.realmRepository = realmRepository;
         this.scopeMappingRepository = scopeMappingRepository;
         this.importConfigProperties = importConfigProperties;
     }
 
     public void doImport(RealmImport realmImport) {
-        createOrUpdateScopeMappings(realmImport);
+        if (realmImport.getScopeMappings() == null) return;
+
+        doImport(realmImport, scopeMappingRepository.getScopeMappingIndex(realmImport.getRealm()));
     }
 
-    private void createOrUpdateScopeMappings(RealmImport realmImport) {
+    /**
+     * Reconciles the scope mappings against the given snapshot. All roles added to or removed from the scope
+     * mapping of one client or client scope are sent with one call each.
+     */
+    public void doImport(RealmImport realmImport, ScopeMappingIndex scopeMappingIndex) {
         List<ScopeMappingRepresentation> scopeMappingsToImport = realmImport.getScopeMappings();
         if (scopeMappingsToImport == null) return;
 
         String realmName = realmImport.getRealm();
-        RealmRepresentation existingRealm = realmRepository.partialExport(realmName, false, true);
-        List<ScopeMappingRepresentation> existingScopeMappings = existingRealm.getScopeMappings();
+        Map<String, ScopeMappingRepresentation> scopeMappings = groupByScope(scopeMappingsToImport);
+        Map<String, ScopeMappingRepresentation> existingScopeMappings = groupByScope(scopeMappingIndex.getScopeMappings());
 
-        createOrUpdateRolesInScopeMappings(realmName, scopeMappingsToImport, existingScopeMappings);
+        for (ScopeMappingRepresentation scopeMapping : scopeMappings.values()) {
+            ScopeMappingRepresentation existingScopeMapping = existingScopeMappings.get(getScopeKey(scopeMapping));
 
-        if (importConfigProperties.getManaged().getScopeMapping() == ImportManagedPropertiesValues.FULL) {
-            cleanupRolesInScopeMappingsIfNecessary(realmName, scopeMappingsToImport, existingScopeMappings);
-        }
-    }
+            addRoles(realmName, scopeMappingIndex, scopeMapping, getRolesNotIn(scopeMapping.getRoles(), existingScopeMapping));
 
-    private void createOrUpdateRolesInScopeMappings(
-            String realmName,
-            List<ScopeMappingRepresentation> scopeMappingsToImport, List<ScopeMappingRepresentation> existingScopeMappings
-    ) {
-        for (ScopeMappingRepresentation scopeMappingToImport : scopeMappingsToImport) {
-            Optional<ScopeMappingRepresentation> maybeExistingScopeMapping = tryToFindExistingScopeMapping(
-                    existingScopeMappings, scopeMappingToImport
-            );
-
-            if (maybeExistingScopeMapping.isPresent()) {
-                updateScopeMappings(realmName, scopeMappingToImport, maybeExistingScopeMapping.get());
-            } else {
-                logger.debug("Adding scope-mapping with roles '{}' for {} '{}' in realm '{}'",
-                        scopeMappingToImport.getRoles(),
-                        scopeMappingToImport.getClient() == null ? "client-scope" : "client",
-                        scopeMappingToImport.getClient() == null ? scopeMappingToImport.getClientScope() : scopeMappingToImport.getClient(),
-                        realmName
-                );
-
-                scopeMappingRepository.addScopeMapping(realmName, scopeMappingToImport);
+            if (existingScopeMapping != null
+                    && importConfigProperties.getManaged().getClientScope() == ImportManagedPropertiesValues.FULL) {
+                removeRoles(realmName, scopeMappingIndex, scopeMapping, getRolesNotIn(existingScopeMapping.getRoles(), scopeMapping));
             }
         }
-    }
-
-    private void cleanupRolesInScopeMappingsIfNecessary(
-            String realmName,
-            List<ScopeMappingRepresentation> scopeMappingsToImport, List<ScopeMappingRepresentation> existingScopeMappings
-    ) {
-        if (existingScopeMappings != null) {
-            cleanupRolesInScopeMappings(realmName, scopeMappingsToImport, existingScopeMappings);
-        }
-    }
 
-    private void cleanupRolesInScopeMappings(
-            String realmName,
-            List<ScopeMappingRepresentation> scopeMappingsToImport, List<ScopeMappingRepresentation> existingScopeMappings
-    ) {
-        for (ScopeMappingRepresentation existingScopeMapping : existingScopeMappings) {
-            if (hasToBeDeleted(scopeMappingsToImport, existingScopeMapping)) {
-                cleanupRolesInScopeMapping(realmName, existingScopeMapping);
+        if (importConfigProperties.getManaged().getScopeMapping() == ImportManagedPropertiesValues.FULL) {
+            for (ScopeMappingRepresentation existingScopeMapping : existingScopeMappings.values()) {
+                if (!scopeMappings.containsKey(getScopeKey(existingScopeMapping))) {
+                    removeRoles(realmName, scopeMappingIndex, existingScopeMapping, new ArrayList<>(existingScopeMapping.getRoles()));
+                }
             }
         }
     }
 
-    private void cleanupRolesInScopeMapping(String realmName, ScopeMappingRepresentation existingScopeMapping) {
-        String client = existingScopeMapping.getClient();
-        String clientScope = existingScopeMapping.getClientScope();
-
-        if (client != null) {
-            logger.debug("Remove all roles from scope-mapping for client '{}' in realm '{}'", client, realmName);
-            scopeMappingRepository.removeScopeMappingRolesForClient(realmName, client, existingScopeMapping.getRoles());
-        } else if (clientScope != null) {
-            logger.debug("Remove all roles from scope-mapping for client-scope '{}' in realm '{}'", clientScope, realmName);
-            scopeMappingRepository.removeScopeMappingRolesForClientScope(realmName, clientScope, existingScopeMapping.getRoles());
-        }
-    }
-
-    private boolean hasToBeDeleted(
-            List<ScopeMappingRepresentation> scopeMappingsToImport,
-            ScopeMappingRepresentation existingScopeMapping
-    ) {
-        return !existingScopeMapping.getRoles().isEmpty() && scopeMappingsToImport.stream().noneMatch(
-                scopeMappingToImport -> areScopeMappingsEqual(scopeMappingToImport, existingScopeMapping)
-        );
-    }
-
-    private void updateScopeMappings(
-            String realmName,
-            ScopeMappingRepresentation scopeMappingToImport,
-            ScopeMappingRepresentation existingScopeMapping
-    ) {
-        Set<String> scopeMappingRolesToImport = scopeMappingToImport.getRoles();
-
-        addRoles(realmName, existingScopeMapping, scopeMappingRolesToImport);
-
-        if (importConfigProperties.getManaged().getClientScope()
-                == ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL) {
-            removeRoles(realmName, existingScopeMapping, scopeMappingRolesToImport);
+    private void addRoles(String realmName, ScopeMappingIndex scopeMappingIndex, ScopeMappingRepresentation scopeMapping,
+                          List<String> rolesToBeAdded) {
+        if (rolesToBeAdded.isEmpty()) {
+            logger.trace("No need to add roles to scope-mapping for {} '{}' in realm '{}'",
+                    getScopeType(scopeMapping), getScopeName(scopeMapping), realmName);
+            return;
         }
-    }
-
-    private void removeRoles(
-            String realmName,
-            ScopeMappingRepresentation existingScopeMapping,
-            Set<String> scopeMappingRolesToImport
-    ) {
-        Set<String> existingScopeMappingRoles = existingScopeMapping.getRoles();
-
-        List<String> rolesToBeRemoved = existingScopeMappingRoles.stream()
-                .filter(role -> !scopeMappingRolesToImport.contains(role))
-                .toList();
 
-        String client = existingScopeMapping.getClient();
-        String clientScope = existingScopeMapping.getClientScope();
+        logger.debug("Add roles '{}' to scope-mapping for {} '{}' in realm '{}'",
+                rolesToBeAdded, getScopeType(scopeMapping), getScopeName(scopeMapping), realmName);
 
-        removeRolesFromScopeMappingIfNecessary(realmName, rolesToBeRemoved, client, clientScope);
+        List<RoleRepresentation> roles = scopeMappingIndex.getRoleIndex().getRealmRoles(rolesToBeAdded);
+        scopeMappingRepository.addScopeMappingRoles(realmName, scopeMappingIndex, scopeMapping, null, roles);
     }
 
-    private void addRoles(String realmName, ScopeMappingRepresentation existingScopeMapping, Set<String> scopeMappingRolesToImport) {
-        String client = existingScopeMapping.getClient();
-        String clientScope = existingScopeMapping.getClientScope();
-
-        Set<String> existingScopeMappingRoles = existingScopeMapping.getRoles();
-
-        List<String> rolesToBeAdded = scopeMappingRolesToImport.stream()
-                .filter(role -> !existingScopeMappingRoles.contains(role))
-                .toList();
+    private void removeRoles(String realmName, ScopeMappingIndex scopeMappingIndex, ScopeMappingRepresentation scopeMapping,
+                             List<String> rolesToBeRemoved) {
+        if (rolesToBeRemoved.isEmpty()) {
+            logger.trace("No need to remove roles from scope-mapping for {} '{}' in realm '{}'",
+                    getScopeType(scopeMapping), getScopeName(scopeMapping), realmName);
+            return;
+        }
 
-        addRolesToScopeMappingIfNecessary(realmName, client, clientScope, rolesToBeAdded);
-    }
+        logger.debug("Remove roles '{}' from scope-mapping for {} '{}' in realm '{}'",
+                rolesToBeRemoved, getScopeType(scopeMapping), getScopeName(scopeMapping), realmName);
 
-    private void addRolesToScopeMappingIfNecessary(String realmName, String client, String clientScope, List<String> rolesToBeAdded) {
-        if (!rolesToBeAdded.isEmpty()) {
-            if (client != null) {
-                logger.debug("Add roles '{}' to scope-mapping for client '{}' in realm '{}'", rolesToBeAdded, client, realmName);
-                scopeMappingRepository.addScopeMappingRolesForClient(realmName, client, rolesToBeAdded);
-            } else if (clientScope != null) {
-                logger.debug("Add roles '{}' to scope-mapping for client-scope '{}' in realm '{}'", rolesToBeAdded, clientScope, realmName);
-                scopeMappingRepository.addScopeMappingRolesForClientScope(realmName, clientScope, rolesToBeAdded);
-            }
-        } else {
-            if (client != null) {
-                logger.trace("No need to add roles to scope-mapping for client '{}' in realm '{}'", client, realmName);
-            } else if (clientScope != null) {
-                logger.trace("No need to add roles to scope-mapping for client-scope '{}' in realm '{}'", clientScope, realmName);
-            }
-        }
+        List<RoleRepresentation> roles = scopeMappingIndex.getRoleIndex().getRealmRoles(rolesToBeRemoved);
+        scopeMappingRepository.removeScopeMappingRoles(realmName, scopeMappingIndex, scopeMapping, null, roles);
     }
 
-    private void removeRolesFromScopeMappingIfNecessary(String realmName, List<String> rolesToBeRemoved, String client, String clientScope) {
-        if (!rolesToBeRemoved.isEmpty()) {
-            if (client != null) {
-                logger.debug("Remove roles '{}' from scope-mapping for client '{}' in realm '{}'", rolesToBeRemoved, client, realmName);
-                scopeMappingRepository.removeScopeMappingRolesForClient(realmName, client, rolesToBeRemoved);
-            } else if (clientScope != null) {
-                logger.debug("Remove roles '{}' from scope-mapping for client-scope '{}' in realm '{}'", rolesToBeRemoved, clientScope, realmName);
-                scopeMappingRepository.removeScopeMappingRolesForClientScope(realmName, clientScope, rolesToBeRemoved);
-            }
-        } else {
-            if (client != null) {
-                logger.trace("No need to remove roles to scope-mapping for client '{}' in realm '{}'", client, realmName);
-            } else if (clientScope != null) {
-                logger.trace("No need to remove roles to scope-mapping for client-scope '{}' in realm '{}'", clientScope, realmName);
-            }
-        }
+    private static String getScopeType(ScopeMappingRepresentation scopeMapping) {
+        return scopeMapping.getClient() != null ? "client" : "client-scope";
     }
 
-    private Optional<ScopeMappingRepresentation> tryToFindExistingScopeMapping(
-            List<ScopeMappingRepresentation> scopeMappings,
-            ScopeMappingRepresentation scopeMappingToBeFound
-    ) {
-        if (scopeMappings == null) {
-            return Optional.empty();
-        }
-
-        return scopeMappings.stream()
-                .filter(scopeMapping -> areScopeMappingsEqual(scopeMapping, scopeMappingToBeFound))
-                .findFirst();
+    private static String getScopeName(ScopeMappingRepresentation scopeMapping) {
+        return scopeMapping.getClient() != null ? scopeMapping.getClient() : scopeMapping.getClientScope();
     }
 
     public boolean areScopeMappingsEqual(ScopeMappingRepresentation first, ScopeMappingRepresentation second) {
@@ -22,10 +22,12 @@ package de.adorsys.keycloak.config.service;
 
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.SpooledList;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.GroupRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RoleIndex;
 import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.repository.UserRepository;
 import de.adorsys.keycloak.config.util.CloneUtil;
@@ -86,6 +88,13 @@ public class UserImportService {
     }
 
     public void doImport(RealmImport realmImport) {
+        SpooledList<UserRepresentation> spooledUsers = realmImport.getSpooledUsers();
+
+        if (spooledUsers != null) {
+            importSpooledUsers(realmImport, spooledUsers);
+            return;
+        }
+
         List<UserRepresentation> users = realmImport.getUsers();
 
         if (users == null) {
@@ -97,7 +106,24 @@ public class UserImportService {
             return;
         }
 
-        Consumer<UserRepresentation> loop = user -> importUser(realmImport.getRealm(), user);
+        RoleIndex roleIndex = roleRepository.getRoleIndex(realmImport.getRealm());
+
+        importUsers(realmImport.getRealm(), roleIndex, users);
+    }
+
+    private void importSpooledUsers(RealmImport realmImport, SpooledList<UserRepresentation> spooledUsers) {
+        RoleIndex roleIndex = roleRepository.getRoleIndex(realmImport.getRealm());
+        int chunkSize = importConfigProperties.getUsers().getChunkSize();
+
+        logger.debug("Import {} users of realm '{}' in chunks of {}", spooledUsers.size(), realmImport.getRealm(), chunkSize);
+
+        // only one chunk of users is deserialized at a time
+        spooledUsers.chunks(chunkSize)
+                .forEachRemaining(users -> importUsers(realmImport.getRealm(), roleIndex, users));
+    }
+
+    private void importUsers(String realmName, RoleIndex roleIndex, List<UserRepresentation> users) {
+        Consumer<UserRepresentation> loop = user -> importUser(realmName, roleIndex, user);
         if (importConfigProperties.isParallel()) {
             ParallelUtil.forEach(users, loop);
         } else {
@@ -105,17 +131,19 @@ public class UserImportService {
         }
     }
 
-    private void importUser(String realmName, UserRepresentation user) {
-        UserImport userImport = new UserImport(realmName, user);
+    private void importUser(String realmName, RoleIndex roleIndex, UserRepresentation user) {
+        UserImport userImport = new UserImport(realmName, roleIndex, user);
         userImport.importUser();
     }
 
     private class UserImport {
         private final String realmName;
+        private final RoleIndex roleIndex;
         private final UserRepresentation userToImport;
 
-        private UserImport(String realmName, UserRepresentation userToImport) {
+        private UserImport(String realmName, RoleIndex roleIndex, UserRepresentation userToImport) {
             this.realmName = realmName;
+            this.roleIndex = roleIndex;
             this.userToImport = userToImport;
         }
 
@@ -355,7 +383,7 @@ public class UserImportService {
             List<String> rolesToAdd = searchForMissing(usersRealmLevelRolesToUpdate, existingUsersRealmLevelRoles);
             if (rolesToAdd.isEmpty()) return;
 
-            List<RoleRepresentation> realmRoles = roleRepository.searchRealmRoles(realmName, rolesToAdd);
+            List<RoleRepresentation> realmRoles = roleRepository.searchRealmRoles(roleIndex, realmName, rolesToAdd);
 
             logger.debug("Add realm-level roles {} to user '{}' in realm '{}'",
                     rolesToAdd, userToImport.getUsername(), realmName);
@@ -371,7 +399,7 @@ public class UserImportService {
 
             if (rolesToDelete.isEmpty()) return;
 
-            List<RoleRepresentation> realmRoles = roleRepository.searchRealmRoles(realmName, rolesToDelete);
+            List<RoleRepresentation> realmRoles = roleRepository.searchRealmRoles(roleIndex, realmName, rolesToDelete);
 
             logger.debug("Remove realm-level roles {} from user '{}' in realm '{}'",
                     rolesToDelete, userToImport.getUsername(), realmName);
@@ -444,8 +472,7 @@ public class UserImportService {
                 List<String> clientRolesToAdd = searchForMissing(clientRolesToImport, existingClientLevelRoles);
                 if (clientRolesToAdd.isEmpty()) return;
 
-                List<RoleRepresentation> clientRoles = roleRepository
-                        .getClientRolesByName(realmName, clientId, clientRolesToAdd);
+                List<RoleRepresentation> clientRoles = roleIndex.getClientRoles(clientId, clientRolesToAdd);
 
                 logger.debug("Add client-level roles {} for client '{}' to user '{}' in realm '{}'",
                         clientRolesToAdd, clientId, userToImport.getUsername(), realmName);
@@ -457,8 +484,7 @@ public class UserImportService {
                 List<String> clientRolesToRemove = searchForMissing(existingClientLevelRoles, clientRolesToImport);
                 if (clientRolesToRemove.isEmpty()) return;
 
-                List<RoleRepresentation> clientRoles = roleRepository
-                        .getClientRolesByName(realmName, clientId, clientRolesToRemove);
+                List<RoleRepresentation> clientRoles = roleIndex.getClientRoles(clientId, clientRolesToRemove);
 
                 logger.debug("Remove client-level roles {} for client '{}' from user '{}' in realm '{}'",
                         clientRolesToRemove, clientId, userToImport.getUsername(), realmName);
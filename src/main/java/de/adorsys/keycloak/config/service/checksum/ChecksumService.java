@@ -38,6 +38,8 @@ import java.text.MessageFormat;
 import java.util.Map;
 import java.util.Objects;
 
+import jakarta.ws.rs.NotFoundException;
+
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class ChecksumService {
@@ -57,7 +59,7 @@ public class ChecksumService {
         Map<String, String> customAttributes = existingRealm.getAttributes();
 
         String importChecksum = realmImport.getChecksum();
-        String attributeKey = getCustomAttributeKey(realmImport);
+        String attributeKey = getCustomAttributeKey(realmImport.getSource());
 
         if (Objects.equals(customAttributes.get(attributeKey), importChecksum)) {
             return;
@@ -77,7 +79,7 @@ public class ChecksumService {
         }
         Map<String, String> customAttributes = existingRealm.getAttributes();
 
-        String readChecksum = customAttributes.get(getCustomAttributeKey(realmImport));
+        String readChecksum = customAttributes.get(getCustomAttributeKey(realmImport.getSource()));
         if (readChecksum == null) {
             return true;
         }
@@ -99,14 +101,29 @@ public class ChecksumService {
         }
     }
 
+    /**
+     * Checks a file before it is parsed. A changed checksum is not reported here, the file is parsed and handled by
+     * {@link #hasToBeUpdated(RealmImport)} in that case.
+     */
+    public boolean isUnchanged(String source, String realmName, String checksum) {
+        RealmRepresentation existingRealm;
+        try {
+            existingRealm = realmRepository.get(realmName);
+        } catch (NotFoundException e) {
+            return false;
+        }
+
+        return Objects.equals(existingRealm.getAttributes().get(getCustomAttributeKey(source)), checksum);
+    }
+
     @SuppressWarnings("java:S4790")
-    private String getCustomAttributeKey(RealmImport realmImport) {
+    private String getCustomAttributeKey(String source) {
         String attributeSuffix;
         if (importConfigProperties.getBehaviors().isChecksumWithCacheKey()) {
             attributeSuffix = importConfigProperties.getCache().getKey();
         } else {
-            attributeSuffix = FilenameUtils.getName(realmImport.getSource()) + "_"
-                    + DigestUtils.md5Hex(realmImport.getSource());
+            attributeSuffix = FilenameUtils.getName(source) + "_"
+                    + DigestUtils.md5Hex(source);
         }
 
         return MessageFormat.format(
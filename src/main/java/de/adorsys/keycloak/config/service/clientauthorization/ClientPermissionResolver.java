@@ -23,9 +23,14 @@ package de.adorsys.keycloak.config.service.clientauthorization;
 import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import de.adorsys.keycloak.config.repository.ClientRepository;
+import org.keycloak.representations.idm.ClientRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.ServerErrorException;
 
@@ -51,6 +56,17 @@ public class ClientPermissionResolver implements PermissionResolver {
         }
     }
 
+    @Override
+    public Map<String, String> resolveObjectIds(Collection<String> clientIds) {
+        Map<String, String> objectIds = new HashMap<>();
+        for (ClientRepresentation client : clientRepository.getAll(realmName)) {
+            if (clientIds.contains(client.getClientId())) {
+                objectIds.put(client.getClientId(), client.getId());
+            }
+        }
+        return objectIds;
+    }
+
     @Override
     public void enablePermissions(String id) {
         try {
@@ -67,7 +67,7 @@ public class IdpPermissionResolver implements PermissionResolver {
         }
     }
 
-    private Stream<IdentityProviderRepresentation> getIdentityProviders() {
+    private synchronized Stream<IdentityProviderRepresentation> getIdentityProviders() {
         if (identityProviders == null) {
             identityProviders = identityProviderRepository.getAll(realmName);
         }
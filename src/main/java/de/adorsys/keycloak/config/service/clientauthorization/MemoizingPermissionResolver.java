@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers resolved object ids and objects with enabled permissions for the lifetime of one realm import,
+ * so every object is looked up and enabled only once, no matter how many permissions refer to it.
+ */
+public class MemoizingPermissionResolver implements PermissionResolver {
+    private final PermissionResolver delegate;
+    private final Map<String, String> objectIds = new ConcurrentHashMap<>();
+    private final Set<String> enabledIds = ConcurrentHashMap.newKeySet();
+
+    public MemoizingPermissionResolver(PermissionResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String resolveObjectId(String placeholder, String authzName) {
+        return objectIds.computeIfAbsent(placeholder, key -> delegate.resolveObjectId(key, authzName));
+    }
+
+    @Override
+    public void enablePermissions(String id) {
+        if (enabledIds.contains(id)) return;
+
+        delegate.enablePermissions(id);
+        enabledIds.add(id);
+    }
+
+    @Override
+    public Map<String, String> resolveObjectIds(Collection<String> placeholders) {
+        Set<String> unresolvedPlaceholders = placeholders.stream()
+                .filter(placeholder -> !objectIds.containsKey(placeholder))
+                .collect(Collectors.toSet());
+
+        if (!unresolvedPlaceholders.isEmpty()) {
+            objectIds.putAll(delegate.resolveObjectIds(unresolvedPlaceholders));
+        }
+
+        return placeholders.stream()
+                .filter(objectIds::containsKey)
+                .distinct()
+                .collect(Collectors.toMap(placeholder -> placeholder, objectIds::get));
+    }
+}
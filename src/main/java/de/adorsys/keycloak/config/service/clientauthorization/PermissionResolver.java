@@ -20,8 +20,30 @@
 
 package de.adorsys.keycloak.config.service.clientauthorization;
 
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface PermissionResolver {
     String resolveObjectId(String placeholder, String authzName);
 
     void enablePermissions(String id);
+
+    /**
+     * Resolves a batch of placeholders at once. Placeholders which cannot be resolved are left out of the result,
+     * they are reported once {@link #resolveObjectId(String, String)} is called for them.
+     */
+    default Map<String, String> resolveObjectIds(Collection<String> placeholders) {
+        Map<String, String> objectIds = new HashMap<>();
+        for (String placeholder : placeholders) {
+            try {
+                objectIds.put(placeholder, resolveObjectId(placeholder, placeholder));
+            } catch (ImportProcessingException ignored) {
+                // reported on resolveObjectId
+            }
+        }
+        return objectIds;
+    }
 }
@@ -22,10 +22,15 @@ package de.adorsys.keycloak.config.service.clientauthorization;
 
 import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import de.adorsys.keycloak.config.repository.RoleIndex;
 import de.adorsys.keycloak.config.repository.RoleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import jakarta.ws.rs.NotFoundException;
 
 public class RolePermissionResolver implements PermissionResolver {
@@ -48,6 +53,18 @@ public class RolePermissionResolver implements PermissionResolver {
         }
     }
 
+    @Override
+    public Map<String, String> resolveObjectIds(Collection<String> roleNames) {
+        RoleIndex roleIndex = roleRepository.getRoleIndex(realmName);
+
+        Map<String, String> objectIds = new HashMap<>();
+        for (String roleName : roleNames) {
+            roleIndex.searchRealmRole(roleName)
+                    .ifPresent(role -> objectIds.put(roleName, role.getId()));
+        }
+        return objectIds;
+    }
+
     @Override
     public void enablePermissions(String id) {
         try {
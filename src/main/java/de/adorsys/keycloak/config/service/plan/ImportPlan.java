@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import java.util.*;
+
+/**
+ * Describes all changes of an import before any of them is applied.
+ * <p>
+ * Operations are assigned to an {@link ImportPlanStage}. Role mapping changes are collected
+ * per {@link RoleMappingTarget} and applied with one remove and one add call each.
+ * Use {@link ImportPlanExecutor} to apply a plan.
+ */
+public class ImportPlan {
+    private final String realmName;
+    private final Map<ImportPlanStage, List<Runnable>> operations = new EnumMap<>(ImportPlanStage.class);
+    private final Map<ImportPlanStage, Map<String, RoleMappingChange>> roleMappingChanges = new EnumMap<>(ImportPlanStage.class);
+    private final Set<RoleReference> createdRoles = new HashSet<>();
+    private final Set<RoleReference> deletedRoles = new HashSet<>();
+
+    public ImportPlan(String realmName) {
+        this.realmName = realmName;
+    }
+
+    public String getRealmName() {
+        return realmName;
+    }
+
+    public synchronized void add(ImportPlanStage stage, Runnable operation) {
+        operations.computeIfAbsent(stage, s -> new ArrayList<>()).add(operation);
+    }
+
+    /**
+     * Returns the change of the given target, role mapping changes of the same target are merged.
+     */
+    public synchronized RoleMappingChange getRoleMappingChange(ImportPlanStage stage, RoleMappingTarget target) {
+        return roleMappingChanges.computeIfAbsent(stage, s -> new LinkedHashMap<>())
+                .computeIfAbsent(target.getKey(), key -> new RoleMappingChange(target));
+    }
+
+    /**
+     * Marks a role as created by this plan, a role created by the plan has no existing mappings.
+     */
+    public synchronized void addCreatedRole(RoleReference role) {
+        createdRoles.add(role);
+    }
+
+    public synchronized boolean isCreatedRole(RoleReference role) {
+        return createdRoles.contains(role);
+    }
+
+    /**
+     * Marks a role as deleted by this plan, keycloak removes a deleted role from all composites itself.
+     */
+    public synchronized void addDeletedRole(RoleReference role) {
+        deletedRoles.add(role);
+    }
+
+    public synchronized boolean isDeletedRole(RoleReference role) {
+        return deletedRoles.contains(role);
+    }
+
+    public synchronized List<Runnable> getOperations(ImportPlanStage stage) {
+        return List.copyOf(operations.getOrDefault(stage, List.of()));
+    }
+
+    public synchronized List<RoleMappingChange> getRoleMappingChanges(ImportPlanStage stage) {
+        return roleMappingChanges.getOrDefault(stage, Map.of())
+                .values()
+                .stream()
+                .filter(change -> !change.isEmpty())
+                .toList();
+    }
+}
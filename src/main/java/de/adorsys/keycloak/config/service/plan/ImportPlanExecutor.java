@@ -0,0 +1,133 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RoleIndex;
+import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.util.ParallelUtil;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Applies an {@link ImportPlan} stage by stage. The operations of a stage are executed in parallel
+ * if {@code import.parallel} is enabled.
+ */
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ImportPlanExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ImportPlanExecutor.class);
+
+    private final RoleRepository roleRepository;
+    private final ImportConfigProperties importConfigProperties;
+
+    @Autowired
+    public ImportPlanExecutor(RoleRepository roleRepository, ImportConfigProperties importConfigProperties) {
+        this.roleRepository = roleRepository;
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    public void execute(ImportPlan plan) {
+        String realmName = plan.getRealmName();
+
+        for (ImportPlanStage stage : ImportPlanStage.values()) {
+            List<Runnable> operations = new ArrayList<>(plan.getOperations(stage));
+            List<RoleMappingChange> roleMappingChanges = plan.getRoleMappingChanges(stage);
+
+            if (!roleMappingChanges.isEmpty()) {
+                // roles of previous stages exist at this point, resolve all mappings of the stage against one snapshot
+                RoleIndex roleIndex = roleRepository.getRoleIndex(realmName);
+
+                for (RoleMappingChange change : roleMappingChanges) {
+                    operations.add(() -> applyRoleMappingChange(plan, roleIndex, change));
+                }
+            }
+
+            if (operations.isEmpty()) continue;
+
+            logger.debug("Execute {} operations of stage '{}' in realm '{}'", operations.size(), stage, realmName);
+
+            if (importConfigProperties.isParallel()) {
+                ParallelUtil.forEach(operations, Runnable::run);
+            } else {
+                operations.forEach(Runnable::run);
+            }
+        }
+    }
+
+    private void applyRoleMappingChange(ImportPlan plan, RoleIndex roleIndex, RoleMappingChange change) {
+        String realmName = plan.getRealmName();
+        RoleMappingTarget target = change.getTarget();
+
+        // deleted roles are already removed from all mappings and are missing in the index
+        List<RoleReference> rolesToRemove = change.getRolesToRemove().stream()
+                .filter(role -> !plan.isDeletedRole(role))
+                .toList();
+
+        if (!rolesToRemove.isEmpty()) {
+            logger.debug("Remove {} roles from {} in realm '{}'", rolesToRemove.size(), target.getKey(), realmName);
+
+            target.remove(findRoles(realmName, roleIndex, rolesToRemove));
+        }
+
+        if (!change.getRolesToAdd().isEmpty()) {
+            logger.debug("Add {} roles to {} in realm '{}'", change.getRolesToAdd().size(), target.getKey(), realmName);
+
+            List<RoleRepresentation> rolesToAdd;
+            try {
+                rolesToAdd = findRoles(realmName, roleIndex, change.getRolesToAdd());
+            } catch (KeycloakRepositoryException e) {
+                throw new KeycloakRepositoryException(
+                        String.format("Error adding %s: %s", target.getDescription(), e.getMessage()), e
+                );
+            }
+
+            target.add(rolesToAdd);
+        }
+    }
+
+    private List<RoleRepresentation> findRoles(String realmName, RoleIndex roleIndex, Collection<RoleReference> roles) {
+        List<RoleRepresentation> result = new ArrayList<>();
+
+        for (RoleReference role : roles) {
+            if (role.isClientRole()) {
+                RoleRepresentation clientRole = roleIndex.searchClientRole(role.getClientId(), role.getName())
+                        .orElseThrow(() -> new KeycloakRepositoryException(
+                                "Cannot find client role '%s' within realm '%s'", role.getName(), realmName
+                        ));
+                result.add(clientRole);
+            } else {
+                result.add(roleIndex.getRealmRole(role.getName()));
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+/**
+ * Stages of an {@link ImportPlan}. Stages are executed in declaration order,
+ * operations within the same stage do not depend on each other.
+ */
+public enum ImportPlanStage {
+    /**
+     * Deletion of realm-level and client-level roles, before any role is created
+     */
+    ROLE_DELETIONS,
+
+    /**
+     * Creation and update of realm-level and client-level roles
+     */
+    ROLES,
+
+    /**
+     * Role composites, requires all roles to exist
+     */
+    ROLE_COMPOSITES,
+
+    /**
+     * Creation, update and deletion of groups with their sub-groups and role mappings, requires all roles to exist
+     */
+    GROUPS,
+
+    /**
+     * Default groups of the realm, requires all groups to exist
+     */
+    DEFAULT_GROUPS,
+
+    /**
+     * Components, user storage providers have to exist before federated users are imported
+     */
+    COMPONENTS,
+
+    /**
+     * User profile, the attributes of imported users are validated against it
+     */
+    USER_PROFILE,
+
+    /**
+     * Users with their role mappings and group memberships, requires all roles and groups to exist
+     */
+    USERS,
+}
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects all roles to add to and to remove from a single {@link RoleMappingTarget}.
+ */
+public class RoleMappingChange {
+    private final RoleMappingTarget target;
+    private final Set<RoleReference> rolesToAdd = new LinkedHashSet<>();
+    private final Set<RoleReference> rolesToRemove = new LinkedHashSet<>();
+
+    RoleMappingChange(RoleMappingTarget target) {
+        this.target = target;
+    }
+
+    public synchronized void addRoles(Collection<RoleReference> roles) {
+        rolesToRemove.removeAll(roles);
+        rolesToAdd.addAll(roles);
+    }
+
+    public synchronized void removeRoles(Collection<RoleReference> roles) {
+        rolesToAdd.removeAll(roles);
+        rolesToRemove.addAll(roles);
+    }
+
+    public RoleMappingTarget getTarget() {
+        return target;
+    }
+
+    public synchronized Set<RoleReference> getRolesToAdd() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(rolesToAdd));
+    }
+
+    public synchronized Set<RoleReference> getRolesToRemove() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(rolesToRemove));
+    }
+
+    public synchronized boolean isEmpty() {
+        return rolesToAdd.isEmpty() && rolesToRemove.isEmpty();
+    }
+}
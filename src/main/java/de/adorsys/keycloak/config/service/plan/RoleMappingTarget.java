@@ -0,0 +1,71 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Something roles can be mapped to, e.g. the composites of a role.
+ * Role mapping changes of targets with the same key are merged within an {@link ImportPlan}.
+ */
+public final class RoleMappingTarget {
+    private final String key;
+    private final String description;
+    private final Consumer<List<RoleRepresentation>> addRoles;
+    private final Consumer<List<RoleRepresentation>> removeRoles;
+
+    /**
+     * @param key         unique key of the target within a realm, e.g. "composites of realm role 'admin'"
+     * @param description used in error messages, e.g. "composite roles to realm role 'admin'"
+     * @param addRoles    adds all given roles with a single call
+     * @param removeRoles removes all given roles with a single call
+     */
+    public RoleMappingTarget(
+            String key,
+            String description,
+            Consumer<List<RoleRepresentation>> addRoles,
+            Consumer<List<RoleRepresentation>> removeRoles
+    ) {
+        this.key = key;
+        this.description = description;
+        this.addRoles = addRoles;
+        this.removeRoles = removeRoles;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    void add(List<RoleRepresentation> roles) {
+        addRoles.accept(roles);
+    }
+
+    void remove(List<RoleRepresentation> roles) {
+        removeRoles.accept(roles);
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * References a realm-level role (without client id) or a client-level role by name.
+ */
+public final class RoleReference {
+    private final String clientId;
+    private final String name;
+
+    private RoleReference(String clientId, String name) {
+        this.clientId = clientId;
+        this.name = name;
+    }
+
+    public static RoleReference realmRole(String name) {
+        return new RoleReference(null, name);
+    }
+
+    public static RoleReference clientRole(String clientId, String name) {
+        return new RoleReference(clientId, name);
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isClientRole() {
+        return clientId != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RoleReference that = (RoleReference) o;
+        return Objects.equals(clientId, that.clientId) && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientId, name);
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", RoleReference.class.getSimpleName() + "[", "]")
+                .add("clientId='" + clientId + "'")
+                .add("name='" + name + "'")
+                .toString();
+    }
+}
@@ -22,6 +22,9 @@ package de.adorsys.keycloak.config.service.rolecomposites.client;
 
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleReference;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,27 +52,41 @@ public class ClientCompositeImport {
         this.roleCompositeRepository = roleCompositeRepository;
     }
 
-    public void update(String realmName, String roleClientId, String roleName, Map<String, List<String>> clientComposites) {
+    public void update(
+            ImportPlan plan,
+            RoleMappingChange composites,
+            String roleClientId,
+            String roleName,
+            Map<String, List<String>> clientComposites
+    ) {
+        if (plan.isCreatedRole(RoleReference.clientRole(roleClientId, roleName))) {
+            clientComposites.forEach((clientId, roleNames) -> composites.addRoles(toClientRoles(clientId, roleNames)));
+            return;
+        }
+
+        String realmName = plan.getRealmName();
+
         for (Map.Entry<String, List<String>> clientCompositesByClients : clientComposites.entrySet()) {
             String clientId = clientCompositesByClients.getKey();
             List<String> clientCompositesByClient = clientCompositesByClients.getValue();
 
-            updateClientComposites(realmName, roleClientId, roleName, clientId, clientCompositesByClient);
+            updateClientComposites(realmName, composites, roleClientId, roleName, clientId, clientCompositesByClient);
         }
 
-        removeClientRoleClientComposites(realmName, roleClientId, roleName, clientComposites);
+        removeClientRoleClientComposites(realmName, composites, roleClientId, roleName, clientComposites);
     }
 
     private void updateClientComposites(
             String realmName,
+            RoleMappingChange composites,
             String roleClientId,
             String roleName,
             String clientId,
-            List<String> composites
+            List<String> clientCompositesByClient
     ) {
         List<String> existingClientCompositeNames = findClientRoleClientCompositeNames(realmName, roleClientId, roleName, clientId);
 
-        if (Objects.equals(existingClientCompositeNames, composites)) {
+        if (Objects.equals(existingClientCompositeNames, clientCompositesByClient)) {
             logger.debug("No need to update client-level role '{}'s composites client-roles for client '{}' in realm '{}'",
                     roleName, clientId, realmName
             );
@@ -78,19 +95,27 @@ public class ClientCompositeImport {
                     roleName, clientId, realmName
             );
 
-            removeClientRoleClientComposites(realmName, roleClientId, roleName, clientId, existingClientCompositeNames, composites);
-            addClientRoleClientComposites(realmName, roleClientId, roleName, clientId, existingClientCompositeNames, composites);
+            List<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
+                    .filter(name -> !clientCompositesByClient.contains(name))
+                    .toList();
+
+            List<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
+                    .filter(name -> !existingClientCompositeNames.contains(name))
+                    .toList();
+
+            composites.removeRoles(toClientRoles(clientId, clientRoleCompositesToRemove));
+            composites.addRoles(toClientRoles(clientId, clientRoleCompositesToAdd));
         }
     }
 
     private List<String> findClientRoleClientCompositeNames(
             String realmName,
             String roleClientId,
-            String realmRole,
+            String roleName,
             String clientId
     ) {
         Set<RoleRepresentation> existingClientComposites = roleCompositeRepository.searchClientRoleClientComposites(
-                realmName, roleClientId, realmRole, clientId
+                realmName, roleClientId, roleName, clientId
         );
 
         return existingClientComposites.stream()
@@ -100,23 +125,9 @@ public class ClientCompositeImport {
 
     private void removeClientRoleClientComposites(
             String realmName,
+            RoleMappingChange composites,
             String roleClientId,
-            String realmRole,
-            String clientId,
-            Collection<String> existingClientCompositeNames,
-            Collection<String> clientCompositesByClient
-    ) {
-        Set<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
-                .filter(name -> !clientCompositesByClient.contains(name))
-                .collect(Collectors.toSet());
-
-        roleCompositeRepository.removeClientRoleClientComposites(realmName, roleClientId, realmRole, clientId, clientRoleCompositesToRemove);
-    }
-
-    private void removeClientRoleClientComposites(
-            String realmName,
-            String roleClientId,
-            String realmRole,
+            String roleName,
             Map<String, List<String>> clientComposites
     ) {
         Set<String> existingCompositeClients = clientRepository.getAllIds(realmName);
@@ -128,26 +139,11 @@ public class ClientCompositeImport {
         Map<String, List<String>> clientCompositeRolesToBeRemoved = estimateClientCompositeRolesToBeRemoved(
                 realmName,
                 roleClientId,
-                realmRole,
+                roleName,
                 compositeClientsToRemove
         );
 
-        roleCompositeRepository.removeClientRoleClientComposites(realmName, roleClientId, realmRole, clientCompositeRolesToBeRemoved);
-    }
-
-    private void addClientRoleClientComposites(
-            String realmName,
-            String clientRoleId,
-            String realmRole,
-            String clientId,
-            Collection<String> existingClientCompositeNames,
-            Collection<String> clientCompositesByClient
-    ) {
-        Set<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
-                .filter(name -> !existingClientCompositeNames.contains(name))
-                .collect(Collectors.toSet());
-
-        roleCompositeRepository.addClientRoleClientComposites(realmName, clientRoleId, realmRole, clientId, clientRoleCompositesToAdd);
+        clientCompositeRolesToBeRemoved.forEach((clientId, roleNames) -> composites.removeRoles(toClientRoles(clientId, roleNames)));
     }
 
     private Map<String, List<String>> estimateClientCompositeRolesToBeRemoved(
@@ -171,4 +167,10 @@ public class ClientCompositeImport {
 
         return clientRolesToRemove;
     }
+
+    private List<RoleReference> toClientRoles(String clientId, Collection<String> roleNames) {
+        return roleNames.stream()
+                .map(name -> RoleReference.clientRole(clientId, name))
+                .toList();
+    }
 }
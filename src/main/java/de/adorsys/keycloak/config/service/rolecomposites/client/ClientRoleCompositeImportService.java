@@ -20,6 +20,11 @@
 
 package de.adorsys.keycloak.config.service.rolecomposites.client;
 
+import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.ImportPlanStage;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleMappingTarget;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -38,47 +43,75 @@ public class ClientRoleCompositeImportService {
 
     private final RealmCompositeImport realmCompositeImport;
     private final ClientCompositeImport clientCompositeImport;
+    private final RoleCompositeRepository roleCompositeRepository;
 
     @Autowired
     public ClientRoleCompositeImportService(
             RealmCompositeImport realmCompositeImport,
-            ClientCompositeImport clientCompositeImport
+            ClientCompositeImport clientCompositeImport,
+            RoleCompositeRepository roleCompositeRepository
     ) {
         this.realmCompositeImport = realmCompositeImport;
         this.clientCompositeImport = clientCompositeImport;
+        this.roleCompositeRepository = roleCompositeRepository;
     }
 
     /**
-     * Updates the role composites for all client-level roles
+     * Adds the role composite changes for all client-level roles to the plan
      *
-     * @param realmName the realmName name
-     * @param roles     import containing all client-level roles containing role-composites to be imported
+     * @param plan  the import plan of the realm
+     * @param roles import containing all client-level roles containing role-composites to be imported
      */
-    public void update(String realmName, Map<String, List<RoleRepresentation>> roles) {
+    public void update(ImportPlan plan, Map<String, List<RoleRepresentation>> roles) {
         for (Map.Entry<String, List<RoleRepresentation>> clientRoles : roles.entrySet()) {
             String clientId = clientRoles.getKey();
 
             for (RoleRepresentation clientRole : clientRoles.getValue()) {
-                updateClientRoleRealmCompositesIfNecessary(realmName, clientId, clientRole);
-                updateClientRoleClientCompositesIfNecessary(realmName, clientId, clientRole);
+                RoleMappingChange composites = plan.getRoleMappingChange(
+                        ImportPlanStage.ROLE_COMPOSITES,
+                        compositesOf(plan.getRealmName(), clientId, clientRole.getName())
+                );
+
+                updateClientRoleRealmCompositesIfNecessary(plan, composites, clientId, clientRole);
+                updateClientRoleClientCompositesIfNecessary(plan, composites, clientId, clientRole);
             }
         }
     }
 
-    private void updateClientRoleRealmCompositesIfNecessary(String realmName, String roleClientId, RoleRepresentation clientRole) {
+    private void updateClientRoleRealmCompositesIfNecessary(
+            ImportPlan plan,
+            RoleMappingChange composites,
+            String roleClientId,
+            RoleRepresentation clientRole
+    ) {
         Optional.ofNullable(clientRole.getComposites())
-                .flatMap(composites -> Optional.ofNullable(composites.getRealm()))
-                .ifPresent(realmComposites -> realmCompositeImport.update(realmName, roleClientId, clientRole, realmComposites));
+                .flatMap(c -> Optional.ofNullable(c.getRealm()))
+                .ifPresent(realmComposites -> realmCompositeImport.update(plan, composites, roleClientId, clientRole, realmComposites));
     }
 
-    private void updateClientRoleClientCompositesIfNecessary(String realmName, String roleClientId, RoleRepresentation clientRole) {
+    private void updateClientRoleClientCompositesIfNecessary(
+            ImportPlan plan,
+            RoleMappingChange composites,
+            String roleClientId,
+            RoleRepresentation clientRole
+    ) {
         Optional.ofNullable(clientRole.getComposites())
-                .flatMap(composites -> Optional.ofNullable(composites.getClient()))
+                .flatMap(c -> Optional.ofNullable(c.getClient()))
                 .ifPresent(clientComposites -> clientCompositeImport.update(
-                        realmName,
+                        plan,
+                        composites,
                         roleClientId,
                         clientRole.getName(),
                         clientComposites
                 ));
     }
+
+    private RoleMappingTarget compositesOf(String realmName, String roleClientId, String roleName) {
+        return new RoleMappingTarget(
+                String.format("composites of client role '%s' of client '%s'", roleName, roleClientId),
+                String.format("composite roles to client role '%s'", roleName),
+                composites -> roleCompositeRepository.addClientRoleComposites(realmName, roleClientId, roleName, composites),
+                composites -> roleCompositeRepository.removeClientRoleComposites(realmName, roleClientId, roleName, composites)
+        );
+    }
 }
@@ -21,6 +21,9 @@
 package de.adorsys.keycloak.config.service.rolecomposites.client;
 
 import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleReference;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,25 +47,36 @@ public class RealmCompositeImport {
         this.roleCompositeRepository = roleCompositeRepository;
     }
 
-    public void update(String realmName, String roleClientId, RoleRepresentation clientRole, Set<String> realmComposites) {
+    public void update(
+            ImportPlan plan,
+            RoleMappingChange composites,
+            String roleClientId,
+            RoleRepresentation clientRole,
+            Set<String> realmComposites
+    ) {
+        String realmName = plan.getRealmName();
         String roleName = clientRole.getName();
-        Set<String> existingRealmCompositeNames = findClientRoleRealmCompositeNames(realmName, roleClientId, roleName);
+        Set<String> existingRealmCompositeNames = findClientRoleRealmCompositeNames(plan, roleClientId, roleName);
 
         if (Objects.equals(realmComposites, existingRealmCompositeNames)) {
             logger.debug("No need to update client-level role '{}'s composites realm-roles in realm '{}'", roleName, realmName);
         } else {
             logger.debug("Update client-level role '{}'s composites realm-roles in realm '{}'", roleName, realmName);
-            updateClientRoleRealmComposites(realmName, roleClientId, roleName, realmComposites, existingRealmCompositeNames);
+            updateClientRoleRealmComposites(composites, realmComposites, existingRealmCompositeNames);
         }
     }
 
     private Set<String> findClientRoleRealmCompositeNames(
-            String realmName,
+            ImportPlan plan,
             String roleClientId,
             String roleName
     ) {
+        if (plan.isCreatedRole(RoleReference.clientRole(roleClientId, roleName))) {
+            return Set.of();
+        }
+
         Set<RoleRepresentation> existingRealmComposites = roleCompositeRepository.searchClientRoleRealmComposites(
-                realmName, roleClientId, roleName
+                plan.getRealmName(), roleClientId, roleName
         );
 
         return existingRealmComposites.stream()
@@ -71,46 +85,21 @@ public class RealmCompositeImport {
     }
 
     private void updateClientRoleRealmComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
+            RoleMappingChange composites,
             Set<String> realmComposites,
             Set<String> existingRealmCompositeNames
     ) {
-        removeClientRoleRealmComposites(realmName, roleClientId, roleName, existingRealmCompositeNames, realmComposites);
-        addClientRoleRealmComposites(realmName, roleClientId, roleName, existingRealmCompositeNames, realmComposites);
-    }
-
-    private void removeClientRoleRealmComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
-            Set<String> existingRealmCompositeNames,
-            Set<String> realmComposites
-    ) {
-        Set<String> realmCompositesToRemove = existingRealmCompositeNames.stream()
+        Set<RoleReference> realmCompositesToRemove = existingRealmCompositeNames.stream()
                 .filter(name -> !realmComposites.contains(name))
+                .map(RoleReference::realmRole)
                 .collect(Collectors.toSet());
 
-        roleCompositeRepository.removeClientRoleRealmComposites(realmName, roleClientId, roleName, realmCompositesToRemove);
-    }
-
-    private void addClientRoleRealmComposites(
-            String realmName,
-            String roleClientId,
-            String roleName,
-            Set<String> existingRealmCompositeNames,
-            Set<String> realmComposites
-    ) {
-        Set<String> realmCompositesToAdd = realmComposites.stream()
+        Set<RoleReference> realmCompositesToAdd = realmComposites.stream()
                 .filter(name -> !existingRealmCompositeNames.contains(name))
+                .map(RoleReference::realmRole)
                 .collect(Collectors.toSet());
 
-        roleCompositeRepository.addClientRoleRealmComposites(
-                realmName,
-                roleClientId,
-                roleName,
-                realmCompositesToAdd
-        );
+        composites.removeRoles(realmCompositesToRemove);
+        composites.addRoles(realmCompositesToAdd);
     }
 }
@@ -22,6 +22,9 @@ package de.adorsys.keycloak.config.service.rolecomposites.realm;
 
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleReference;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,21 +50,32 @@ public class ClientCompositeImport {
         this.roleCompositeRepository = roleCompositeRepository;
     }
 
-    public void update(String realmName, String realmRole, Map<String, List<String>> clientComposites) {
+    public void update(ImportPlan plan, RoleMappingChange composites, String realmRole, Map<String, List<String>> clientComposites) {
+        if (plan.isCreatedRole(RoleReference.realmRole(realmRole))) {
+            clientComposites.forEach((clientId, roleNames) -> composites.addRoles(toClientRoles(clientId, roleNames)));
+            return;
+        }
+
         for (Map.Entry<String, List<String>> clientCompositesByClients : clientComposites.entrySet()) {
             String clientId = clientCompositesByClients.getKey();
             List<String> clientCompositesByClient = clientCompositesByClients.getValue();
 
-            updateClientComposites(realmName, realmRole, clientId, clientCompositesByClient);
+            updateClientComposites(plan.getRealmName(), composites, realmRole, clientId, clientCompositesByClient);
         }
 
-        removeRealmRoleClientComposites(realmName, realmRole, clientComposites);
+        removeRealmRoleClientComposites(plan.getRealmName(), composites, realmRole, clientComposites);
     }
 
-    private void updateClientComposites(String realmName, String realmRole, String clientId, List<String> composites) {
+    private void updateClientComposites(
+            String realmName,
+            RoleMappingChange composites,
+            String realmRole,
+            String clientId,
+            List<String> clientCompositesByClient
+    ) {
         List<String> existingClientCompositeNames = findRealmRoleClientCompositeNames(realmName, realmRole, clientId);
 
-        if (Objects.equals(existingClientCompositeNames, composites)) {
+        if (Objects.equals(existingClientCompositeNames, clientCompositesByClient)) {
             logger.debug("No need to update client-level role '{}'s composites client-roles for client '{}' in realm '{}'",
                     realmRole, clientId, realmName
             );
@@ -70,8 +84,16 @@ public class ClientCompositeImport {
                     realmRole, clientId, realmName
             );
 
-            removeRealmRoleClientComposites(realmName, realmRole, clientId, existingClientCompositeNames, composites);
-            addRealmRoleClientComposites(realmName, realmRole, clientId, existingClientCompositeNames, composites);
+            List<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
+                    .filter(name -> !clientCompositesByClient.contains(name))
+                    .toList();
+
+            List<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
+                    .filter(name -> !existingClientCompositeNames.contains(name))
+                    .toList();
+
+            composites.removeRoles(toClientRoles(clientId, clientRoleCompositesToRemove));
+            composites.addRoles(toClientRoles(clientId, clientRoleCompositesToAdd));
         }
     }
 
@@ -89,19 +111,10 @@ public class ClientCompositeImport {
 
     private void removeRealmRoleClientComposites(
             String realmName,
+            RoleMappingChange composites,
             String realmRole,
-            String clientId,
-            Collection<String> existingClientCompositeNames,
-            Collection<String> clientCompositesByClient
+            Map<String, List<String>> clientComposites
     ) {
-        Set<String> clientRoleCompositesToRemove = existingClientCompositeNames.stream()
-                .filter(name -> !clientCompositesByClient.contains(name))
-                .collect(Collectors.toSet());
-
-        roleCompositeRepository.removeRealmRoleClientComposites(realmName, realmRole, clientId, clientRoleCompositesToRemove);
-    }
-
-    private void removeRealmRoleClientComposites(String realmName, String realmRole, Map<String, List<String>> clientComposites) {
         Set<String> existingCompositeClients = clientRepository.getAllIds(realmName);
 
         Set<String> compositeClientsToRemove = existingCompositeClients.stream()
@@ -114,21 +127,7 @@ public class ClientCompositeImport {
                 compositeClientsToRemove
         );
 
-        roleCompositeRepository.removeRealmRoleClientComposites(realmName, realmRole, clientCompositesToRemove);
-    }
-
-    private void addRealmRoleClientComposites(
-            String realmName,
-            String realmRole,
-            String clientId,
-            Collection<String> existingClientCompositeNames,
-            Collection<String> clientCompositesByClient
-    ) {
-        Set<String> clientRoleCompositesToAdd = clientCompositesByClient.stream()
-                .filter(name -> !existingClientCompositeNames.contains(name))
-                .collect(Collectors.toSet());
-
-        roleCompositeRepository.addRealmRoleClientComposites(realmName, realmRole, clientId, clientRoleCompositesToAdd);
+        clientCompositesToRemove.forEach((clientId, roleNames) -> composites.removeRoles(toClientRoles(clientId, roleNames)));
     }
 
     private Map<String, List<String>> estimateRealmCompositeRolesToBeRemoved(
@@ -149,4 +148,10 @@ public class ClientCompositeImport {
 
         return clientRolesToRemove;
     }
+
+    private List<RoleReference> toClientRoles(String clientId, Collection<String> roleNames) {
+        return roleNames.stream()
+                .map(roleName -> RoleReference.clientRole(clientId, roleName))
+                .toList();
+    }
 }
@@ -21,6 +21,9 @@
 package de.adorsys.keycloak.config.service.rolecomposites.realm;
 
 import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleReference;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,22 +47,29 @@ public class RealmCompositeImport {
         this.roleCompositeRepository = roleCompositeRepository;
     }
 
-    public void update(String realmName, RoleRepresentation realmRole, Set<String> realmComposites) {
+    public void update(ImportPlan plan, RoleMappingChange composites, RoleRepresentation realmRole, Set<String> realmComposites) {
+        String realmName = plan.getRealmName();
         String roleName = realmRole.getName();
 
-        Set<String> existingRealmCompositeNames = findRealmRoleRealmCompositeNames(realmName, roleName);
+        Set<String> existingRealmCompositeNames = findRealmRoleRealmCompositeNames(plan, roleName);
 
         if (Objects.equals(realmComposites, existingRealmCompositeNames)) {
             logger.debug("No need to update realm-level role '{}'s composites realm-roles in realm '{}'", roleName, realmName);
         } else {
             logger.debug("Update realm-level role '{}'s composites realm-roles in realm '{}'", roleName, realmName);
 
-            updateRealmRoleRealmComposites(realmName, roleName, existingRealmCompositeNames, realmComposites);
+            updateRealmRoleRealmComposites(composites, existingRealmCompositeNames, realmComposites);
         }
     }
 
-    private Set<String> findRealmRoleRealmCompositeNames(String realmName, String roleName) {
-        Set<RoleRepresentation> existingRealmComposites = roleCompositeRepository.searchRealmRoleRealmComposites(realmName, roleName);
+    private Set<String> findRealmRoleRealmCompositeNames(ImportPlan plan, String roleName) {
+        if (plan.isCreatedRole(RoleReference.realmRole(roleName))) {
+            return Set.of();
+        }
+
+        Set<RoleRepresentation> existingRealmComposites = roleCompositeRepository.searchRealmRoleRealmComposites(
+                plan.getRealmName(), roleName
+        );
 
         return existingRealmComposites.stream()
                 .map(RoleRepresentation::getName)
@@ -67,42 +77,21 @@ public class RealmCompositeImport {
     }
 
     private void updateRealmRoleRealmComposites(
-            String realmName,
-            String roleName,
-            Set<String> existingRealmCompositeNames,
-            Set<String> realmComposites
-    ) {
-        removeRealmRoleRealmComposites(realmName, roleName, existingRealmCompositeNames, realmComposites);
-        addRealmRoleRealmComposites(realmName, roleName, existingRealmCompositeNames, realmComposites);
-    }
-
-    private void removeRealmRoleRealmComposites(
-            String realmName,
-            String roleName,
+            RoleMappingChange composites,
             Set<String> existingRealmCompositeNames,
             Set<String> realmComposites
     ) {
-        Set<String> realmCompositesToRemove = existingRealmCompositeNames.stream()
+        Set<RoleReference> realmCompositesToRemove = existingRealmCompositeNames.stream()
                 .filter(name -> !realmComposites.contains(name))
+                .map(RoleReference::realmRole)
                 .collect(Collectors.toSet());
 
-        roleCompositeRepository.removeRealmRoleRealmComposites(realmName, roleName, realmCompositesToRemove);
-    }
-
-    private void addRealmRoleRealmComposites(
-            String realmName,
-            String roleName,
-            Set<String> existingRealmCompositeNames,
-            Set<String> realmComposites
-    ) {
-        Set<String> realmCompositesToAdd = realmComposites.stream()
+        Set<RoleReference> realmCompositesToAdd = realmComposites.stream()
                 .filter(name -> !existingRealmCompositeNames.contains(name))
+                .map(RoleReference::realmRole)
                 .collect(Collectors.toSet());
 
-        roleCompositeRepository.addRealmRoleRealmComposites(
-                realmName,
-                roleName,
-                realmCompositesToAdd
-        );
+        composites.removeRoles(realmCompositesToRemove);
+        composites.addRoles(realmCompositesToAdd);
     }
 }
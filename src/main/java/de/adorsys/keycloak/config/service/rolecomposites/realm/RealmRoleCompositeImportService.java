@@ -20,6 +20,11 @@
 
 package de.adorsys.keycloak.config.service.rolecomposites.realm;
 
+import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.ImportPlanStage;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
+import de.adorsys.keycloak.config.service.plan.RoleMappingTarget;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -38,43 +43,61 @@ public class RealmRoleCompositeImportService {
 
     private final RealmCompositeImport realmCompositeImport;
     private final ClientCompositeImport clientCompositeImport;
+    private final RoleCompositeRepository roleCompositeRepository;
 
     @Autowired
     public RealmRoleCompositeImportService(
             RealmCompositeImport realmCompositeImport,
-            ClientCompositeImport clientCompositeImport
+            ClientCompositeImport clientCompositeImport,
+            RoleCompositeRepository roleCompositeRepository
     ) {
         this.clientCompositeImport = clientCompositeImport;
         this.realmCompositeImport = realmCompositeImport;
+        this.roleCompositeRepository = roleCompositeRepository;
     }
 
     /**
-     * Updates the role composites for all realm-level roles
+     * Adds the role composite changes for all realm-level roles to the plan
      *
-     * @param realmName the realmName name
-     * @param roles     containing all realm-level roles containing role-composites to be imported
+     * @param plan  the import plan of the realm
+     * @param roles containing all realm-level roles containing role-composites to be imported
      */
-    public void update(String realmName, List<RoleRepresentation> roles) {
+    public void update(ImportPlan plan, List<RoleRepresentation> roles) {
         for (RoleRepresentation realmRole : roles) {
-            updateRealmRoleRealmCompositesIfNecessary(realmName, realmRole);
-            updateRealmRoleClientCompositesIfNecessary(realmName, realmRole);
+            RoleMappingChange composites = plan.getRoleMappingChange(
+                    ImportPlanStage.ROLE_COMPOSITES,
+                    compositesOf(plan.getRealmName(), realmRole.getName())
+            );
+
+            updateRealmRoleRealmCompositesIfNecessary(plan, composites, realmRole);
+            updateRealmRoleClientCompositesIfNecessary(plan, composites, realmRole);
         }
     }
 
-    private void updateRealmRoleRealmCompositesIfNecessary(String realmName, RoleRepresentation realmRole) {
+    private void updateRealmRoleRealmCompositesIfNecessary(ImportPlan plan, RoleMappingChange composites, RoleRepresentation realmRole) {
         var realmComposites = Optional.ofNullable(realmRole.getComposites())
-                .flatMap(composites -> Optional.ofNullable(composites.getRealm()))
+                .flatMap(c -> Optional.ofNullable(c.getRealm()))
                 .orElse(Set.of());
-        realmCompositeImport.update(realmName, realmRole, realmComposites);
+        realmCompositeImport.update(plan, composites, realmRole, realmComposites);
     }
 
-    private void updateRealmRoleClientCompositesIfNecessary(String realmName, RoleRepresentation realmRole) {
+    private void updateRealmRoleClientCompositesIfNecessary(ImportPlan plan, RoleMappingChange composites, RoleRepresentation realmRole) {
         Optional.ofNullable(realmRole.getComposites())
-                .flatMap(composites -> Optional.ofNullable(composites.getClient()))
+                .flatMap(c -> Optional.ofNullable(c.getClient()))
                 .ifPresent(clientComposites -> clientCompositeImport.update(
-                        realmName,
+                        plan,
+                        composites,
                         realmRole.getName(),
                         clientComposites
                 ));
     }
+
+    private RoleMappingTarget compositesOf(String realmName, String roleName) {
+        return new RoleMappingTarget(
+                String.format("composites of realm role '%s'", roleName),
+                String.format("composite roles to realm role '%s'", roleName),
+                composites -> roleCompositeRepository.addRealmRoleComposites(realmName, roleName, composites),
+                composites -> roleCompositeRepository.removeRealmRoleComposites(realmName, roleName, composites)
+        );
+    }
 }
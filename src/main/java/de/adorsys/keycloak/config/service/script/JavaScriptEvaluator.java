@@ -21,30 +21,68 @@
 package de.adorsys.keycloak.config.service.script;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class JavaScriptEvaluator implements ScriptEvaluator {
+/**
+ * Evaluates JavaScript expressions on a shared polyglot engine. Parsed sources are cached by the engine, every
+ * expression is evaluated in a fresh context, so expressions can't affect each other.
+ */
+public class JavaScriptEvaluator implements ScriptEvaluator, AutoCloseable {
+    private static final String LANGUAGE = "js";
+    private static final int MAX_CACHED_SOURCES = 1024;
+
+    private final Engine engine = Engine.create(LANGUAGE);
+
+    private final Map<String, Source> sources = new ConcurrentHashMap<>();
 
     @Override
     public Object evaluate(String expression, Map<String, Object> contextBindings) {
-        try (Context context = Context.newBuilder("js")
+        try (Context context = Context.newBuilder(LANGUAGE)
+                .engine(engine)
                 .allowHostAccess(HostAccess.ALL)
                 .allowHostClassLookup(s -> false)
                 .build()) {
 
-            Value bindings = context.getBindings("js");
+            Value bindings = context.getBindings(LANGUAGE);
             for (Map.Entry<String, Object> entry : contextBindings.entrySet()) {
                 bindings.putMember(entry.getKey(), entry.getValue());
             }
 
-            Value result = context.eval("js", expression);
+            Value result = context.eval(getSource(expression));
+
+            // copy the result, polyglot values must not be used after the context is closed
             return convertToValue(result);
         }
     }
 
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    private Source getSource(String expression) {
+        Source source = sources.get(expression);
+        if (source != null) {
+            return source;
+        }
+
+        source = Source.create(LANGUAGE, expression);
+        if (sources.size() < MAX_CACHED_SOURCES) {
+            sources.putIfAbsent(expression, source);
+        }
+
+        return source;
+    }
+
     private Object convertToValue(Value value) {
         if (value.isNull()) {
             return null;
@@ -60,10 +98,20 @@ public class JavaScriptEvaluator implements ScriptEvaluator {
             }
         } else if (value.isString()) {
             return value.asString();
+        } else if (value.isHostObject()) {
+            return value.asHostObject();
         } else if (value.hasArrayElements()) {
-            return value.as(Object.class);
-        } else if (value.hasMembers()) {
-            return value.as(Object.class);
+            List<Object> list = new ArrayList<>();
+            for (long i = 0; i < value.getArraySize(); i++) {
+                list.add(convertToValue(value.getArrayElement(i)));
+            }
+            return list;
+        } else if (value.hasMembers() && !value.canExecute()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (String key : value.getMemberKeys()) {
+                map.put(key, convertToValue(value.getMember(key)));
+            }
+            return map;
         }
         return value.toString();
     }
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily iterates over the pages of a paged Keycloak endpoint. A page is only fetched when requested, the iteration
+ * ends with the first page which is smaller than the page size.
+ */
+public class PageIterator<T> implements Iterator<List<T>> {
+    private final int pageSize;
+    private final PageFetcher<T> pageFetcher;
+
+    private int first = 0;
+    private boolean lastPageFetched = false;
+
+    public PageIterator(int pageSize, PageFetcher<T> pageFetcher) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be greater than 0");
+        }
+
+        this.pageSize = pageSize;
+        this.pageFetcher = pageFetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !lastPageFetched;
+    }
+
+    @Override
+    public List<T> next() {
+        if (lastPageFetched) {
+            throw new NoSuchElementException();
+        }
+
+        List<T> page = pageFetcher.fetch(first, pageSize);
+        if (page == null) {
+            page = List.of();
+        }
+
+        first += pageSize;
+        lastPageFetched = page.size() < pageSize;
+
+        return page;
+    }
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(int first, int max);
+    }
+}
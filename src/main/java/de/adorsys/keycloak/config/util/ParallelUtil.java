@@ -21,7 +21,10 @@
 package de.adorsys.keycloak.config.util;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 // Override the default implementation of the forEach method in the ParallelUtil class
 // Found that the class loader in threads is different from the application class loader,
@@ -35,4 +38,28 @@ public class ParallelUtil {
                     consumer.accept(x);
                 });
     }
+
+    public static <T> void forEach(List<T> list, Consumer<T> consumer, boolean parallel) {
+        if (parallel) {
+            forEach(list, consumer);
+        } else {
+            list.forEach(consumer);
+        }
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        return CompletableFuture.supplyAsync(() -> {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            return supplier.get();
+        });
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        return CompletableFuture.supplyAsync(() -> {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            return supplier.get();
+        }, executor);
+    }
 }
@@ -23,79 +23,52 @@ package de.adorsys.keycloak.config.util;
 import org.keycloak.representations.idm.ProtocolMapperRepresentation;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class ProtocolMapperUtil {
     private ProtocolMapperUtil() {
     }
 
-    public static List<ProtocolMapperRepresentation> estimateProtocolMappersToRemove(
+    /**
+     * Computes the minimal set of changes to turn the existing protocol mappers into the imported ones.
+     * Mappers are keyed by name and protocol mapper type; a mapper whose type changed is recreated,
+     * because Keycloak does not allow to change the type of an existing mapper. Mappers that match
+     * their existing counterpart are not part of the result.
+     */
+    public static ProtocolMapperDiff diffProtocolMappers(
             List<ProtocolMapperRepresentation> protocolMappers,
             List<ProtocolMapperRepresentation> existingProtocolMappers
     ) {
-        if (existingProtocolMappers == null || existingProtocolMappers.isEmpty()) {
-            return List.of(); // Return an immutable empty list
-        }
-
-        Set<String> protocolMapperNames = Optional.ofNullable(protocolMappers)
-                .stream()
-                .flatMap(List::stream)
-                .map(ProtocolMapperRepresentation::getName)
-                .collect(Collectors.toSet());
-
-        return existingProtocolMappers.stream()
-                .filter(existingMapper -> !protocolMapperNames.contains(existingMapper.getName()))
-                .collect(Collectors.toCollection(ArrayList::new));
-    }
-
-    public static List<ProtocolMapperRepresentation> estimateProtocolMappersToAdd(
-            List<ProtocolMapperRepresentation> protocolMappers,
-            List<ProtocolMapperRepresentation> existingProtocolMappers
-    ) {
-        List<ProtocolMapperRepresentation> protocolMappersToAdd = new ArrayList<>();
-
-        if (existingProtocolMappers == null) {
-            return protocolMappers;
-        }
-
-        for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
-            boolean shouldAdd = existingProtocolMappers.stream().noneMatch(
-                    m -> Objects.equals(m.getName(), protocolMapper.getName())
-            );
-
-            if (shouldAdd) {
-                protocolMappersToAdd.add(protocolMapper);
+        Map<String, ProtocolMapperRepresentation> existingProtocolMappersByName = new HashMap<>();
+        if (existingProtocolMappers != null) {
+            for (ProtocolMapperRepresentation existingProtocolMapper : existingProtocolMappers) {
+                existingProtocolMappersByName.put(existingProtocolMapper.getName(), existingProtocolMapper);
             }
         }
 
-        return protocolMappersToAdd;
-    }
+        ProtocolMapperDiff diff = new ProtocolMapperDiff();
 
-    public static List<ProtocolMapperRepresentation> estimateProtocolMappersToUpdate(
-            List<ProtocolMapperRepresentation> protocolMappers,
-            List<ProtocolMapperRepresentation> existingProtocolMappers
-    ) {
-        List<ProtocolMapperRepresentation> protocolMappersToUpdate = new ArrayList<>();
+        for (ProtocolMapperRepresentation protocolMapper : Optional.ofNullable(protocolMappers).orElse(List.of())) {
+            ProtocolMapperRepresentation existingProtocolMapper = existingProtocolMappersByName.remove(protocolMapper.getName());
 
-        if (existingProtocolMappers == null) {
-            return protocolMappersToUpdate;
-        }
-
-        for (ProtocolMapperRepresentation protocolMapper : protocolMappers) {
-            Optional<ProtocolMapperRepresentation> existingProtocolMapper = existingProtocolMappers
-                    .stream()
-                    .filter(m -> Objects.equals(m.getName(), protocolMapper.getName()))
-                    .findFirst();
-
-            if (existingProtocolMapper.isPresent()) {
+            if (existingProtocolMapper == null) {
+                diff.toAdd.add(protocolMapper);
+            } else if (protocolMapper.getProtocolMapper() != null
+                    && !Objects.equals(protocolMapper.getProtocolMapper(), existingProtocolMapper.getProtocolMapper())) {
+                diff.toRemove.add(existingProtocolMapper);
+                diff.toAdd.add(protocolMapper);
+            } else {
                 ProtocolMapperRepresentation patchedProtocolMapper = CloneUtil.patch(
-                        existingProtocolMapper.get(), protocolMapper, "id"
+                        existingProtocolMapper, protocolMapper, "id"
                 );
-                protocolMappersToUpdate.add(patchedProtocolMapper);
+                if (!CloneUtil.deepEquals(existingProtocolMapper, patchedProtocolMapper)) {
+                    diff.toUpdate.add(patchedProtocolMapper);
+                }
             }
         }
 
-        return protocolMappersToUpdate;
+        diff.toRemove.addAll(existingProtocolMappersByName.values());
+
+        return diff;
     }
 
     public static boolean areProtocolMappersEqual(
@@ -122,4 +95,26 @@ public class ProtocolMapperUtil {
 
         return true;
     }
+
+    public static class ProtocolMapperDiff {
+        private final List<ProtocolMapperRepresentation> toAdd = new ArrayList<>();
+        private final List<ProtocolMapperRepresentation> toRemove = new ArrayList<>();
+        private final List<ProtocolMapperRepresentation> toUpdate = new ArrayList<>();
+
+        public List<ProtocolMapperRepresentation> getToAdd() {
+            return toAdd;
+        }
+
+        public List<ProtocolMapperRepresentation> getToRemove() {
+            return toRemove;
+        }
+
+        public List<ProtocolMapperRepresentation> getToUpdate() {
+            return toUpdate;
+        }
+
+        public boolean isEmpty() {
+            return toAdd.isEmpty() && toRemove.isEmpty() && toUpdate.isEmpty();
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import org.keycloak.representations.idm.ScopeMappingRepresentation;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ScopeMappingUtil {
+    private ScopeMappingUtil() {
+    }
+
+    /**
+     * Merges the roles of all scope mappings which belong to the same client or client scope.
+     * The result is keyed by {@link #getScopeKey(ScopeMappingRepresentation)}.
+     */
+    public static Map<String, ScopeMappingRepresentation> groupByScope(@Nullable Collection<ScopeMappingRepresentation> scopeMappings) {
+        Map<String, ScopeMappingRepresentation> scopeMappingsByScope = new LinkedHashMap<>();
+        if (scopeMappings == null) return scopeMappingsByScope;
+
+        for (ScopeMappingRepresentation scopeMapping : scopeMappings) {
+            if (scopeMapping.getClient() == null && scopeMapping.getClientScope() == null) continue;
+
+            ScopeMappingRepresentation mergedScopeMapping = scopeMappingsByScope.computeIfAbsent(getScopeKey(scopeMapping), key -> {
+                ScopeMappingRepresentation representation = new ScopeMappingRepresentation();
+                representation.setClient(scopeMapping.getClient());
+                representation.setClientScope(scopeMapping.getClientScope());
+                representation.setRoles(new LinkedHashSet<>());
+                return representation;
+            });
+
+            if (scopeMapping.getRoles() != null) {
+                mergedScopeMapping.getRoles().addAll(scopeMapping.getRoles());
+            }
+        }
+
+        return scopeMappingsByScope;
+    }
+
+    public static String getScopeKey(ScopeMappingRepresentation scopeMapping) {
+        return scopeMapping.getClient() != null
+                ? "client:" + scopeMapping.getClient()
+                : "client-scope:" + scopeMapping.getClientScope();
+    }
+
+    public static List<String> getRolesNotIn(Set<String> roles, @Nullable ScopeMappingRepresentation scopeMapping) {
+        Set<String> otherRoles = scopeMapping != null ? scopeMapping.getRoles() : Set.of();
+
+        return roles.stream()
+                .filter(role -> !otherRoles.contains(role))
+                .toList();
+    }
+}
@@ -21,6 +21,7 @@
 package de.adorsys.keycloak.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import de.adorsys.keycloak.config.properties.NormalizationConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakExportProvider;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 
 import static de.adorsys.keycloak.config.properties.NormalizationConfigProperties.OutputFormat.JSON;
+import static de.adorsys.keycloak.config.properties.NormalizationConfigProperties.OutputFormat.SMILE;
 import static de.adorsys.keycloak.config.properties.NormalizationConfigProperties.OutputFormat.YAML;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -89,6 +91,48 @@ class KeycloakConfigNormalizationRunnerTest {
         assertThat(runner.getExitCode(), is(0));
     }
 
+    @Test
+    void run_shouldWriteSmile() throws Exception {
+        Path outputDir = Files.createTempDirectory("kcc-normalize").resolve("out");
+
+        NormalizationConfigProperties.NormalizationFilesProperties filesProperties =
+                new NormalizationConfigProperties.NormalizationFilesProperties(
+                        List.of("classpath:dummy/*.yaml"),
+                        List.of(),
+                        false,
+                        outputDir.toString(),
+                        104857600
+                );
+        NormalizationConfigProperties props = new NormalizationConfigProperties(filesProperties, SMILE, null);
+
+        RealmNormalizationService normalizationService = mock(RealmNormalizationService.class);
+        KeycloakExportProvider exportProvider = mock(KeycloakExportProvider.class);
+
+        RealmRepresentation exported = new RealmRepresentation();
+        exported.setRealm("source");
+
+        RealmRepresentation normalized = new RealmRepresentation();
+        normalized.setRealm("normalized");
+
+        when(normalizationService.normalizeRealm(exported)).thenReturn(normalized);
+        when(exportProvider.readFromLocations()).thenReturn(Map.of("loc", Map.of("file", List.of(exported))));
+
+        KeycloakConfigNormalizationRunner runner = new KeycloakConfigNormalizationRunner(
+                normalizationService,
+                exportProvider,
+                props,
+                new YAMLMapper(),
+                new ObjectMapper()
+        );
+
+        runner.run();
+
+        Path outputFile = outputDir.resolve("normalized.smile");
+        RealmRepresentation written = new ObjectMapper(new SmileFactory()).readValue(outputFile.toFile(), RealmRepresentation.class);
+        assertThat(written.getRealm(), is("normalized"));
+        assertThat(runner.getExitCode(), is(0));
+    }
+
     @Test
     void run_shouldSetExitCodeWhenOutputLocationIsNotDirectory() throws Exception {
         Path tempRoot = Files.createTempDirectory("kcc-normalize");
@@ -0,0 +1,96 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.keycloak.config.exception.InvalidImportException;
+import de.adorsys.keycloak.config.util.CloneUtil;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpooledListTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final List<Map<String, Object>> rawUsers = IntStream.range(0, 5)
+            .mapToObj(i -> Map.<String, Object>of("username", "user" + i, "enabled", true))
+            .toList();
+
+    @Test
+    void shouldReadItemsChunkByChunk() {
+        SpooledList<UserRepresentation> users = SpooledList.spool(objectMapper, UserRepresentation.class, "users", rawUsers);
+
+        List<List<String>> chunks = new ArrayList<>();
+        users.chunks(2).forEachRemaining(chunk -> chunks.add(chunk.stream().map(UserRepresentation::getUsername).toList()));
+
+        assertThat(users.size(), is(5));
+        assertThat(chunks, contains(List.of("user0", "user1"), List.of("user2", "user3"), List.of("user4")));
+    }
+
+    @Test
+    void shouldReportInvalidItemsWhenSpooled() {
+        List<Map<String, Object>> items = List.of(Map.of("username", "user0", "unknown-property", "value"));
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> SpooledList.spool(objectMapper, UserRepresentation.class, "users of file 'realm.yaml'", items));
+
+        assertThat(thrown.getMessage(), containsString("Unrecognized field \"unknown-property\""));
+    }
+
+    @Test
+    void shouldNotReadItemsAfterDelete() {
+        SpooledList<UserRepresentation> users = SpooledList.spool(objectMapper, UserRepresentation.class,
+                "users of file 'realm.yaml'", rawUsers);
+
+        users.delete();
+
+        InvalidImportException thrown = assertThrows(InvalidImportException.class, () -> users.chunks(10).next());
+        assertThat(thrown.getMessage(), containsString("Unable to parse users of file 'realm.yaml'"));
+    }
+
+    @Test
+    void shouldNotReadSpooledUsersWhenRealmIsCloned() {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("realm");
+        realmImport.setSpooledUsers(SpooledList.spool(objectMapper, UserRepresentation.class, "users", rawUsers));
+
+        RealmRepresentation realm = CloneUtil.deepClone(realmImport, RealmRepresentation.class);
+
+        assertThat(realm.getUsers(), is(nullValue()));
+        assertThat(realmImport.getUsers().stream().map(UserRepresentation::getUsername).toList(),
+                contains("user0", "user1", "user2", "user3", "user4"));
+    }
+}
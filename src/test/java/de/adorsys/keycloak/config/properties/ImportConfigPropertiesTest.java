@@ -47,13 +47,17 @@ import static org.hamcrest.Matchers.is;
         "import.files.locations=other",
         "import.files.include-hidden-files=true",
         "import.files.excludes=exclude1,exclude2",
+        "import.files.read-threads=2",
+        "import.files.parse-cache-directory=/tmp/keycloak-config-cli",
         "import.var-substitution.enabled=true",
         "import.var-substitution.nested=false",
         "import.var-substitution.undefined-is-error=false",
         "import.var-substitution.prefix=${",
         "import.var-substitution.suffix=}",
+        "import.var-substitution.script-memoization-enabled=true",
         "import.cache.enabled=false",
         "import.cache.key=custom",
+        "import.cache.pre-parse-check=true",
         "import.remote-state.enabled=false",
         "import.remote-state.encryption-key=password",
         "import.remote-state.encryption-salt=0123456789ABCDEFabcdef",
@@ -76,8 +80,11 @@ import static org.hamcrest.Matchers.is;
         "import.behaviors.skip-attributes-for-federated-user=true",
         "import.behaviors.checksum-with-cache-key=true",
         "import.behaviors.checksum-changed=fail",
+        "import.behaviors.client-authorization-bulk-import=true",
         "import.users.merge-roles=true",
-        "import.users.merge-groups=true"
+        "import.users.merge-groups=true",
+        "import.users.chunk-size=50",
+        "import.organizations.page-size=25"
 })
 class ImportConfigPropertiesTest {
 
@@ -92,13 +99,17 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getFiles().getLocations(), contains("other"));
         assertThat(properties.getFiles().getExcludes(), contains("exclude1", "exclude2"));
         assertThat(properties.getFiles().isIncludeHiddenFiles(), is(true));
+        assertThat(properties.getFiles().getReadThreads(), is(2));
+        assertThat(properties.getFiles().getParseCacheDirectory(), is("/tmp/keycloak-config-cli"));
         assertThat(properties.getVarSubstitution().isEnabled(), is(true));
         assertThat(properties.getVarSubstitution().isNested(), is(false));
         assertThat(properties.getVarSubstitution().isUndefinedIsError(), is(false));
         assertThat(properties.getVarSubstitution().getPrefix(), is("${"));
         assertThat(properties.getVarSubstitution().getSuffix(), is("}"));
+        assertThat(properties.getVarSubstitution().isScriptMemoizationEnabled(), is(true));
         assertThat(properties.getCache().isEnabled(), is(false));
         assertThat(properties.getCache().getKey(), is("custom"));
+        assertThat(properties.getCache().isPreParseCheck(), is(true));
         assertThat(properties.getRemoteState().isEnabled(), is(false));
         assertThat(properties.getRemoteState().getEncryptionKey(), is("password"));
         assertThat(properties.getRemoteState().getEncryptionSalt(), is("0123456789ABCDEFabcdef"));
@@ -120,10 +131,13 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getBehaviors().isRemoveDefaultRoleFromUser(), is(true));
         assertThat(properties.getBehaviors().isSkipAttributesForFederatedUser(), is(true));
         assertThat(properties.getBehaviors().isChecksumWithCacheKey(), is(true));
+        assertThat(properties.getBehaviors().isClientAuthorizationBulkImport(), is(true));
         assertThat(properties.getBehaviors().getChecksumChanged(), is(ChecksumChangedOption.FAIL));
         assertThat(properties.getBehaviors().getUserUpdateIgnoredProperties(), contains("attributes"));
         assertThat(properties.getUsers().isMergeRoles(), is(true));
         assertThat(properties.getUsers().isMergeGroups(), is(true));
+        assertThat(properties.getUsers().getChunkSize(), is(50));
+        assertThat(properties.getOrganizations().getPageSize(), is(25));
     }
 
     @EnableConfigurationProperties(ImportConfigProperties.class)
@@ -0,0 +1,71 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ByteBufferReaderTest {
+
+    @Test
+    void shouldDecodeLikeInputStreamReader() throws IOException {
+        byte[] content = "﻿realm: my-realm\ndisplayName: \"Réalm 🚀\"\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(read(new ByteBufferReader(ByteBuffer.wrap(content)), 3), is(readStream(content)));
+    }
+
+    @Test
+    void shouldReplaceMalformedInputLikeInputStreamReader() throws IOException {
+        byte[] content = {'a', (byte) 0xc3, 'b', (byte) 0xf0, (byte) 0x9f};
+
+        assertThat(read(new ByteBufferReader(ByteBuffer.wrap(content)), 1), is(readStream(content)));
+    }
+
+    @Test
+    void shouldReadEmptyBuffer() throws IOException {
+        assertThat(new ByteBufferReader(ByteBuffer.allocate(0)).read(new char[10], 0, 10), is(-1));
+    }
+
+    private static String readStream(byte[] content) throws IOException {
+        return read(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8), 1024);
+    }
+
+    private static String read(Reader reader, int bufferSize) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[bufferSize];
+
+        int count;
+        while ((count = reader.read(buffer, 0, buffer.length)) >= 0) {
+            result.append(buffer, 0, count);
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,55 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ChecksumReaderTest {
+
+    @Test
+    void shouldMatchChecksumOfWholeContent() throws IOException {
+        String content = "realm: my-realm\ndisplayName: \"Réalm 🚀\"\n".repeat(500);
+        String salt = "\n#userUpdateIgnoredProperties=email";
+
+        ChecksumReader reader = new ChecksumReader(new StringReader(content));
+        // split the surrogate pair of the emoji between two reads
+        char[] buffer = new char[content.indexOf('\ud83d') + 1];
+        assertThat(reader.read(buffer, 0, buffer.length), is(buffer.length));
+
+        assertThat(reader.checksum(salt), is(DigestUtils.sha256Hex(content + salt)));
+    }
+
+    @Test
+    void shouldMatchChecksumOfMalformedContent() throws IOException {
+        String content = "broken \ud83d surrogate \ude80";
+
+        ChecksumReader reader = new ChecksumReader(new StringReader(content));
+
+        assertThat(reader.checksum(""), is(DigestUtils.sha256Hex(content)));
+    }
+}
@@ -20,10 +20,14 @@
 
 package de.adorsys.keycloak.config.provider;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.ImportResource;
 import de.adorsys.keycloak.config.properties.NormalizationConfigProperties;
 import de.adorsys.keycloak.config.properties.NormalizationConfigProperties.NormalizationFilesProperties;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -249,6 +253,50 @@ class KeycloakExportProviderTest {
         assertThat(result).isFalse();
     }
 
+    @Test
+    void testFilterEmptyResources_EmptyBinary() {
+        // Given
+        ImportResource resource = new ImportResource("test.smile", new byte[0]);
+
+        // When
+        boolean result = exportProvider.filterEmptyResources(resource);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void testReadRealms_SmileContent() throws IOException {
+        // Given
+        byte[] content = new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of("id", "test-realm", "realm", "test"));
+        ImportResource resource = new ImportResource("file:/test/realm.bin", content);
+
+        // When
+        Pair<String, List<RealmRepresentation>> result = exportProvider.readRealms(resource);
+
+        // Then
+        assertThat(result.getValue()).hasSize(1);
+        assertThat(result.getValue().get(0).getRealm()).isEqualTo("test");
+    }
+
+    @Test
+    void testReadResource_CborContent() throws IOException, URISyntaxException {
+        // Given
+        byte[] content = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of("realm", "test"));
+        Resource resource = mock(Resource.class);
+        when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(resource.getURI()).thenReturn(new URI("file:/test/realm.cbor"));
+        when(resource.getURL()).thenReturn(new URI("file:/test/realm.cbor").toURL());
+        when(resource.getFilename()).thenReturn("realm.cbor");
+
+        // When
+        ImportResource result = exportProvider.readResource(resource);
+
+        // Then
+        assertThat(result.getBinaryValue()).isEqualTo(content);
+        assertThat(exportProvider.readRealms(result).getValue().get(0).getRealm()).isEqualTo("test");
+    }
+
     @Test
     void testReadContent_SingleDocument() {
         // Given
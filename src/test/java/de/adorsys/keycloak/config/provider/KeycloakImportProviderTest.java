@@ -0,0 +1,278 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.adorsys.keycloak.config.exception.InvalidImportException;
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeycloakImportProviderTest {
+
+    private static final String CONTENT = "realm: first\nenabled: true\nusers:\n  - username: user\n"
+            + "---\nrealm: second\nattributes:\n  realm: nested\n";
+
+    @TempDir
+    Path directory;
+
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class, Answers.RETURNS_DEEP_STUBS);
+    private final List<String> checkedRealms = new ArrayList<>();
+
+    private KeycloakImportProvider keycloakImportProvider;
+    private String location;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(importConfigProperties.getFiles().getCodePointLimit()).thenReturn(104857600);
+        when(importConfigProperties.getFiles().getExcludes()).thenReturn(List.of());
+        when(importConfigProperties.getFiles().getReadThreads()).thenReturn(1);
+        when(importConfigProperties.getUsers().getChunkSize()).thenReturn(1000);
+
+        keycloakImportProvider = new KeycloakImportProvider(new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(), importConfigProperties);
+
+        Files.writeString(directory.resolve("realm.yaml"), CONTENT);
+        location = "file:" + directory.resolve("realm.yaml");
+    }
+
+    @Test
+    void shouldSkipFileIfAllRealmsAreUnchanged() {
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(List.of(location), (source, realmName, checksum) -> {
+            checkedRealms.add(realmName);
+            return checksum.equals(DigestUtils.sha256Hex(CONTENT));
+        });
+
+        assertThat(checkedRealms, contains("first", "second"));
+        assertThat(keycloakImport.getRealmImports().get(location), is(anEmptyMap()));
+    }
+
+    @Test
+    void shouldParseFileIfOneRealmHasChanged() {
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(List.of(location),
+                (source, realmName, checksum) -> "first".equals(realmName));
+
+        Map<String, List<RealmImport>> realmImports = keycloakImport.getRealmImports().get(location);
+        assertThat(realmImports.values().iterator().next().stream().map(RealmImport::getRealm).toList(),
+                contains("first", "second"));
+    }
+
+    @Test
+    void shouldParseFileWithoutRealmName() throws IOException {
+        Files.writeString(directory.resolve("realm.yaml"), "enabled: true\n");
+
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(List.of(location), (source, realmName, checksum) -> {
+            checkedRealms.add(realmName);
+            return true;
+        });
+
+        assertThat(checkedRealms, is(empty()));
+        assertThat(keycloakImport.getRealmImports().get(location).values().iterator().next().size(), is(1));
+    }
+
+    @Test
+    void shouldReadFileFromParseCache() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        when(importConfigProperties.getFiles().getParseCacheDirectory()).thenReturn(cacheDirectory.toString());
+        keycloakImportProvider = new KeycloakImportProvider(new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(), importConfigProperties);
+
+        assertThat(readRealmNames(), contains("first", "second"));
+
+        Path entry = cacheDirectory.resolve(DigestUtils.sha256Hex(location) + "-" + DigestUtils.sha256Hex(CONTENT) + ".smile");
+        assertThat(Files.isRegularFile(entry), is(true));
+
+        // replace the entry to prove that the file is not parsed again
+        new ObjectMapper(new SmileFactory()).writeValue(entry.toFile(), Map.of("realm", "cached"));
+
+        List<RealmImport> realmImports = readRealmImports();
+        assertThat(realmImports.stream().map(RealmImport::getRealm).toList(), contains("cached"));
+        assertThat(realmImports.get(0).getChecksum(), is(DigestUtils.sha256Hex(CONTENT)));
+        assertThat(realmImports.get(0).getSource(), is(location));
+    }
+
+    @Test
+    void shouldParseFileAgainIfParseCacheEntryIsBroken() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        when(importConfigProperties.getFiles().getParseCacheDirectory()).thenReturn(cacheDirectory.toString());
+        keycloakImportProvider = new KeycloakImportProvider(new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(), importConfigProperties);
+
+        Path entry = cacheDirectory.resolve(DigestUtils.sha256Hex(location) + "-" + DigestUtils.sha256Hex(CONTENT) + ".smile");
+        Files.createDirectories(cacheDirectory);
+        Files.writeString(entry, "broken");
+
+        assertThat(readRealmNames(), contains("first", "second"));
+        assertThat(readRealmNames(), contains("first", "second"));
+        assertThat(Files.readString(entry, StandardCharsets.ISO_8859_1).startsWith(":)"), is(true));
+    }
+
+    @Test
+    void shouldReplaceStaleParseCacheEntry() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        when(importConfigProperties.getFiles().getParseCacheDirectory()).thenReturn(cacheDirectory.toString());
+        keycloakImportProvider = new KeycloakImportProvider(new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(), importConfigProperties);
+
+        assertThat(readRealmNames(), contains("first", "second"));
+
+        String changedContent = "realm: changed\n";
+        Files.writeString(directory.resolve("realm.yaml"), changedContent);
+        assertThat(readRealmNames(), contains("changed"));
+
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            assertThat(entries.map(entry -> entry.getFileName().toString()).toList(),
+                    contains(DigestUtils.sha256Hex(location) + "-" + DigestUtils.sha256Hex(changedContent) + ".smile"));
+        }
+    }
+
+    @Test
+    void shouldNotUseParseCacheWithVariableSubstitution() {
+        Path cacheDirectory = directory.resolve("cache");
+        when(importConfigProperties.getFiles().getParseCacheDirectory()).thenReturn(cacheDirectory.toString());
+        when(importConfigProperties.getVarSubstitution().isEnabled()).thenReturn(true);
+        when(importConfigProperties.getVarSubstitution().getPrefix()).thenReturn("$(");
+        when(importConfigProperties.getVarSubstitution().getSuffix()).thenReturn(")");
+        keycloakImportProvider = new KeycloakImportProvider(new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(), importConfigProperties);
+
+        assertThat(readRealmNames(), contains("first", "second"));
+        assertThat(Files.exists(cacheDirectory), is(false));
+    }
+
+    @Test
+    void shouldReadSmileFileByExtension() throws IOException {
+        Path file = directory.resolve("realm.smile");
+        writeDocuments(new ObjectMapper(new SmileFactory()), file);
+        location = "file:" + file;
+
+        List<RealmImport> realmImports = readRealmImports();
+        assertThat(realmImports.stream().map(RealmImport::getRealm).toList(), contains("first", "second"));
+        assertThat(realmImports.get(0).getUsers().get(0).getUsername(), is("user"));
+        assertThat(realmImports.get(0).getChecksum(), is(DigestUtils.sha256Hex(Files.readAllBytes(file))));
+    }
+
+    @Test
+    void shouldReadCborFileByHeader() throws IOException {
+        Path file = directory.resolve("realm.data");
+        writeDocuments(new ObjectMapper(new CBORFactory()), file);
+        location = "file:" + file;
+
+        assertThat(readRealmNames(), contains("first", "second"));
+    }
+
+    @Test
+    void shouldSkipUnchangedBinaryFile() throws IOException {
+        Path file = directory.resolve("realm.cbor");
+        writeDocuments(new ObjectMapper(new CBORFactory()), file);
+        location = "file:" + file;
+
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(List.of(location), (source, realmName, checksum) -> {
+            checkedRealms.add(realmName);
+            return true;
+        });
+
+        assertThat(checkedRealms, contains("first", "second"));
+        assertThat(keycloakImport.getRealmImports().get(location), is(anEmptyMap()));
+    }
+
+    @Test
+    void shouldLogContentAtTraceLevel() {
+        Logger logger = (Logger) LoggerFactory.getLogger(KeycloakImportProvider.class);
+        Level level = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.TRACE);
+
+        try {
+            assertThat(readRealmNames(), contains("first", "second"));
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(level);
+        }
+
+        assertThat(appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList(), hasItem(CONTENT));
+    }
+
+    @Test
+    void shouldReportInvalidSpooledUsersWhileReading() throws IOException {
+        when(importConfigProperties.getUsers().getChunkSize()).thenReturn(1);
+        Files.writeString(directory.resolve("realm.yaml"),
+                "realm: first\nusers:\n  - username: user0\n  - username: user1\n    unknown-property: value\n");
+
+        InvalidImportException thrown = assertThrows(InvalidImportException.class, this::readRealmImports);
+
+        assertThat(thrown.getMessage(), containsString("Unable to parse file '" + location + "'"));
+        assertThat(thrown.getMessage(), containsString("Unrecognized field \"unknown-property\""));
+    }
+
+    private void writeDocuments(ObjectMapper objectMapper, Path file) throws IOException {
+        try (SequenceWriter documents = objectMapper.writer().writeValues(file.toFile())) {
+            documents.write(Map.of("realm", "first", "users", List.of(Map.of("username", "user"))));
+            documents.write(Map.of("realm", "second"));
+        }
+    }
+
+    private List<String> readRealmNames() {
+        return readRealmImports().stream().map(RealmImport::getRealm).toList();
+    }
+
+    private List<RealmImport> readRealmImports() {
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(location);
+        return keycloakImport.getRealmImports().get(location).values().iterator().next();
+    }
+}
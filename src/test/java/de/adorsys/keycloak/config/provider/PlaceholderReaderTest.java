@@ -0,0 +1,145 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlaceholderReaderTest {
+
+    private final StringSubstitutor substitutor = new StringSubstitutor(Map.of(
+            "realm", "my-realm",
+            "enabled", "true",
+            "headers", "{\"xFrameOptions\": \"DENY\"}",
+            "inner", "realm"
+    ), "$(", ")").setEnableSubstitutionInVariables(true);
+
+    @Test
+    void shouldReplaceLikeStringSubstitutor() throws IOException {
+        String content = "{\n  \"realm\": \"$(realm)\",\n  \"enabled\": $(enabled),\n"
+                + "  \"browserSecurityHeaders\": $(headers),\n  \"displayName\": \"$($(inner))-$$(realm)\",\n"
+                + "  \"unknown\": \"$(missing:-default)\",\n  \"unterminated\": \"$(realm\"\n}";
+
+        assertThat(substitute(content, true), is(substitutor.replace(content)));
+    }
+
+    @Test
+    void shouldReplacePlaceholdersAcrossChunks() throws IOException {
+        String content = "$(realm)".repeat(3) + "x".repeat(20000) + "$(realm)$";
+
+        assertThat(readOneByOne(reader(content, true)), is(substitutor.replace(content)));
+        assertThat(substitute(content, true), is(substitutor.replace(content)));
+    }
+
+    @Test
+    void shouldReplaceFirstSuffixIfNotNested() throws IOException {
+        String content = "$${javascript: [1, 2].map(x => { return x })} and $${javascript:'a'}";
+        UnaryOperator<String> replacer = placeholder -> "<" + placeholder + ">";
+
+        Reader reader = new PlaceholderReader(new StringReader(content), "$${javascript:", "}",
+                PlaceholderReader.NO_ESCAPE, false, replacer);
+
+        String expected = Pattern.compile("\\$\\$\\{javascript:(.*?)\\}", Pattern.DOTALL).matcher(content)
+                .replaceAll(match -> Matcher.quoteReplacement(replacer.apply(match.group())));
+
+        assertThat(readOneByOne(reader), is(expected));
+    }
+
+    @Test
+    void shouldReplaceVariablesAndScriptsInOnePass() throws IOException {
+        String content = "realm: $(realm)\nenabled: $${javascript: '$(enabled)' === 'true'}\n"
+                + "displayName: $$(realm) $${javascript:'x'}\n" + "padding\n".repeat(2000) + "last: $(realm)";
+        Pattern scriptPattern = Pattern.compile("\\$\\$\\{javascript:(.*?)\\}", Pattern.DOTALL);
+        UnaryOperator<String> evaluate = placeholder -> "<" + placeholder.substring(14, placeholder.length() - 1) + ">";
+
+        PlaceholderReader.Placeholder scripts = new PlaceholderReader.Placeholder("$${javascript:", "}",
+                PlaceholderReader.NO_ESCAPE, false, placeholder -> evaluate.apply(substitutor.replace(placeholder)));
+        PlaceholderReader.Placeholder variables = new PlaceholderReader.Placeholder("$(", ")", '$', true,
+                placeholder -> PlaceholderReader.replace(substitutor.replace(placeholder), List.of(scripts)));
+
+        String expected = scriptPattern.matcher(substitutor.replace(content))
+                .replaceAll(match -> Matcher.quoteReplacement(evaluate.apply(match.group())));
+
+        assertThat(readOneByOne(new PlaceholderReader(new StringReader(content), List.of(variables, scripts))), is(expected));
+    }
+
+    @Test
+    void shouldPassContentWithoutPlaceholdersUnchanged() throws IOException {
+        String content = "realm: my-realm\nenabled: true\ndisplayName: costs $ 5 (net)\n";
+
+        assertThat(substitute(content, false), is(content));
+    }
+
+    @Test
+    void shouldCarryReplacementFailure() {
+        IllegalArgumentException failure = new IllegalArgumentException("Cannot resolve variable");
+        Reader reader = new PlaceholderReader(new StringReader("a $(b) c"), "$(", ")", '$', false, placeholder -> {
+            throw failure;
+        });
+
+        PlaceholderReader.ReplacementException thrown = assertThrows(PlaceholderReader.ReplacementException.class,
+                () -> readOneByOne(reader));
+
+        assertThat(thrown.getCause(), sameInstance(failure));
+    }
+
+    private Reader reader(String content, boolean nested) {
+        return new PlaceholderReader(new StringReader(content), "$(", ")", '$', nested, substitutor::replace);
+    }
+
+    private String substitute(String content, boolean nested) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[1024];
+        Reader reader = reader(content, nested);
+
+        int count;
+        while ((count = reader.read(buffer, 0, buffer.length)) >= 0) {
+            result.append(buffer, 0, count);
+        }
+
+        return result.toString();
+    }
+
+    private static String readOneByOne(Reader reader) throws IOException {
+        StringBuilder result = new StringBuilder();
+
+        int character;
+        while ((character = reader.read()) >= 0) {
+            result.append((char) character);
+        }
+
+        return result.toString();
+    }
+}
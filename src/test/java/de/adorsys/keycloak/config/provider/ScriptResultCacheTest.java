@@ -0,0 +1,52 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ScriptResultCacheTest {
+    private final AtomicInteger evaluations = new AtomicInteger();
+    private final UnaryOperator<String> evaluator = expression -> expression + "#" + evaluations.incrementAndGet();
+
+    @Test
+    void shouldEvaluateRepeatedExpressionOnce() {
+        ScriptResultCache cache = new ScriptResultCache();
+
+        assertThat(cache.get("1 + 1", evaluator), is("1 + 1#1"));
+        assertThat(cache.get("1 + 1", evaluator), is("1 + 1#1"));
+        assertThat(cache.get("2 + 2", evaluator), is("2 + 2#2"));
+
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    void shouldEvaluateAgainInNewCache() {
+        assertThat(new ScriptResultCache().get("env.APP_ENV", evaluator), is("env.APP_ENV#1"));
+        assertThat(new ScriptResultCache().get("env.APP_ENV", evaluator), is("env.APP_ENV#2"));
+    }
+}
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.AuthenticationExecutionExportRepresentation;
+import org.keycloak.representations.idm.AuthenticationFlowRepresentation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationFlowIndexTest {
+
+    private final AuthenticationFlowIndex flowIndex = new AuthenticationFlowIndex(List.of(
+            flow("browser", executionFlow("forms"), execution()),
+            flow("forms", executionFlow("otp"), execution()),
+            flow("otp", execution()),
+            flow("other", executionFlow("unrelated")),
+            flow("unrelated")
+    ));
+
+    @Test
+    void shouldFindFlowByAlias() {
+        assertThat(flowIndex.searchByAlias("forms")).isPresent();
+        assertThat(flowIndex.searchByAlias("missing")).isEmpty();
+    }
+
+    @Test
+    void shouldCollectNestedSubFlowAliases() {
+        assertThat(flowIndex.getSubFlowAliases("browser")).containsExactlyInAnyOrder("forms", "otp");
+        assertThat(flowIndex.getSubFlowAliases("otp")).isEmpty();
+        assertThat(flowIndex.getSubFlowAliases("missing")).isEmpty();
+    }
+
+    private static AuthenticationFlowRepresentation flow(String alias, AuthenticationExecutionExportRepresentation... executions) {
+        AuthenticationFlowRepresentation flow = new AuthenticationFlowRepresentation();
+        flow.setAlias(alias);
+        flow.setAuthenticationExecutions(Arrays.asList(executions));
+        return flow;
+    }
+
+    private static AuthenticationExecutionExportRepresentation executionFlow(String flowAlias) {
+        AuthenticationExecutionExportRepresentation execution = new AuthenticationExecutionExportRepresentation();
+        execution.setFlowAlias(flowAlias);
+        return execution;
+    }
+
+    private static AuthenticationExecutionExportRepresentation execution() {
+        AuthenticationExecutionExportRepresentation execution = new AuthenticationExecutionExportRepresentation();
+        execution.setAuthenticator("auth-cookie");
+        return execution;
+    }
+}
@@ -0,0 +1,101 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.AuthorizationResource;
+import org.keycloak.admin.client.resource.ClientResource;
+import org.keycloak.admin.client.resource.ClientsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ClientRepositoryTest {
+
+    private final RealmRepository realmRepository = mock(RealmRepository.class);
+    private final AuthorizationResource authorizationResource = mock(AuthorizationResource.class);
+    private final ClientRepository repository = new ClientRepository(realmRepository);
+
+    private static final String REALM_NAME = "test-realm";
+    private static final String CLIENT_ID = "client-id";
+
+    @BeforeEach
+    void setUp() {
+        RealmResource realmResource = mock(RealmResource.class);
+        ClientsResource clientsResource = mock(ClientsResource.class);
+        ClientResource clientResource = mock(ClientResource.class);
+
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId("test-client");
+
+        when(realmRepository.getResource(REALM_NAME)).thenReturn(realmResource);
+        when(realmResource.clients()).thenReturn(clientsResource);
+        when(clientsResource.get(CLIENT_ID)).thenReturn(clientResource);
+        when(clientResource.toRepresentation()).thenReturn(client);
+        when(clientResource.authorization()).thenReturn(authorizationResource);
+    }
+
+    @Test
+    void importAuthorizationSettingsShouldReportMissingApi() {
+        doThrow(webException(404, "")).when(authorizationResource).importSettings(any());
+
+        assertThatThrownBy(() -> repository.importAuthorizationSettings(REALM_NAME, CLIENT_ID, new ResourceServerRepresentation()))
+                .isInstanceOf(KeycloakRepositoryException.class)
+                .hasMessageContaining("Authorization API not supported");
+    }
+
+    @Test
+    void importAuthorizationSettingsShouldKeepServerMessageOnBadRequest() {
+        doThrow(webException(400, "{\"error\":\"Unknown policy type\"}")).when(authorizationResource).importSettings(any());
+
+        assertThatThrownBy(() -> repository.importAuthorizationSettings(REALM_NAME, CLIENT_ID, new ResourceServerRepresentation()))
+                .isInstanceOf(KeycloakRepositoryException.class)
+                .hasMessageNotContaining("Authorization API not supported")
+                .hasMessageContaining("test-client")
+                .hasMessageContaining("Unknown policy type");
+    }
+
+    @Test
+    void importAuthorizationSettingsShouldRethrowOnOtherErrors() {
+        WebApplicationException serverError = webException(500, "");
+        doThrow(serverError).when(authorizationResource).importSettings(any());
+
+        assertThatThrownBy(() -> repository.importAuthorizationSettings(REALM_NAME, CLIENT_ID, new ResourceServerRepresentation()))
+                .isSameAs(serverError);
+    }
+
+    private WebApplicationException webException(int status, String body) {
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.readEntity(String.class)).thenReturn(body);
+        WebApplicationException exception = mock(WebApplicationException.class);
+        when(exception.getResponse()).thenReturn(response);
+        return exception;
+    }
+}
@@ -0,0 +1,81 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoleIndexTest {
+    private static final String REALM_NAME = "test-realm";
+
+    private final List<String> loadedClients = new ArrayList<>();
+    private final RoleIndex roleIndex = new RoleIndex(
+            REALM_NAME,
+            List.of(role("a"), role("b")),
+            clientId -> {
+                loadedClients.add(clientId);
+                return List.of(role("x"), role("y"));
+            }
+    );
+
+    @Test
+    void shouldResolveRealmRolesInRequestedOrder() {
+        List<RoleRepresentation> roles = roleIndex.getRealmRoles(List.of("b", "a"));
+
+        assertThat(roles).extracting(RoleRepresentation::getName).containsExactly("b", "a");
+    }
+
+    @Test
+    void shouldFailOnMissingRealmRole() {
+        assertThatThrownBy(() -> roleIndex.getRealmRoles(List.of("a", "missing")))
+                .isInstanceOf(KeycloakRepositoryException.class)
+                .hasMessage("Cannot find realm role 'missing' within realm 'test-realm'");
+    }
+
+    @Test
+    void shouldLoadClientRolesOncePerClient() {
+        assertThat(roleIndex.getClientRoles("my-client", List.of("y"))).extracting(RoleRepresentation::getName).containsExactly("y");
+        assertThat(roleIndex.searchClientRole("my-client", "x")).isPresent();
+        assertThat(roleIndex.searchClientRole("my-client", "z")).isEmpty();
+
+        assertThat(loadedClients).containsExactly("my-client");
+    }
+
+    @Test
+    void shouldFailOnMissingClientRole() {
+        assertThatThrownBy(() -> roleIndex.getClientRoles("my-client", List.of("missing")))
+                .isInstanceOf(KeycloakRepositoryException.class)
+                .hasMessage("Cannot find client role 'missing' for client 'my-client' within realm 'test-realm'");
+    }
+
+    private static RoleRepresentation role(String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(name);
+        return role;
+    }
+}
@@ -50,6 +50,7 @@ import org.mockito.ArgumentCaptor;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -57,6 +58,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.times;
@@ -69,6 +71,9 @@ class ClientAuthorizationImportServiceTest {
 
     private ClientRepository clientRepository;
     private ImportConfigProperties importConfigProperties;
+    private ImportConfigProperties.ImportManagedProperties managedProperties;
+    private ImportConfigProperties.ImportBehaviorsProperties behaviorsProperties;
+    private KeycloakProvider keycloakProvider;
     private ClientAuthorizationImportService service;
 
     @BeforeEach
@@ -81,13 +86,16 @@ class ClientAuthorizationImportServiceTest {
         StateService stateService = mock(StateService.class);
 
         // Mock the nested managed properties chain
-        ImportConfigProperties.ImportManagedProperties managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+        behaviorsProperties = mock(ImportConfigProperties.ImportBehaviorsProperties.class);
+        when(importConfigProperties.getBehaviors()).thenReturn(behaviorsProperties);
+
+        managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
         when(importConfigProperties.getManaged()).thenReturn(managedProperties);
         when(managedProperties.getClientAuthorizationResources()).thenReturn(ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.NO_DELETE);
         when(managedProperties.getClientAuthorizationPolicies()).thenReturn(ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.NO_DELETE);
         when(managedProperties.getClientAuthorizationScopes()).thenReturn(ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.NO_DELETE);
 
-    KeycloakProvider keycloakProvider = mock(KeycloakProvider.class);
+    keycloakProvider = mock(KeycloakProvider.class);
 
     service = new ClientAuthorizationImportService(
         clientRepository,
@@ -351,45 +359,60 @@ class ClientAuthorizationImportServiceTest {
         }
 
         @Test
-        void shouldHandleFgapV2ErrorOnRefreshAuthorizationConfig() {
+        void shouldFetchAuthorizationConfigOnlyOncePerClient() {
             // Given: A resource to import
             ResourceRepresentation resource = new ResourceRepresentation();
             resource.setName("test-resource");
             authorizationSettings.setResources(List.of(resource));
 
-            // And: Repository throws 501 when refreshing authorization config
-            ServerErrorException exception = new ServerErrorException(createMockResponse(501));
-
-            when(clientRepository.getAuthorizationConfigById(anyString(), anyString()))
-                    .thenReturn(authorizationSettings)  // First call succeeds
-                    .thenThrow(exception);              // Second call (refresh) throws 501
+            when(clientRepository.createAuthorizationResource(anyString(), anyString(), any())).thenReturn("resource-id");
 
             // When: Import is executed
             service.doImport(realmImport);
 
-            // Then: Exception is caught and logged, uses existing authorization settings
-            verify(clientRepository, times(2)).getAuthorizationConfigById(eq("test-realm"), eq("client-id"));
+            // Then: Created objects are tracked locally instead of refreshing the authorization config
+            verify(clientRepository, times(1)).getAuthorizationConfigById(eq("test-realm"), eq("client-id"));
         }
 
         @Test
-        void shouldHandleFgapV2ErrorWith400Status() {
-            // Given: A resource to import
-            ResourceRepresentation resource = new ResourceRepresentation();
-            resource.setName("test-resource");
-            authorizationSettings.setResources(List.of(resource));
+        void shouldCreatePolicyRemovedByResourceCascade() {
+            when(managedProperties.getClientAuthorizationResources())
+                    .thenReturn(ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL);
+            when(importConfigProperties.getRemoteState()).thenReturn(mock(ImportConfigProperties.ImportRemoteStateProperties.class));
 
-            // And: Repository throws 400 (Bad Request) when refreshing authorization config
-            BadRequestException exception = new BadRequestException(createMockResponse(400));
+            // Given: An existing permission which only references a resource that is no longer imported
+            ResourceRepresentation oldResource = new ResourceRepresentation();
+            oldResource.setId("old-resource-id");
+            oldResource.setName("old-resource");
+
+            PolicyRepresentation existingPermission = new PolicyRepresentation();
+            existingPermission.setName("permission");
+            existingPermission.setConfig(new HashMap<>(Map.of("resources", "[\"old-resource\"]")));
+
+            ResourceServerRepresentation existingAuth = new ResourceServerRepresentation();
+            existingAuth.setResources(new ArrayList<>(List.of(oldResource)));
+            existingAuth.setScopes(new ArrayList<>());
+            existingAuth.setPolicies(new ArrayList<>(List.of(existingPermission)));
+            when(clientRepository.getAuthorizationConfigById(anyString(), anyString())).thenReturn(existingAuth);
+
+            // And: The same permission now references a new resource
+            ResourceRepresentation newResource = new ResourceRepresentation();
+            newResource.setName("new-resource");
+            authorizationSettings.setResources(List.of(newResource));
 
-            when(clientRepository.getAuthorizationConfigById(anyString(), anyString()))
-                    .thenReturn(authorizationSettings)
-                    .thenThrow(exception);
+            PolicyRepresentation permission = new PolicyRepresentation();
+            permission.setName("permission");
+            permission.setConfig(new HashMap<>(Map.of("resources", "[\"new-resource\"]")));
+            authorizationSettings.setPolicies(List.of(permission));
 
             // When: Import is executed
             service.doImport(realmImport);
 
-            // Then: Exception is caught and logged, uses existing authorization settings
-            verify(clientRepository, times(2)).getAuthorizationConfigById(eq("test-realm"), eq("client-id"));
+            // Then: Keycloak removed the permission together with its only resource, so it is created again
+            verify(clientRepository, times(1)).removeAuthorizationResource(eq("test-realm"), eq("client-id"), eq("old-resource"));
+            verify(clientRepository, times(1)).createAuthorizationPolicy(eq("test-realm"), eq("client-id"), any());
+            verify(clientRepository, never()).updateAuthorizationPolicy(anyString(), anyString(), any());
+            verify(clientRepository, times(1)).getAuthorizationConfigById(eq("test-realm"), eq("client-id"));
         }
 
         @Test
@@ -572,6 +595,126 @@ class ClientAuthorizationImportServiceTest {
      * to either full strings (V1) or IDs only (V2) based on FGAP version.
      */
     
+    @Nested
+    class BulkImport {
+
+        private RealmImport realmImport;
+        private ResourceServerRepresentation authorizationSettings;
+
+        @BeforeEach
+        void setUp() {
+            when(behaviorsProperties.isClientAuthorizationBulkImport()).thenReturn(true);
+
+            realmImport = new RealmImport();
+            realmImport.setRealm("test-realm");
+
+            ClientRepresentation client = new ClientRepresentation();
+            client.setId("client-id");
+            client.setClientId("test-client");
+
+            ScopeRepresentation scope = new ScopeRepresentation();
+            scope.setName("view");
+
+            authorizationSettings = new ResourceServerRepresentation();
+            authorizationSettings.setScopes(new ArrayList<>(List.of(scope)));
+            authorizationSettings.setResources(new ArrayList<>());
+            authorizationSettings.setPolicies(new ArrayList<>());
+
+            client.setAuthorizationSettings(authorizationSettings);
+            realmImport.setClients(List.of(client));
+
+            when(clientRepository.getByClientId(anyString(), anyString())).thenReturn(client);
+
+            ScopeRepresentation existingScope = new ScopeRepresentation();
+            existingScope.setId("view-id");
+            existingScope.setName("view");
+
+            ResourceServerRepresentation existingAuth = new ResourceServerRepresentation();
+            existingAuth.setScopes(new ArrayList<>(List.of(existingScope)));
+            existingAuth.setResources(new ArrayList<>());
+            existingAuth.setPolicies(new ArrayList<>());
+            when(clientRepository.getAuthorizationConfigById(anyString(), anyString())).thenReturn(existingAuth);
+        }
+
+        @Test
+        void shouldImportNewObjectsWithOneCall() {
+            ResourceRepresentation resource = new ResourceRepresentation();
+            resource.setName("test-resource");
+            authorizationSettings.setResources(List.of(resource));
+
+            PolicyRepresentation policy = new PolicyRepresentation();
+            policy.setName("test-policy");
+            policy.setConfig(new HashMap<>(Map.of("resources", "[\"test-resource\"]")));
+            authorizationSettings.setPolicies(List.of(policy));
+
+            service.doImport(realmImport);
+
+            ArgumentCaptor<ResourceServerRepresentation> captor = ArgumentCaptor.forClass(ResourceServerRepresentation.class);
+            verify(clientRepository, times(1)).importAuthorizationSettings(eq("test-realm"), eq("client-id"), captor.capture());
+            assertEquals(0, captor.getValue().getScopes().size(), "up-to-date scopes are left out");
+            assertEquals(List.of("test-resource"), captor.getValue().getResources().stream().map(ResourceRepresentation::getName).toList());
+            assertEquals(List.of("test-policy"), captor.getValue().getPolicies().stream().map(PolicyRepresentation::getName).toList());
+
+            verify(clientRepository, never()).addAuthorizationScope(anyString(), anyString(), any());
+            verify(clientRepository, never()).createAuthorizationResource(anyString(), anyString(), any());
+            verify(clientRepository, never()).createAuthorizationPolicy(anyString(), anyString(), any());
+            verify(clientRepository, never()).updateAuthorizationSettings(anyString(), anyString(), any());
+        }
+
+        @Test
+        void shouldSkipImportIfNothingChanged() {
+            service.doImport(realmImport);
+
+            verify(clientRepository, never()).importAuthorizationSettings(anyString(), anyString(), any());
+        }
+
+        @Test
+        void shouldHandleFgapV2ErrorOnImport() {
+            ResourceRepresentation resource = new ResourceRepresentation();
+            resource.setName("test-resource");
+            authorizationSettings.setResources(List.of(resource));
+
+            doThrow(new KeycloakRepositoryException("Authorization API not supported for client 'test-client' in realm 'test-realm' (FGAP V2 active)"))
+                    .when(clientRepository).importAuthorizationSettings(anyString(), anyString(), any());
+
+            assertDoesNotThrow(() -> service.doImport(realmImport));
+        }
+
+        @Test
+        void shouldFailImportIfBulkImportIsRejected() {
+            PolicyRepresentation policy = new PolicyRepresentation();
+            policy.setName("invalid-policy");
+            policy.setConfig(new HashMap<>());
+            authorizationSettings.setPolicies(List.of(policy));
+
+            doThrow(rejectedImport())
+                    .when(clientRepository).importAuthorizationSettings(anyString(), anyString(), any());
+
+            KeycloakRepositoryException thrown = assertThrows(KeycloakRepositoryException.class, () -> service.doImport(realmImport));
+            assertTrue(thrown.getMessage().contains("Unknown policy type"));
+        }
+
+        @Test
+        void shouldSkipRejectedBulkImportIfFgapV2IsActive() {
+            ResourceRepresentation resource = new ResourceRepresentation();
+            resource.setName("test-resource");
+            authorizationSettings.setResources(List.of(resource));
+
+            when(keycloakProvider.isFgapV2Active()).thenReturn(true);
+            doThrow(rejectedImport())
+                    .when(clientRepository).importAuthorizationSettings(anyString(), anyString(), any());
+
+            assertDoesNotThrow(() -> service.doImport(realmImport));
+        }
+
+        private KeycloakRepositoryException rejectedImport() {
+            return new KeycloakRepositoryException(
+                    "Authorization request rejected for client 'test-client' in realm 'test-realm': HTTP 400 Bad Request"
+                            + "{\"error\":\"Unknown policy type\"}",
+                    new BadRequestException(createMockResponse(400)));
+        }
+    }
+
     @Nested
     class ResourceReferenceSyntax {
 
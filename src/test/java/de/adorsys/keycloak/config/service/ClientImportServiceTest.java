@@ -31,9 +31,12 @@ import de.adorsys.keycloak.config.service.state.StateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.ProtocolMapperRepresentation;
 import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+import org.mockito.InOrder;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
@@ -41,6 +44,8 @@ import static de.adorsys.keycloak.config.properties.ImportConfigProperties.Impor
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ClientImportServiceTest {
@@ -171,4 +176,57 @@ class ClientImportServiceTest {
         verify(clientRepository, times(1)).remove("test-realm", existingOther);
         verify(clientRepository, never()).remove("test-realm", existingAdminPermissions);
     }
+
+    @Test
+    void shouldReconcileProtocolMappersFromExistingClient() {
+        ClientRepresentation existing = new ClientRepresentation();
+        existing.setId("client-id");
+        existing.setClientId("my-client");
+        existing.setDefaultClientScopes(List.of());
+        existing.setOptionalClientScopes(List.of());
+        existing.setProtocolMappers(List.of(
+                protocolMapper("unchanged", "unchanged-id", "v"),
+                protocolMapper("changed", "changed-id", "v"),
+                protocolMapper("obsolete", "obsolete-id", "v")
+        ));
+
+        ClientRepresentation imported = new ClientRepresentation();
+        imported.setClientId("my-client");
+        imported.setProtocolMappers(List.of(
+                protocolMapper("unchanged", null, "v"),
+                protocolMapper("changed", null, "other"),
+                protocolMapper("added", null, "v")
+        ));
+
+        when(clientRepository.searchByClientId("test-realm", "my-client")).thenReturn(Optional.of(existing));
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("test-realm");
+        realmImport.setClients(List.of(imported));
+
+        service.doImport(realmImport);
+
+        // the client update must not sync the mappers on the server before they are reconciled
+        InOrder inOrder = inOrder(clientRepository);
+        inOrder.verify(clientRepository).update(eq("test-realm"), argThat(client -> client.getProtocolMappers() == null));
+        inOrder.verify(clientRepository).removeProtocolMappers(eq("test-realm"), eq(existing), argThat(mappers ->
+                mappers.size() == 1 && "obsolete-id".equals(mappers.get(0).getId())
+        ));
+        verify(clientRepository).addProtocolMappers(eq("test-realm"), eq(existing), argThat(mappers ->
+                mappers.size() == 1 && "added".equals(mappers.get(0).getName())
+        ));
+        verify(clientRepository).updateProtocolMappers(eq("test-realm"), eq(existing), argThat(mappers ->
+                mappers.size() == 1 && "changed-id".equals(mappers.get(0).getId())
+        ));
+    }
+
+    private static ProtocolMapperRepresentation protocolMapper(String name, String id, String value) {
+        ProtocolMapperRepresentation protocolMapper = new ProtocolMapperRepresentation();
+        protocolMapper.setName(name);
+        protocolMapper.setId(id);
+        protocolMapper.setProtocol("openid-connect");
+        protocolMapper.setProtocolMapper("oidc-hardcoded-claim-mapper");
+        protocolMapper.setConfig(Map.of("claim.value", value));
+        return protocolMapper;
+    }
 }
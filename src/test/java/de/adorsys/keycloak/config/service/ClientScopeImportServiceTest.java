@@ -0,0 +1,128 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.ClientScopeRepository;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientScopeRepresentation;
+import org.keycloak.representations.idm.ProtocolMapperRepresentation;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClientScopeImportServiceTest {
+    private static final String REALM_NAME = "test-realm";
+
+    private final ClientScopeRepository clientScopeRepository = mock(ClientScopeRepository.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+
+    private final ClientScopeImportService service = new ClientScopeImportService(
+            clientScopeRepository, importConfigProperties, mock(RealmRepository.class)
+    );
+
+    @BeforeEach
+    void setUp() {
+        when(importConfigProperties.isParallel()).thenReturn(true);
+    }
+
+    @Test
+    void shouldFetchClientScopesOnlyOnce() {
+        ClientScopeRepresentation existing = clientScope("existing", "existing-id");
+        when(clientScopeRepository.getAll(REALM_NAME)).thenReturn(List.of(existing));
+
+        service.doImport(realmImport(clientScope("existing", null), clientScope("new", null)));
+
+        verify(clientScopeRepository, times(1)).getAll(REALM_NAME);
+        verify(clientScopeRepository).create(eq(REALM_NAME), argThat(s -> "new".equals(s.getName())));
+        verify(clientScopeRepository, never()).update(anyString(), any());
+        verify(clientScopeRepository, never()).searchByName(anyString(), anyString());
+        verify(clientScopeRepository, never()).getByName(anyString(), anyString());
+        verify(clientScopeRepository, never()).getById(anyString(), anyString());
+    }
+
+    @Test
+    void shouldOnlyIssueCallsForChangedProtocolMappers() {
+        ClientScopeRepresentation existing = clientScope("scope", "scope-id");
+        existing.setProtocolMappers(List.of(
+                mapper("unchanged", "mapper-a", "unchanged-id", "v"),
+                mapper("changed", "mapper-a", "changed-id", "v"),
+                mapper("retyped", "mapper-a", "retyped-id", "v"),
+                mapper("obsolete", "mapper-a", "obsolete-id", "v")
+        ));
+        when(clientScopeRepository.getAll(REALM_NAME)).thenReturn(List.of(existing));
+
+        ClientScopeRepresentation clientScope = clientScope("scope", null);
+        clientScope.setProtocolMappers(List.of(
+                mapper("unchanged", "mapper-a", null, "v"),
+                mapper("changed", "mapper-a", null, "other"),
+                mapper("retyped", "mapper-b", null, "v"),
+                mapper("added", "mapper-a", null, "v")
+        ));
+
+        service.doImport(realmImport(clientScope));
+
+        verify(clientScopeRepository).update(eq(REALM_NAME), argThat(s -> "scope-id".equals(s.getId())));
+        verify(clientScopeRepository).removeProtocolMappers(eq(REALM_NAME), eq("scope-id"), argThat(mappers ->
+                mappers.size() == 2
+                        && mappers.stream().anyMatch(m -> "obsolete-id".equals(m.getId()))
+                        && mappers.stream().anyMatch(m -> "retyped-id".equals(m.getId()))
+        ));
+        verify(clientScopeRepository).addProtocolMappers(eq(REALM_NAME), eq("scope-id"), argThat(mappers ->
+                mappers.stream().map(ProtocolMapperRepresentation::getName).toList().equals(List.of("retyped", "added"))
+        ));
+        verify(clientScopeRepository).updateProtocolMapper(eq(REALM_NAME), any(), argThat(m -> "changed-id".equals(m.getId())));
+        verify(clientScopeRepository, times(1)).updateProtocolMapper(anyString(), any(), any());
+    }
+
+    private static RealmImport realmImport(ClientScopeRepresentation... clientScopes) {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setClientScopes(List.of(clientScopes));
+        return realmImport;
+    }
+
+    private static ClientScopeRepresentation clientScope(String name, String id) {
+        ClientScopeRepresentation clientScope = new ClientScopeRepresentation();
+        clientScope.setName(name);
+        clientScope.setId(id);
+        clientScope.setProtocol("openid-connect");
+        return clientScope;
+    }
+
+    private static ProtocolMapperRepresentation mapper(String name, String type, String id, String value) {
+        ProtocolMapperRepresentation mapper = new ProtocolMapperRepresentation();
+        mapper.setName(name);
+        mapper.setId(id);
+        mapper.setProtocol("openid-connect");
+        mapper.setProtocolMapper(type);
+        mapper.setConfig(Map.of("claim", value));
+        return mapper;
+    }
+}
@@ -0,0 +1,126 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2025 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.ComponentIndex;
+import de.adorsys.keycloak.config.repository.ComponentRepository;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.state.StateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.common.util.MultivaluedHashMap;
+import org.keycloak.representations.idm.ComponentExportRepresentation;
+import org.keycloak.representations.idm.ComponentRepresentation;
+
+import java.util.List;
+
+import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ComponentImportServiceTest {
+    private static final String REALM_NAME = "test-realm";
+    private static final String REALM_ID = "realm-id";
+    private static final String KEY_PROVIDER = "org.keycloak.keys.KeyProvider";
+    private static final String USER_STORAGE_PROVIDER = "org.keycloak.storage.UserStorageProvider";
+    private static final String LDAP_MAPPER = "org.keycloak.storage.ldap.mappers.LDAPStorageMapper";
+
+    private final ComponentRepository componentRepository = mock(ComponentRepository.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+    private final ImportConfigProperties.ImportManagedProperties managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+    private final ImportConfigProperties.ImportRemoteStateProperties remoteStateProperties = mock(ImportConfigProperties.ImportRemoteStateProperties.class);
+    private final ImportConfigProperties.ImportBehaviorsProperties behaviorsProperties = mock(ImportConfigProperties.ImportBehaviorsProperties.class);
+
+    private final ComponentImportService service = new ComponentImportService(
+            componentRepository, importConfigProperties, mock(StateService.class), mock(RealmRepository.class)
+    );
+
+    @BeforeEach
+    void setUp() {
+        when(importConfigProperties.getManaged()).thenReturn(managedProperties);
+        when(importConfigProperties.getRemoteState()).thenReturn(remoteStateProperties);
+        when(importConfigProperties.getBehaviors()).thenReturn(behaviorsProperties);
+        when(managedProperties.getComponent()).thenReturn(FULL);
+        when(managedProperties.getSubComponent()).thenReturn(FULL);
+
+        ComponentRepresentation keyProvider = component("rsa", KEY_PROVIDER, REALM_ID);
+        keyProvider.setId("rsa-id");
+        ComponentRepresentation obsoleteKeyProvider = component("obsolete", KEY_PROVIDER, REALM_ID);
+        obsoleteKeyProvider.setId("obsolete-id");
+
+        when(componentRepository.getComponentIndex(REALM_NAME))
+                .thenReturn(new ComponentIndex(REALM_ID, List.of(keyProvider, obsoleteKeyProvider)));
+        when(componentRepository.create(eq(REALM_NAME), argThat(c -> c != null && "ldap".equals(c.getName())))).thenReturn("ldap-id");
+        when(componentRepository.create(eq(REALM_NAME), argThat(c -> c != null && "email".equals(c.getName())))).thenReturn("email-id");
+    }
+
+    @Test
+    void shouldReconcileComponentsFromIndex() {
+        ComponentRepresentation defaultMapper = component("username", LDAP_MAPPER, "ldap-id");
+        defaultMapper.setId("username-id");
+        when(componentRepository.getAll(REALM_NAME, "ldap-id")).thenReturn(List.of(defaultMapper));
+
+        ComponentExportRepresentation ldap = exportComponent("ldap");
+        ldap.getSubComponents().add(LDAP_MAPPER, exportComponent("email"));
+
+        MultivaluedHashMap<String, ComponentExportRepresentation> components = new MultivaluedHashMap<>();
+        components.add(KEY_PROVIDER, exportComponent("rsa"));
+        components.add(USER_STORAGE_PROVIDER, ldap);
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setComponents(components);
+
+        service.doImport(realmImport);
+
+        verify(componentRepository, never()).search(anyString(), anyString(), any(), anyString());
+        verify(componentRepository, never()).search(anyString(), anyString(), any(), anyString(), anyString());
+        verify(componentRepository, never()).update(anyString(), any());
+        verify(componentRepository).create(eq(REALM_NAME), argThat(c -> "ldap".equals(c.getName()) && c.getParentId() == null));
+        verify(componentRepository).create(eq(REALM_NAME), argThat(c -> "email".equals(c.getName()) && "ldap-id".equals(c.getParentId())));
+        verify(componentRepository).getAll(REALM_NAME, "ldap-id");
+        verify(componentRepository).getAll(REALM_NAME, "email-id");
+        verify(componentRepository, times(2)).getAll(anyString(), any());
+        verify(componentRepository).delete(eq(REALM_NAME), argThat(c -> "username-id".equals(c.getId())));
+        verify(componentRepository).delete(eq(REALM_NAME), argThat(c -> "obsolete-id".equals(c.getId())));
+        verify(componentRepository, times(2)).delete(anyString(), any());
+    }
+
+    private static ComponentRepresentation component(String name, String providerType, String parentId) {
+        ComponentRepresentation component = new ComponentRepresentation();
+        component.setName(name);
+        component.setProviderType(providerType);
+        component.setParentId(parentId);
+        component.setConfig(new MultivaluedHashMap<>());
+        return component;
+    }
+
+    private static ComponentExportRepresentation exportComponent(String name) {
+        ComponentExportRepresentation component = new ComponentExportRepresentation();
+        component.setName(name);
+        return component;
+    }
+}
@@ -20,28 +20,28 @@
 
 package de.adorsys.keycloak.config.service;
 
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import de.adorsys.keycloak.config.ThreadHelper;
-import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.repository.RoleIndex;
+import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.service.state.StateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.ValueSource;
 import org.keycloak.representations.idm.GroupRepresentation;
-import org.mockito.stubbing.OngoingStubbing;
+import org.mockito.InOrder;
 
 import java.util.List;
 import java.util.Map;
@@ -52,12 +52,43 @@ class GroupImportServiceTest {
 
     private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
 
-    private final ThreadHelper threadHelper = mock(ThreadHelper.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
 
     private final StateService stateService = mock(StateService.class);
 
+    private final RoleIndex roleIndex = mock(RoleIndex.class);
+
     private final GroupImportService groupImportService =
-        new GroupImportService(groupRepository, importConfigProperties, threadHelper, stateService);
+        new GroupImportService(groupRepository, roleRepository, importConfigProperties, stateService);
+
+    @Test
+    void importGroups_shouldShareOneRoleIndex() {
+        GroupRepresentation group1 = new GroupRepresentation();
+        group1.setId("group1-id");
+        group1.setName("group1");
+        group1.setRealmRoles(List.of("role1"));
+        GroupRepresentation group2 = new GroupRepresentation();
+        group2.setId("group2-id");
+        group2.setName("group2");
+        group2.setRealmRoles(List.of("role2"));
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("someRealm");
+        realmImport.setGroups(List.of(group1, group2));
+
+        ImportConfigProperties.ImportManagedProperties managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+        when(importConfigProperties.getManaged()).thenReturn(managedProperties);
+        when(managedProperties.getGroup()).thenReturn(ImportManagedPropertiesValues.NO_DELETE);
+        when(roleRepository.getRoleIndex("someRealm")).thenReturn(roleIndex);
+        when(groupRepository.createGroup("someRealm", group1)).thenReturn("group1-id");
+        when(groupRepository.createGroup("someRealm", group2)).thenReturn("group2-id");
+
+        groupImportService.importGroups(realmImport);
+
+        verify(roleRepository, times(1)).getRoleIndex("someRealm");
+        verify(groupRepository).addRealmRoles("someRealm", roleIndex, "group1-id", List.of("role1"));
+        verify(groupRepository).addRealmRoles("someRealm", roleIndex, "group2-id", List.of("role2"));
+    }
 
     @Nested
     class CreatingGroupIT {
@@ -78,23 +109,26 @@ class GroupImportServiceTest {
             GroupRepresentation subGroup = new GroupRepresentation();
             group.setSubGroups(List.of(subGroup));
             subGroup.setName("someSubGroupName");
+            subGroup.setRealmRoles(List.of("someSubGroupRealmRole"));
 
-            when(groupRepository.getGroupByName(realmName, groupName)).thenReturn(null).thenReturn(group);
-            when(groupRepository.getSubGroupByName(realmName, groupId, "someSubGroupName")).thenReturn(subGroup);
+            when(groupRepository.getGroupByName(realmName, groupName)).thenReturn(null);
+            when(groupRepository.createGroup(realmName, group)).thenReturn(groupId);
+            when(groupRepository.addSubGroup(realmName, groupId, subGroup)).thenReturn("someSubGroupId");
         }
 
         @Test
         void createOrUpdateGroups_shouldCreateGroup() {
-            groupImportService.createOrUpdateGroups(List.of(group), realmName);
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
             verify(groupRepository).createGroup(realmName, group);
         }
 
         @Test
         void createOrUpdateGroups_shouldAddRealmRoles() {
-            groupImportService.createOrUpdateGroups(List.of(group), realmName);
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
 
             verify(groupRepository).addRealmRoles(
                     eq(realmName),
+                    eq(roleIndex),
                     eq(groupId),
                     argThat(realmRoles -> realmRoles.size() == 1 && realmRoles.get(0).equals("someRealmRole"))
             );
@@ -102,10 +136,11 @@ class GroupImportServiceTest {
 
         @Test
         void createOrUpdateGroups_shouldAddClientRoles() {
-            groupImportService.createOrUpdateGroups(List.of(group), realmName);
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
 
             verify(groupRepository).addClientRoles(
                     eq(realmName),
+                    eq(roleIndex),
                     eq(groupId),
                     eq("someClientId"),
                     argThat(clientRoleNames -> clientRoleNames.size() == 1 && clientRoleNames.get(0).equals("someClientRoleName"))
@@ -114,7 +149,7 @@ class GroupImportServiceTest {
 
         @Test
         void createOrUpdateGroups_shouldAddSubGroups() {
-            groupImportService.createOrUpdateGroups(List.of(group), realmName);
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
 
             verify(groupRepository).addSubGroup(
                     eq(realmName),
@@ -123,45 +158,29 @@ class GroupImportServiceTest {
             );
         }
 
-        @ParameterizedTest
-        @ValueSource(ints = {1, 2, 3, 4, 5})
-        void createOrUpdateGroups_shouldRetryGettingCreatedGroup(int retries) {
-            OngoingStubbing<GroupRepresentation> getGroupNameStubbing =
-                    when(groupRepository.getGroupByName(realmName, groupName));
-
-            for (int i = 0; i < retries; i++) {
-                getGroupNameStubbing = getGroupNameStubbing.thenReturn(null);
-            }
-
-            getGroupNameStubbing.thenReturn(group);
-
-            groupImportService.createOrUpdateGroups(List.of(group), realmName);
+        @Test
+        void createOrUpdateGroups_shouldUseIdsOfCreateResponses() {
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
 
-            verify(groupRepository, times(retries + 1)).getGroupByName(realmName, groupName);
-            verify(threadHelper, times(retries - 1)).sleep(anyLong());
+            verify(groupRepository, times(1)).getGroupByName(realmName, groupName);
+            verify(groupRepository, never()).getSubGroupByName(anyString(), anyString(), anyString());
+            verify(groupRepository).addRealmRoles(eq(realmName), eq(roleIndex), eq("someSubGroupId"), eq(List.of("someSubGroupRealmRole")));
         }
 
         @Test
-        void createOrUpdateGroups_shouldStopImportWithNullAfterEveryRetry() {
-            List<GroupRepresentation> groups = List.of(group);
-
-            when(groupRepository.getGroupByName(realmName, groupName))
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(group);
-
-            ImportProcessingException exception = assertThrows(
-                    ImportProcessingException.class,
-                    () -> groupImportService.createOrUpdateGroups(groups, realmName)
-            );
+        void createOrUpdateGroups_shouldCreateSubGroupTreeBreadthFirst() {
+            GroupRepresentation subSubGroup = new GroupRepresentation();
+            subSubGroup.setName("someSubSubGroupName");
+            group.getSubGroups().get(0).setSubGroups(List.of(subSubGroup));
+
+            when(groupRepository.addSubGroup(realmName, "someSubGroupId", subSubGroup)).thenReturn("someSubSubGroupId");
+
+            groupImportService.createOrUpdateGroups(List.of(group), realmName, roleIndex);
 
-            assertThat(exception)
-                    .message()
-                    .isEqualTo(String.format("Cannot find created group '%s' in realm '%s'", groupName, realmName));
+            InOrder inOrder = inOrder(groupRepository);
+            inOrder.verify(groupRepository).createGroup(realmName, group);
+            inOrder.verify(groupRepository).addSubGroup(eq(realmName), eq(groupId), argThat(g -> g.getName().equals("someSubGroupName")));
+            inOrder.verify(groupRepository).addSubGroup(realmName, "someSubGroupId", subSubGroup);
         }
     }
 }
@@ -0,0 +1,131 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.IdentityProviderMapperRepository;
+import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.IdentityProviderMapperRepresentation;
+import org.keycloak.representations.idm.IdentityProviderRepresentation;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdentityProviderImportServiceTest {
+    private static final String REALM_NAME = "test-realm";
+
+    private final IdentityProviderRepository identityProviderRepository = mock(IdentityProviderRepository.class);
+    private final IdentityProviderMapperRepository identityProviderMapperRepository = mock(IdentityProviderMapperRepository.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+    private final ImportConfigProperties.ImportManagedProperties managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+
+    private final IdentityProviderImportService service = new IdentityProviderImportService(
+            identityProviderRepository, identityProviderMapperRepository, importConfigProperties
+    );
+
+    @BeforeEach
+    void setUp() {
+        when(importConfigProperties.getManaged()).thenReturn(managedProperties);
+        when(importConfigProperties.isParallel()).thenReturn(true);
+        when(managedProperties.getIdentityProvider()).thenReturn(FULL);
+        when(managedProperties.getIdentityProviderMapper()).thenReturn(FULL);
+    }
+
+    @Test
+    void shouldReconcileIdentityProvidersFromOneFetch() {
+        IdentityProviderRepresentation unchanged = identityProvider("unchanged", "first broker login");
+        IdentityProviderRepresentation unbound = identityProvider("unbound", "first broker login");
+        IdentityProviderRepresentation obsolete = identityProvider("obsolete", null);
+        when(identityProviderRepository.getAll(REALM_NAME)).thenReturn(List.of(unchanged, unbound, obsolete));
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setIdentityProviders(List.of(
+                identityProvider("unchanged", "first broker login"),
+                identityProvider("unbound", null),
+                identityProvider("added", null)
+        ));
+
+        service.doImport(realmImport);
+
+        verify(identityProviderRepository, times(1)).getAll(REALM_NAME);
+        verify(identityProviderRepository, never()).search(anyString(), anyString());
+        verify(identityProviderRepository, never()).getByAlias(anyString(), anyString());
+        verify(identityProviderRepository).delete(REALM_NAME, obsolete);
+        verify(identityProviderRepository).create(eq(REALM_NAME), argThat(idp -> "added".equals(idp.getAlias())));
+        verify(identityProviderRepository).update(eq(REALM_NAME), argThat(idp ->
+                "unbound".equals(idp.getAlias()) && idp.getFirstBrokerLoginFlowAlias() == null
+        ));
+        verify(identityProviderRepository, times(1)).update(anyString(), any());
+    }
+
+    @Test
+    void shouldReconcileIdentityProviderMappersFromOneFetch() {
+        IdentityProviderMapperRepresentation unchanged = mapper("idp-a", "unchanged", "unchanged-id", "v");
+        IdentityProviderMapperRepresentation changed = mapper("idp-a", "changed", "changed-id", "v");
+        IdentityProviderMapperRepresentation obsolete = mapper("idp-b", "unchanged", "obsolete-id", "v");
+        when(identityProviderMapperRepository.getAll(REALM_NAME)).thenReturn(List.of(unchanged, changed, obsolete));
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setIdentityProviderMappers(List.of(
+                mapper("idp-a", "unchanged", null, "v"),
+                mapper("idp-a", "changed", null, "other"),
+                mapper("idp-b", "added", null, "v")
+        ));
+
+        service.doImport(realmImport);
+
+        verify(identityProviderMapperRepository, times(1)).getAll(REALM_NAME);
+        verify(identityProviderMapperRepository, never()).search(anyString(), anyString(), anyString());
+        verify(identityProviderMapperRepository).delete(REALM_NAME, obsolete);
+        verify(identityProviderMapperRepository).create(eq(REALM_NAME), argThat(m -> "added".equals(m.getName())));
+        verify(identityProviderMapperRepository).update(eq(REALM_NAME), argThat(m -> "changed-id".equals(m.getId())));
+        verify(identityProviderMapperRepository, times(1)).update(anyString(), any());
+    }
+
+    private static IdentityProviderRepresentation identityProvider(String alias, String firstBrokerLoginFlowAlias) {
+        IdentityProviderRepresentation identityProvider = new IdentityProviderRepresentation();
+        identityProvider.setAlias(alias);
+        identityProvider.setProviderId("oidc");
+        identityProvider.setFirstBrokerLoginFlowAlias(firstBrokerLoginFlowAlias);
+        return identityProvider;
+    }
+
+    private static IdentityProviderMapperRepresentation mapper(String alias, String name, String id, String value) {
+        IdentityProviderMapperRepresentation mapper = new IdentityProviderMapperRepresentation();
+        mapper.setIdentityProviderAlias(alias);
+        mapper.setName(name);
+        mapper.setId(id);
+        mapper.setIdentityProviderMapper("hardcoded-attribute-idp-mapper");
+        mapper.setConfig(Map.of("attribute.value", value));
+        return mapper;
+    }
+}
@@ -242,6 +242,32 @@ class ImportClientsIT extends AbstractImportIT {
         assertThat(client.getAttributes(), hasEntry("standard.token.exchange.enableRefreshRequestedTokenType", "SAME_SESSION"));
     }
 
+    @Test
+    @Order(28)
+    void shouldUpdateAndDeleteProtocolMappersOfUpdatedClient() throws IOException {
+        doImport("28.0_update_realm__add_client_with_protocol-mappers.json");
+        doImport("28.1_update_realm__update_and_delete_protocol-mapper.json");
+
+        ClientRepresentation client = keycloakRepository.getClient(REALM_NAME, "mapper-client");
+
+        assertThat(client.getDescription(), is("Changed-Mapper-Client"));
+        assertThat(client.getProtocolMappers().stream().map(ProtocolMapperRepresentation::getName).toList(),
+                containsInAnyOrder("full name", "LocaleMapper"));
+
+        ProtocolMapperRepresentation fullNameMapper = client.getProtocolMappers().stream()
+                .filter(m -> Objects.equals(m.getName(), "full name")).findFirst().orElse(null);
+
+        assertThat(fullNameMapper, notNullValue());
+        assertThat(fullNameMapper.getConfig().get("id.token.claim"), is("true"));
+        assertThat(fullNameMapper.getConfig().get("access.token.claim"), is("false"));
+
+        ProtocolMapperRepresentation localeMapper = client.getProtocolMappers().stream()
+                .filter(m -> Objects.equals(m.getName(), "LocaleMapper")).findFirst().orElse(null);
+
+        assertThat(localeMapper, notNullValue());
+        assertThat(localeMapper.getConfig().get("user.attribute"), is("locale"));
+    }
+
     @Test
     @Order(3)
     void shouldUpdateRealmAddProtocolMapper() throws IOException {
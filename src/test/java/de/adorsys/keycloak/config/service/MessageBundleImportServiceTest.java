@@ -0,0 +1,125 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2022 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.state.StateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.keycloak.admin.client.resource.RealmLocalizationResource;
+import org.keycloak.admin.client.resource.RealmResource;
+
+import java.util.Map;
+
+import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
+import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.NO_DELETE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MessageBundleImportServiceTest {
+    private static final String REALM_NAME = "test-realm";
+
+    private final RealmRepository realmRepository = mock(RealmRepository.class);
+    private final RealmLocalizationResource localizationResource = mock(RealmLocalizationResource.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+    private final ImportConfigProperties.ImportManagedProperties managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+    private final ImportConfigProperties.ImportRemoteStateProperties remoteStateProperties = mock(ImportConfigProperties.ImportRemoteStateProperties.class);
+
+    private final MessageBundleImportService service = new MessageBundleImportService(
+            realmRepository, importConfigProperties, mock(StateService.class)
+    );
+
+    @BeforeEach
+    void setUp() {
+        RealmResource realmResource = mock(RealmResource.class);
+        when(realmRepository.getResource(REALM_NAME)).thenReturn(realmResource);
+        when(realmResource.localization()).thenReturn(localizationResource);
+
+        when(importConfigProperties.getManaged()).thenReturn(managedProperties);
+        when(importConfigProperties.getRemoteState()).thenReturn(remoteStateProperties);
+        when(managedProperties.getMessageBundles()).thenReturn(FULL);
+    }
+
+    private RealmImport realmImport(Map<String, Map<String, String>> messageBundles) {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM_NAME);
+        realmImport.setMessageBundles(messageBundles);
+        return realmImport;
+    }
+
+    @Test
+    void shouldSkipIdenticalLocale() {
+        when(localizationResource.getRealmLocalizationTexts("en")).thenReturn(Map.of("a", "A", "b", "B"));
+
+        service.doImport(realmImport(Map.of("en", Map.of("a", "A", "b", "B"))));
+
+        verify(localizationResource, never()).createOrUpdateRealmLocalizationTexts(anyString(), any());
+        verify(localizationResource, never()).deleteRealmLocalizationText(anyString(), anyString());
+        verify(localizationResource, never()).deleteRealmLocalizationTexts(anyString());
+    }
+
+    @Test
+    void shouldUploadChangedKeysOnly() {
+        when(localizationResource.getRealmLocalizationTexts("en")).thenReturn(Map.of("a", "A", "b", "B"));
+
+        service.doImport(realmImport(Map.of("en", Map.of("a", "A", "b", "changed", "c", "C"))));
+
+        verify(localizationResource).createOrUpdateRealmLocalizationTexts("en", Map.of("b", "changed", "c", "C"));
+        verify(localizationResource, never()).deleteRealmLocalizationTexts(anyString());
+    }
+
+    @Test
+    void shouldDeleteSingleStaleKey() {
+        when(localizationResource.getRealmLocalizationTexts("en")).thenReturn(Map.of("a", "A", "b", "B"));
+
+        service.doImport(realmImport(Map.of("en", Map.of("a", "A"))));
+
+        verify(localizationResource).deleteRealmLocalizationText("en", "b");
+        verify(localizationResource, never()).createOrUpdateRealmLocalizationTexts(anyString(), any());
+    }
+
+    @Test
+    void shouldDeleteManyStaleKeysOneByOne() {
+        when(localizationResource.getRealmLocalizationTexts("en")).thenReturn(Map.of("a", "A", "b", "B", "c", "C"));
+
+        service.doImport(realmImport(Map.of("en", Map.of("a", "A2"))));
+
+        InOrder inOrder = inOrder(localizationResource);
+        inOrder.verify(localizationResource).createOrUpdateRealmLocalizationTexts("en", Map.of("a", "A2"));
+        inOrder.verify(localizationResource).deleteRealmLocalizationText("en", "b");
+        verify(localizationResource).deleteRealmLocalizationText("en", "c");
+        verify(localizationResource, never()).deleteRealmLocalizationTexts(anyString());
+    }
+
+    @Test
+    void shouldKeepStaleKeysIfNotManaged() {
+        when(managedProperties.getMessageBundles()).thenReturn(NO_DELETE);
+        when(localizationResource.getRealmLocalizationTexts("en")).thenReturn(Map.of("a", "A", "b", "B", "c", "C"));
+
+        service.doImport(realmImport(Map.of("en", Map.of("a", "A"))));
+
+        verifyNoMoreInteractions(ignoreStubs(localizationResource));
+    }
+}
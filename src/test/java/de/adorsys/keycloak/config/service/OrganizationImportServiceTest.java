@@ -24,23 +24,32 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.OrganizationRepository;
 import de.adorsys.keycloak.config.repository.UserRepository;
+import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.PageIterator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
 import org.keycloak.representations.idm.MemberRepresentation;
 import org.keycloak.representations.idm.OrganizationRepresentation;
-import org.keycloak.representations.idm.UserRepresentation;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -53,6 +62,7 @@ class OrganizationImportServiceTest {
     private UserRepository userRepository;
     private ImportConfigProperties importConfigProperties;
     private ImportConfigProperties.ImportManagedProperties managedProperties;
+    private ImportConfigProperties.ImportOrganizationsProperties organizationsProperties;
 
     private OrganizationImportService service;
 
@@ -62,8 +72,13 @@ class OrganizationImportServiceTest {
         userRepository = mock(UserRepository.class);
         importConfigProperties = mock(ImportConfigProperties.class);
         managedProperties = mock(ImportConfigProperties.ImportManagedProperties.class);
+        organizationsProperties = mock(ImportConfigProperties.ImportOrganizationsProperties.class);
 
         when(importConfigProperties.getManaged()).thenReturn(managedProperties);
+        when(importConfigProperties.getOrganizations()).thenReturn(organizationsProperties);
+        when(organizationsProperties.getPageSize()).thenReturn(100);
+        when(organizationRepository.getPages(anyString(), anyInt())).thenAnswer(invocation -> pages(List.of()));
+        when(organizationRepository.getMemberPages(anyString(), anyString(), anyInt())).thenAnswer(invocation -> pages(List.of()));
         when(managedProperties.getOrganization()).thenReturn(ImportManagedPropertiesValues.NO_DELETE);
 
         service = new OrganizationImportService(organizationRepository, userRepository, importConfigProperties);
@@ -76,7 +91,7 @@ class OrganizationImportServiceTest {
 
         service.doImport(realmImport);
 
-        verify(organizationRepository, never()).getAll(anyString());
+        verify(organizationRepository, never()).getPages(anyString(), anyInt());
         verify(organizationRepository, never()).create(anyString(), any());
     }
 
@@ -88,7 +103,7 @@ class OrganizationImportServiceTest {
 
         service.doImport(realmImport);
 
-        verify(organizationRepository, never()).getAll(anyString());
+        verify(organizationRepository, never()).getPages(anyString(), anyInt());
         verify(organizationRepository, never()).create(anyString(), any());
     }
 
@@ -106,16 +121,12 @@ class OrganizationImportServiceTest {
         OrganizationRepresentation existing = new OrganizationRepresentation();
         existing.setAlias("org-to-delete");
 
-        when(organizationRepository.getAll("test")).thenReturn(List.of(existing));
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(List.of(existing)));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
         service.doImport(realmImport);
 
@@ -135,23 +146,16 @@ class OrganizationImportServiceTest {
         // members intentionally omitted => empty/null => triggers removal of existing members when FULL
         realmImport.setOrganizationsRaw(List.of(imported));
 
-        when(organizationRepository.getAll("test")).thenReturn(Collections.emptyList());
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
 
         MemberRepresentation existingMember = new MemberRepresentation();
+        existingMember.setId("bob-id");
         existingMember.setUsername("bob");
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(List.of(existingMember));
-
-        UserRepresentation user = new UserRepresentation();
-        user.setId("bob-id");
-        when(userRepository.search(eq("test"), eq("bob"))).thenReturn(Optional.of(user));
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(List.of(existingMember)));
 
         service.doImport(realmImport);
 
@@ -174,12 +178,7 @@ class OrganizationImportServiceTest {
         existing.setId("org-a-id");
         existing.setAlias("org-a");
         existing.setDescription("old-desc");
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.of(existing));
-
-        OrganizationRepresentation resolved = new OrganizationRepresentation();
-        resolved.setId("org-a-id");
-        resolved.setAlias("org-a");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(resolved);
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(List.of(existing)));
 
         IdentityProviderRepresentation idpToAdd = new IdentityProviderRepresentation();
         idpToAdd.setAlias("idp-a");
@@ -187,11 +186,9 @@ class OrganizationImportServiceTest {
 
         MemberRepresentation member = new MemberRepresentation();
         member.setUsername("alice");
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        UserRepresentation alice = new UserRepresentation();
-        alice.setId("alice-id");
-        when(userRepository.search(eq("test"), eq("alice"))).thenReturn(Optional.of(alice));
+        when(userRepository.searchIdByUsername(eq("test"), eq("alice"))).thenReturn(Optional.of("alice-id"));
 
         service.doImport(realmImport);
 
@@ -211,18 +208,14 @@ class OrganizationImportServiceTest {
         imported.put("alias", "org-a");
         realmImport.setOrganizationsRaw(List.of(imported));
 
-        when(organizationRepository.getAll("test")).thenReturn(Collections.emptyList());
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         IdentityProviderRepresentation existingIdp = new IdentityProviderRepresentation();
         existingIdp.setAlias("idp-old");
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(List.of(existingIdp));
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
         service.doImport(realmImport);
 
@@ -246,12 +239,7 @@ class OrganizationImportServiceTest {
         OrganizationRepresentation existing = new OrganizationRepresentation();
         existing.setId("org-a-id");
         existing.setAlias("org-a");
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.of(existing));
-
-        OrganizationRepresentation resolved = new OrganizationRepresentation();
-        resolved.setId("org-a-id");
-        resolved.setAlias("org-a");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(resolved);
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(List.of(existing)));
 
         IdentityProviderRepresentation idpKeep = new IdentityProviderRepresentation();
         idpKeep.setAlias("idp-keep");
@@ -259,7 +247,7 @@ class OrganizationImportServiceTest {
         idpRemove.setAlias("idp-remove");
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(List.of(idpKeep, idpRemove));
 
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
         service.doImport(realmImport);
 
@@ -276,15 +264,10 @@ class OrganizationImportServiceTest {
         OrganizationRepresentation existing = new OrganizationRepresentation();
         existing.setId("org-a-id");
         existing.setAlias("org-a");
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.of(existing));
-
-        OrganizationRepresentation resolved = new OrganizationRepresentation();
-        resolved.setId("org-a-id");
-        resolved.setAlias("org-a");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(resolved);
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(List.of(existing)));
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
         service.doImport(realmImport);
 
@@ -302,23 +285,17 @@ class OrganizationImportServiceTest {
                 )
         ));
 
-        when(organizationRepository.getAll("test")).thenReturn(Collections.emptyList());
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
 
         MemberRepresentation existingMember = new MemberRepresentation();
         existingMember.setUsername("alice");
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(List.of(existingMember));
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(List.of(existingMember)));
 
-        UserRepresentation alice = new UserRepresentation();
-        alice.setId("alice-id");
-        when(userRepository.search(eq("test"), eq("alice"))).thenReturn(Optional.of(alice));
+        when(userRepository.searchIdByUsername(eq("test"), eq("alice"))).thenReturn(Optional.of("alice-id"));
 
         service.doImport(realmImport);
 
@@ -338,27 +315,18 @@ class OrganizationImportServiceTest {
                 )
         ));
 
-        when(organizationRepository.getAll("test")).thenReturn(Collections.emptyList());
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
 
         MemberRepresentation existingMember = new MemberRepresentation();
+        existingMember.setId("bob-id");
         existingMember.setUsername("bob");
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(List.of(existingMember));
-
-        UserRepresentation bob = new UserRepresentation();
-        bob.setId("bob-id");
-        when(userRepository.search(eq("test"), eq("bob"))).thenReturn(Optional.of(bob));
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(List.of(existingMember)));
 
-        UserRepresentation alice = new UserRepresentation();
-        alice.setId("alice-id");
-        when(userRepository.search(eq("test"), eq("alice"))).thenReturn(Optional.of(alice));
+        when(userRepository.searchIdByUsername(eq("test"), eq("alice"))).thenReturn(Optional.of("alice-id"));
 
         service.doImport(realmImport);
 
@@ -374,25 +342,153 @@ class OrganizationImportServiceTest {
         imported.put("alias", "org-a");
         realmImport.setOrganizationsRaw(List.of(imported));
 
-        when(organizationRepository.getAll("test")).thenReturn(Collections.emptyList());
-        when(organizationRepository.search(eq("test"), eq("org-a"))).thenReturn(Optional.empty());
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
-        OrganizationRepresentation created = new OrganizationRepresentation();
-        created.setAlias("org-a");
-        created.setId("org-a-id");
-        when(organizationRepository.getByAlias(eq("test"), eq("org-a"))).thenReturn(created);
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
 
         when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
-        when(organizationRepository.getMembers(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
 
         realmImport.setOrganizationsRaw(List.of(
                 Map.of("alias", "org-a", "members", List.of(Map.of("username", "missing-user")))
         ));
 
-        when(userRepository.search(eq("test"), eq("missing-user"))).thenReturn(Optional.empty());
+        when(userRepository.searchIdByUsername(eq("test"), eq("missing-user"))).thenReturn(Optional.empty());
 
         service.doImport(realmImport);
 
         verify(organizationRepository, never()).addMember(eq("test"), eq("org-a-id"), anyString());
     }
+
+    @Test
+    void doImport_fullManaged_shouldReconcileMembersAsSetDifferenceInParallel() {
+        when(managedProperties.getOrganization()).thenReturn(ImportManagedPropertiesValues.FULL);
+        when(importConfigProperties.isParallel()).thenReturn(true);
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("test");
+        realmImport.setOrganizationsRaw(List.of(
+                Map.of(
+                        "alias", "org-a",
+                        "members", List.of(
+                                Map.of("username", "alice"),
+                                Map.of("username", "carol"),
+                                Map.of("username", "dave")
+                        )
+                )
+        ));
+
+        when(organizationRepository.getPages(eq("test"), anyInt())).thenAnswer(invocation -> pages(Collections.emptyList()));
+
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-a-id");
+        when(organizationRepository.getIdentityProviders(eq("test"), eq("org-a-id"))).thenReturn(Collections.emptyList());
+
+        MemberRepresentation alice = new MemberRepresentation();
+        alice.setId("alice-id");
+        alice.setUsername("alice");
+        MemberRepresentation bob = new MemberRepresentation();
+        bob.setId("bob-id");
+        bob.setUsername("bob");
+        when(organizationRepository.getMemberPages(eq("test"), eq("org-a-id"), anyInt())).thenAnswer(invocation -> pages(List.of(alice, bob)));
+
+        when(userRepository.searchIdByUsername(eq("test"), eq("carol"))).thenReturn(Optional.of("carol-id"));
+        when(userRepository.searchIdByUsername(eq("test"), eq("dave"))).thenReturn(Optional.of("dave-id"));
+
+        service.doImport(realmImport);
+
+        verify(userRepository, never()).searchIdByUsername(eq("test"), eq("alice"));
+        verify(userRepository, never()).searchIdByUsername(eq("test"), eq("bob"));
+        verify(userRepository, never()).search(anyString(), anyString());
+        verify(organizationRepository, times(1)).addMember(eq("test"), eq("org-a-id"), eq("carol-id"));
+        verify(organizationRepository, times(1)).addMember(eq("test"), eq("org-a-id"), eq("dave-id"));
+        verify(organizationRepository, never()).addMember(eq("test"), eq("org-a-id"), eq("alice-id"));
+        verify(organizationRepository, times(1)).removeMember(eq("test"), eq("org-a-id"), eq("bob-id"));
+        verify(organizationRepository, never()).removeMember(eq("test"), eq("org-a-id"), eq("alice-id"));
+    }
+
+    @Test
+    void doImport_fullManaged_shouldReconcileOrganizationsPageByPage() {
+        when(managedProperties.getOrganization()).thenReturn(ImportManagedPropertiesValues.FULL);
+        when(organizationsProperties.getPageSize()).thenReturn(1);
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("test");
+        realmImport.setOrganizationsRaw(List.of(
+                Map.of("alias", "org-b", "description", "new-desc"),
+                Map.of("alias", "org-c")
+        ));
+
+        OrganizationRepresentation orgA = new OrganizationRepresentation();
+        orgA.setId("org-a-id");
+        orgA.setAlias("org-a");
+        OrganizationRepresentation orgB = new OrganizationRepresentation();
+        orgB.setId("org-b-id");
+        orgB.setAlias("org-b");
+
+        when(organizationRepository.getPages(eq("test"), eq(1)))
+                .thenAnswer(invocation -> List.of(List.of(orgA), List.of(orgB), List.<OrganizationRepresentation>of()).iterator());
+        when(organizationRepository.create(eq("test"), any(OrganizationRepresentation.class))).thenReturn("org-c-id");
+
+        service.doImport(realmImport);
+
+        InOrder inOrder = inOrder(organizationRepository);
+        inOrder.verify(organizationRepository).update(eq("test"), argThat(org -> "org-b-id".equals(org.getId())));
+        inOrder.verify(organizationRepository).delete(eq("test"), eq(orgA));
+        inOrder.verify(organizationRepository).create(eq("test"), argThat(org -> "org-c".equals(org.getAlias())));
+        verify(organizationRepository, never()).search(anyString(), anyString());
+        verify(organizationRepository, never()).getByAlias(anyString(), anyString());
+        verify(organizationRepository).getMemberPages("test", "org-c-id", 1);
+    }
+
+    @Test
+    void doImport_fullManaged_shouldDeleteOrganizationsWhenRenameShiftsPages() {
+        when(managedProperties.getOrganization()).thenReturn(ImportManagedPropertiesValues.FULL);
+        when(organizationsProperties.getPageSize()).thenReturn(1);
+
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm("test");
+        realmImport.setOrganizationsRaw(List.of(
+                Map.of("alias", "org-a", "name", "D"),
+                Map.of("alias", "org-b", "name", "B")
+        ));
+
+        List<OrganizationRepresentation> existing = new ArrayList<>(List.of(
+                organization("org-a", "A"),
+                organization("org-b", "B"),
+                organization("org-x", "C")
+        ));
+
+        // the server returns the organizations ordered by name, a rename moves an organization to another page
+        when(organizationRepository.getPages(eq("test"), eq(1))).thenAnswer(invocation -> new PageIterator<>(1, (first, max) -> {
+            List<OrganizationRepresentation> sorted = existing.stream()
+                    .sorted(Comparator.comparing(OrganizationRepresentation::getName))
+                    .map(org -> CloneUtil.deepClone(org, OrganizationRepresentation.class))
+                    .toList();
+            return sorted.subList(Math.min(first, sorted.size()), Math.min(first + max, sorted.size()));
+        }));
+        doAnswer(invocation -> {
+            OrganizationRepresentation updated = invocation.getArgument(1);
+            existing.replaceAll(org -> org.getId().equals(updated.getId()) ? updated : org);
+            return null;
+        }).when(organizationRepository).update(eq("test"), any(OrganizationRepresentation.class));
+
+        service.doImport(realmImport);
+
+        verify(organizationRepository, times(1)).update(eq("test"), argThat(org -> "org-a-id".equals(org.getId()) && "D".equals(org.getName())));
+        verify(organizationRepository, times(1)).delete(eq("test"), argThat(org -> "org-x".equals(org.getAlias())));
+        verify(organizationRepository, never()).delete(eq("test"), argThat(org -> !"org-x".equals(org.getAlias())));
+        verify(organizationRepository, never()).create(anyString(), any());
+    }
+
+    private static OrganizationRepresentation organization(String alias, String name) {
+        OrganizationRepresentation organization = new OrganizationRepresentation();
+        organization.setId(alias + "-id");
+        organization.setAlias(alias);
+        organization.setName(name);
+        return organization;
+    }
+
+    private static <T> Iterator<List<T>> pages(List<T> items) {
+        return List.of(items).iterator();
+    }
 }
@@ -20,6 +20,9 @@
 
 package de.adorsys.keycloak.config.service;
 
+import de.adorsys.keycloak.config.repository.RoleCompositeRepository;
+import de.adorsys.keycloak.config.service.plan.ImportPlan;
+import de.adorsys.keycloak.config.service.plan.RoleMappingChange;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.ClientCompositeImport;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmCompositeImport;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmRoleCompositeImportService;
@@ -30,6 +33,7 @@ import org.keycloak.representations.idm.RoleRepresentation;
 import java.util.List;
 import java.util.Set;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,44 +42,43 @@ class RealmRoleCompositeImportServiceTest {
 private RealmCompositeImport realmCompositeImport;
 private ClientCompositeImport clientCompositeImport;
 private RealmRoleCompositeImportService realmRoleCompositeImportService;
+private ImportPlan plan;
 
 @BeforeEach
 void setUp() {
 realmCompositeImport = mock(RealmCompositeImport.class);
 clientCompositeImport = mock(ClientCompositeImport.class);
 realmRoleCompositeImportService = new RealmRoleCompositeImportService(realmCompositeImport,
-clientCompositeImport);
+clientCompositeImport, mock(RoleCompositeRepository.class));
+plan = new ImportPlan("test-realm");
 }
 
 @Test
 void shouldUpdateWithEmptySetWhenCompositesAreNull() {
-String realmName = "test-realm";
 RoleRepresentation role = new RoleRepresentation();
 role.setName("test-role");
 role.setComposites(null);
 
-realmRoleCompositeImportService.update(realmName, List.of(role));
+realmRoleCompositeImportService.update(plan, List.of(role));
 
-verify(realmCompositeImport).update(eq(realmName), eq(role), eq(Set.of()));
+verify(realmCompositeImport).update(eq(plan), any(RoleMappingChange.class), eq(role), eq(Set.of()));
 }
 
 @Test
 void shouldUpdateWithEmptySetWhenRealmCompositesAreNull() {
-String realmName = "test-realm";
 RoleRepresentation role = new RoleRepresentation();
 role.setName("test-role");
 RoleRepresentation.Composites composites = new RoleRepresentation.Composites();
 composites.setRealm(null);
 role.setComposites(composites);
 
-realmRoleCompositeImportService.update(realmName, List.of(role));
+realmRoleCompositeImportService.update(plan, List.of(role));
 
-verify(realmCompositeImport).update(eq(realmName), eq(role), eq(Set.of()));
+verify(realmCompositeImport).update(eq(plan), any(RoleMappingChange.class), eq(role), eq(Set.of()));
 }
 
 @Test
 void shouldUpdateWithActualSetWhenRealmCompositesArePresent() {
-String realmName = "test-realm";
 RoleRepresentation role = new RoleRepresentation();
 role.setName("test-role");
 RoleRepresentation.Composites composites = new RoleRepresentation.Composites();
@@ -83,8 +86,8 @@ Set<String> realmComposites = Set.of("composite-1", "composite-2");
 composites.setRealm(realmComposites);
 role.setComposites(composites);
 
-realmRoleCompositeImportService.update(realmName, List.of(role));
+realmRoleCompositeImportService.update(plan, List.of(role));
 
-verify(realmCompositeImport).update(eq(realmName), eq(role), eq(realmComposites));
+verify(realmCompositeImport).update(eq(plan), any(RoleMappingChange.class), eq(role), eq(realmComposites));
 }
 }
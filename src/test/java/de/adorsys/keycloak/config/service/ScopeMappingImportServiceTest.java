@@ -22,27 +22,34 @@ package de.adorsys.keycloak.config.service;
 
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
-import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RoleIndex;
+import de.adorsys.keycloak.config.repository.ScopeMappingIndex;
 import de.adorsys.keycloak.config.repository.ScopeMappingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.ScopeMappingRepresentation;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ScopeMappingImportServiceTest {
 
-    private RealmRepository realmRepository;
     private ScopeMappingRepository scopeMappingRepository;
     private ImportConfigProperties importConfigProperties;
     private ImportConfigProperties.ImportManagedProperties managed;
@@ -51,7 +58,6 @@ class ScopeMappingImportServiceTest {
 
     @BeforeEach
     void setUp() {
-        realmRepository = mock(RealmRepository.class);
         scopeMappingRepository = mock(ScopeMappingRepository.class);
         importConfigProperties = mock(ImportConfigProperties.class);
         managed = mock(ImportConfigProperties.ImportManagedProperties.class);
@@ -60,7 +66,7 @@ class ScopeMappingImportServiceTest {
         when(managed.getScopeMapping()).thenReturn(ImportManagedPropertiesValues.NO_DELETE);
         when(managed.getClientScope()).thenReturn(ImportManagedPropertiesValues.NO_DELETE);
 
-        service = new ScopeMappingImportService(realmRepository, scopeMappingRepository, importConfigProperties);
+        service = new ScopeMappingImportService(scopeMappingRepository, importConfigProperties);
     }
 
     private static ScopeMappingRepresentation clientMapping(String client, Set<String> roles) {
@@ -79,6 +85,28 @@ class ScopeMappingImportServiceTest {
         return r;
     }
 
+    private void givenExistingScopeMappings(ScopeMappingRepresentation... existingScopeMappings) {
+        RealmRepresentation existingRealm = mock(RealmRepresentation.class);
+        when(existingRealm.getScopeMappings()).thenReturn(List.of(existingScopeMappings));
+
+        List<RoleRepresentation> realmRoles = Stream.of("role-a", "role-existing", "role-to-add", "role-to-remove", "role-x")
+                .map(name -> new RoleRepresentation(name, null, false))
+                .toList();
+
+        ScopeMappingIndex scopeMappingIndex = new ScopeMappingIndex(existingRealm, new RoleIndex("test", realmRoles, clientId -> List.of()));
+        when(scopeMappingRepository.getScopeMappingIndex("test")).thenReturn(scopeMappingIndex);
+    }
+
+    private static List<RoleRepresentation> roles(String... names) {
+        return argThat(roles -> roles.stream().map(RoleRepresentation::getName).toList().equals(List.of(names)));
+    }
+
+    private static ScopeMappingRepresentation scope(String client, String clientScope) {
+        return argThat(scopeMapping -> scopeMapping != null
+                && Objects.equals(client, scopeMapping.getClient())
+                && Objects.equals(clientScope, scopeMapping.getClientScope()));
+    }
+
     @Test
     void doImport_shouldReturnWhenScopeMappingsNull() {
         RealmImport realmImport = new RealmImport();
@@ -86,8 +114,8 @@ class ScopeMappingImportServiceTest {
 
         service.doImport(realmImport);
 
-        verify(realmRepository, never()).partialExport(eq("test"), any(Boolean.class), any(Boolean.class));
-        verify(scopeMappingRepository, never()).addScopeMapping(eq("test"), any());
+        verify(scopeMappingRepository, never()).getScopeMappingIndex(anyString());
+        verify(scopeMappingRepository, never()).addScopeMappingRoles(anyString(), any(), any(), any(), any());
     }
 
     @Test
@@ -97,14 +125,11 @@ class ScopeMappingImportServiceTest {
 
         ScopeMappingRepresentation toImport = clientScopeMapping("scope-a", Set.of("role-a"));
         when(realmImport.getScopeMappings()).thenReturn(List.of(toImport));
-
-        RealmRepresentation existingRealm = mock(RealmRepresentation.class);
-        when(existingRealm.getScopeMappings()).thenReturn(List.of());
-        when(realmRepository.partialExport("test", false, true)).thenReturn(existingRealm);
+        givenExistingScopeMappings();
 
         service.doImport(realmImport);
 
-        verify(scopeMappingRepository).addScopeMapping("test", toImport);
+        verify(scopeMappingRepository).addScopeMappingRoles(eq("test"), any(), scope(null, "scope-a"), isNull(), roles("role-a"));
     }
 
     @Test
@@ -114,18 +139,32 @@ class ScopeMappingImportServiceTest {
         RealmImport realmImport = mock(RealmImport.class);
         when(realmImport.getRealm()).thenReturn("test");
 
-        ScopeMappingRepresentation existing = clientMapping("client-a", Set.of("role-existing", "role-to-remove"));
-        RealmRepresentation existingRealm = mock(RealmRepresentation.class);
-        when(existingRealm.getScopeMappings()).thenReturn(List.of(existing));
-        when(realmRepository.partialExport("test", false, true)).thenReturn(existingRealm);
+        givenExistingScopeMappings(clientMapping("client-a", Set.of("role-existing", "role-to-remove")));
 
         ScopeMappingRepresentation toImport = clientMapping("client-a", Set.of("role-existing", "role-to-add"));
         when(realmImport.getScopeMappings()).thenReturn(List.of(toImport));
 
         service.doImport(realmImport);
 
-        verify(scopeMappingRepository).addScopeMappingRolesForClient("test", "client-a", List.of("role-to-add"));
-        verify(scopeMappingRepository).removeScopeMappingRolesForClient("test", "client-a", List.of("role-to-remove"));
+        verify(scopeMappingRepository).addScopeMappingRoles(eq("test"), any(), scope("client-a", null), isNull(), roles("role-to-add"));
+        verify(scopeMappingRepository).removeScopeMappingRoles(eq("test"), any(), scope("client-a", null), isNull(), roles("role-to-remove"));
+    }
+
+    @Test
+    void doImport_shouldGroupRolesOfTheSameClientIntoOneCall() {
+        RealmImport realmImport = mock(RealmImport.class);
+        when(realmImport.getRealm()).thenReturn("test");
+
+        givenExistingScopeMappings();
+        when(realmImport.getScopeMappings()).thenReturn(List.of(
+                clientMapping("client-a", Set.of("role-a")),
+                clientMapping("client-a", Set.of("role-x"))
+        ));
+
+        service.doImport(realmImport);
+
+        verify(scopeMappingRepository, times(1)).addScopeMappingRoles(eq("test"), any(), any(), any(), any());
+        verify(scopeMappingRepository).addScopeMappingRoles(eq("test"), any(), scope("client-a", null), isNull(), roles("role-a", "role-x"));
     }
 
     @Test
@@ -136,14 +175,11 @@ class ScopeMappingImportServiceTest {
         when(realmImport.getRealm()).thenReturn("test");
         when(realmImport.getScopeMappings()).thenReturn(List.of());
 
-        ScopeMappingRepresentation existing = clientScopeMapping("scope-to-clean", Set.of("role-x"));
-        RealmRepresentation existingRealm = mock(RealmRepresentation.class);
-        when(existingRealm.getScopeMappings()).thenReturn(List.of(existing));
-        when(realmRepository.partialExport("test", false, true)).thenReturn(existingRealm);
+        givenExistingScopeMappings(clientScopeMapping("scope-to-clean", Set.of("role-x")));
 
         service.doImport(realmImport);
 
-        verify(scopeMappingRepository).removeScopeMappingRolesForClientScope("test", "scope-to-clean", Set.of("role-x"));
+        verify(scopeMappingRepository).removeScopeMappingRoles(eq("test"), any(), scope(null, "scope-to-clean"), isNull(), roles("role-x"));
     }
 
     @Test
@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.clientauthorization;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemoizingPermissionResolverTest {
+
+    private static final String REALM_NAME = "test-realm";
+
+    private ClientRepository clientRepository;
+    private MemoizingPermissionResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        resolver = new MemoizingPermissionResolver(new ClientPermissionResolver(REALM_NAME, clientRepository));
+    }
+
+    private ClientRepresentation client(String id, String clientId) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId(id);
+        client.setClientId(clientId);
+        return client;
+    }
+
+    @Test
+    void shouldResolveObjectIdOnlyOnce() {
+        when(clientRepository.getByClientId(REALM_NAME, "my-client")).thenReturn(client("client-uuid", "my-client"));
+
+        assertEquals("client-uuid", resolver.resolveObjectId("my-client", "client.resource.$my-client"));
+        assertEquals("client-uuid", resolver.resolveObjectId("my-client", "manage.permission.client.$my-client"));
+
+        verify(clientRepository, times(1)).getByClientId(REALM_NAME, "my-client");
+    }
+
+    @Test
+    void shouldAnswerFromBulkResolution() {
+        when(clientRepository.getAll(REALM_NAME)).thenReturn(List.of(
+                client("client-uuid", "my-client"),
+                client("other-uuid", "other-client")
+        ));
+
+        Map<String, String> objectIds = resolver.resolveObjectIds(Set.of("my-client", "missing-client"));
+
+        assertEquals(Map.of("my-client", "client-uuid"), objectIds);
+        assertEquals("client-uuid", resolver.resolveObjectId("my-client", "client.resource.$my-client"));
+        verify(clientRepository, never()).getByClientId(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReportUnresolvedPlaceholdersOnResolveObjectId() {
+        when(clientRepository.getAll(REALM_NAME)).thenReturn(List.of());
+        doThrow(new ImportProcessingException("not found")).when(clientRepository).getByClientId(REALM_NAME, "missing-client");
+
+        resolver.resolveObjectIds(Set.of("missing-client"));
+
+        assertThrows(ImportProcessingException.class, () -> resolver.resolveObjectId("missing-client", "client.resource.$missing-client"));
+    }
+
+    @Test
+    void shouldEnablePermissionsOnlyOnce() {
+        when(clientRepository.isPermissionEnabled(REALM_NAME, "client-uuid")).thenReturn(false);
+
+        resolver.enablePermissions("client-uuid");
+        resolver.enablePermissions("client-uuid");
+
+        verify(clientRepository, times(1)).isPermissionEnabled(REALM_NAME, "client-uuid");
+        verify(clientRepository, times(1)).enablePermission(REALM_NAME, "client-uuid");
+    }
+}
@@ -0,0 +1,184 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.plan;
+
+import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RoleIndex;
+import de.adorsys.keycloak.config.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ImportPlanExecutorTest {
+    private static final String REALM_NAME = "test-realm";
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+    private final ImportPlanExecutor importPlanExecutor = new ImportPlanExecutor(roleRepository, importConfigProperties);
+
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(roleRepository.getRoleIndex(REALM_NAME)).thenAnswer(invocation -> new RoleIndex(
+                REALM_NAME,
+                List.of(role("a"), role("c")),
+                clientId -> "my-client".equals(clientId) ? List.of(role("b")) : List.of()
+        ));
+    }
+
+    @Test
+    void shouldExecuteStagesInOrder() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(Set.of(RoleReference.realmRole("a")));
+        plan.add(ImportPlanStage.ROLES, () -> calls.add("create role"));
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls, contains("create role", "add [a] to composites of role"));
+    }
+
+    @Test
+    void shouldMergeRoleMappingChangesOfSameTarget() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(List.of(RoleReference.realmRole("a")));
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(List.of(RoleReference.clientRole("my-client", "b")));
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .removeRoles(List.of(RoleReference.realmRole("c")));
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls, contains("remove [c] from composites of role", "add [a, b] to composites of role"));
+        verify(roleRepository, times(1)).getRoleIndex(REALM_NAME);
+    }
+
+    @Test
+    void shouldRunDeletionsBeforeCreations() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.add(ImportPlanStage.ROLES, () -> calls.add("create role"));
+        plan.add(ImportPlanStage.ROLE_DELETIONS, () -> calls.add("delete role"));
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls, contains("delete role", "create role"));
+    }
+
+    @Test
+    void shouldRunGroupsAfterRolesAndUsersAfterGroups() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.add(ImportPlanStage.USERS, () -> calls.add("import users"));
+        plan.add(ImportPlanStage.USER_PROFILE, () -> calls.add("import user profile"));
+        plan.add(ImportPlanStage.COMPONENTS, () -> calls.add("import components"));
+        plan.add(ImportPlanStage.DEFAULT_GROUPS, () -> calls.add("import default groups"));
+        plan.add(ImportPlanStage.GROUPS, () -> calls.add("import groups"));
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(List.of(RoleReference.realmRole("a")));
+        plan.add(ImportPlanStage.ROLES, () -> calls.add("create role"));
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls, contains(
+                "create role",
+                "add [a] to composites of role",
+                "import groups",
+                "import default groups",
+                "import components",
+                "import user profile",
+                "import users"
+        ));
+    }
+
+    @Test
+    void shouldSkipRemovalOfDeletedRoles() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.addDeletedRole(RoleReference.realmRole("deleted"));
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .removeRoles(List.of(RoleReference.realmRole("deleted"), RoleReference.realmRole("c")));
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls, contains("remove [c] from composites of role"));
+    }
+
+    @Test
+    void shouldSkipEmptyRoleMappingChanges() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(List.of());
+
+        importPlanExecutor.execute(plan);
+
+        assertThat(calls.isEmpty(), is(true));
+        verifyNoInteractions(roleRepository);
+    }
+
+    @Test
+    void shouldReportMissingRoleWithTargetDescription() {
+        ImportPlan plan = new ImportPlan(REALM_NAME);
+
+        plan.getRoleMappingChange(ImportPlanStage.ROLE_COMPOSITES, target("composites of role"))
+                .addRoles(List.of(RoleReference.clientRole("other-client", "missing")));
+
+        KeycloakRepositoryException thrown = assertThrows(KeycloakRepositoryException.class, () -> importPlanExecutor.execute(plan));
+
+        assertThat(thrown.getMessage(),
+                is("Error adding composite roles to role: Cannot find client role 'missing' within realm 'test-realm'"));
+    }
+
+    private RoleMappingTarget target(String key) {
+        return new RoleMappingTarget(
+                key,
+                "composite roles to role",
+                roles -> calls.add("add " + names(roles) + " to " + key),
+                roles -> calls.add("remove " + names(roles) + " from " + key)
+        );
+    }
+
+    private static List<String> names(List<RoleRepresentation> roles) {
+        return roles.stream().map(RoleRepresentation::getName).toList();
+    }
+
+    private static RoleRepresentation role(String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(name);
+        return role;
+    }
+}
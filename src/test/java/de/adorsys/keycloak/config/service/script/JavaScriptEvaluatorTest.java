@@ -24,7 +24,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -108,4 +110,45 @@ class JavaScriptEvaluatorTest {
     void shouldNotAllowHostClassLookup() {
         assertThrows(Exception.class, () -> evaluator.evaluate("java.lang.System.exit(0)", bindings));
     }
+
+    @Test
+    void shouldNotLeakStateBetweenEvaluations() {
+        bindings.put("value", 1);
+        evaluator.evaluate("var leaked = value; leaked", bindings);
+
+        Object result = evaluator.evaluate("typeof leaked + ' ' + typeof value", new HashMap<>());
+        assertThat(result, is("undefined undefined"));
+    }
+
+    @Test
+    void shouldNotLeakChangesOfBuiltInsBetweenEvaluations() {
+        evaluator.evaluate("Array.prototype.includes = function() { return 'pwned'; }; 1", bindings);
+
+        Object result = evaluator.evaluate("[1, 2].includes(5)", bindings);
+        assertThat(result, is(false));
+    }
+
+    @Test
+    void shouldAllowRepeatedLexicalDeclarations() {
+        assertThat(evaluator.evaluate("const a = 1; a", bindings), is(1));
+        assertThat(evaluator.evaluate("const a = 2; a", bindings), is(2));
+    }
+
+    @Test
+    void shouldKeepResultsAfterFurtherEvaluations() {
+        Object result = evaluator.evaluate("({a: [1, 2]})", bindings);
+        evaluator.evaluate("1 + 1", bindings);
+        evaluator.close();
+
+        assertThat(result, is(Map.of("a", List.of(1, 2))));
+    }
+
+    @Test
+    void shouldEvaluateConcurrently() {
+        List<Object> results = IntStream.range(0, 100).parallel()
+                .mapToObj(i -> evaluator.evaluate("value * 2", Map.of("value", i)))
+                .toList();
+
+        assertThat(results, is(IntStream.range(0, 100).mapToObj(i -> i * 2).toList()));
+    }
 }
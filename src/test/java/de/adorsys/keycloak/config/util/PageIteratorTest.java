@@ -0,0 +1,75 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageIteratorTest {
+
+    private final List<Integer> items = IntStream.range(0, 5).boxed().toList();
+    private final List<Integer> requestedOffsets = new ArrayList<>();
+
+    private List<Integer> fetch(int first, int max) {
+        requestedOffsets.add(first);
+        return items.subList(Math.min(first, items.size()), Math.min(first + max, items.size()));
+    }
+
+    @Test
+    void shouldFetchPagesLazily() {
+        PageIterator<Integer> pages = new PageIterator<>(2, this::fetch);
+
+        assertThat(requestedOffsets, is(empty()));
+        assertThat(pages.next(), contains(0, 1));
+        assertThat(requestedOffsets, contains(0));
+
+        assertThat(pages.next(), contains(2, 3));
+        assertThat(pages.next(), contains(4));
+        assertThat(pages.hasNext(), is(false));
+        assertThat(requestedOffsets, contains(0, 2, 4));
+        assertThrows(NoSuchElementException.class, pages::next);
+    }
+
+    @Test
+    void shouldFetchEmptyLastPageWhenSizeIsMultipleOfPageSize() {
+        PageIterator<Integer> pages = new PageIterator<>(5, this::fetch);
+
+        assertThat(pages.next(), contains(0, 1, 2, 3, 4));
+        assertThat(pages.hasNext(), is(true));
+        assertThat(pages.next(), is(empty()));
+        assertThat(pages.hasNext(), is(false));
+    }
+
+    @Test
+    void shouldRejectInvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PageIterator<>(0, this::fetch));
+    }
+}
@@ -39,58 +39,6 @@ class ProtocolMapperUtilTest {
         return pm;
     }
 
-    @Test
-    void estimateProtocolMappersToRemove_shouldReturnEmptyListWhenExistingIsNullOrEmpty() {
-        assertThat(ProtocolMapperUtil.estimateProtocolMappersToRemove(List.of(pm("a")), null), is(empty()));
-        assertThat(ProtocolMapperUtil.estimateProtocolMappersToRemove(List.of(pm("a")), List.of()), is(empty()));
-    }
-
-    @Test
-    void estimateProtocolMappersToRemove_shouldReturnMappersNotPresentInImport() {
-        List<ProtocolMapperRepresentation> existing = List.of(pm("a"), pm("b"));
-        List<ProtocolMapperRepresentation> imported = List.of(pm("a"));
-
-        var toRemove = ProtocolMapperUtil.estimateProtocolMappersToRemove(imported, existing);
-        assertThat(toRemove, contains(existing.get(1)));
-    }
-
-    @Test
-    void estimateProtocolMappersToAdd_shouldReturnImportedWhenExistingIsNull() {
-        List<ProtocolMapperRepresentation> imported = List.of(pm("a"));
-
-        var toAdd = ProtocolMapperUtil.estimateProtocolMappersToAdd(imported, null);
-        assertThat(toAdd, is(imported));
-    }
-
-    @Test
-    void estimateProtocolMappersToAdd_shouldAddOnlyNotExisting() {
-        List<ProtocolMapperRepresentation> existing = List.of(pm("a"));
-        ProtocolMapperRepresentation b = pm("b");
-        List<ProtocolMapperRepresentation> imported = List.of(pm("a"), b);
-
-        var toAdd = ProtocolMapperUtil.estimateProtocolMappersToAdd(imported, existing);
-        assertThat(toAdd, contains(b));
-    }
-
-    @Test
-    void estimateProtocolMappersToUpdate_shouldReturnEmptyWhenExistingIsNull() {
-        var toUpdate = ProtocolMapperUtil.estimateProtocolMappersToUpdate(List.of(pm("a")), null);
-        assertThat(toUpdate, is(empty()));
-    }
-
-    @Test
-    void estimateProtocolMappersToUpdate_shouldReturnPatchedMappersWhenExistingHasSameName() {
-        ProtocolMapperRepresentation existing = pm("a");
-        existing.setProtocol("openid-connect");
-
-        ProtocolMapperRepresentation imported = pm("a");
-        imported.setProtocol("openid-connect");
-
-        var toUpdate = ProtocolMapperUtil.estimateProtocolMappersToUpdate(List.of(imported), List.of(existing));
-        assertThat(toUpdate.size(), is(1));
-        assertThat(toUpdate.get(0).getName(), is("a"));
-    }
-
     @Test
     void areProtocolMappersEqual_shouldHandleNullAndSizeMismatch() {
         assertThat(ProtocolMapperUtil.areProtocolMappersEqual(null, null), is(true));
@@ -118,4 +66,64 @@ class ProtocolMapperUtilTest {
         assertThat(ProtocolMapperUtil.areProtocolMappersEqual(List.of(importedSame), List.of(existing)), is(true));
         assertThat(ProtocolMapperUtil.areProtocolMappersEqual(List.of(importedDifferent), List.of(existing)), is(false));
     }
+
+    @Test
+    void diffProtocolMappers_shouldOnlyReturnChangedMappers() {
+        ProtocolMapperRepresentation unchanged = pm("unchanged");
+        unchanged.setId("unchanged-id");
+        unchanged.setProtocolMapper("oidc-audience-mapper");
+        unchanged.setConfig(Map.of("k", "v"));
+
+        ProtocolMapperRepresentation changed = pm("changed");
+        changed.setId("changed-id");
+        changed.setProtocolMapper("oidc-audience-mapper");
+        changed.setConfig(Map.of("k", "v"));
+
+        ProtocolMapperRepresentation obsolete = pm("obsolete");
+        obsolete.setId("obsolete-id");
+
+        ProtocolMapperRepresentation importedUnchanged = pm("unchanged");
+        importedUnchanged.setConfig(Map.of("k", "v"));
+
+        ProtocolMapperRepresentation importedChanged = pm("changed");
+        importedChanged.setProtocolMapper("oidc-audience-mapper");
+        importedChanged.setConfig(Map.of("k", "other"));
+
+        ProtocolMapperRepresentation added = pm("added");
+
+        var diff = ProtocolMapperUtil.diffProtocolMappers(
+                List.of(importedUnchanged, importedChanged, added), List.of(unchanged, changed, obsolete)
+        );
+
+        assertThat(diff.getToAdd(), contains(added));
+        assertThat(diff.getToRemove(), contains(obsolete));
+        assertThat(diff.getToUpdate().size(), is(1));
+        assertThat(diff.getToUpdate().get(0).getId(), is("changed-id"));
+        assertThat(diff.getToUpdate().get(0).getConfig(), is(Map.of("k", "other")));
+    }
+
+    @Test
+    void diffProtocolMappers_shouldRecreateMapperWhenTypeChanged() {
+        ProtocolMapperRepresentation existing = pm("a");
+        existing.setId("a-id");
+        existing.setProtocolMapper("oidc-audience-mapper");
+
+        ProtocolMapperRepresentation imported = pm("a");
+        imported.setProtocolMapper("oidc-hardcoded-claim-mapper");
+
+        var diff = ProtocolMapperUtil.diffProtocolMappers(List.of(imported), List.of(existing));
+
+        assertThat(diff.getToRemove(), contains(existing));
+        assertThat(diff.getToAdd(), contains(imported));
+        assertThat(diff.getToUpdate(), is(empty()));
+    }
+
+    @Test
+    void diffProtocolMappers_shouldBeEmptyWhenNothingChanged() {
+        ProtocolMapperRepresentation existing = pm("a");
+        existing.setId("a-id");
+
+        assertThat(ProtocolMapperUtil.diffProtocolMappers(List.of(pm("a")), List.of(existing)).isEmpty(), is(true));
+        assertThat(ProtocolMapperUtil.diffProtocolMappers(null, null).isEmpty(), is(true));
+    }
 }